@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.sun.javafx.collections;
+
+import javafx.collections.ObservableList;
+
+/**
+ * BatchableList is an ObservableList that can collect any number of modifications
+ * into a single change notification. Modifications done between {@link #beginBatch()}
+ * and the matching {@link #endBatch()} are combined by the list's change builder and
+ * reported to the listeners only once, when the outermost batch ends.
+ * @param <E>
+ */
+public interface BatchableList<E> extends ObservableList<E> {
+
+    /**
+     * Starts a batch. Batches can be nested; the change is fired when
+     * the outermost batch ends.
+     */
+    public void beginBatch();
+
+    /**
+     * Ends a batch started with {@link #beginBatch()}.
+     * @throws IllegalStateException if there is no batch in progress
+     */
+    public void endBatch();
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.collections;
+
+import com.sun.javafx.collections.NonIterableChange.GenericAddRemoveChange;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import javafx.collections.ObservableDoubleList;
+import javafx.collections.ObservableListBase;
+
+/**
+ * ObservableDoubleList default implementation.
+ *
+ * Operations on single elements are reported through the change builder of
+ * ObservableListBase, so that they can be combined by removeAll/retainAll.
+ * Bulk operations fire their change directly, with the removed values kept
+ * in a double[] copy that is boxed lazily. Inside a batch they are reported
+ * through the change builder as well, so that the whole batch is fired
+ * as a single change.
+ */
+public final class ObservableDoubleListImpl extends ObservableListBase<Double>
+        implements ObservableDoubleList, BatchableList<Double>, RandomAccess {
+
+    private static final double[] INITIAL = new double[0];
+
+    private double[] array = INITIAL;
+    private int size = 0;
+    private int batchDepth = 0;
+
+    /**
+     * Creates empty observable double list
+     */
+    public ObservableDoubleListImpl() {
+    }
+
+    /**
+     * Creates observable double list with copy of given initial values
+     * @param elements initial values to copy to observable double list
+     */
+    public ObservableDoubleListImpl(double... elements) {
+        array = elements.clone();
+        size = elements.length;
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        rangeCheck(index);
+        return array[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Double set(int index, Double element) {
+        return setDouble(index, element);
+    }
+
+    @Override
+    public double setDouble(int index, double value) {
+        rangeCheck(index);
+        double old = array[index];
+        array[index] = value;
+        beginChange();
+        nextSet(index, old);
+        endChange();
+        return old;
+    }
+
+    @Override
+    public void add(int index, Double element) {
+        insert(index, element);
+    }
+
+    @Override
+    public void addDouble(double value) {
+        insert(size, value);
+    }
+
+    private void insert(int index, double value) {
+        rangeCheckForAdd(index);
+        makeRoom(index, 1);
+        array[index] = value;
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    @Override
+    public Double remove(int index) {
+        rangeCheck(index);
+        double old = array[index];
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        --size;
+        ++modCount;
+        beginChange();
+        nextRemove(index, old);
+        endChange();
+        return old;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Double> c) {
+        return addAll(size, c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Double> c) {
+        double[] values = toPrimitive(c);
+        addAll(index, values, 0, values.length);
+        return values.length != 0;
+    }
+
+    @Override
+    public void addAll(double[] src, int srcIndex, int length) {
+        addAll(size, src, srcIndex, length);
+    }
+
+    @Override
+    public void addAll(int index, double[] src, int srcIndex, int length) {
+        rangeCheckForAdd(index);
+        rangeCheck(src.length, srcIndex, length);
+        if (length == 0) {
+            return;
+        }
+        makeRoom(index, length);
+        System.arraycopy(src, srcIndex, array, index, length);
+        if (hasListeners()) {
+            fireBulkChange(index, index + length, Collections.<Double>emptyList());
+        }
+    }
+
+    @Override
+    public boolean setAll(Collection<? extends Double> col) {
+        double[] values = toPrimitive(col);
+        if (size == 0 && values.length == 0) {
+            return false;
+        }
+        setAll(values, 0, values.length);
+        return true;
+    }
+
+    @Override
+    public void setAll(double[] src, int srcIndex, int length) {
+        rangeCheck(src.length, srcIndex, length);
+        if (size == 0 && length == 0) {
+            return;
+        }
+        List<Double> removed = hasListeners() ? removedList(0, size) : null;
+        if (array.length < length) {
+            array = new double[length];
+        }
+        System.arraycopy(src, srcIndex, array, 0, length);
+        size = length;
+        ++modCount;
+        if (removed != null) {
+            fireBulkChange(0, length, removed);
+        }
+    }
+
+    @Override
+    public void set(int destIndex, double[] src, int srcIndex, int length) {
+        rangeCheck(size, destIndex, length);
+        rangeCheck(src.length, srcIndex, length);
+        if (length == 0) {
+            return;
+        }
+        List<Double> removed = hasListeners() ? removedList(destIndex, destIndex + length) : null;
+        System.arraycopy(src, srcIndex, array, destIndex, length);
+        if (removed != null) {
+            fireBulkChange(destIndex, destIndex + length, removed);
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size);
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+        List<Double> removed = hasListeners() ? removedList(fromIndex, toIndex) : null;
+        System.arraycopy(array, toIndex, array, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        ++modCount;
+        if (removed != null) {
+            fireBulkChange(fromIndex, fromIndex, removed);
+        }
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, size);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        beginChange();
+        try {
+            return super.removeAll(c);
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        beginChange();
+        try {
+            return super.retainAll(c);
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        ++batchDepth;
+        beginChange();
+    }
+
+    @Override
+    public void endBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("Called endBatch before beginBatch");
+        }
+        --batchDepth;
+        endChange();
+    }
+
+    @Override
+    public void copyTo(int srcIndex, double[] dest, int destIndex, int length) {
+        rangeCheck(size, srcIndex, length);
+        System.arraycopy(array, srcIndex, dest, destIndex, length);
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+        return Arrays.copyOf(array, size);
+    }
+
+    private void makeRoom(int index, int length) {
+        if (array.length < size + length) {
+            int newLength = Math.max(size + length, array.length * 3 / 2 + 1);
+            double[] replacement = new double[newLength];
+            System.arraycopy(array, 0, replacement, 0, index);
+            System.arraycopy(array, index, replacement, index + length, size - index);
+            array = replacement;
+        } else {
+            System.arraycopy(array, index, array, index + length, size - index);
+        }
+        size += length;
+        ++modCount;
+    }
+
+    private void fireBulkChange(int from, int to, List<Double> removed) {
+        if (batchDepth == 0) {
+            fireChange(new GenericAddRemoveChange<>(from, to, removed, this));
+            return;
+        }
+        beginChange();
+        if (!removed.isEmpty()) {
+            nextRemove(from, removed);
+        }
+        if (from != to) {
+            nextAdd(from, to);
+        }
+        endChange();
+    }
+
+    private List<Double> removedList(int fromIndex, int toIndex) {
+        return new RemovedDoubles(Arrays.copyOfRange(array, fromIndex, toIndex));
+    }
+
+    private static double[] toPrimitive(Collection<? extends Double> c) {
+        if (c instanceof ObservableDoubleList) {
+            return ((ObservableDoubleList) c).toDoubleArray();
+        }
+        double[] values = new double[c.size()];
+        int i = 0;
+        for (Double value : c) {
+            values[i++] = value;
+        }
+        return values;
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void rangeCheckForAdd(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static void rangeCheck(int arrayLength, int index, int length) {
+        if (index < 0 || length < 0 || index + length > arrayLength) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length
+                    + ", Size: " + arrayLength);
+        }
+    }
+
+    /**
+     * Unmodifiable view of removed values that boxes them on access.
+     */
+    private static final class RemovedDoubles extends AbstractList<Double> implements RandomAccess {
+        private final double[] values;
+
+        RemovedDoubles(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Double get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,7 +26,6 @@
 package com.sun.javafx.collections;
 
 import javafx.collections.ModifiableObservableListBase;
-import com.sun.javafx.collections.NonIterableChange.SimplePermutationChange;
 
 import java.util.BitSet;
 import java.util.Collection;
@@ -43,7 +42,7 @@ import javafx.util.Callback;
  *
  */
 public class ObservableListWrapper<E> extends ModifiableObservableListBase<E> implements
-        ObservableList<E>, SortableList<E>, RandomAccess {
+        ObservableList<E>, SortableList<E>, BatchableList<E>, RandomAccess {
 
     private final List<E> backingList;
 
@@ -214,7 +213,9 @@ public class ObservableListWrapper<E> extends ModifiableObservableListBase<E> im
             return;
         }
         int[] perm = getSortHelper().sort((List<? extends Comparable>)backingList);
-        fireChange(new SimplePermutationChange<E>(0, size(), perm, this));
+        beginChange();
+        nextPermutation(0, size(), perm);
+        endChange();
     }
 
     @Override
@@ -223,7 +224,19 @@ public class ObservableListWrapper<E> extends ModifiableObservableListBase<E> im
             return;
         }
         int[] perm = getSortHelper().sort(backingList, comparator);
-        fireChange(new SimplePermutationChange<E>(0, size(), perm, this));
+        beginChange();
+        nextPermutation(0, size(), perm);
+        endChange();
+    }
+
+    @Override
+    public void beginBatch() {
+        beginChange();
+    }
+
+    @Override
+    public void endBatch() {
+        endChange();
     }
 
     private SortHelper getSortHelper() {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -30,6 +30,8 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Helper class that contains algorithms taken from JDK that additionally
@@ -41,6 +43,12 @@ public class SortHelper {
 
     private static final int INSERTIONSORT_THRESHOLD = 7;
 
+    /**
+     * Ranges smaller than this are sorted sequentially by
+     * {@link #parallelSort(Object[], int, int, Comparator)}.
+     */
+    private static final int PARALLEL_SORT_GRANULARITY = 1 << 13;
+
     public <T extends Comparable<? super T>> int[] sort(List<T> list) {
         T[] a = (T[]) Array.newInstance(Comparable.class, list.size());
         try {
@@ -99,6 +107,23 @@ public class SortHelper {
         return Arrays.copyOfRange(result, fromIndex, toIndex);
     }
 
+    /**
+     * Sorts the given range like {@link #sort(Object[], int, int, Comparator)},
+     * but sorts the halves of large ranges concurrently in the common
+     * {@link ForkJoinPool}. The comparator must be thread-safe.
+     */
+    public <T> int[] parallelSort(T[] a, int fromIndex, int toIndex,
+                Comparator<? super T> c) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        T[] aux = (T[])copyOfRange(a, fromIndex, toIndex);
+        int[] result = initPermutation(a.length);
+        ForkJoinPool.commonPool().invoke(
+                new MergeSortTask(aux, a, fromIndex, toIndex, -fromIndex, c));
+        reversePermutation = null;
+        permutation = null;
+        return Arrays.copyOfRange(result, fromIndex, toIndex);
+    }
+
     public int[] sort(int[] a, int fromIndex, int toIndex) {
         rangeCheck(a.length, fromIndex, toIndex);
         int[] aux = (int[])copyOfRange(a, fromIndex, toIndex);
@@ -271,10 +296,21 @@ public class SortHelper {
         mergeSort(dest, src, low, mid, -off, c);
         mergeSort(dest, src, mid, high, -off, c);
 
+        merge(src, dest, destLow, destHigh, low, mid, high, c);
+    }
+
+    /**
+     * Merges the sorted halves src[low, mid) and src[mid, high) into
+     * dest[destLow, destHigh), tracking the permutation.
+     */
+    private void merge(Object[] src, Object[] dest,
+                  int destLow, int destHigh,
+                  int low, int mid, int high,
+                  Comparator c) {
         // If list is already sorted, just copy from src to dest.  This is an
         // optimization that results in faster sorts for nearly ordered lists.
         if (c.compare(src[mid-1], src[mid]) <= 0) {
-           System.arraycopy(src, low, dest, destLow, length);
+           System.arraycopy(src, low, dest, destLow, high - low);
            return;
         }
 
@@ -294,6 +330,45 @@ public class SortHelper {
         }
     }
 
+    /**
+     * Merge sort that sorts the halves of large ranges concurrently. Every
+     * task only reads and writes the elements and the permutation entries
+     * within its own range, so the halves are independent of each other.
+     */
+    private final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] src;
+        private final Object[] dest;
+        private final int low;
+        private final int high;
+        private final int off;
+        private final transient Comparator c;
+
+        MergeSortTask(Object[] src, Object[] dest, int low, int high, int off, Comparator c) {
+            this.src = src;
+            this.dest = dest;
+            this.low = low;
+            this.high = high;
+            this.off = off;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low < PARALLEL_SORT_GRANULARITY) {
+                mergeSort(src, dest, low, high, off, c);
+                return;
+            }
+            int srcLow = low + off;
+            int srcHigh = high + off;
+            int mid = (srcLow + srcHigh) >>> 1;
+            invokeAll(new MergeSortTask(dest, src, srcLow, mid, -off, c),
+                    new MergeSortTask(dest, src, mid, srcHigh, -off, c));
+            merge(src, dest, low, high, srcLow, mid, srcHigh, c);
+        }
+    }
+
     private void swap(int[] x, int a, int b) {
         int t = x[a];
         x[a] = x[b];
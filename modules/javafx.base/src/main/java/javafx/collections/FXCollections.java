@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -25,6 +25,7 @@
 
 package javafx.collections;
 
+import com.sun.javafx.collections.BatchableList;
 import com.sun.javafx.collections.ListListenerHelper;
 import com.sun.javafx.collections.MapListenerHelper;
 import com.sun.javafx.collections.SetListenerHelper;
@@ -53,8 +54,10 @@ import com.sun.javafx.collections.ObservableListWrapper;
 import com.sun.javafx.collections.ObservableMapWrapper;
 import com.sun.javafx.collections.ObservableSetWrapper;
 import com.sun.javafx.collections.MapAdapterChange;
+import com.sun.javafx.collections.ObservableDoubleListImpl;
 import com.sun.javafx.collections.ObservableFloatArrayImpl;
 import com.sun.javafx.collections.ObservableIntegerArrayImpl;
+import com.sun.javafx.collections.ObservableLongListImpl;
 import com.sun.javafx.collections.ObservableSequentialListWrapper;
 import com.sun.javafx.collections.SetAdapterChange;
 import com.sun.javafx.collections.SortableList;
@@ -308,6 +311,44 @@ public class FXCollections {
         return new ObservableFloatArrayImpl(array);
     }
 
+    /**
+     * Creates a new empty observable double list.
+     * @return a newly created ObservableDoubleList
+     * @since 18
+     */
+    public static ObservableDoubleList observableDoubleList() {
+        return new ObservableDoubleListImpl();
+    }
+
+    /**
+     * Creates a new observable double list with {@code values} in it.
+     * @param values the values that will be in the new observable double list
+     * @return a newly created ObservableDoubleList
+     * @since 18
+     */
+    public static ObservableDoubleList observableDoubleList(double... values) {
+        return new ObservableDoubleListImpl(values);
+    }
+
+    /**
+     * Creates a new empty observable long list.
+     * @return a newly created ObservableLongList
+     * @since 18
+     */
+    public static ObservableLongList observableLongList() {
+        return new ObservableLongListImpl();
+    }
+
+    /**
+     * Creates a new observable long list with {@code values} in it.
+     * @param values the values that will be in the new observable long list
+     * @return a newly created ObservableLongList
+     * @since 18
+     */
+    public static ObservableLongList observableLongList(long... values) {
+        return new ObservableLongListImpl(values);
+    }
+
     /**
      * Creates a new empty observable list that is backed by an array list.
      * @see #observableList(java.util.List)
@@ -710,6 +751,56 @@ public class FXCollections {
         }
     }
 
+    /**
+     * Starts a batch of modifications on the provided observable list.
+     * All modifications done until the matching {@link #endChange(ObservableList)}
+     * are combined into <b>one</b> change notification, which is fired when
+     * the batch ends. Batches can be nested, in which case the notification is
+     * fired when the outermost batch ends.
+     * <p>
+     * The batch should always be ended in a {@code finally} block:
+     * <pre>{@code
+     * FXCollections.beginChange(list);
+     * try {
+     *     list.set(0, a);
+     *     list.add(b);
+     * } finally {
+     *     FXCollections.endChange(list);
+     * }
+     * }</pre>
+     * Batching is supported by the modifiable lists created by this class,
+     * i.e. by {@link #observableArrayList()}, {@link #observableList(java.util.List)},
+     * {@link #observableDoubleList()}, {@link #observableLongList()} and their variants.
+     * @param list the list to start the batch on
+     * @throws IllegalArgumentException if the list does not support batching
+     * @see #endChange(ObservableList)
+     * @since 18
+     */
+    public static void beginChange(ObservableList<?> list) {
+        batchableList(list).beginBatch();
+    }
+
+    /**
+     * Ends a batch of modifications started with {@link #beginChange(ObservableList)}.
+     * If this is the outermost batch, the collected modifications are fired
+     * as one change notification.
+     * @param list the list to end the batch on
+     * @throws IllegalArgumentException if the list does not support batching
+     * @throws IllegalStateException if there is no batch in progress on the list
+     * @see #beginChange(ObservableList)
+     * @since 18
+     */
+    public static void endChange(ObservableList<?> list) {
+        batchableList(list).endBatch();
+    }
+
+    private static BatchableList<?> batchableList(ObservableList<?> list) {
+        if (!(list instanceof BatchableList)) {
+            throw new IllegalArgumentException("List does not support batching: " + list.getClass().getName());
+        }
+        return (BatchableList<?>) list;
+    }
+
     private static class EmptyObservableList<E> extends AbstractList<E> implements ObservableList<E> {
 
         private static final ListIterator iterator = new ListIterator() {
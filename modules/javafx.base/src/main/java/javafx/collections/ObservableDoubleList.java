@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.collections;
+
+/**
+ * {@code ObservableDoubleList} is an {@link ObservableList} of {@code double} values
+ * that stores its elements in a {@code double[]} array. In addition to the boxed
+ * {@code List} methods, it provides methods to read and modify the elements
+ * without boxing them, including bulk operations that copy a range of a
+ * {@code double[]} array and fire a single change. Elements removed by bulk
+ * operations are only boxed when a listener reads them from the change.
+ * <p>
+ * This list does not permit {@code null} elements.
+ *
+ * @see FXCollections#observableDoubleList()
+ * @since 18
+ */
+public interface ObservableDoubleList extends ObservableList<Double> {
+
+    /**
+     * Gets the value at the specified position in this list without boxing it.
+     * @param index index of the value to get
+     * @return the value at the given index
+     * @throws IndexOutOfBoundsException if {@code index} is outside
+     * the list bounds
+     */
+    public double getDouble(int index);
+
+    /**
+     * Replaces the value at the specified position in this list without
+     * boxing it. Listeners are notified of the replacement.
+     * @param index index of the value to set
+     * @param value the new value
+     * @return the previous value at the given index
+     * @throws IndexOutOfBoundsException if {@code index} is outside
+     * the list bounds
+     */
+    public double setDouble(int index, double value);
+
+    /**
+     * Appends the given value to the end of this list without boxing it.
+     * @param value the value to append
+     */
+    public void addDouble(double value);
+
+    /**
+     * Appends a portion of the given array to the end of this list.
+     * Listeners are notified with a single change.
+     * @param src source array
+     * @param srcIndex starting position in source array
+     * @param length length of portion to append
+     * @throws IndexOutOfBoundsException if the portion is outside
+     * the bounds of {@code src}
+     */
+    public void addAll(double[] src, int srcIndex, int length);
+
+    /**
+     * Inserts a portion of the given array at the specified position in this
+     * list. Listeners are notified with a single change.
+     * @param index position at which the values are inserted
+     * @param src source array
+     * @param srcIndex starting position in source array
+     * @param length length of portion to insert
+     * @throws IndexOutOfBoundsException if {@code index} is outside
+     * the list bounds or the portion is outside the bounds of {@code src}
+     */
+    public void addAll(int index, double[] src, int srcIndex, int length);
+
+    /**
+     * Replaces the content of this list with a portion of the given array.
+     * Listeners are notified with a single change.
+     * @param src source array
+     * @param srcIndex starting position in source array
+     * @param length length of portion to copy
+     * @throws IndexOutOfBoundsException if the portion is outside
+     * the bounds of {@code src}
+     */
+    public void setAll(double[] src, int srcIndex, int length);
+
+    /**
+     * Replaces the values starting at the specified position in this list
+     * with a portion of the given array. Listeners are notified with a single
+     * change.
+     * @param destIndex starting position in this list
+     * @param src source array
+     * @param srcIndex starting position in source array
+     * @param length length of portion to copy
+     * @throws IndexOutOfBoundsException if the range is outside the list
+     * bounds or the portion is outside the bounds of {@code src}
+     */
+    public void set(int destIndex, double[] src, int srcIndex, int length);
+
+    /**
+     * Copies a portion of this list into the {@code dest} array.
+     * @param srcIndex starting position in this list
+     * @param dest destination array
+     * @param destIndex starting position in destination array
+     * @param length length of portion to copy
+     * @throws IndexOutOfBoundsException if the portion is outside the list
+     * bounds or the bounds of {@code dest}
+     */
+    public void copyTo(int srcIndex, double[] dest, int destIndex, int length);
+
+    /**
+     * Returns a new array containing the values of this list.
+     * @return a double array containing the values of this list
+     */
+    public double[] toDoubleArray();
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -32,6 +32,8 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Predicate;
 import javafx.beans.NamedArg;
 import javafx.beans.property.ObjectProperty;
@@ -43,6 +45,12 @@ import javafx.collections.ObservableList;
  * Wraps an ObservableList and filters its content using the provided Predicate.
  * All changes in the ObservableList are propagated immediately
  * to the FilteredList.
+ * <p>
+ * Setting a new predicate tests every element of the source list again. When
+ * the new predicate is known to match a subset or a superset of the elements
+ * matched by the current one, {@link #narrowPredicate(Predicate)} and
+ * {@link #widenPredicate(Predicate)} can be used instead, so that only the
+ * elements that can change their state are tested.
  *
  * @see TransformationList
  * @since JavaFX 8.0
@@ -55,6 +63,13 @@ public final class FilteredList<E> extends TransformationList<E, E>{
     private SortHelper helper;
     private static final Predicate ALWAYS_TRUE = t -> true;
 
+    private static final int REFILTER_ALL = 0;
+    private static final int REFILTER_NARROW = 1;
+    private static final int REFILTER_WIDEN = 2;
+
+    private int refilterMode = REFILTER_ALL;
+    private int parallelThreshold;
+
     /**
      * Constructs a new FilteredList wrapper around the source list.
      * The provided predicate will match the elements in the source list that will be visible.
@@ -125,6 +140,89 @@ public final class FilteredList<E> extends TransformationList<E, E>{
         predicateProperty().set(predicate);
     }
 
+    /**
+     * Sets a new predicate that matches a subset of the elements matched by
+     * the current predicate, as is the case when a search term gets longer.
+     * Only the elements that are currently in this list are tested against
+     * the new predicate, and only removals are reported to listeners.
+     * <p>
+     * The content of this list is undefined if the new predicate matches
+     * an element that is not matched by the current predicate.
+     *
+     * @param predicate the new predicate, or null to match all elements
+     * @throws RuntimeException if the predicate property is bound
+     * @see #setPredicate(Predicate)
+     * @since 18
+     */
+    public final void narrowPredicate(Predicate<? super E> predicate) {
+        setPredicate(predicate, REFILTER_NARROW);
+    }
+
+    /**
+     * Sets a new predicate that matches a superset of the elements matched by
+     * the current predicate, as is the case when a search term gets shorter.
+     * Only the elements of the source list that are currently filtered out are
+     * tested against the new predicate, and only additions are reported to
+     * listeners.
+     * <p>
+     * The content of this list is undefined if the new predicate does not
+     * match an element that is matched by the current predicate.
+     *
+     * @param predicate the new predicate, or null to match all elements
+     * @throws RuntimeException if the predicate property is bound
+     * @see #setPredicate(Predicate)
+     * @since 18
+     */
+    public final void widenPredicate(Predicate<? super E> predicate) {
+        setPredicate(predicate, REFILTER_WIDEN);
+    }
+
+    private void setPredicate(Predicate<? super E> predicate, int mode) {
+        refilterMode = mode;
+        try {
+            setPredicate(predicate);
+        } finally {
+            refilterMode = REFILTER_ALL;
+        }
+    }
+
+    /**
+     * Returns the minimum number of elements that have to be tested against
+     * a new predicate before they are tested in parallel.
+     *
+     * @return the parallel evaluation threshold, or 0 if the predicate is
+     * always evaluated on the calling thread
+     * @see #setParallelThreshold(int)
+     * @since 18
+     */
+    public final int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the minimum number of elements that have to be tested against a
+     * new predicate before they are tested in parallel, using the common
+     * {@link ForkJoinPool}. This only applies when the predicate changes;
+     * changes of the source list are always processed on the calling thread.
+     * <p>
+     * Parallel evaluation requires that the predicates set on this list are
+     * thread-safe and that the elements of the source list can be read
+     * concurrently by index, which is the case for lists created by
+     * {@link javafx.collections.FXCollections#observableArrayList()}.
+     * Listeners are always notified on the calling thread.
+     *
+     * @param threshold the parallel evaluation threshold, or 0 to always
+     * evaluate the predicate on the calling thread
+     * @throws IllegalArgumentException if the threshold is negative
+     * @since 18
+     */
+    public final void setParallelThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Negative threshold: " + threshold);
+        }
+        parallelThreshold = threshold;
+    }
+
     private Predicate<? super E> getPredicateImpl() {
         if (getPredicate() != null) {
             return getPredicate();
@@ -317,26 +415,173 @@ public final class FilteredList<E> extends TransformationList<E, E>{
         }
     }
 
-    @SuppressWarnings("unchecked")
     private void refilter() {
+        switch (refilterMode) {
+            case REFILTER_NARROW:
+                narrow();
+                break;
+            case REFILTER_WIDEN:
+                widen();
+                break;
+            default:
+                refilterAll();
+                break;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void refilterAll() {
         ensureSize(getSource().size());
         List<E> removed = null;
         if (hasListeners()) {
             removed = new ArrayList<>(this);
         }
         size = 0;
-        int i = 0;
         Predicate<? super E> pred = getPredicateImpl();
-        for (Iterator<? extends E> it = getSource().iterator();it.hasNext(); ) {
-            final E next = it.next();
-            if (pred.test(next)) {
-                filtered[size++] = i;
+        boolean[] matches = testInParallel(pred, null, getSource().size());
+        if (matches != null) {
+            for (int i = 0; i < matches.length; ++i) {
+                if (matches[i]) {
+                    filtered[size++] = i;
+                }
+            }
+        } else {
+            int i = 0;
+            for (Iterator<? extends E> it = getSource().iterator();it.hasNext(); ) {
+                final E next = it.next();
+                if (pred.test(next)) {
+                    filtered[size++] = i;
+                }
+                ++i;
             }
-            ++i;
         }
         if (hasListeners()) {
             fireChange(new GenericAddRemoveChange<>(0, size, removed, this));
         }
     }
 
+    private void narrow() {
+        final Predicate<? super E> pred = getPredicateImpl();
+        final ObservableList<? extends E> source = getSource();
+        final boolean[] matches = testInParallel(pred, filtered, size);
+        beginChange();
+        int newSize = 0;
+        for (int i = 0; i < size; ++i) {
+            final int sourceIndex = filtered[i];
+            if (matches != null) {
+                if (matches[i]) {
+                    filtered[newSize++] = sourceIndex;
+                } else {
+                    nextRemove(newSize, source.get(sourceIndex));
+                }
+            } else {
+                final E el = source.get(sourceIndex);
+                if (pred.test(el)) {
+                    filtered[newSize++] = sourceIndex;
+                } else {
+                    nextRemove(newSize, el);
+                }
+            }
+        }
+        size = newSize;
+        endChange();
+    }
+
+    private void widen() {
+        final Predicate<? super E> pred = getPredicateImpl();
+        final ObservableList<? extends E> source = getSource();
+        final int sourceSize = source.size();
+        final int[] visible = filtered;
+        final int visibleSize = size;
+
+        boolean[] matches = null;
+        if (parallelThreshold > 0 && sourceSize - visibleSize >= parallelThreshold) {
+            final int[] hidden = new int[sourceSize - visibleSize];
+            for (int i = 0, v = 0, h = 0; i < sourceSize; ++i) {
+                if (v < visibleSize && visible[v] == i) {
+                    ++v;
+                } else {
+                    hidden[h++] = i;
+                }
+            }
+            matches = testInParallel(pred, hidden, hidden.length);
+        }
+
+        filtered = new int[Math.max(visible.length, sourceSize)];
+        size = 0;
+        beginChange();
+        int v = 0;
+        for (ListIterator<? extends E> it = source.listIterator(); it.hasNext(); ) {
+            final int i = it.nextIndex();
+            final E el = it.next();
+            if (v < visibleSize && visible[v] == i) {
+                filtered[size++] = i;
+                ++v;
+            } else if (matches != null ? matches[i - v] : pred.test(el)) {
+                // the number of hidden elements before i is i - v
+                nextAdd(size, size + 1);
+                filtered[size++] = i;
+            }
+        }
+        endChange();
+    }
+
+    /**
+     * Tests the source elements at the given indices against the predicate
+     * in parallel, if there are enough of them.
+     *
+     * @param pred the predicate
+     * @param indices the source indices to test, or null to test the source
+     *        elements from 0 to count - 1
+     * @param count the number of elements to test
+     * @return the results of the tests, or null if the elements are to be
+     *         tested sequentially by the caller
+     */
+    private boolean[] testInParallel(Predicate<? super E> pred, int[] indices, int count) {
+        if (parallelThreshold == 0 || count < parallelThreshold) {
+            return null;
+        }
+        final boolean[] matches = new boolean[count];
+        final int granularity = Math.max(1, count / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        ForkJoinPool.commonPool().invoke(
+                new PredicateTask<>(getSource(), pred, indices, matches, 0, count, granularity));
+        return matches;
+    }
+
+    private static final class PredicateTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<? extends E> source;
+        private final transient Predicate<? super E> pred;
+        private final int[] indices;
+        private final boolean[] matches;
+        private final int from;
+        private final int to;
+        private final int granularity;
+
+        PredicateTask(List<? extends E> source, Predicate<? super E> pred, int[] indices,
+                boolean[] matches, int from, int to, int granularity) {
+            this.source = source;
+            this.pred = pred;
+            this.indices = indices;
+            this.matches = matches;
+            this.from = from;
+            this.to = to;
+            this.granularity = granularity;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= granularity) {
+                for (int i = from; i < to; ++i) {
+                    matches[i] = pred.test(source.get(indices == null ? i : indices[i]));
+                }
+            } else {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new PredicateTask<>(source, pred, indices, matches, from, mid, granularity),
+                        new PredicateTask<>(source, pred, indices, matches, mid, to, granularity));
+            }
+        }
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -47,6 +47,12 @@ import javafx.collections.ObservableList;
  *
  * Note: invalid SortedList (as a result of broken comparison) doesn't send any notification to listeners on becoming
  * valid again.
+ * <p>
+ * When several elements are added to the source list in a single change,
+ * they are sorted among themselves and merged into this list in one pass.
+ * Sorting the whole list, when the comparator changes or an element is
+ * updated, can be done in parallel for large lists, see
+ * {@link #setParallelThreshold(int)}.
  *
  * @see TransformationList
  * @since JavaFX 8.0
@@ -62,6 +68,8 @@ public final class SortedList<E> extends TransformationList<E, E>{
 
     private final Element<E> tempElement = new Element<>(null, -1);
 
+    private int parallelThreshold;
+
 
     /**
      * Creates a new SortedList wrapped around the source list.
@@ -155,6 +163,41 @@ public final class SortedList<E> extends TransformationList<E, E>{
         comparatorProperty().set(comparator);
     }
 
+    /**
+     * Returns the minimum size of this list at which it is sorted in
+     * parallel.
+     *
+     * @return the parallel sort threshold, or 0 if this list is always
+     * sorted on the calling thread
+     * @see #setParallelThreshold(int)
+     * @since 18
+     */
+    public final int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the minimum size of this list at which it is sorted in parallel,
+     * using the common {@link java.util.concurrent.ForkJoinPool}. This
+     * applies whenever the whole list has to be sorted, which is the case
+     * when the comparator changes or elements of the source list are
+     * updated.
+     * <p>
+     * Parallel sorting requires that the comparators set on this list are
+     * thread-safe. Listeners are always notified on the calling thread.
+     *
+     * @param threshold the parallel sort threshold, or 0 to always sort on
+     * the calling thread
+     * @throws IllegalArgumentException if the threshold is negative
+     * @since 18
+     */
+    public final void setParallelThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Negative threshold: " + threshold);
+        }
+        parallelThreshold = threshold;
+    }
+
     /**
      * Returns the element at the specified position in this list.
      *
@@ -182,7 +225,7 @@ public final class SortedList<E> extends TransformationList<E, E>{
 
     private void doSortWithPermutationChange() {
         if (elementComparator != null) {
-            int[] perm = helper.sort(sorted, 0, size, elementComparator);
+            int[] perm = sortMapping();
             for (int i = 0; i < size; i++) {
                 this.perm[sorted[i].index] = i;
             }
@@ -219,6 +262,13 @@ public final class SortedList<E> extends TransformationList<E, E>{
         }
     }
 
+    private int[] sortMapping() {
+        if (parallelThreshold > 0 && size >= parallelThreshold) {
+            return helper.parallelSort(sorted, 0, size, elementComparator);
+        }
+        return helper.sort(sorted, 0, size, elementComparator);
+    }
+
     @Override
     public int getSourceIndex(int index) {
         return sorted[index].index;
@@ -354,7 +404,7 @@ public final class SortedList<E> extends TransformationList<E, E>{
         for (int i = 0; i < to; ++i) {
             sorted[i] = new Element<E>(list.get(i), i);
         }
-        int[] perm = helper.sort(sorted, 0, size, elementComparator);
+        int[] perm = sortMapping();
         System.arraycopy(perm, 0, this.perm, 0, size);
         nextAdd(0, size);
     }
@@ -379,8 +429,60 @@ public final class SortedList<E> extends TransformationList<E, E>{
         nextRemove(0, removed);
     }
 
+    /**
+     * Inserts the elements added to the source list between from and to.
+     * The added elements are sorted and then merged with the current
+     * mapping in a single pass, instead of being inserted one by one, which
+     * would shift the mapping once for every added element.
+     */
+    @SuppressWarnings("unchecked")
+    private void mergeToMapping(List<? extends E> list, int from, int to) {
+        final int addedSize = to - from;
+        final Element<E>[] added = (Element<E>[]) new Element[addedSize];
+        for (int i = from; i < to; ++i) {
+            added[i - from] = new Element<>(list.get(i), i);
+        }
+        Arrays.sort(added, elementComparator);
+
+        for (int i = 0; i < size; ++i) {
+            if (sorted[i].index >= from) {
+                sorted[i].index += addedSize;
+            }
+        }
+
+        // merge from the end, so that the current elements can be moved in place
+        ensureSize(size + addedSize);
+        int i = size - 1;
+        int j = addedSize - 1;
+        for (int pos = size + addedSize - 1; j >= 0; --pos) {
+            if (i >= 0 && elementComparator.compare(sorted[i], added[j]) > 0) {
+                sorted[pos] = sorted[i--];
+            } else {
+                sorted[pos] = added[j--];
+            }
+        }
+        size += addedSize;
+
+        int addFrom = -1;
+        for (int pos = 0; pos < size; ++pos) {
+            final int index = sorted[pos].index;
+            perm[index] = pos;
+            if (index >= from && index < to) {
+                if (addFrom == -1) {
+                    addFrom = pos;
+                }
+            } else if (addFrom != -1) {
+                nextAdd(addFrom, pos);
+                addFrom = -1;
+            }
+        }
+        if (addFrom != -1) {
+            nextAdd(addFrom, size);
+        }
+    }
+
     private void update(Change<? extends E> c) {
-        int[] perm = helper.sort(sorted, 0, size, elementComparator);
+        int[] perm = sortMapping();
         for (int i = 0; i < size; i++) {
             this.perm[sorted[i].index] = i;
         }
@@ -401,6 +503,8 @@ public final class SortedList<E> extends TransformationList<E, E>{
         if (size == 0) {
             setAllToMapping(c.getList(), c.getTo()); // This is basically equivalent to getAddedSubList
                                                      // as size is 0, only valid "from" is also 0
+        } else if (c.getAddedSize() > 1) {
+            mergeToMapping(c.getList(), c.getFrom(), c.getTo());
         } else {
             for (int i = c.getFrom(), to = c.getTo(); i < to; ++i) {
                 insertToMapping(c.getList().get(i), i);
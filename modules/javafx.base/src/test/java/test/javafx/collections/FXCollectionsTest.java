@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -187,6 +187,85 @@ public class FXCollectionsTest {
         observer.check0();
     }
 
+    @Test
+    public void batchTest() {
+        ObservableList<String> seq = FXCollections.observableArrayList("a", "b", "c", "d", "e");
+        final MockListObserver<String> observer = new MockListObserver<String>();
+        seq.addListener(observer);
+        FXCollections.beginChange(seq);
+        try {
+            seq.set(1, "x");
+            seq.set(1, "y");
+            seq.set(3, "z");
+            seq.set(2, "w");
+            seq.add("f");
+            seq.remove(5);
+            observer.check0();
+        } finally {
+            FXCollections.endChange(seq);
+        }
+        assertEquals(Arrays.asList("a", "y", "w", "z", "e"), seq);
+        observer.check1AddRemove(seq, Arrays.asList("b", "c", "d"), 1, 4);
+    }
+
+    @Test
+    public void batchTest_nested() {
+        ObservableList<String> seq = FXCollections.observableList(new LinkedList<>(Arrays.asList("a", "b", "c", "d")));
+        final MockListObserver<String> observer = new MockListObserver<String>();
+        seq.addListener(observer);
+        FXCollections.beginChange(seq);
+        seq.set(0, "x");
+        FXCollections.beginChange(seq);
+        seq.set(3, "y");
+        FXCollections.endChange(seq);
+        observer.check0();
+        FXCollections.endChange(seq);
+        observer.checkN(2);
+        observer.checkAddRemove(0, seq, Arrays.asList("a"), 0, 1);
+        observer.checkAddRemove(1, seq, Arrays.asList("d"), 3, 4);
+    }
+
+    @Test
+    public void batchTest_sort() {
+        ObservableList<String> seq = FXCollections.observableArrayList("c", "a", "d");
+        final MockListObserver<String> observer = new MockListObserver<String>();
+        seq.addListener(observer);
+        FXCollections.beginChange(seq);
+        seq.add("b");
+        FXCollections.sort(seq);
+        seq.remove("d");
+        FXCollections.endChange(seq);
+        assertEquals(Arrays.asList("a", "b", "c"), seq);
+        observer.checkN(3);
+        observer.checkPermutation(0, seq, 0, 3, new int[] {1, 0, 2});
+        observer.checkAddRemove(1, seq, Collections.emptyList(), 1, 2);
+        observer.checkAddRemove(2, seq, Arrays.asList("d"), 3, 3);
+    }
+
+    @Test
+    public void batchTest_doubleList() {
+        ObservableList<Double> seq = FXCollections.observableDoubleList(1, 2, 3);
+        final MockListObserver<Double> observer = new MockListObserver<Double>();
+        seq.addListener(observer);
+        FXCollections.beginChange(seq);
+        seq.setAll(4.0, 5.0);
+        seq.add(6.0);
+        seq.set(0, 7.0);
+        FXCollections.endChange(seq);
+        assertEquals(Arrays.asList(7.0, 5.0, 6.0), seq);
+        observer.check1AddRemove(seq, Arrays.asList(1.0, 2.0, 3.0), 0, 3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void batchTest_endWithoutBegin() {
+        FXCollections.endChange(FXCollections.observableArrayList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchTest_unsupportedList() {
+        FXCollections.beginChange(FXCollections.unmodifiableObservableList(FXCollections.observableArrayList()));
+    }
+
     private void doSort(ObservableList<String> seq, boolean permutation) {
         final MockListObserver<String> observer = new MockListObserver<String>();
         seq.addListener(observer);
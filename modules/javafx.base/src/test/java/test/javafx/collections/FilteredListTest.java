@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,6 +26,7 @@
 package test.javafx.collections;
 
 import com.sun.javafx.collections.ObservableListWrapper;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -306,4 +307,126 @@ public class FilteredListTest {
         assertEquals(list, filteredList);
         compareIndices();
     }
+
+    @Test
+    public void testNarrowPredicate() {
+        list.setAll("a", "ab", "abc", "b", "abd", "ac");
+        filteredList.setPredicate(e -> e.startsWith("a"));
+        mlo.clear();
+
+        filteredList.narrowPredicate(e -> e.startsWith("ab"));
+        assertEquals(Arrays.asList("ab", "abc", "abd"), filteredList);
+        mlo.checkN(2);
+        mlo.checkAddRemove(0, filteredList, Arrays.asList("a"), 0, 0);
+        mlo.checkAddRemove(1, filteredList, Arrays.asList("ac"), 3, 3);
+        compareIndices();
+
+        mlo.clear();
+        filteredList.narrowPredicate(e -> e.startsWith("abc"));
+        assertEquals(Arrays.asList("abc"), filteredList);
+        mlo.checkN(2);
+        mlo.checkAddRemove(0, filteredList, Arrays.asList("ab"), 0, 0);
+        mlo.checkAddRemove(1, filteredList, Arrays.asList("abd"), 1, 1);
+        compareIndices();
+    }
+
+    @Test
+    public void testWidenPredicate() {
+        list.setAll("a", "ab", "abc", "b", "abd", "ac");
+        filteredList.setPredicate(e -> e.startsWith("abc"));
+        mlo.clear();
+
+        filteredList.widenPredicate(e -> e.startsWith("ab"));
+        assertEquals(Arrays.asList("ab", "abc", "abd"), filteredList);
+        mlo.checkN(2);
+        mlo.checkAddRemove(0, filteredList, Collections.<String>emptyList(), 0, 1);
+        mlo.checkAddRemove(1, filteredList, Collections.<String>emptyList(), 2, 3);
+        compareIndices();
+
+        mlo.clear();
+        filteredList.widenPredicate(null);
+        assertEquals(list, filteredList);
+        mlo.checkN(3);
+        mlo.checkAddRemove(0, filteredList, Collections.<String>emptyList(), 0, 1);
+        mlo.checkAddRemove(1, filteredList, Collections.<String>emptyList(), 3, 4);
+        mlo.checkAddRemove(2, filteredList, Collections.<String>emptyList(), 5, 6);
+        compareIndices();
+    }
+
+    @Test
+    public void testNarrowAndWidenThenSourceChange() {
+        list.setAll("a", "ab", "abc", "b", "abd", "ac");
+        filteredList.setPredicate(e -> e.startsWith("a"));
+        filteredList.narrowPredicate(e -> e.startsWith("ab"));
+        filteredList.widenPredicate(e -> e.length() == 3 || e.startsWith("a"));
+        assertEquals(Arrays.asList("a", "ab", "abc", "abd", "ac"), filteredList);
+        mlo.clear();
+
+        list.add(3, "abe");
+        list.remove("a");
+        assertEquals(Arrays.asList("ab", "abc", "abe", "abd", "ac"), filteredList);
+        compareIndices();
+
+        filteredList.setPredicate(e -> e.startsWith("abd"));
+        assertEquals(Arrays.asList("abd"), filteredList);
+        compareIndices();
+    }
+
+    @Test
+    public void testNarrowPredicateWhenBound() {
+        ObjectProperty<Predicate<String>> pProperty = new SimpleObjectProperty<>();
+        filteredList.predicateProperty().bind(pProperty);
+        try {
+            filteredList.narrowPredicate(e -> false);
+            fail("Expected a RuntimeException");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        pProperty.set(e -> e.equals("c"));
+        assertEquals(Arrays.asList("c", "c"), filteredList);
+        compareIndices();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeParallelThreshold() {
+        filteredList.setParallelThreshold(-1);
+    }
+
+    @Test
+    public void testParallelRefilter() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            values.add(i);
+        }
+        ObservableList<Integer> source = FXCollections.observableArrayList(values);
+        FilteredList<Integer> filtered = new FilteredList<>(source);
+        filtered.setParallelThreshold(100);
+        assertEquals(100, filtered.getParallelThreshold());
+        MockListObserver<Integer> lo = new MockListObserver<>();
+        filtered.addListener(lo);
+
+        filtered.setPredicate(i -> i % 2 == 0);
+        assertEquals(5000, filtered.size());
+        lo.check1();
+        compareIndices(filtered);
+
+        lo.clear();
+        filtered.narrowPredicate(i -> i % 4 == 0);
+        assertEquals(2500, filtered.size());
+        for (int i = 0; i < filtered.size(); i++) {
+            assertEquals(i * 4, filtered.get(i).intValue());
+        }
+        lo.checkN(2500);
+        compareIndices(filtered);
+
+        lo.clear();
+        filtered.widenPredicate(i -> i % 4 == 0 || i < 10);
+        assertEquals(2507, filtered.size());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 12), filtered.subList(0, 11));
+        lo.checkN(3);
+        lo.checkAddRemove(0, filtered, Collections.<Integer>emptyList(), 1, 4);
+        lo.checkAddRemove(1, filtered, Collections.<Integer>emptyList(), 5, 8);
+        lo.checkAddRemove(2, filtered, Collections.<Integer>emptyList(), 9, 10);
+        compareIndices(filtered);
+    }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.collections;
+
+import java.util.Arrays;
+import java.util.Collections;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableDoubleList;
+import javafx.collections.ObservableLongList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for ObservableDoubleList and ObservableLongList.
+ */
+public class ObservablePrimitiveListTest {
+
+    private ObservableDoubleList list;
+    private MockListObserver<Double> observer;
+
+    @Before
+    public void setUp() {
+        list = FXCollections.observableDoubleList(1, 2, 3, 4);
+        observer = new MockListObserver<>();
+        list.addListener(observer);
+    }
+
+    @Test
+    public void testInitialContent() {
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0, 4.0), list);
+        assertEquals(4, list.size());
+        assertEquals(3.0, list.getDouble(2), 0);
+        assertArrayEquals(new double[] {1, 2, 3, 4}, list.toDoubleArray(), 0);
+        observer.check0();
+    }
+
+    @Test
+    public void testInitialContentIsCopied() {
+        double[] values = {1, 2};
+        ObservableDoubleList copy = FXCollections.observableDoubleList(values);
+        values[0] = 5;
+        assertEquals(1.0, copy.getDouble(0), 0);
+    }
+
+    @Test
+    public void testSetDouble() {
+        assertEquals(2.0, list.setDouble(1, 7), 0);
+        assertEquals(Arrays.asList(1.0, 7.0, 3.0, 4.0), list);
+        observer.check1AddRemove(list, Arrays.asList(2.0), 1, 2);
+    }
+
+    @Test
+    public void testBoxedSetAndGet() {
+        assertEquals(Double.valueOf(4), list.set(3, 8.0));
+        assertEquals(Double.valueOf(8), list.get(3));
+        observer.check1AddRemove(list, Arrays.asList(4.0), 3, 4);
+    }
+
+    @Test
+    public void testAddDouble() {
+        list.addDouble(5);
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0, 4.0, 5.0), list);
+        observer.check1AddRemove(list, Collections.<Double>emptyList(), 4, 5);
+    }
+
+    @Test
+    public void testAddAndRemoveBoxed() {
+        list.add(0, 0.5);
+        observer.check1AddRemove(list, Collections.<Double>emptyList(), 0, 1);
+        observer.clear();
+        assertEquals(Double.valueOf(2), list.remove(2));
+        observer.check1AddRemove(list, Arrays.asList(2.0), 2, 2);
+        assertEquals(Arrays.asList(0.5, 1.0, 3.0, 4.0), list);
+    }
+
+    @Test
+    public void testAddAllArray() {
+        list.addAll(new double[] {9, 10, 11, 12}, 1, 2);
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0, 4.0, 10.0, 11.0), list);
+        observer.check1AddRemove(list, Collections.<Double>emptyList(), 4, 6);
+    }
+
+    @Test
+    public void testInsertArray() {
+        list.addAll(1, new double[] {9, 10}, 0, 2);
+        assertEquals(Arrays.asList(1.0, 9.0, 10.0, 2.0, 3.0, 4.0), list);
+        observer.check1AddRemove(list, Collections.<Double>emptyList(), 1, 3);
+    }
+
+    @Test
+    public void testInsertArrayGrowsCapacity() {
+        double[] values = new double[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        list.addAll(2, values, 0, values.length);
+        assertEquals(104, list.size());
+        assertEquals(2.0, list.getDouble(1), 0);
+        assertEquals(0.0, list.getDouble(2), 0);
+        assertEquals(99.0, list.getDouble(101), 0);
+        assertEquals(3.0, list.getDouble(102), 0);
+        observer.check1AddRemove(list, Collections.<Double>emptyList(), 2, 102);
+    }
+
+    @Test
+    public void testAddAllCollection() {
+        list.addAll(Arrays.asList(5.0, 6.0));
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0, 4.0, 5.0, 6.0), list);
+        observer.check1AddRemove(list, Collections.<Double>emptyList(), 4, 6);
+    }
+
+    @Test
+    public void testSetAllArray() {
+        list.setAll(new double[] {7, 8, 9}, 0, 3);
+        assertEquals(Arrays.asList(7.0, 8.0, 9.0), list);
+        observer.check1AddRemove(list, Arrays.asList(1.0, 2.0, 3.0, 4.0), 0, 3);
+    }
+
+    @Test
+    public void testSetAllCollection() {
+        assertTrue(list.setAll(Arrays.asList(7.0)));
+        assertEquals(Arrays.asList(7.0), list);
+        observer.check1AddRemove(list, Arrays.asList(1.0, 2.0, 3.0, 4.0), 0, 1);
+    }
+
+    @Test
+    public void testSetRange() {
+        list.set(1, new double[] {0, 20, 30}, 1, 2);
+        assertEquals(Arrays.asList(1.0, 20.0, 30.0, 4.0), list);
+        observer.check1AddRemove(list, Arrays.asList(2.0, 3.0), 1, 3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSetRangeOutOfBounds() {
+        list.set(3, new double[] {0, 20}, 0, 2);
+    }
+
+    @Test
+    public void testRemoveRange() {
+        list.remove(1, 3);
+        assertEquals(Arrays.asList(1.0, 4.0), list);
+        observer.check1AddRemove(list, Arrays.asList(2.0, 3.0), 1, 1);
+    }
+
+    @Test
+    public void testClear() {
+        list.clear();
+        assertTrue(list.isEmpty());
+        observer.check1AddRemove(list, Arrays.asList(1.0, 2.0, 3.0, 4.0), 0, 0);
+        observer.clear();
+        list.clear();
+        observer.check0();
+    }
+
+    @Test
+    public void testRemoveAllIsSingleChange() {
+        list.addAll(new double[] {2, 5}, 0, 2);
+        observer.clear();
+        list.removeAll(Arrays.asList(2.0, 4.0));
+        assertEquals(Arrays.asList(1.0, 3.0, 5.0), list);
+        observer.checkN(2);
+        observer.checkAddRemove(0, list, Arrays.asList(2.0), 1, 1);
+        observer.checkAddRemove(1, list, Arrays.asList(4.0, 2.0), 2, 2);
+    }
+
+    @Test
+    public void testCopyTo() {
+        double[] dest = new double[4];
+        list.copyTo(1, dest, 2, 2);
+        assertArrayEquals(new double[] {0, 0, 2, 3}, dest, 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetDoubleOutOfBounds() {
+        list.addAll(new double[] {5, 6, 7}, 0, 3);
+        list.remove(4, 7);
+        list.getDouble(4);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullElement() {
+        list.add(null);
+    }
+
+    @Test
+    public void testSubList() {
+        list.subList(1, 3).clear();
+        assertEquals(Arrays.asList(1.0, 4.0), list);
+        observer.check1AddRemove(list, Arrays.asList(2.0, 3.0), 1, 1);
+    }
+
+    @Test
+    public void testLongList() {
+        ObservableLongList longs = FXCollections.observableLongList(1, 2, 3);
+        MockListObserver<Long> longObserver = new MockListObserver<>();
+        longs.addListener(longObserver);
+
+        longs.addAll(1, new long[] {Long.MAX_VALUE, Long.MIN_VALUE}, 0, 2);
+        assertEquals(Arrays.asList(1L, Long.MAX_VALUE, Long.MIN_VALUE, 2L, 3L), longs);
+        assertEquals(Long.MIN_VALUE, longs.getLong(2));
+        longObserver.check1AddRemove(longs, Collections.<Long>emptyList(), 1, 3);
+
+        longObserver.clear();
+        assertEquals(3L, longs.setLong(4, 4));
+        longObserver.check1AddRemove(longs, Arrays.asList(3L), 4, 5);
+
+        longObserver.clear();
+        longs.remove(0, 2);
+        longObserver.check1AddRemove(longs, Arrays.asList(1L, Long.MAX_VALUE), 0, 0);
+        assertArrayEquals(new long[] {Long.MIN_VALUE, 2, 4}, longs.toLongArray());
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -595,4 +595,80 @@ public class SortedListTest {
         mockListObserver.check1Permutation(sortedList, new int[] {0, 3, 2, 1});
         compareIndices();
     }
+
+    @Test
+    public void testAddAllMergesIntoMapping() {
+        mockListObserver.clear();
+        list.addAll(2, Arrays.asList("e", "b", "c", "a0", "f"));
+        assertEquals(Arrays.asList("a", "a0", "b", "c", "c", "c", "d", "e", "f"), sortedList);
+        mockListObserver.checkN(3);
+        mockListObserver.checkAddRemove(0, sortedList, Collections.<String>emptyList(), 1, 3);
+        mockListObserver.checkAddRemove(1, sortedList, Collections.<String>emptyList(), 5, 6);
+        mockListObserver.checkAddRemove(2, sortedList, Collections.<String>emptyList(), 7, 9);
+        compareIndices();
+
+        mockListObserver.clear();
+        list.removeAll("c", "e");
+        assertEquals(Arrays.asList("a", "a0", "b", "d", "f"), sortedList);
+        compareIndices();
+    }
+
+    @Test
+    public void testAddAllLargeRunIntoLargeList() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i * 2);
+        }
+        ObservableList<Integer> source = FXCollections.observableArrayList(values);
+        SortedList<Integer> sorted = new SortedList<>(source, Comparator.reverseOrder());
+        MockListObserver<Integer> observer = new MockListObserver<>();
+        sorted.addListener(observer);
+
+        List<Integer> added = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            added.add(i * 4 + 1);
+        }
+        Collections.shuffle(added);
+        source.addAll(300, added);
+
+        List<Integer> expected = new ArrayList<>(source);
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(expected, sorted);
+        observer.checkN(500);
+        compareIndices(sorted);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeParallelThreshold() {
+        sortedList.setParallelThreshold(-1);
+    }
+
+    @Test
+    public void testParallelSort() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            values.add((i * 7919) % 50000);
+        }
+        ObservableList<Integer> source = FXCollections.observableArrayList(values);
+        SortedList<Integer> sorted = new SortedList<>(source);
+        sorted.setParallelThreshold(1000);
+        assertEquals(1000, sorted.getParallelThreshold());
+        MockListObserver<Integer> observer = new MockListObserver<>();
+        sorted.addListener(observer);
+
+        sorted.setComparator(Comparator.naturalOrder());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i, sorted.get(i).intValue());
+        }
+        observer.check1();
+        compareIndices(sorted);
+
+        observer.clear();
+        sorted.setComparator(Comparator.reverseOrder());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.size() - 1 - i, sorted.get(i).intValue());
+        }
+        observer.check1();
+        compareIndices(sorted);
+    }
 }
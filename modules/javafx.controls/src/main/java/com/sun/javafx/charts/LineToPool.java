@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.charts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.PathElement;
+
+/**
+ * Hands out the {@link LineTo} elements of a path again when the path is
+ * rebuilt, updating their coordinates, so that a chart that is laid out on
+ * every pulse does not create a new element, and its properties, for every
+ * point of every series each time.
+ */
+public final class LineToPool {
+    private final List<LineTo> free = new ArrayList<>();
+    private int next;
+
+    /**
+     * Makes the line segments among the given elements available for reuse.
+     * The elements are expected to be replaced by the elements obtained from
+     * this pool afterwards.
+     */
+    public void reset(List<? extends PathElement> elements) {
+        free.clear();
+        next = 0;
+        for (PathElement element : elements) {
+            if (element instanceof LineTo) {
+                free.add((LineTo) element);
+            }
+        }
+    }
+
+    /**
+     * Returns a line segment to the given point, reusing one if available.
+     */
+    public LineTo get(double x, double y) {
+        if (next < free.size()) {
+            final LineTo lineTo = free.get(next++);
+            lineTo.setX(x);
+            lineTo.setY(y);
+            return lineTo;
+        }
+        return new LineTo(x, y);
+    }
+
+    /**
+     * Releases the elements that were not reused.
+     */
+    public void clear() {
+        free.clear();
+        next = 0;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.charts;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.scene.shape.LineTo;
+
+/**
+ * Reduces a sequence of points in display coordinates, ordered by x, to at most
+ * four points per pixel column: the first, the lowest, the highest and the last
+ * point that fall into the column. A polyline through the reduced points covers
+ * the same pixels as a polyline through all of the points, but the number of
+ * path elements is bounded by the width of the plot area instead of by the
+ * number of data items.
+ */
+public final class PathDecimator {
+    private final List<LineTo> output;
+    private final LineToPool pool;
+
+    private double column;
+    private int count;
+
+    private double firstX, firstY;
+    private double lastX, lastY;
+    private double minX, minY;
+    private double maxX, maxY;
+    private int minIndex, maxIndex;
+
+    /**
+     * Creates a decimator that appends the reduced points to the given list.
+     */
+    public PathDecimator(List<LineTo> output) {
+        this(output, null);
+    }
+
+    /**
+     * Creates a decimator that appends the reduced points to the given list,
+     * taking their elements from the given pool if it is not null.
+     */
+    public PathDecimator(List<LineTo> output, LineToPool pool) {
+        this.output = output;
+        this.pool = pool;
+    }
+
+    /**
+     * Adds the next point. Points are expected in ascending x order; a point in
+     * a different pixel column than the previous one completes that column.
+     */
+    public void add(double x, double y) {
+        final double col = Math.floor(x);
+        if (count > 0 && col != column) {
+            flush();
+        }
+
+        if (count == 0) {
+            column = col;
+            firstX = minX = maxX = x;
+            firstY = minY = maxY = y;
+            minIndex = maxIndex = 0;
+        } else if (y < minY) {
+            minX = x;
+            minY = y;
+            minIndex = count;
+        } else if (y > maxY) {
+            maxX = x;
+            maxY = y;
+            maxIndex = count;
+        }
+        lastX = x;
+        lastY = y;
+        count++;
+    }
+
+    /**
+     * Emits the points of the current pixel column, if any.
+     */
+    public void flush() {
+        if (count == 0) return;
+
+        final int lastIndex = count - 1;
+        output.add(lineTo(firstX, firstY));
+        // the extremes are emitted in the order in which they occurred, unless
+        // they are the first or last point of the column
+        if (minIndex <= maxIndex) {
+            addExtreme(minIndex, lastIndex, minX, minY);
+            if (maxIndex != minIndex) addExtreme(maxIndex, lastIndex, maxX, maxY);
+        } else {
+            addExtreme(maxIndex, lastIndex, maxX, maxY);
+            addExtreme(minIndex, lastIndex, minX, minY);
+        }
+        if (lastIndex > 0) {
+            output.add(lineTo(lastX, lastY));
+        }
+        count = 0;
+    }
+
+    private void addExtreme(int index, int lastIndex, double x, double y) {
+        if (index != 0 && index != lastIndex) {
+            output.add(lineTo(x, y));
+        }
+    }
+
+    private LineTo lineTo(double x, double y) {
+        return pool != null ? pool.get(x, y) : new LineTo(x, y);
+    }
+
+    /**
+     * Reduces the given path, which must be sorted by x, in place.
+     */
+    public static void decimate(List<LineTo> path) {
+        final LineTo[] points = path.toArray(new LineTo[0]);
+        path.clear();
+        // the reduced points never outnumber the points read so far, so the
+        // elements can be reused before their coordinates are needed again
+        final LineToPool pool = new LineToPool();
+        pool.reset(Arrays.asList(points));
+        final PathDecimator decimator = new PathDecimator(path, pool);
+        for (LineTo point : points) {
+            decimator.add(point.getX(), point.getY());
+        }
+        decimator.flush();
+    }
+}
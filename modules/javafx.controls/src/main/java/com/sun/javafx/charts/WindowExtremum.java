@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.charts;
+
+/**
+ * Maintains the minimum or maximum of a window of values that slides forward,
+ * with values added at its end and evicted from its start. Each value is
+ * identified by its sequence number, which increases by one with every value
+ * added. Only the values that can still become the extreme are kept, in a
+ * monotonic queue, so adding and evicting take amortized constant time.
+ */
+public final class WindowExtremum {
+    private final boolean max;
+
+    private long[] sequences = new long[16];
+    private double[] values = new double[16];
+    private int head;
+    private int count;
+
+    /**
+     * Creates an instance that maintains the maximum if {@code max} is true,
+     * or the minimum otherwise.
+     */
+    public WindowExtremum(boolean max) {
+        this.max = max;
+    }
+
+    /**
+     * Adds the value with the given sequence number. NaN values are ignored.
+     */
+    public void add(long sequence, double value) {
+        if (Double.isNaN(value)) return;
+
+        // values that are superseded by the new one can never become the extreme
+        while (count > 0) {
+            final double last = values[index(count - 1)];
+            if (max ? last > value : last < value) break;
+            count--;
+        }
+        if (count == values.length) {
+            grow();
+        }
+        final int i = index(count++);
+        sequences[i] = sequence;
+        values[i] = value;
+    }
+
+    /**
+     * Evicts the values with a sequence number less than the given one.
+     */
+    public void evictBefore(long sequence) {
+        while (count > 0 && sequences[head] < sequence) {
+            head = index(1);
+            count--;
+        }
+    }
+
+    /**
+     * Returns the extreme of the values in the window, or negative infinity
+     * for the maximum and positive infinity for the minimum if there are none.
+     */
+    public double get() {
+        if (count == 0) {
+            return max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return values[head];
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    private int index(int offset) {
+        final int i = head + offset;
+        return i < values.length ? i : i - values.length;
+    }
+
+    private void grow() {
+        final long[] newSequences = new long[sequences.length * 2];
+        final double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < count; i++) {
+            newSequences[i] = sequences[index(i)];
+            newValues[i] = values[index(i)];
+        }
+        sequences = newSequences;
+        values = newValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.scene.control;
+
+import java.util.BitSet;
+
+/**
+ * A {@link BitSet} that can answer rank and select queries - that is, how many
+ * bits are set before a given bit, and which bit is the n-th set bit - in
+ * logarithmic time. This allows a set of selected indices to be exposed as a
+ * random-access list without materializing the list itself, which matters
+ * when e.g. all rows of a very large TableView are selected.
+ *
+ * The cardinality and the rank index are computed lazily, and are discarded
+ * whenever the bitset is modified. Consecutive modifications are therefore
+ * cheap, and the index is only rebuilt (in O(n / 64)) when it is next queried.
+ */
+public class RankedBitSet extends BitSet {
+
+    private static final long serialVersionUID = 1L;
+
+    // the number of set bits is recorded for every block of 2^BLOCK_SHIFT words
+    private static final int BLOCK_SHIFT = 4;
+
+    private transient long[] words;
+    private transient int[] blockCounts;
+    private transient int cardinality = -1;
+
+    public RankedBitSet() {
+    }
+
+    public RankedBitSet(int nbits) {
+        super(nbits);
+    }
+
+    /**
+     * Returns the number of set bits at indices lower than the given index.
+     */
+    public int rank(int bitIndex) {
+        if (bitIndex <= 0) return 0;
+
+        buildIndex();
+        final int wordIndex = bitIndex >> 6;
+        if (wordIndex >= words.length) {
+            return cardinality();
+        }
+
+        int count = blockCounts[wordIndex >> BLOCK_SHIFT];
+        for (int i = (wordIndex >> BLOCK_SHIFT) << BLOCK_SHIFT; i < wordIndex; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count + Long.bitCount(words[wordIndex] & ((1L << bitIndex) - 1));
+    }
+
+    /**
+     * Returns the index of the n-th (zero-based) set bit, or -1 if fewer than
+     * n + 1 bits are set.
+     */
+    public int select(int n) {
+        if (n < 0 || n >= cardinality()) return -1;
+
+        buildIndex();
+
+        // find the last block that starts with at most n set bits before it
+        int low = 0;
+        int high = blockCounts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blockCounts[mid] <= n) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        int remaining = n - blockCounts[low];
+        for (int i = low << BLOCK_SHIFT; i < words.length; i++) {
+            long word = words[i];
+            int count = Long.bitCount(word);
+            if (remaining < count) {
+                for (int j = 0; j < remaining; j++) {
+                    word &= word - 1;
+                }
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= count;
+        }
+        return -1;
+    }
+
+    private void buildIndex() {
+        if (words != null) return;
+
+        words = toLongArray();
+        blockCounts = new int[(words.length + (1 << BLOCK_SHIFT) - 1) >> BLOCK_SHIFT];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            if ((i & ((1 << BLOCK_SHIFT) - 1)) == 0) {
+                blockCounts[i >> BLOCK_SHIFT] = count;
+            }
+            count += Long.bitCount(words[i]);
+        }
+        cardinality = count;
+    }
+
+    private void invalidate() {
+        words = null;
+        blockCounts = null;
+        cardinality = -1;
+    }
+
+    @Override public int cardinality() {
+        if (cardinality < 0) {
+            cardinality = super.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Override public void set(int bitIndex) {
+        super.set(bitIndex);
+        invalidate();
+    }
+
+    @Override public void set(int bitIndex, boolean value) {
+        super.set(bitIndex, value);
+        invalidate();
+    }
+
+    @Override public void set(int fromIndex, int toIndex) {
+        super.set(fromIndex, toIndex);
+        invalidate();
+    }
+
+    @Override public void set(int fromIndex, int toIndex, boolean value) {
+        super.set(fromIndex, toIndex, value);
+        invalidate();
+    }
+
+    @Override public void clear(int bitIndex) {
+        super.clear(bitIndex);
+        invalidate();
+    }
+
+    @Override public void clear(int fromIndex, int toIndex) {
+        super.clear(fromIndex, toIndex);
+        invalidate();
+    }
+
+    @Override public void clear() {
+        super.clear();
+        invalidate();
+    }
+
+    @Override public void flip(int bitIndex) {
+        super.flip(bitIndex);
+        invalidate();
+    }
+
+    @Override public void flip(int fromIndex, int toIndex) {
+        super.flip(fromIndex, toIndex);
+        invalidate();
+    }
+
+    @Override public void and(BitSet set) {
+        super.and(set);
+        invalidate();
+    }
+
+    @Override public void or(BitSet set) {
+        super.or(set);
+        invalidate();
+    }
+
+    @Override public void xor(BitSet set) {
+        super.xor(set);
+        invalidate();
+    }
+
+    @Override public void andNot(BitSet set) {
+        super.andNot(set);
+        invalidate();
+    }
+
+    @Override public Object clone() {
+        RankedBitSet result = (RankedBitSet) super.clone();
+        result.invalidate();
+        return result;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,10 +24,10 @@
  */
 package com.sun.javafx.scene.control;
 
-import javafx.collections.FXCollections;
+import com.sun.javafx.collections.NonIterableChange;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableColumnBase;
 import javafx.scene.control.TablePositionBase;
 
 import java.util.*;
@@ -36,38 +36,49 @@ import java.util.*;
  * Implementation code used by the TableSelectionModel implementations. In short
  * this code exists to speed up some common use cases which were incredibly
  * slow in the old approach. The old approach essentially required a lot of
- * iterating through the selectedCells list. The new approach is to keep this
- * list for what it is good for (representing selection order primarily), and
- * introduce a Map<Integer, BitSet> to speed up the slow parts - namely looking
- * up whether a given row/column intersection is selected or not.
+ * iterating through the selectedCells list.
  *
- * Note that a map that contains an empty bitset is used to represent that the
- * row is selected.
+ * The selection is held as a set of selected rows per column (keyed by the
+ * column index, with -1 used for positions that do not refer to a column), and
+ * the sorted list of selected cells is a view over these sets. This means that
+ * looking up whether a given row/column intersection is selected is cheap, and
+ * that selecting a large range of cells (e.g. selectAll on a table with a
+ * million rows) does not require a TablePosition to be created and retained
+ * for every cell - positions in a range are created on demand, via
+ * {@link #createPosition(int, int, TableColumnBase)}. Positions that are added
+ * individually are retained as given.
  *
  * Refer to RT-33442 for more information on this issue.
  */
 // T == TablePosition<S,?>
 public abstract class SelectedCellsMap<T extends TablePositionBase> {
-    private final ObservableList<T> selectedCells;
-    private final ObservableList<T> sortedSelectedCells;
+    private final CellList sortedSelectedCells;
 
-    private final Map<Integer, BitSet> selectedCellBitSetMap;
+    private Cells cells;
 
     public SelectedCellsMap(final ListChangeListener<T> listener) {
-        selectedCells = FXCollections.<T>observableArrayList();
-        sortedSelectedCells = new SortedList<>(selectedCells, (T o1, T o2) -> {
-            int result = o1.getRow() - o2.getRow();
-            return result == 0 ? (o1.getColumn() - o2.getColumn()) : result;
-        });
+        cells = new Cells();
+        sortedSelectedCells = new CellList(null);
         sortedSelectedCells.addListener(listener);
-
-        selectedCellBitSetMap = new TreeMap<>((o1, o2) -> o1.compareTo(o2));
     }
 
     public abstract boolean isCellSelectionEnabled();
 
+    /**
+     * Creates the position of a cell that was selected as part of a range, see
+     * {@link #setAll(int, int, List)}. Like the positions that are added
+     * individually, the position must keep the column index and the column the
+     * cell had when it was selected, even if the columns have changed since.
+     *
+     * @param row the row of the cell
+     * @param column the column index of the cell when it was selected, or -1
+     * @param tableColumn the column at that index when the cell was selected,
+     *        or null if the column index is -1
+     */
+    protected abstract T createPosition(int row, int column, TableColumnBase<?,?> tableColumn);
+
     public int size() {
-        return selectedCells.size();
+        return cells.size;
     }
 
     public T get(int i) {
@@ -81,132 +92,113 @@ public abstract class SelectedCellsMap<T extends TablePositionBase> {
         final int row = tp.getRow();
         final int columnIndex = tp.getColumn();
 
-        // update the bitset map
-        boolean isNewBitSet = false;
-        BitSet bitset;
-        if (! selectedCellBitSetMap.containsKey(row)) {
-            bitset = new BitSet();
-            selectedCellBitSetMap.put(row, bitset);
-            isNewBitSet = true;
-        } else {
-            bitset = selectedCellBitSetMap.get(row);
+        if (isCellSelectionEnabled() ? cells.contains(row, columnIndex) : cells.containsRow(row)) {
+            return;
         }
 
-        final boolean cellSelectionModeEnabled = isCellSelectionEnabled();
-
-        if (cellSelectionModeEnabled) {
-            if (columnIndex >= 0) {
-                boolean isAlreadySet = bitset.get(columnIndex);
+        mutableCells().add(row, columnIndex, tp);
 
-                if (!isAlreadySet) {
-                    bitset.set(columnIndex);
-
-                    // add into the list
-                    selectedCells.add(tp);
-                }
-            } else {
-                // FIXME slow path (for now)
-                if (!selectedCells.contains(tp)) {
-                    selectedCells.add(tp);
-                }
-            }
-        } else {
-            if (isNewBitSet) {
-                if (columnIndex >= 0) {
-                    bitset.set(columnIndex);
-                }
-                selectedCells.add(tp);
-            }
-        }
+        final int index = cells.indexOf(row, columnIndex);
+        sortedSelectedCells._beginChange();
+        sortedSelectedCells._nextAdd(index, index + 1);
+        sortedSelectedCells._endChange();
     }
 
-    public void addAll(Collection<T> cells) {
-        // update bitset
-        for (T tp : cells) {
+    public void addAll(Collection<T> positions) {
+        final long[] added = new long[positions.size()];
+        int count = 0;
+
+        Cells cells = null;
+        for (T tp : positions) {
             final int row = tp.getRow();
             final int columnIndex = tp.getColumn();
-
-            // update the bitset map
-            BitSet bitset;
-            if (! selectedCellBitSetMap.containsKey(row)) {
-                bitset = new BitSet();
-                selectedCellBitSetMap.put(row, bitset);
-            } else {
-                bitset = selectedCellBitSetMap.get(row);
-            }
-
-            if (columnIndex < 0) {
+            if (this.cells.contains(row, columnIndex)) {
                 continue;
             }
 
-            bitset.set(columnIndex);
+            if (cells == null) {
+                cells = mutableCells();
+            }
+            cells.add(row, columnIndex, tp);
+            added[count++] = key(row, columnIndex);
         }
 
-        // add into the list
-        selectedCells.addAll(cells);
+        if (count == 0) return;
+
+        // the additions are reported in ascending order, against the final
+        // state, so that the indices only have to be computed once per cell
+        Arrays.sort(added, 0, count);
+        sortedSelectedCells._beginChange();
+        for (int i = 0; i < count; i++) {
+            final int index = cells.indexOf(keyRow(added[i]), keyColumn(added[i]));
+            sortedSelectedCells._nextAdd(index, index + 1);
+        }
+        sortedSelectedCells._endChange();
     }
 
-    public void setAll(Collection<T> cells) {
-        // update bitset
-        selectedCellBitSetMap.clear();
-        for (T tp : cells) {
+    public void setAll(Collection<T> positions) {
+        final Cells oldCells = cells;
+        cells = new Cells();
+        for (T tp : positions) {
             final int row = tp.getRow();
             final int columnIndex = tp.getColumn();
-
-            // update the bitset map
-            BitSet bitset;
-            if (! selectedCellBitSetMap.containsKey(row)) {
-                bitset = new BitSet();
-                selectedCellBitSetMap.put(row, bitset);
-            } else {
-                bitset = selectedCellBitSetMap.get(row);
+            if (! cells.contains(row, columnIndex)) {
+                cells.add(row, columnIndex, tp);
             }
+        }
+        fireReplaced(oldCells);
+    }
 
-            if (columnIndex < 0) {
-                continue;
+    /**
+     * Replaces the selection with all cells from {@code fromRow} (inclusive) to
+     * {@code toRow} (exclusive), in all the given columns, or with positions
+     * that do not refer to a column (column index -1) if {@code columns} is
+     * null. None of the positions are created until they are requested, the
+     * columns are copied so that the positions refer to the columns as they
+     * were at the time of the selection.
+     */
+    public void setAll(int fromRow, int toRow, List<? extends TableColumnBase<?,?>> columns) {
+        final Cells oldCells = cells;
+        cells = new Cells();
+        if (fromRow < toRow) {
+            if (columns == null) {
+                cells.addRange(fromRow, toRow, -1);
+            } else {
+                cells.rangeColumns = new ArrayList<>(columns);
+                for (int column = 0; column < columns.size(); column++) {
+                    cells.addRange(fromRow, toRow, column);
+                }
             }
-
-            bitset.set(columnIndex);
         }
-
-        // add into the list
-        selectedCells.setAll(cells);
+        fireReplaced(oldCells);
     }
 
     public void remove(T tp) {
         final int row = tp.getRow();
         final int columnIndex = tp.getColumn();
 
-        // update the bitset map
-        if (selectedCellBitSetMap.containsKey(row)) {
-            BitSet bitset = selectedCellBitSetMap.get(row);
-
-            if (columnIndex >= 0) {
-                bitset.clear(columnIndex);
-            }
-
-            if (bitset.isEmpty()) {
-                selectedCellBitSetMap.remove(row);
-            }
+        if (! cells.contains(row, columnIndex)) {
+            return;
         }
 
-        // update list
-        selectedCells.remove(tp);
+        final int index = cells.indexOf(row, columnIndex);
+        T removed = mutableCells().remove(row, columnIndex);
+        sortedSelectedCells._beginChange();
+        sortedSelectedCells._nextRemove(index, removed != null ? removed : tp);
+        sortedSelectedCells._endChange();
     }
 
     public void clear() {
-        // update bitset
-        selectedCellBitSetMap.clear();
-
-        // update list
-        selectedCells.clear();
+        final Cells oldCells = cells;
+        cells = new Cells();
+        fireReplaced(oldCells);
     }
 
     public boolean isSelected(int row, int columnIndex) {
         if (columnIndex < 0) {
-            return selectedCellBitSetMap.containsKey(row);
+            return cells.containsRow(row);
         } else {
-            return selectedCellBitSetMap.containsKey(row) ? selectedCellBitSetMap.get(row).get(columnIndex) : false;
+            return cells.contains(row, columnIndex);
         }
     }
 
@@ -215,10 +207,272 @@ public abstract class SelectedCellsMap<T extends TablePositionBase> {
     }
 
     public boolean isEmpty() {
-        return selectedCells.isEmpty();
+        return cells.size == 0;
     }
 
+    /**
+     * Returns a sorted, read-only snapshot of the current selection. Taking the
+     * snapshot is cheap: the selection is only copied if it is subsequently
+     * modified.
+     */
     public ObservableList<T> getSelectedCells() {
-        return selectedCells;
+        cells.shared = true;
+        return new CellList(cells);
+    }
+
+    // the old cells are no longer modified once replaced, so they can be
+    // handed out as the removed list as they are, without copying them
+    private void fireReplaced(Cells oldCells) {
+        if (oldCells.size == 0 && cells.size == 0) {
+            return;
+        }
+        oldCells.shared = true;
+        sortedSelectedCells.callObservers(new NonIterableChange.GenericAddRemoveChange<>(
+                0, cells.size, new CellList(oldCells), sortedSelectedCells));
+    }
+
+    private Cells mutableCells() {
+        if (cells.shared) {
+            cells = cells.copy();
+        }
+        return cells;
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | ((column + 1) & 0xFFFFFFFFL);
+    }
+
+    private static int keyRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int keyColumn(long key) {
+        return (int) key - 1;
+    }
+
+    /**
+     * The selected cells, sorted by row and then by column index.
+     */
+    private final class Cells {
+        // column index -> selected rows in that column
+        private final TreeMap<Integer, RankedBitSet> columns = new TreeMap<>();
+
+        // positions that were added individually, keyed by row and column index
+        private final Map<Long, T> positions = new HashMap<>();
+
+        private int size;
+
+        // the columns of the cells selected as a range, by column index, at the
+        // time of the selection
+        private List<TableColumnBase<?,?>> rangeColumns;
+
+        // set when a snapshot refers to these cells, in which case they must be
+        // copied before they are modified
+        private boolean shared;
+
+        // the last accessed cell, to make iterating through the cells cheap
+        private int lastIndex = -1;
+        private int lastRow;
+        private int lastColumn;
+        private T lastPosition;
+
+        boolean contains(int row, int column) {
+            if (row < 0) return false;
+            final RankedBitSet rows = columns.get(column);
+            return rows != null && rows.get(row);
+        }
+
+        boolean containsRow(int row) {
+            if (row < 0) return false;
+            for (RankedBitSet rows : columns.values()) {
+                if (rows.get(row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(int row, int column, T tp) {
+            if (row < 0) return;
+            columns.computeIfAbsent(column, k -> new RankedBitSet()).set(row);
+            positions.put(key(row, column), tp);
+            size++;
+            lastIndex = -1;
+        }
+
+        void addRange(int fromRow, int toRow, int column) {
+            final RankedBitSet rows = columns.computeIfAbsent(column, k -> new RankedBitSet());
+            size -= rows.cardinality();
+            rows.set(fromRow, toRow);
+            size += rows.cardinality();
+            lastIndex = -1;
+        }
+
+        T remove(int row, int column) {
+            final RankedBitSet rows = columns.get(column);
+            rows.clear(row);
+            if (rows.isEmpty()) {
+                columns.remove(column);
+            }
+            size--;
+            lastIndex = -1;
+            return positions.isEmpty() ? null : positions.remove(key(row, column));
+        }
+
+        Cells copy() {
+            Cells copy = new Cells();
+            for (Map.Entry<Integer, RankedBitSet> entry : columns.entrySet()) {
+                copy.columns.put(entry.getKey(), (RankedBitSet) entry.getValue().clone());
+            }
+            copy.positions.putAll(positions);
+            copy.rangeColumns = rangeColumns;
+            copy.size = size;
+            return copy;
+        }
+
+        // the number of selected cells in the rows before the given row
+        private int rowRank(int row) {
+            int rank = 0;
+            for (RankedBitSet rows : columns.values()) {
+                rank += rows.rank(row);
+            }
+            return rank;
+        }
+
+        int indexOf(int row, int column) {
+            int index = rowRank(row);
+            for (Map.Entry<Integer, RankedBitSet> entry : columns.headMap(column).entrySet()) {
+                if (entry.getValue().get(row)) {
+                    index++;
+                }
+            }
+            return index;
+        }
+
+        T get(int index) {
+            seek(index);
+            if (lastPosition == null) {
+                T tp = positions.isEmpty() ? null : positions.get(key(lastRow, lastColumn));
+                lastPosition = tp != null ? tp : createPosition(lastRow, lastColumn,
+                        rangeColumns == null || lastColumn < 0 ? null : rangeColumns.get(lastColumn));
+            }
+            return lastPosition;
+        }
+
+        int getRow(int index) {
+            seek(index);
+            return lastRow;
+        }
+
+        private void seek(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            if (index == lastIndex) {
+                return;
+            }
+
+            if (lastIndex >= 0 && index == lastIndex + 1) {
+                seekNext();
+            } else if (columns.size() == 1) {
+                lastColumn = columns.firstKey();
+                lastRow = columns.firstEntry().getValue().select(index);
+            } else {
+                // find the row that contains the cell, then the column within the row
+                int low = 0;
+                int high = 0;
+                for (RankedBitSet rows : columns.values()) {
+                    high = Math.max(high, rows.length() - 1);
+                }
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (rowRank(mid + 1) > index) {
+                        high = mid;
+                    } else {
+                        low = mid + 1;
+                    }
+                }
+
+                int remaining = index - rowRank(low);
+                for (Map.Entry<Integer, RankedBitSet> entry : columns.entrySet()) {
+                    if (entry.getValue().get(low) && remaining-- == 0) {
+                        lastColumn = entry.getKey();
+                        break;
+                    }
+                }
+                lastRow = low;
+            }
+            lastIndex = index;
+            lastPosition = null;
+        }
+
+        private void seekNext() {
+            // the next selected column in the current row, if any
+            for (Map.Entry<Integer, RankedBitSet> entry : columns.tailMap(lastColumn, false).entrySet()) {
+                if (entry.getValue().get(lastRow)) {
+                    lastColumn = entry.getKey();
+                    return;
+                }
+            }
+
+            // otherwise the first selected column in the next selected row
+            int nextRow = -1;
+            for (Map.Entry<Integer, RankedBitSet> entry : columns.entrySet()) {
+                int row = entry.getValue().nextSetBit(lastRow + 1);
+                if (row >= 0 && (nextRow < 0 || row < nextRow)) {
+                    nextRow = row;
+                    lastColumn = entry.getKey();
+                }
+            }
+            lastRow = nextRow;
+        }
+    }
+
+    /**
+     * A read-only list view of either the current selection (when no cells are
+     * given), or of a snapshot of it.
+     */
+    public final class CellList extends ReadOnlyUnbackedObservableList<T> implements RandomAccess {
+        private final Cells snapshot;
+
+        private CellList(Cells snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        private Cells cells() {
+            return snapshot != null ? snapshot : cells;
+        }
+
+        @Override public T get(int i) {
+            return cells().get(i);
+        }
+
+        @Override public int size() {
+            return cells().size;
+        }
+
+        /**
+         * Returns the row of the cell at the given index, without creating the
+         * position for it.
+         */
+        public int getRow(int i) {
+            return cells().getRow(i);
+        }
+
+        @Override public int indexOf(Object o) {
+            if (! (o instanceof TablePositionBase)) return -1;
+
+            final TablePositionBase tp = (TablePositionBase) o;
+            final Cells cells = cells();
+            if (! cells.contains(tp.getRow(), tp.getColumn())) {
+                return -1;
+            }
+            final int index = cells.indexOf(tp.getRow(), tp.getColumn());
+            return o.equals(cells.get(index)) ? index : -1;
+        }
+
+        @Override public int lastIndexOf(Object o) {
+            return indexOf(o);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -52,8 +52,11 @@ import javafx.scene.shape.StrokeLineJoin;
 import javafx.util.Duration;
 
 import com.sun.javafx.charts.Legend.LegendItem;
+import com.sun.javafx.charts.LineToPool;
+import com.sun.javafx.charts.PathDecimator;
 import javafx.css.converter.BooleanConverter;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.BooleanPropertyBase;
 import javafx.css.CssMetaData;
 import javafx.css.Styleable;
 import javafx.css.StyleableBooleanProperty;
@@ -123,6 +126,37 @@ public class AreaChart<X,Y> extends XYChart<X,Y> {
     public final void setCreateSymbols(boolean value) { createSymbols.setValue(value); }
     public final BooleanProperty createSymbolsProperty() { return createSymbols; }
 
+    /**
+     * Indicates whether the points of each series are decimated before its path is
+     * built. When enabled, the data items that fall into the same pixel column of the
+     * plot area are reduced to the first, lowest, highest and last of them, so that the
+     * number of path elements depends on the width of the chart rather than on the
+     * number of data items. This makes charts of very large series practical, while
+     * the rendered line covers the same pixels.
+     * Symbols are still created for every data item, so
+     * {@link #createSymbolsProperty() createSymbols} should usually be disabled as well.
+     *
+     * @since 18
+     * @defaultValue false
+     */
+    private BooleanProperty decimationEnabled = new BooleanPropertyBase(false) {
+        @Override protected void invalidated() {
+            requestChartLayout();
+        }
+
+        public Object getBean() {
+            return AreaChart.this;
+        }
+
+        public String getName() {
+            return "decimationEnabled";
+        }
+    };
+
+    public final boolean isDecimationEnabled() { return decimationEnabled.get(); }
+    public final void setDecimationEnabled(boolean value) { decimationEnabled.set(value); }
+    public final BooleanProperty decimationEnabledProperty() { return decimationEnabled; }
+
 
     // -------------- CONSTRUCTORS ----------------------------------------------
 
@@ -169,6 +203,7 @@ public class AreaChart<X,Y> extends XYChart<X,Y> {
                     if(xData != null) xData.add(data.getXValue());
                     if(yData != null) yData.add(data.getYValue());
                 }
+                addPointsRange(series, xData, yData);
             }
             if(xData != null && !(xData.size() == 1 && getXAxis().toNumericValue(xData.get(0)) == 0)) {
                 xa.invalidateRange(xData);
@@ -426,14 +461,15 @@ public class AreaChart<X,Y> extends XYChart<X,Y> {
             Path fillPath = (Path) children.get(0);
             Path linePath = (Path) children.get(1);
             makePaths(this, series, constructedPath, fillPath, linePath,
-                      seriesYAnimMultiplier.get(), SortingPolicy.X_AXIS);
+                      seriesYAnimMultiplier.get(), SortingPolicy.X_AXIS, isDecimationEnabled());
         }
     }
 
     static <X,Y> void makePaths(XYChart<X, Y> chart, Series<X, Y> series,
                                 List<LineTo> constructedPath,
                                 Path fillPath, Path linePath,
-                                double yAnimMultiplier, SortingPolicy sortAxis)
+                                double yAnimMultiplier, SortingPolicy sortAxis,
+                                boolean decimate)
     {
         final Axis<X> axisX = chart.getXAxis();
         final Axis<Y> axisY = chart.getYAxis();
@@ -447,26 +483,48 @@ public class AreaChart<X,Y> extends XYChart<X,Y> {
         LineTo prevDataPoint = null;
         LineTo nextDataPoint = null;
         constructedPath.clear();
-        for (Iterator<Data<X, Y>> it = chart.getDisplayedDataIterator(series); it.hasNext(); ) {
-            Data<X, Y> item = it.next();
-            double x = axisX.getDisplayPosition(item.getCurrentX());
-            double y = axisY.getDisplayPosition(
-                    axisY.toRealValue(axisY.toNumericValue(item.getCurrentY()) * yAnimMultiplier));
-            boolean skip = (Double.isNaN(x) || Double.isNaN(y));
-            Node symbol = item.getNode();
-            if (symbol != null) {
-                final double w = symbol.prefWidth(-1);
-                final double h = symbol.prefHeight(-1);
-                if (skip) {
-                    symbol.resizeRelocate(-w*2, -h*2, w, h);
-                } else {
-                    symbol.resizeRelocate(x-(w/2), y-(h/2), w, h);
+        // the line segments of the previous layout are reused for this one
+        final LineToPool pool = new LineToPool();
+        pool.reset(linePath.getElements());
+        // decimation relies on the points being ordered by x, which is cheapest
+        // when the data is already in that order, as it then happens in one pass
+        final PathDecimator decimator = decimate && sortX ? new PathDecimator(constructedPath, pool) : null;
+        boolean ordered = true;
+        double lastX = Double.NEGATIVE_INFINITY;
+        // the points of the series, which have no symbols, follow its data items
+        final Iterator<Data<X, Y>> it = chart.getDisplayedDataIterator(series);
+        final Points points = series.points;
+        final int pointCount = (points != null && axisX instanceof ValueAxis && axisY instanceof ValueAxis)
+                ? points.size() : 0;
+        int pointIndex = 0;
+        while (it.hasNext() || pointIndex < pointCount) {
+            double x, y;
+            if (it.hasNext()) {
+                Data<X, Y> item = it.next();
+                x = axisX.getDisplayPosition(item.getCurrentX());
+                y = axisY.getDisplayPosition(
+                        axisY.toRealValue(axisY.toNumericValue(item.getCurrentY()) * yAnimMultiplier));
+                boolean skip = (Double.isNaN(x) || Double.isNaN(y));
+                Node symbol = item.getNode();
+                if (symbol != null) {
+                    final double w = symbol.prefWidth(-1);
+                    final double h = symbol.prefHeight(-1);
+                    if (skip) {
+                        symbol.resizeRelocate(-w*2, -h*2, w, h);
+                    } else {
+                        symbol.resizeRelocate(x-(w/2), y-(h/2), w, h);
+                    }
                 }
+                if (skip) continue;
+            } else {
+                x = XYChart.getDisplayPosition(axisX, points.getX(pointIndex));
+                y = XYChart.getDisplayPosition(axisY, points.getY(pointIndex) * yAnimMultiplier);
+                pointIndex++;
+                if (Double.isNaN(x) || Double.isNaN(y)) continue;
             }
-            if (skip) continue;
             if (x < dataXMin || y < dataYMin) {
                 if (prevDataPoint == null) {
-                    prevDataPoint = new LineTo(x, y);
+                    prevDataPoint = pool.get(x, y);
                 } else if ((sortX && prevDataPoint.getX() <= x) ||
                            (sortY && prevDataPoint.getY() <= y))
                 {
@@ -474,10 +532,16 @@ public class AreaChart<X,Y> extends XYChart<X,Y> {
                     prevDataPoint.setY(y);
                 }
             } else if (x <= dataXMax && y <= dataYMax) {
-                constructedPath.add(new LineTo(x, y));
+                if (decimator != null) {
+                    ordered &= x >= lastX;
+                    lastX = x;
+                    decimator.add(x, y);
+                } else {
+                    constructedPath.add(pool.get(x, y));
+                }
             } else {
                 if (nextDataPoint == null) {
-                    nextDataPoint = new LineTo(x, y);
+                    nextDataPoint = pool.get(x, y);
                 } else if ((sortX && x <= nextDataPoint.getX()) ||
                            (sortY && y <= nextDataPoint.getY()))
                 {
@@ -486,10 +550,16 @@ public class AreaChart<X,Y> extends XYChart<X,Y> {
                 }
             }
         }
+        if (decimator != null) {
+            decimator.flush();
+        }
 
         if (!constructedPath.isEmpty() || prevDataPoint != null || nextDataPoint != null) {
             if (sortX) {
                 Collections.sort(constructedPath, (e1, e2) -> Double.compare(e1.getX(), e2.getX()));
+                if (decimator != null && !ordered) {
+                    PathDecimator.decimate(constructedPath);
+                }
             } else if (sortY) {
                 Collections.sort(constructedPath, (e1, e2) -> Double.compare(e1.getY(), e2.getY()));
             } else {
@@ -520,7 +590,7 @@ public class AreaChart<X,Y> extends XYChart<X,Y> {
 
                 fillElements.add(new MoveTo(first.getX(), yOrigin));
                 fillElements.addAll(constructedPath);
-                fillElements.add(new LineTo(last.getX(), yOrigin));
+                fillElements.add(pool.get(last.getX(), yOrigin));
                 fillElements.add(new ClosePath());
             }
         }
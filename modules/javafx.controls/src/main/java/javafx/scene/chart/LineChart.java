@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -39,6 +39,7 @@ import javafx.animation.Animation;
 import javafx.application.Platform;
 import javafx.beans.NamedArg;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.BooleanPropertyBase;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ObjectPropertyBase;
@@ -161,6 +162,38 @@ public class LineChart<X,Y> extends XYChart<X,Y> {
     public final void setAxisSortingPolicy(SortingPolicy value) { axisSortingPolicy.setValue(value); }
     public final ObjectProperty<SortingPolicy> axisSortingPolicyProperty() { return axisSortingPolicy; }
 
+    /**
+     * Indicates whether the points of each series are decimated before its path is
+     * built. When enabled, the data items that fall into the same pixel column of the
+     * plot area are reduced to the first, lowest, highest and last of them, so that the
+     * number of path elements depends on the width of the chart rather than on the
+     * number of data items. This makes charts of very large series practical, while
+     * the rendered line covers the same pixels.
+     * Decimation only applies when the {@link #axisSortingPolicyProperty() axisSortingPolicy}
+     * is {@link SortingPolicy#X_AXIS}. Symbols are still created for every data item,
+     * so {@link #createSymbolsProperty() createSymbols} should usually be disabled as well.
+     *
+     * @since 18
+     * @defaultValue false
+     */
+    private BooleanProperty decimationEnabled = new BooleanPropertyBase(false) {
+        @Override protected void invalidated() {
+            requestChartLayout();
+        }
+
+        public Object getBean() {
+            return LineChart.this;
+        }
+
+        public String getName() {
+            return "decimationEnabled";
+        }
+    };
+
+    public final boolean isDecimationEnabled() { return decimationEnabled.get(); }
+    public final void setDecimationEnabled(boolean value) { decimationEnabled.set(value); }
+    public final BooleanProperty decimationEnabledProperty() { return decimationEnabled; }
+
     // -------------- CONSTRUCTORS ----------------------------------------------
 
     /**
@@ -201,6 +234,7 @@ public class LineChart<X,Y> extends XYChart<X,Y> {
                     if(xData != null) xData.add(data.getXValue());
                     if(yData != null) yData.add(data.getYValue());
                 }
+                addPointsRange(series, xData, yData);
             }
             // RT-32838 No need to invalidate range if there is one data item - whose value is zero.
             if(xData != null && !(xData.size() == 1 && getXAxis().toNumericValue(xData.get(0)) == 0)) {
@@ -457,7 +491,8 @@ public class LineChart<X,Y> extends XYChart<X,Y> {
             if (seriesNode instanceof Path) {
                 AreaChart.makePaths(this, series,
                                     constructedPath, null, (Path) seriesNode,
-                                    seriesYAnimMultiplier.get(), getAxisSortingPolicy());
+                                    seriesYAnimMultiplier.get(), getAxisSortingPolicy(),
+                                    isDecimationEnabled());
             }
         }
     }
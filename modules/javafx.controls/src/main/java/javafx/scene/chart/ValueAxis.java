@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -465,6 +465,14 @@ public abstract class ValueAxis<T extends Number> extends Axis<T> {
         return offset + ((value.doubleValue() - currentLowerBound.get()) * getScale());
     }
 
+    /**
+     * Gets the display position along this axis for a given numeric value,
+     * without boxing it as {@link #getDisplayPosition(Number)} requires.
+     */
+    final double toDisplayPosition(double value) {
+        return offset + ((value - currentLowerBound.get()) * getScale());
+    }
+
     /**
      * Gets the data value for the given display position on this axis. If the axis
      * is a CategoryAxis this will be the nearest value.
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -27,7 +27,9 @@ package javafx.scene.chart;
 
 
 import com.sun.javafx.charts.Legend;
+import com.sun.javafx.charts.WindowExtremum;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
@@ -512,6 +514,41 @@ public abstract class XYChart<X,Y> extends Chart {
         requestChartLayout();
     }
 
+    /** Called when the points of a series have changed. Any number of changes result in a single layout. */
+    private void pointsChanged() {
+        invalidateRange();
+        requestChartLayout();
+    }
+
+    /**
+     * Adds the minimum and maximum of the points of the given series to the data
+     * used for auto-ranging value axes, which is all that such axes use.
+     */
+    final void addPointsRange(Series<X,Y> series, List<X> xData, List<Y> yData) {
+        final Points points = series.points;
+        if (points == null || points.size() == 0) return;
+
+        if (xData != null && getXAxis() instanceof ValueAxis && points.getMinX() <= points.getMaxX()) {
+            xData.add(getXAxis().toRealValue(points.getMinX()));
+            xData.add(getXAxis().toRealValue(points.getMaxX()));
+        }
+        if (yData != null && getYAxis() instanceof ValueAxis && points.getMinY() <= points.getMaxY()) {
+            yData.add(getYAxis().toRealValue(points.getMinY()));
+            yData.add(getYAxis().toRealValue(points.getMaxY()));
+        }
+    }
+
+    /**
+     * Returns the display position of the given value on the given axis. This avoids
+     * boxing the value for NumberAxis, which is what plotting {@link Points} uses.
+     */
+    static <T> double getDisplayPosition(Axis<T> axis, double value) {
+        if (axis.getClass() == NumberAxis.class) {
+            return ((NumberAxis) axis).toDisplayPosition(value);
+        }
+        return axis.getDisplayPosition(axis.toRealValue(value));
+    }
+
     private <T> void dataValueChanged(Data<X,Y> item, T newValue, ObjectProperty<T> currentValueProperty) {
         if (currentValueProperty.get() != newValue) invalidateRange();
         dataItemChanged(item);
@@ -1585,6 +1622,25 @@ public abstract class XYChart<X,Y> extends Chart {
         public final void setData(ObservableList<Data<X,Y>> value) { data.setValue(value); }
         public final ObjectProperty<ObservableList<Data<X,Y>>> dataProperty() { return data; }
 
+        /** The points of this series that are held as primitive values, created on first access */
+        Points points;
+
+        /**
+         * Returns the points of this series that are held in primitive arrays rather
+         * than as {@link Data} items. These are plotted after the data items of the
+         * series, and are meant for series with too many values to create a
+         * {@code Data} item for each of them.
+         *
+         * @return the points of this series
+         * @since 18
+         */
+        public final Points getPoints() {
+            if (points == null) {
+                points = new Points(this);
+            }
+            return points;
+        }
+
         // -------------- CONSTRUCTORS ----------------------------------------------
 
         /**
@@ -1649,4 +1705,363 @@ public abstract class XYChart<X,Y> extends Chart {
         }
     }
 
+    /**
+     * A sequence of points of a {@link Series}, held in primitive {@code double}
+     * arrays. Unlike {@link Data} items, points have no properties, nodes or
+     * listeners of their own, and a change to any number of them results in a
+     * single layout of the chart in the next pulse. The minimum and maximum of the
+     * points are maintained as they are added, so that auto-ranging axes do not
+     * have to visit every point.
+     * <p>
+     * With a {@link #setWindowSize(int) window size}, the points form a rolling
+     * window, as is common for charts of live data: once the window is full,
+     * adding a point evicts the oldest one. Both take constant time, as the
+     * points are kept in a ring buffer, and so does maintaining the minimum and
+     * maximum of the points in the window.
+     * <p>
+     * Points are plotted by {@link LineChart} and {@link AreaChart}, and they
+     * require both axes to be {@link ValueAxis value axes}. Other charts ignore
+     * them. Points are not animated.
+     *
+     * @since 18
+     */
+    public static final class Points {
+        private static final double[] EMPTY = new double[0];
+
+        private final Series<?,?> series;
+
+        // the points form a ring buffer, which starts at head
+        private double[] xValues = EMPTY;
+        private double[] yValues = EMPTY;
+        private int head;
+        private int size;
+        private int windowSize;
+
+        // the sequence number of the first point, which increases as points
+        // are evicted, identifies the points to the window extremes
+        private long first;
+
+        private boolean rangeValid = true;
+        private double minX = Double.POSITIVE_INFINITY;
+        private double maxX = Double.NEGATIVE_INFINITY;
+        private double minY = Double.POSITIVE_INFINITY;
+        private double maxY = Double.NEGATIVE_INFINITY;
+        private WindowExtremum minXs, maxXs, minYs, maxYs;
+
+        Points(Series<?,?> series) {
+            this.series = series;
+        }
+
+        /**
+         * Returns the number of points.
+         *
+         * @return the number of points
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the maximum number of points, or 0 if the number of points is not limited.
+         *
+         * @return the maximum number of points, or 0 if there is no limit
+         */
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        /**
+         * Limits the number of points to the given window size, or removes the
+         * limit if it is 0. Once the limit is reached, the oldest points are
+         * removed as points are added. If there are more points than the new
+         * limit allows, the oldest of them are removed right away.
+         *
+         * @param windowSize the maximum number of points, or 0 for no limit
+         * @throws IllegalArgumentException if the window size is negative
+         */
+        public void setWindowSize(int windowSize) {
+            if (windowSize < 0) {
+                throw new IllegalArgumentException("Window size must not be negative: " + windowSize);
+            }
+            this.windowSize = windowSize;
+            if (windowSize > 0 && minXs == null) {
+                minXs = new WindowExtremum(false);
+                maxXs = new WindowExtremum(true);
+                minYs = new WindowExtremum(false);
+                maxYs = new WindowExtremum(true);
+            }
+            rangeValid = false;
+            if (windowSize > 0 && size > windowSize) {
+                evict(size - windowSize);
+                changed();
+            }
+        }
+
+        /**
+         * Returns the x value of the point at the given index.
+         *
+         * @param index the index of the point
+         * @return the x value of the point
+         * @throws IndexOutOfBoundsException if the index is out of range
+         */
+        public double getX(int index) {
+            checkIndex(index);
+            return xValues[physicalIndex(index)];
+        }
+
+        /**
+         * Returns the y value of the point at the given index.
+         *
+         * @param index the index of the point
+         * @return the y value of the point
+         * @throws IndexOutOfBoundsException if the index is out of range
+         */
+        public double getY(int index) {
+            checkIndex(index);
+            return yValues[physicalIndex(index)];
+        }
+
+        /**
+         * Appends a point, removing the oldest point if the window is full.
+         *
+         * @param x the x value of the point
+         * @param y the y value of the point
+         */
+        public void add(double x, double y) {
+            append(x, y);
+            changed();
+        }
+
+        /**
+         * Appends the points with the given x and y values, removing as many of
+         * the oldest points as needed to stay within the window size.
+         *
+         * @param x the x values of the points
+         * @param y the y values of the points
+         * @throws IllegalArgumentException if the arrays differ in length
+         */
+        public void addAll(double[] x, double[] y) {
+            replace(size, size, x, y);
+        }
+
+        /**
+         * Replaces all points with the points with the given x and y values.
+         *
+         * @param x the x values of the points
+         * @param y the y values of the points
+         * @throws IllegalArgumentException if the arrays differ in length
+         */
+        public void setAll(double[] x, double[] y) {
+            replace(0, size, x, y);
+        }
+
+        /**
+         * Replaces the points from {@code from} (inclusive) to {@code to}
+         * (exclusive) with the points with the given x and y values, which
+         * may be more or fewer than the points they replace. If this exceeds
+         * the window size, the oldest points are removed.
+         *
+         * @param from the index of the first point to replace
+         * @param to the index after the last point to replace
+         * @param x the x values of the new points
+         * @param y the y values of the new points
+         * @throws IndexOutOfBoundsException if the range is out of bounds
+         * @throws IllegalArgumentException if the arrays differ in length
+         */
+        public void replace(int from, int to, double[] x, double[] y) {
+            if (from < 0 || to > size || from > to) {
+                throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size);
+            }
+            if (x.length != y.length) {
+                throw new IllegalArgumentException("x and y values differ in length: " + x.length + " != " + y.length);
+            }
+
+            final int count = x.length;
+            if (from == size) {
+                // points that would be evicted by the points after them are skipped
+                final int start = windowSize > 0 ? Math.max(0, count - windowSize) : 0;
+                for (int i = start; i < count; i++) {
+                    append(x[i], y[i]);
+                }
+            } else {
+                linearize();
+                final int newSize = size - (to - from) + count;
+                ensureCapacity(newSize);
+                System.arraycopy(xValues, to, xValues, from + count, size - to);
+                System.arraycopy(yValues, to, yValues, from + count, size - to);
+                System.arraycopy(x, 0, xValues, from, count);
+                System.arraycopy(y, 0, yValues, from, count);
+                size = newSize;
+                // removing points may shrink the range, in which case it is
+                // recomputed when it is next needed
+                rangeValid = false;
+                if (windowSize > 0 && size > windowSize) {
+                    evict(size - windowSize);
+                }
+            }
+            changed();
+        }
+
+        /**
+         * Removes the points from {@code from} (inclusive) to {@code to} (exclusive).
+         * Removing the oldest points takes constant time.
+         *
+         * @param from the index of the first point to remove
+         * @param to the index after the last point to remove
+         * @throws IndexOutOfBoundsException if the range is out of bounds
+         */
+        public void remove(int from, int to) {
+            if (from == 0 && to > 0 && to <= size) {
+                evict(to);
+                if (windowSize == 0) {
+                    rangeValid = false;
+                }
+                changed();
+            } else {
+                replace(from, to, EMPTY, EMPTY);
+            }
+        }
+
+        /**
+         * Removes all points.
+         */
+        public void clear() {
+            if (size == 0) return;
+            xValues = EMPTY;
+            yValues = EMPTY;
+            head = 0;
+            size = 0;
+            rangeValid = false;
+            changed();
+        }
+
+        double getMinX() {
+            validateRange();
+            return windowSize > 0 ? minXs.get() : minX;
+        }
+
+        double getMaxX() {
+            validateRange();
+            return windowSize > 0 ? maxXs.get() : maxX;
+        }
+
+        double getMinY() {
+            validateRange();
+            return windowSize > 0 ? minYs.get() : minY;
+        }
+
+        double getMaxY() {
+            validateRange();
+            return windowSize > 0 ? maxYs.get() : maxY;
+        }
+
+        private void append(double x, double y) {
+            if (windowSize > 0 && size == windowSize) {
+                evict(1);
+            }
+            ensureCapacity(size + 1);
+            final int i = physicalIndex(size++);
+            xValues[i] = x;
+            yValues[i] = y;
+            if (rangeValid) {
+                includeInRange(first + size - 1, x, y);
+            }
+        }
+
+        // removes the given number of oldest points
+        private void evict(int count) {
+            head = physicalIndex(count);
+            size -= count;
+            first += count;
+            if (size == 0) {
+                head = 0;
+            }
+            if (windowSize > 0) {
+                minXs.evictBefore(first);
+                maxXs.evictBefore(first);
+                minYs.evictBefore(first);
+                maxYs.evictBefore(first);
+            }
+        }
+
+        private void validateRange() {
+            if (rangeValid) return;
+
+            if (windowSize > 0) {
+                minXs.clear();
+                maxXs.clear();
+                minYs.clear();
+                maxYs.clear();
+            } else {
+                minX = minY = Double.POSITIVE_INFINITY;
+                maxX = maxY = Double.NEGATIVE_INFINITY;
+            }
+            for (int i = 0; i < size; i++) {
+                final int j = physicalIndex(i);
+                includeInRange(first + i, xValues[j], yValues[j]);
+            }
+            rangeValid = true;
+        }
+
+        // NaN values are not plotted, and so are left out of the range
+        private void includeInRange(long sequence, double x, double y) {
+            if (windowSize > 0) {
+                minXs.add(sequence, x);
+                maxXs.add(sequence, x);
+                minYs.add(sequence, y);
+                maxYs.add(sequence, y);
+            } else {
+                if (x < minX) minX = x;
+                if (x > maxX) maxX = x;
+                if (y < minY) minY = y;
+                if (y > maxY) maxY = y;
+            }
+        }
+
+        private int physicalIndex(int index) {
+            final int i = head + index;
+            return i < xValues.length ? i : i - xValues.length;
+        }
+
+        // moves the points to the start of the arrays
+        private void linearize() {
+            if (head == 0) return;
+            final double[] newX = new double[xValues.length];
+            final double[] newY = new double[yValues.length];
+            final int tail = Math.min(size, xValues.length - head);
+            System.arraycopy(xValues, head, newX, 0, tail);
+            System.arraycopy(yValues, head, newY, 0, tail);
+            System.arraycopy(xValues, 0, newX, tail, size - tail);
+            System.arraycopy(yValues, 0, newY, tail, size - tail);
+            xValues = newX;
+            yValues = newY;
+            head = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > xValues.length) {
+                linearize();
+                int newCapacity = Math.max(16, xValues.length + (xValues.length >> 1));
+                if (windowSize > 0) {
+                    newCapacity = Math.min(newCapacity, windowSize);
+                }
+                newCapacity = Math.max(capacity, newCapacity);
+                xValues = Arrays.copyOf(xValues, newCapacity);
+                yValues = Arrays.copyOf(yValues, newCapacity);
+            }
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+
+        private void changed() {
+            XYChart<?,?> chart = series.getChart();
+            if (chart != null) {
+                chart.pointsChanged();
+            }
+        }
+    }
 }
@@ -25,6 +25,8 @@
 
 package javafx.scene.control;
 
+import com.sun.javafx.scene.control.RankedBitSet;
+import com.sun.javafx.scene.control.SelectedCellsMap;
 import com.sun.javafx.scene.control.skin.Utils;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
@@ -33,10 +35,12 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 
+import java.util.AbstractList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
 
 class ControlUtils {
     private ControlUtils() { }
@@ -70,6 +74,49 @@ class ControlUtils {
         }
     }
 
+    /**
+     * Returns a read-only view of the given list without the element at the given
+     * index, or the list itself if the index is negative. This is used to report
+     * the previous selection in selection change events without copying it.
+     */
+    static <T> List<T> withoutElementAt(List<T> list, int index) {
+        if (index < 0) return list;
+
+        class ListWithoutElement extends AbstractList<T> implements RandomAccess {
+            @Override public T get(int i) {
+                return list.get(i < index ? i : i + 1);
+            }
+
+            @Override public int size() {
+                return list.size() - 1;
+            }
+        }
+        return new ListWithoutElement();
+    }
+
+    /**
+     * Returns the index of the first position in the given row, in a list of
+     * positions that is sorted by row, or -1 if there is no position in the row.
+     */
+    static int indexOfFirstInRow(List<? extends TablePositionBase<?>> positions, int row) {
+        int low = 0;
+        int high = positions.size() - 1;
+        int index = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midRow = positions.get(mid).getRow();
+            if (midRow < row) {
+                low = mid + 1;
+            } else {
+                if (midRow == row) {
+                    index = mid;
+                }
+                high = mid - 1;
+            }
+        }
+        return index;
+    }
+
     static <T> ListChangeListener.Change<T> buildClearAndSelectChange(
             ObservableList<T> list, List<T> removed, T retainedRow, Comparator<T> rowComparator) {
         return new ListChangeListener.Change<T>(list) {
@@ -158,18 +205,33 @@ class ControlUtils {
             // counting the added elements), but the call to 'peek' is also crucial - it is
             // ensuring that the selectedIndices bitset is correctly updated.
 
+            // the rows are de-duplicated through bitsets rather than by boxing
+            // them, as a single change may cover every row of a very large table
             sm.startAtomic();
-            final List<Integer> removed = c.getRemoved().stream()
-                    .map(TablePositionBase::getRow)
-                    .distinct()
-                    .peek(sm.selectedIndices::clear)
-                    .collect(Collectors.toList());
-
-            final int addedSize = (int)c.getAddedSubList().stream()
-                    .map(TablePositionBase::getRow)
-                    .distinct()
-                    .peek(sm.selectedIndices::set)
-                    .count();
+            final List<? extends TablePositionBase<?>> removedCells = c.getRemoved();
+            final RankedBitSet removedRows = new RankedBitSet();
+            for (int i = 0, max = removedCells.size(); i < max; i++) {
+                final int row = getRow(removedCells, i);
+                if (row >= 0 && ! removedRows.get(row)) {
+                    removedRows.set(row);
+                    sm.selectedIndices.clear(row);
+                }
+            }
+            final List<Integer> removed = sm.new SelectedIndicesList(removedRows);
+
+            int addedSize = 0;
+            if (c.wasAdded()) {
+                final List<? extends TablePositionBase<?>> cells = c.getList();
+                final BitSet addedRows = new BitSet();
+                for (int i = c.getFrom(), max = c.getTo(); i < max; i++) {
+                    final int row = getRow(cells, i);
+                    if (row >= 0 && ! addedRows.get(row)) {
+                        addedRows.set(row);
+                        sm.selectedIndices.set(row);
+                        addedSize++;
+                    }
+                }
+            }
             sm.stopAtomic();
 
             final int to = c.getFrom() + addedSize;
@@ -201,4 +263,9 @@ class ControlUtils {
 
         sm.selectedIndices._endChange();
     }
+
+    private static int getRow(List<? extends TablePositionBase<?>> cells, int index) {
+        return cells instanceof SelectedCellsMap.CellList ?
+                ((SelectedCellsMap<?>.CellList) cells).getRow(index) : cells.get(index).getRow();
+    }
 }
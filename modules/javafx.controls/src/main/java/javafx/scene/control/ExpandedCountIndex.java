@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.scene.control;
+
+import java.util.Arrays;
+
+/**
+ * A package protected order-statistic index over the expanded item counts of
+ * the children of a TreeItem, implemented as a binary indexed (Fenwick) tree.
+ * It maps a row offset within the expanded descendants of a TreeItem to the
+ * child that shows that row, and a child to the offset of its first row, in
+ * O(log n) time, and it takes a changed count of a single child in O(log n)
+ * time as well.
+ */
+final class ExpandedCountIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    // the count of each child, as last set
+    private int[] counts = EMPTY;
+
+    // the Fenwick tree, one-based: tree[i] holds the sum of the counts in
+    // the range (i - (i & -i), i]
+    private int[] tree = new int[1];
+
+    private int size;
+    private int total;
+
+    /**
+     * Replaces the content of the index with the first {@code size} counts of
+     * the given array, which the index takes ownership of.
+     */
+    void setAll(int[] counts, int size) {
+        this.counts = counts;
+        this.size = size;
+        if (tree.length < size + 1 || tree.length > 2 * (size + 1)) {
+            tree = new int[size + 1];
+        } else {
+            Arrays.fill(tree, 0);
+        }
+
+        total = 0;
+        for (int i = 1; i <= size; i++) {
+            total += counts[i - 1];
+            tree[i] += counts[i - 1];
+            final int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the sum of all counts.
+     */
+    int getTotal() {
+        return total;
+    }
+
+    int get(int index) {
+        return counts[index];
+    }
+
+    void set(int index, int count) {
+        final int delta = count - counts[index];
+        if (delta == 0) return;
+
+        counts[index] = count;
+        total += delta;
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the counts of the children before the given index.
+     */
+    int getOffset(int index) {
+        int sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the index of the child whose rows include the given offset,
+     * that is the smallest index for which {@code getOffset(index + 1) > offset},
+     * or {@code size()} if the offset is not less than the total.
+     */
+    int indexOf(int offset) {
+        if (offset < 0) return -1;
+
+        int index = 0;
+        int remaining = offset;
+        for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+            final int next = index + step;
+            if (next <= size && tree[next] <= remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index;
+    }
+}
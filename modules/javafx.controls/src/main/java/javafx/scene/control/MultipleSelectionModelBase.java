@@ -33,6 +33,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import com.sun.javafx.scene.control.MultipleAdditionAndRemovedChange;
+import com.sun.javafx.scene.control.RankedBitSet;
 import com.sun.javafx.scene.control.ReadOnlyUnbackedObservableList;
 import com.sun.javafx.scene.control.SelectedItemsReadOnlyObservableList;
 import javafx.collections.ListChangeListener;
@@ -342,7 +343,7 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
         // firstly we make a copy of the selection, so that we can send out
         // the correct details in the selection change event.
         // We remove the new selection from the list seeing as it is not removed.
-        BitSet selectedIndicesCopy = new BitSet();
+        RankedBitSet selectedIndicesCopy = new RankedBitSet();
         selectedIndicesCopy.or(selectedIndices.bitset);
         selectedIndicesCopy.clear(row);
         List<Integer> previousSelectedIndices = new SelectedIndicesList(selectedIndicesCopy);
@@ -625,7 +626,7 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
      **********************************************************************/
 
     class SelectedIndicesList extends ReadOnlyUnbackedObservableList<Integer> {
-        private final BitSet bitset;
+        private final RankedBitSet bitset;
 
         private int lastGetIndex = -1;
         private int lastGetValue = -1;
@@ -639,10 +640,10 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
 //        }
 
         public SelectedIndicesList() {
-            this(new BitSet());
+            this(new RankedBitSet());
         }
 
-        public SelectedIndicesList(BitSet bitset) {
+        public SelectedIndicesList(RankedBitSet bitset) {
             this.bitset = bitset;
         }
 
@@ -677,16 +678,10 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
                 lastGetValue = bitset.previousSetBit(lastGetValue - 1);
                 return lastGetValue;
             } else {
-                for (lastGetIndex = 0, lastGetValue = bitset.nextSetBit(0);
-                     lastGetValue >= 0 || lastGetIndex == index;
-                     lastGetIndex++, lastGetValue = bitset.nextSetBit(lastGetValue + 1)) {
-                    if (lastGetIndex == index) {
-                        return lastGetValue;
-                    }
-                }
+                lastGetIndex = index;
+                lastGetValue = bitset.select(index);
+                return lastGetValue;
             }
-
-            return -1;
         }
 
         public void set(int index) {
@@ -696,8 +691,10 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
 
             _beginChange();
             bitset.set(index);
-            int indicesIndex = indexOf(index);
-            _nextAdd(indicesIndex, indicesIndex + 1);
+            if (!isAtomic()) {
+                int indicesIndex = bitset.rank(index);
+                _nextAdd(indicesIndex, indicesIndex + 1);
+            }
             _endChange();
         }
 
@@ -715,14 +712,30 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
 
         public void set(int index, int end, boolean isSet) {
             _beginChange();
-            if (isSet) {
-                bitset.set(index, end, isSet);
-                int indicesIndex = indexOf(index);
-                int span = end - index;
-                _nextAdd(indicesIndex, indicesIndex + span);
-            } else {
-                // TODO handle remove
-                bitset.set(index, end, isSet);
+            // the range is processed as runs of indices whose state actually
+            // changes, so that one change is reported per run rather than per index
+            int pos = index;
+            while (pos < end) {
+                int runStart = isSet ? bitset.nextClearBit(pos) : bitset.nextSetBit(pos);
+                if (runStart < 0 || runStart >= end) break;
+
+                int runEnd = isSet ? bitset.nextSetBit(runStart) : bitset.nextClearBit(runStart);
+                runEnd = runEnd < 0 ? end : Math.min(runEnd, end);
+
+                if (isSet) {
+                    bitset.set(runStart, runEnd);
+                    if (!isAtomic()) {
+                        int indicesIndex = bitset.rank(runStart);
+                        _nextAdd(indicesIndex, indicesIndex + runEnd - runStart);
+                    }
+                } else {
+                    int indicesIndex = isAtomic() ? 0 : bitset.rank(runStart);
+                    RankedBitSet removed = new RankedBitSet(runEnd);
+                    removed.set(runStart, runEnd);
+                    bitset.clear(runStart, runEnd);
+                    _nextRemove(indicesIndex, new SelectedIndicesList(removed));
+                }
+                pos = runEnd;
             }
             _endChange();
         }
@@ -791,7 +804,9 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
 
         public void clear() {
             _beginChange();
-            List<Integer> removed = bitset.stream().boxed().collect(Collectors.toList());
+            // the removed indices are reported through a view of a copy of the
+            // bitset, rather than by boxing every previously selected index
+            List<Integer> removed = new SelectedIndicesList((RankedBitSet) bitset.clone());
             bitset.clear();
             _nextRemove(0, removed);
             _endChange();
@@ -800,7 +815,7 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
         public void clear(int index) {
             if (!bitset.get(index)) return;
 
-            int indicesIndex = indexOf(index);
+            int indicesIndex = isAtomic() ? 0 : bitset.rank(index);
             _beginChange();
             bitset.clear(index);
             _nextRemove(indicesIndex, index);
@@ -867,7 +882,11 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
 
         @Override public int indexOf(Object obj) {
             reset();
-            return super.indexOf(obj);
+            return contains(obj) ? bitset.rank(((Number) obj).intValue()) : -1;
+        }
+
+        @Override public int lastIndexOf(Object obj) {
+            return indexOf(obj);
         }
 
         @Override public boolean contains(Object o) {
@@ -888,6 +907,8 @@ abstract class MultipleSelectionModelBase<T> extends MultipleSelectionModel<T> {
         }
 
         @Override public void _beginChange() {
+            // the bitset is about to change, so the iteration cursor can no longer be trusted
+            reset();
             if (!isAtomic()) {
                 super._beginChange();
             }
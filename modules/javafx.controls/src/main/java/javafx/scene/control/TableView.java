@@ -27,7 +27,6 @@ package javafx.scene.control;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -2113,6 +2112,14 @@ public class TableView<S> extends Control {
                 @Override public boolean isCellSelectionEnabled() {
                     return TableViewArrayListSelectionModel.this.isCellSelectionEnabled();
                 }
+
+                @Override protected TablePosition<S,?> createPosition(int row, int column, TableColumnBase<?,?> tableColumn) {
+                    TablePosition<S,?> tp = new TablePosition<>(getTableView(), row, (TableColumn<S,?>) tableColumn);
+                    // the cell is keyed by the column index it was selected at,
+                    // which is not necessarily the current index of the column
+                    tp.fixedColumnIndex = column;
+                    return tp;
+                }
             };
 
             selectedCellsSeq = new ReadOnlyUnbackedObservableList<TablePosition<S,?>>() {
@@ -2123,6 +2130,10 @@ public class TableView<S> extends Control {
                 @Override public int size() {
                     return selectedCellsMap.size();
                 }
+
+                @Override public int indexOf(Object o) {
+                    return o instanceof TablePosition ? selectedCellsMap.indexOf((TablePosition<S,?>) o) : -1;
+                }
             };
 //            selectedCellsSeq.addListener((ListChangeListener<? super TablePosition<S,?>>) c -> {
 //                ControlUtils.updateSelectedIndices(this, c);
@@ -2408,9 +2419,9 @@ public class TableView<S> extends Control {
             // replace the anchor
             TableCellBehavior.setAnchor(tableView, newTablePosition, false);
 
-            // firstly we make a copy of the selection, so that we can send out
+            // firstly we take a snapshot of the selection, so that we can send out
             // the correct details in the selection change event.
-            List<TablePosition<S,?>> previousSelection = new ArrayList<>(selectedCellsMap.getSelectedCells());
+            List<TablePosition<S,?>> previousSelection = selectedCellsMap.getSelectedCells();
 
             // secondly we check if we can short-circuit out of here because the new selection
             // equals the current selection
@@ -2443,14 +2454,10 @@ public class TableView<S> extends Control {
 
             // We remove the new selection from the list seeing as it is not removed.
             if (isCellSelectionEnabled) {
-                previousSelection.remove(newTablePosition);
+                previousSelection = ControlUtils.withoutElementAt(previousSelection, previousSelection.indexOf(newTablePosition));
             } else {
-                for (TablePosition<S,?> tp : previousSelection) {
-                    if (tp.getRow() == row) {
-                        previousSelection.remove(tp);
-                        break;
-                    }
-                }
+                previousSelection = ControlUtils.withoutElementAt(previousSelection,
+                        ControlUtils.indexOfFirstInRow(previousSelection, row));
             }
 
             // fire off a single add/remove/replace notification (rather than
@@ -2635,36 +2642,26 @@ public class TableView<S> extends Control {
         @Override public void selectAll() {
             if (getSelectionMode() == SelectionMode.SINGLE) return;
 
+            // the cells are selected as a range, so that the positions are only
+            // created when they are requested from the selectedCells list
+            final int itemCount = getItemCount();
             if (isCellSelectionEnabled()) {
-                List<TablePosition<S,?>> indices = new ArrayList<>();
-                TableColumn<S,?> column;
-                TablePosition<S,?> tp = null;
-                for (int col = 0; col < getTableView().getVisibleLeafColumns().size(); col++) {
-                    column = getTableView().getVisibleLeafColumns().get(col);
-                    for (int row = 0; row < getItemCount(); row++) {
-                        tp = new TablePosition<>(getTableView(), row, column);
-                        indices.add(tp);
-                    }
-                }
-                selectedCellsMap.setAll(indices);
+                final int columnCount = getTableView().getVisibleLeafColumns().size();
+                selectedCellsMap.setAll(0, itemCount, getTableView().getVisibleLeafColumns());
 
-                if (tp != null) {
-                    select(tp.getRow(), tp.getTableColumn());
-                    focus(tp.getRow(), tp.getTableColumn());
+                if (itemCount > 0 && columnCount > 0) {
+                    TableColumn<S,?> column = getTableView().getVisibleLeafColumn(columnCount - 1);
+                    select(itemCount - 1, column);
+                    focus(itemCount - 1, column);
                 }
             } else {
-                List<TablePosition<S,?>> indices = new ArrayList<>();
-                for (int i = 0; i < getItemCount(); i++) {
-                    indices.add(new TablePosition<>(getTableView(), i, null));
-                }
-                selectedCellsMap.setAll(indices);
+                selectedCellsMap.setAll(0, itemCount, null);
 
                 int focusedIndex = getFocusedIndex();
                 if (focusedIndex == -1) {
-                    final int itemCount = getItemCount();
                     if (itemCount > 0) {
                         select(itemCount - 1);
-                        focus(indices.get(indices.size() - 1));
+                        focus(new TablePosition<>(getTableView(), itemCount - 1, null));
                     }
                 } else {
                     select(focusedIndex);
@@ -2785,7 +2782,7 @@ public class TableView<S> extends Control {
         }
 
         @Override public void clearSelection() {
-            final List<TablePosition<S,?>> removed = new ArrayList<>((Collection)getSelectedCells());
+            final List<TablePosition<S,?>> removed = selectedCellsMap.getSelectedCells();
 
             quietClearSelection();
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -49,6 +49,7 @@ import javafx.css.StyleableProperty;
 import com.sun.javafx.binding.ExpressionHelper;
 import com.sun.javafx.collections.ListListenerHelper;
 import com.sun.javafx.collections.NonIterableChange;
+import com.sun.javafx.scene.control.TextAreaHelper;
 import javafx.css.converter.SizeConverter;
 import javafx.scene.control.skin.TextAreaSkin;
 
@@ -84,6 +85,23 @@ import javafx.scene.AccessibleRole;
  * @since JavaFX 2.0
  */
 public class TextArea extends TextInputControl {
+    static {
+        TextAreaHelper.setTextAreaAccessor(
+                new TextAreaHelper.TextAreaAccessor() {
+
+                    @Override
+                    public int getParagraphIndex(TextArea textArea, int offset) {
+                        return ((TextAreaContent) textArea.getContent()).getParagraphIndex(offset);
+                    }
+
+                    @Override
+                    public int getParagraphStart(TextArea textArea, int paragraphIndex) {
+                        return ((TextAreaContent) textArea.getContent()).getParagraphStart(paragraphIndex);
+                    }
+
+                });
+    }
+
     // Text area content model
     private static final class TextAreaContent implements Content {
         private ExpressionHelper<String> helper = null;
@@ -92,6 +110,14 @@ public class TextArea extends TextInputControl {
         private ParagraphList paragraphList = new ParagraphList();
         private ListListenerHelper<CharSequence> listenerHelper;
 
+        // Prefix sums of the paragraph lengths, each including the line separator,
+        // kept as a Fenwick tree so that the paragraph at an offset is found in
+        // logarithmic rather than linear time. The tree is updated in place when
+        // the length of a paragraph changes, and rebuilt on demand when paragraphs
+        // are added or removed.
+        private int[] offsetTree;
+        private boolean offsetTreeValid;
+
         private TextAreaContent() {
             paragraphs.add(new StringBuilder(DEFAULT_PARAGRAPH_CAPACITY));
             paragraphList.content = this;
@@ -101,39 +127,23 @@ public class TextArea extends TextInputControl {
             int length = end - start;
             StringBuilder textBuilder = new StringBuilder(length);
 
-            int paragraphCount = paragraphs.size();
-
-            int paragraphIndex = 0;
-            int offset = start;
+            int paragraphIndex = getParagraphIndex(start);
+            int offset = start - getParagraphStart(paragraphIndex);
 
-            while (paragraphIndex < paragraphCount) {
+            // Copy the text paragraph by paragraph, separating them by
+            // line feeds
+            while (length > 0) {
                 StringBuilder paragraph = paragraphs.get(paragraphIndex);
-                int count = paragraph.length() + 1;
-
-                if (offset < count) {
-                    break;
-                }
+                int count = Math.min(paragraph.length() - offset, length);
+                textBuilder.append(paragraph, offset, offset + count);
+                length -= count;
 
-                offset -= count;
-                paragraphIndex++;
-            }
-
-            // Read characters until end is reached, appending to text builder
-            // and moving to next paragraph as needed
-            StringBuilder paragraph = paragraphs.get(paragraphIndex);
-
-            int i = 0;
-            while (i < length) {
-                if (offset == paragraph.length()
-                    && i < contentLength) {
+                if (length > 0) {
                     textBuilder.append('\n');
-                    paragraph = paragraphs.get(++paragraphIndex);
+                    length--;
+                    paragraphIndex++;
                     offset = 0;
-                } else {
-                    textBuilder.append(paragraph.charAt(offset++));
                 }
-
-                i++;
             }
 
             return textBuilder.toString();
@@ -156,31 +166,22 @@ public class TextArea extends TextInputControl {
                 // Split the text into lines
                 ArrayList<StringBuilder> lines = new ArrayList<StringBuilder>();
 
-                StringBuilder line = new StringBuilder(DEFAULT_PARAGRAPH_CAPACITY);
-                for (int i = 0; i < length; i++) {
-                    char c = text.charAt(i);
-
-                    if (c == '\n') {
-                        lines.add(line);
-                        line = new StringBuilder(DEFAULT_PARAGRAPH_CAPACITY);
-                    } else {
-                        line.append(c);
-                    }
+                int lineStart = 0;
+                for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', lineStart)) {
+                    lines.add(new StringBuilder(Math.max(DEFAULT_PARAGRAPH_CAPACITY, i - lineStart))
+                            .append(text, lineStart, i));
+                    lineStart = i + 1;
                 }
 
+                StringBuilder line = new StringBuilder(Math.max(DEFAULT_PARAGRAPH_CAPACITY, length - lineStart))
+                        .append(text, lineStart, length);
                 lines.add(line);
 
                 // Merge the text into the existing content
-                // Merge the text into the existing content
-                int paragraphIndex = paragraphs.size();
-                int offset = contentLength + 1;
-
-                StringBuilder paragraph = null;
+                int paragraphIndex = getParagraphIndex(index);
+                int offset = getParagraphStart(paragraphIndex);
 
-                do {
-                    paragraph = paragraphs.get(--paragraphIndex);
-                    offset -= paragraph.length() + 1;
-                } while (index < offset);
+                StringBuilder paragraph = paragraphs.get(paragraphIndex);
 
                 int start = index - offset;
 
@@ -189,6 +190,7 @@ public class TextArea extends TextInputControl {
                     // The text contains only a single line; insert it into the
                     // intersecting paragraph
                     paragraph.insert(start, line);
+                    paragraphLengthChanged(paragraphIndex, length);
                     fireParagraphListChangeEvent(paragraphIndex, paragraphIndex + 1,
                         Collections.singletonList((CharSequence)paragraph));
                 } else {
@@ -203,11 +205,13 @@ public class TextArea extends TextInputControl {
                     StringBuilder first = lines.get(0);
                     paragraph.insert(start, first);
                     line.append(trailingText);
+                    offsetTreeValid = false;
                     fireParagraphListChangeEvent(paragraphIndex, paragraphIndex + 1,
                         Collections.singletonList((CharSequence)paragraph));
 
                     // Insert the remaining lines into the paragraph list
                     paragraphs.addAll(paragraphIndex + 1, lines.subList(1, n));
+                    offsetTreeValid = false;
                     fireParagraphListChangeEvent(paragraphIndex + 1, paragraphIndex + n,
                         Collections.EMPTY_LIST);
                 }
@@ -234,38 +238,21 @@ public class TextArea extends TextInputControl {
 
             if (length > 0) {
                 // Identify the trailing paragraph index
-                int paragraphIndex = paragraphs.size();
-                int offset = contentLength + 1;
-
-                StringBuilder paragraph = null;
-
-                do {
-                    paragraph = paragraphs.get(--paragraphIndex);
-                    offset -= paragraph.length() + 1;
-                } while (end < offset);
-
-                int trailingParagraphIndex = paragraphIndex;
-                int trailingOffset = offset;
-                StringBuilder trailingParagraph = paragraph;
+                int trailingParagraphIndex = getParagraphIndex(end);
+                int trailingOffset = getParagraphStart(trailingParagraphIndex);
+                StringBuilder trailingParagraph = paragraphs.get(trailingParagraphIndex);
 
                 // Identify the leading paragraph index
-                paragraphIndex++;
-                offset += paragraph.length() + 1;
-
-                do {
-                    paragraph = paragraphs.get(--paragraphIndex);
-                    offset -= paragraph.length() + 1;
-                } while (start < offset);
-
-                int leadingParagraphIndex = paragraphIndex;
-                int leadingOffset = offset;
-                StringBuilder leadingParagraph = paragraph;
+                int leadingParagraphIndex = getParagraphIndex(start);
+                int leadingOffset = getParagraphStart(leadingParagraphIndex);
+                StringBuilder leadingParagraph = paragraphs.get(leadingParagraphIndex);
 
                 // Remove the text
                 if (leadingParagraphIndex == trailingParagraphIndex) {
                     // The removal affects only a single paragraph
                     leadingParagraph.delete(start - leadingOffset,
                         end - leadingOffset);
+                    paragraphLengthChanged(leadingParagraphIndex, -length);
 
                     fireParagraphListChangeEvent(leadingParagraphIndex, leadingParagraphIndex + 1,
                         Collections.singletonList((CharSequence)leadingParagraph));
@@ -277,6 +264,7 @@ public class TextArea extends TextInputControl {
                     int trailingSegmentLength = (start + length) - trailingOffset;
 
                     trailingParagraph.delete(0, trailingSegmentLength);
+                    offsetTreeValid = false;
                     fireParagraphListChangeEvent(trailingParagraphIndex, trailingParagraphIndex + 1,
                         Collections.singletonList((CharSequence)trailingParagraph));
 
@@ -285,12 +273,14 @@ public class TextArea extends TextInputControl {
                             trailingParagraphIndex));
                         paragraphs.subList(leadingParagraphIndex,
                             trailingParagraphIndex).clear();
+                        offsetTreeValid = false;
                         fireParagraphListChangeEvent(leadingParagraphIndex, leadingParagraphIndex,
                             removed);
                     }
 
                     // Trailing paragraph is now at the former leading paragraph's index
                     trailingParagraph.insert(0, leadingSegment);
+                    offsetTreeValid = false;
                     fireParagraphListChangeEvent(leadingParagraphIndex, leadingParagraphIndex + 1,
                         Collections.singletonList((CharSequence)leadingParagraph));
                 }
@@ -331,6 +321,62 @@ public class TextArea extends TextInputControl {
             helper = ExpressionHelper.removeListener(helper, listener);
         }
 
+        /**
+         * Returns the index of the paragraph that contains the given offset,
+         * where the offset of the line separator after a paragraph counts as
+         * part of that paragraph.
+         */
+        private int getParagraphIndex(int offset) {
+            validateOffsetTree();
+
+            int n = offsetTree.length - 1;
+            int index = 0;
+            for (int step = Integer.highestOneBit(n); step > 0; step >>= 1) {
+                int next = index + step;
+                if (next <= n && offsetTree[next] <= offset) {
+                    index = next;
+                    offset -= offsetTree[next];
+                }
+            }
+            return Math.min(index, n - 1);
+        }
+
+        /**
+         * Returns the offset of the first character of the given paragraph.
+         */
+        private int getParagraphStart(int paragraphIndex) {
+            validateOffsetTree();
+
+            int offset = 0;
+            for (int i = paragraphIndex; i > 0; i -= i & -i) {
+                offset += offsetTree[i];
+            }
+            return offset;
+        }
+
+        private void paragraphLengthChanged(int paragraphIndex, int delta) {
+            if (!offsetTreeValid) return;
+
+            for (int i = paragraphIndex + 1; i < offsetTree.length; i += i & -i) {
+                offsetTree[i] += delta;
+            }
+        }
+
+        private void validateOffsetTree() {
+            if (offsetTreeValid) return;
+
+            int n = paragraphs.size();
+            offsetTree = new int[n + 1];
+            for (int i = 1; i <= n; i++) {
+                offsetTree[i] += paragraphs.get(i - 1).length() + 1;
+                int parent = i + (i & -i);
+                if (parent <= n) {
+                    offsetTree[parent] += offsetTree[i];
+                }
+            }
+            offsetTreeValid = true;
+        }
+
         private void fireParagraphListChangeEvent(int from, int to, List<CharSequence> removed) {
             ParagraphListChange change = new ParagraphListChange(paragraphList, from, to, removed);
             ListListenerHelper.fireValueChangedEvent(listenerHelper, change);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -366,6 +366,7 @@ public class TreeItem<T> implements EventTarget { //, Comparable<TreeItem<T>> {
         new EventHandler<TreeModificationEvent<Object>>() {
             @Override public void handle(TreeModificationEvent<Object> event) {
                 expandedDescendentCountDirty = true;
+                invalidateChildCount(event.getTreeItem());
             }
     };
 
@@ -404,6 +405,20 @@ public class TreeItem<T> implements EventTarget { //, Comparable<TreeItem<T>> {
     // when all children are collapsed.
     int previousExpandedDescendentCount = 1;
 
+    // The expanded item counts of the children, indexed so that TreeView and
+    // TreeTableView can map between rows and tree items in O(log n) time per
+    // level. When the count of a single child changes, which is what happens
+    // when an item anywhere below it is expanded or collapsed, only that
+    // child is updated in the index. The index is only rebuilt when the
+    // children list itself changes, or when this item is expanded.
+    private ExpandedCountIndex childCountIndex;
+    private boolean childCountIndexDirty = true;
+    private List<TreeItem<?>> pendingChildren;
+
+    // The position of this item in the children list of its parent when it
+    // was last looked up. This is only a hint, see indexOfChild.
+    private int indexInParent = -1;
+
     Comparator<TreeItem<T>> lastComparator = null;
     TreeSortMode lastSortMode = null;
 
@@ -422,6 +437,7 @@ public class TreeItem<T> implements EventTarget { //, Comparable<TreeItem<T>> {
     // called whenever the contents of the children sequence changes
     private ListChangeListener<TreeItem<T>> childrenListener = c -> {
         expandedDescendentCountDirty = true;
+        childCountIndexDirty = true;
         updateChildren(c);
     };
 
@@ -912,12 +928,139 @@ public class TreeItem<T> implements EventTarget { //, Comparable<TreeItem<T>> {
 
         ignoreSortUpdate = true;
         if (!isLeaf() && isExpanded()) {
-            for (TreeItem<T> child : getChildren()) {
+            expandedDescendentCount += updateChildCountIndex(reset);
+        }
+        ignoreSortUpdate = false;
+    }
+
+    private int updateChildCountIndex(boolean reset) {
+        final List<TreeItem<T>> children = getChildren();
+        final int size = children.size();
+
+        // take the pending changes first, as computing the counts of the
+        // children may cause more of them (for example when a TreeItem
+        // populates its children lazily)
+        final List<TreeItem<?>> pending = pendingChildren;
+        final boolean rebuild = reset || childCountIndexDirty
+                || childCountIndex == null || childCountIndex.size() != size;
+        pendingChildren = null;
+        childCountIndexDirty = false;
+
+        if (rebuild) {
+            final int[] counts = new int[size];
+            for (int i = 0; i < size; i++) {
+                final TreeItem<T> child = children.get(i);
                 if (child == null) continue;
-                expandedDescendentCount += child.isExpanded() ? child.getExpandedDescendentCount(reset) : 1;
+                child.indexInParent = i;
+                counts[i] = child.isExpanded() ? child.getExpandedDescendentCount(reset) : 1;
+            }
+            if (childCountIndex == null) {
+                childCountIndex = new ExpandedCountIndex();
+            }
+            childCountIndex.setAll(counts, size);
+        } else if (pending != null) {
+            for (int i = 0, max = pending.size(); i < max; i++) {
+                final TreeItem<?> child = pending.get(i);
+                final int index = indexOfChild(child);
+                if (index == -1) continue;
+                childCountIndex.set(index, child.isExpanded() ? child.getExpandedDescendentCount(false) : 1);
             }
         }
-        ignoreSortUpdate = false;
+        return childCountIndex.getTotal();
+    }
+
+    /*
+     * Called when the expanded item count of the given item changed, which is
+     * either this item or one of its descendants. In the latter case, only
+     * the count of the child that the given item descends from needs to be
+     * updated in the index.
+     */
+    private void invalidateChildCount(TreeItem<?> treeItem) {
+        if (childCountIndexDirty) return;
+
+        TreeItem<?> child = treeItem;
+        while (child != null && child != this && child.getParent() != this) {
+            child = child.getParent();
+        }
+
+        if (child == null || child == this
+                || (pendingChildren != null && pendingChildren.size() > Math.max(16, childCountIndex.size() / 8))) {
+            // rebuilding the index is cheaper than many single updates
+            childCountIndexDirty = true;
+            pendingChildren = null;
+            return;
+        }
+
+        if (pendingChildren == null) {
+            pendingChildren = new ArrayList<>();
+        } else if (pendingChildren.get(pendingChildren.size() - 1) == child) {
+            return;
+        }
+        pendingChildren.add(child);
+    }
+
+    private int indexOfChild(TreeItem<?> child) {
+        if (children == null) return -1;
+        final int hint = child.indexInParent;
+        if (hint >= 0 && hint < children.size() && children.get(hint) == child) {
+            return hint;
+        }
+        final int index = children.indexOf(child);
+        child.indexInParent = index;
+        return index;
+    }
+
+    /*
+     * The index of the children by expanded item count is only valid when
+     * the expanded item count of this item is up to date and this item shows
+     * its children. Updating the count may call getChildren(), so this is
+     * only done when asked for.
+     */
+    private boolean isChildCountIndexValid(boolean update) {
+        if (update) {
+            getExpandedDescendentCount(false);
+        } else if (expandedDescendentCountDirty) {
+            return false;
+        }
+        return childCountIndex != null && !childCountIndexDirty && pendingChildren == null
+                && !isLeaf() && isExpanded() && childCountIndex.size() == children.size();
+    }
+
+    /**
+     * Returns the index of the child that is shown at the given offset within
+     * the expanded descendants of this TreeItem, where the first child is at
+     * offset zero, or -1 if this can not be determined from the index of the
+     * children. This value is package accessible so that it may be retrieved
+     * from TreeUtil.
+     */
+    int getExpandedChildIndex(int offset) {
+        if (!isChildCountIndexValid(true)) return -1;
+        final int index = childCountIndex.indexOf(offset);
+        return index < childCountIndex.size() ? index : -1;
+    }
+
+    /**
+     * Returns the offset of the first row of the child at the given index
+     * within the expanded descendants of this TreeItem, as the index of the
+     * children was at the last call to getExpandedChildIndex. This value is
+     * package accessible so that it may be retrieved from TreeUtil.
+     */
+    int getExpandedChildOffset(int index) {
+        return childCountIndex.getOffset(index);
+    }
+
+    /**
+     * Returns the offset of the first row of the given child within the
+     * expanded descendants of this TreeItem, or -1 if this can not be
+     * determined from the index of the children as it currently is (this
+     * does not update the expanded item count, as that may populate the
+     * children while they are being observed). This value is package
+     * accessible so that it may be retrieved from TreeUtil.
+     */
+    int getExpandedChildOffset(TreeItem<T> child) {
+        if (!isChildCountIndexValid(false)) return -1;
+        final int index = indexOfChild(child);
+        return index == -1 ? -1 : childCountIndex.getOffset(index);
     }
 
     private void updateChildren(ListChangeListener.Change<? extends TreeItem<T>> c) {
@@ -49,17 +49,13 @@ import javafx.event.WeakEventHandler;
 
 import javafx.scene.control.skin.TreeTableViewSkin;
 
-import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 
@@ -618,10 +614,6 @@ public class TreeTableView<S> extends Control {
     // be recalculated.
     private boolean expandedItemCountDirty = true;
 
-    // Used in the getTreeItem(int row) method to act as a cache.
-    // See RT-26716 for the justification and performance gains.
-    private Map<Integer, SoftReference<TreeItem<S>>> treeItemCacheMap = new HashMap<>();
-
     // this is the only publicly writable list for columns. This represents the
     // columns as they are given initially by the developer.
     private final ObservableList<TreeTableColumn<S,?>> columns = FXCollections.observableArrayList();
@@ -1643,7 +1635,7 @@ public class TreeTableView<S> extends Control {
      *      collapsed).
      */
     public int getRow(TreeItem<S> item) {
-        return TreeUtil.getRow(item, getRoot(), expandedItemCountDirty, isShowRoot());
+        return TreeUtil.getRow(item, getRoot(), isShowRoot());
     }
 
     /**
@@ -1660,19 +1652,9 @@ public class TreeTableView<S> extends Control {
 
         if (expandedItemCountDirty) {
             updateExpandedItemCount(getRoot());
-        } else {
-            if (treeItemCacheMap.containsKey(_row)) {
-                SoftReference<TreeItem<S>> treeItemRef = treeItemCacheMap.get(_row);
-                TreeItem<S> treeItem = treeItemRef.get();
-                if (treeItem != null) {
-                    return treeItem;
-                }
-            }
         }
 
-        TreeItem<S> treeItem = TreeUtil.getItem(getRoot(), _row, expandedItemCountDirty);
-        treeItemCacheMap.put(_row, new SoftReference<>(treeItem));
-        return treeItem;
+        return TreeUtil.getItem(getRoot(), _row);
     }
 
     /**
@@ -1954,14 +1936,7 @@ public class TreeTableView<S> extends Control {
     }
 
     private void updateExpandedItemCount(TreeItem<S> treeItem) {
-        setExpandedItemCount(TreeUtil.updateExpandedItemCount(treeItem, expandedItemCountDirty, isShowRoot()));
-
-        if (expandedItemCountDirty) {
-            // this is a very inefficient thing to do, but for now having a cache
-            // is better than nothing at all...
-            treeItemCacheMap.clear();
-        }
-
+        setExpandedItemCount(TreeUtil.updateExpandedItemCount(treeItem, isShowRoot()));
         expandedItemCountDirty = false;
     }
 
@@ -2422,6 +2397,12 @@ public class TreeTableView<S> extends Control {
                 @Override public boolean isCellSelectionEnabled() {
                     return TreeTableViewArrayListSelectionModel.this.isCellSelectionEnabled();
                 }
+
+                @Override protected TreeTablePosition<S,?> createPosition(int row, int column, TableColumnBase<?,?> tableColumn) {
+                    TreeTablePosition<S,?> tp = new TreeTablePosition<>(getTreeTableView(), row, (TreeTableColumn<S,?>) tableColumn);
+                    tp.fixedColumnIndex = column;
+                    return tp;
+                }
             };
 
             selectedCellsSeq = new ReadOnlyUnbackedObservableList<TreeTablePosition<S,?>>() {
@@ -2432,6 +2413,10 @@ public class TreeTableView<S> extends Control {
                 @Override public int size() {
                     return selectedCellsMap.size();
                 }
+
+                @Override public int indexOf(Object o) {
+                    return o instanceof TreeTablePosition ? selectedCellsMap.indexOf((TreeTablePosition<S,?>) o) : -1;
+                }
             };
 //            selectedCellsSeq.addListener((ListChangeListener<? super TreeTablePosition<S,?>>) c -> {
 //                ControlUtils.updateSelectedIndices(this, c);
@@ -2758,9 +2743,9 @@ public class TreeTableView<S> extends Control {
             // replace the anchor
             TreeTableCellBehavior.setAnchor(treeTableView, newTablePosition, false);
 
-            // firstly we make a copy of the selection, so that we can send out
+            // firstly we take a snapshot of the selection, so that we can send out
             // the correct details in the selection change event.
-            List<TreeTablePosition<S,?>> previousSelection = new ArrayList<>(selectedCellsMap.getSelectedCells());
+            List<TreeTablePosition<S,?>> previousSelection = selectedCellsMap.getSelectedCells();
 
             // secondly we check if we can short-circuit out of here because the new selection
             // equals the current selection
@@ -2792,14 +2777,10 @@ public class TreeTableView<S> extends Control {
 
             // We remove the new selection from the list seeing as it is not removed.
             if (isCellSelectionEnabled) {
-                previousSelection.remove(newTablePosition);
+                previousSelection = ControlUtils.withoutElementAt(previousSelection, previousSelection.indexOf(newTablePosition));
             } else {
-                for (TreeTablePosition<S,?> tp : previousSelection) {
-                    if (tp.getRow() == row) {
-                        previousSelection.remove(tp);
-                        break;
-                    }
-                }
+                previousSelection = ControlUtils.withoutElementAt(previousSelection,
+                        ControlUtils.indexOfFirstInRow(previousSelection, row));
             }
 
             // fire off a single add/remove/replace notification (rather than
@@ -3125,7 +3106,7 @@ public class TreeTableView<S> extends Control {
         }
 
         @Override public void clearSelection() {
-            final List<TreeTablePosition<S,?>> removed = new ArrayList<>((Collection)getSelectedCells());
+            final List<TreeTablePosition<S,?>> removed = selectedCellsMap.getSelectedCells();
 
             quietClearSelection();
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -30,37 +30,42 @@ import java.util.List;
 /**
  * A package protected util class used by TreeView and TreeTableView to reduce
  * the level of code duplication.
+ * <p>
+ * Each TreeItem keeps the expanded item counts of its children in an
+ * {@link ExpandedCountIndex} that is updated as items are expanded and
+ * collapsed, so rows and tree items are mapped onto each other in
+ * O(depth * log(children)) time rather than by walking the tree.
  */
 class TreeUtil {
 
-    static <T> int getExpandedDescendantCount(TreeItem<T> node, boolean treeItemCountDirty) {
+    static <T> int getExpandedDescendantCount(TreeItem<T> node) {
         if (node == null) return 0;
         if (node.isLeaf()) return 1;
 
-        return node.getExpandedDescendentCount(treeItemCountDirty);
+        return node.getExpandedDescendentCount(false);
     }
 
-    static int updateExpandedItemCount(TreeItem treeItem, boolean treeItemCountDirty, boolean isShowRoot) {
+    static int updateExpandedItemCount(TreeItem treeItem, boolean isShowRoot) {
         if (treeItem == null) {
             return 0;
         } else if (! treeItem.isExpanded()) {
             return 1;
         } else {
-            int count = getExpandedDescendantCount(treeItem, treeItemCountDirty);
+            int count = getExpandedDescendantCount(treeItem);
             if (! isShowRoot) count--;
 
             return count;
         }
     }
 
-    static <T> TreeItem<T> getItem(TreeItem<T> parent, int itemIndex, boolean treeItemCountDirty) {
+    static <T> TreeItem<T> getItem(TreeItem<T> parent, int itemIndex) {
         if (parent == null) return null;
 
         // if itemIndex is 0 then our parent is what we were looking for
         if (itemIndex == 0) return parent;
 
         // if itemIndex is > the total item count, then it is out of range
-        if (itemIndex >= getExpandedDescendantCount(parent, treeItemCountDirty)) return null;
+        if (itemIndex >= getExpandedDescendantCount(parent)) return null;
 
         // if we got here, then one of our descendants is the item we're after
         List<TreeItem<T>> children = parent.getChildren();
@@ -68,6 +73,13 @@ class TreeUtil {
 
         int idx = itemIndex - 1;
 
+        // look the child up in the index of the expanded item counts of the
+        // children
+        final int childIndex = parent.getExpandedChildIndex(idx);
+        if (childIndex != -1) {
+            return getItem(children.get(childIndex), idx - parent.getExpandedChildOffset(childIndex));
+        }
+
         TreeItem<T> child;
         for (int i = 0, max = children.size(); i < max; i++) {
             child = children.get(i);
@@ -78,13 +90,13 @@ class TreeUtil {
                 continue;
             }
 
-            int expandedChildCount = getExpandedDescendantCount(child, treeItemCountDirty);
+            int expandedChildCount = getExpandedDescendantCount(child);
             if (idx >= expandedChildCount) {
                 idx -= expandedChildCount;
                 continue;
             }
 
-            TreeItem<T> result = getItem(child, idx, treeItemCountDirty);
+            TreeItem<T> result = getItem(child, idx);
             if (result != null) return result;
             idx--;
         }
@@ -93,7 +105,7 @@ class TreeUtil {
         return null;
     }
 
-    static <T> int getRow(TreeItem<T> item, TreeItem<T> root, boolean treeItemCountDirty, boolean isShowRoot) {
+    static <T> int getRow(TreeItem<T> item, TreeItem<T> root, boolean isShowRoot) {
         if (item == null) {
             return -1;
         } else if (isShowRoot && item.equals(root)) {
@@ -114,24 +126,32 @@ class TreeUtil {
                 break;
             }
 
-            siblings = p.children;
-
-            // work up each sibling, from the current item
-            int itemIndex = siblings.indexOf(i);
-            for (int pos = itemIndex - 1; pos > -1; pos--) {
-                sibling = siblings.get(pos);
-                if (sibling == null) continue;
-
-                row += getExpandedDescendantCount(sibling, treeItemCountDirty);
-
-                if (sibling.equals(root)) {
-                    if (! isShowRoot) {
-                        // special case: we've found out that our sibling is
-                        // actually the root node AND we aren't showing root nodes.
-                        // This means that the item shouldn't actually be shown.
-                        return -1;
+            // take the rows of the preceding siblings from the index of the
+            // expanded item counts of the children, unless the root is one
+            // of the siblings (see below)
+            final int offset = root != null && root.getParent() == p ? -1 : p.getExpandedChildOffset(i);
+            if (offset != -1) {
+                row += offset;
+            } else {
+                siblings = p.children;
+
+                // work up each sibling, from the current item
+                int itemIndex = siblings.indexOf(i);
+                for (int pos = itemIndex - 1; pos > -1; pos--) {
+                    sibling = siblings.get(pos);
+                    if (sibling == null) continue;
+
+                    row += getExpandedDescendantCount(sibling);
+
+                    if (sibling.equals(root)) {
+                        if (! isShowRoot) {
+                            // special case: we've found out that our sibling is
+                            // actually the root node AND we aren't showing root nodes.
+                            // This means that the item shouldn't actually be shown.
+                            return -1;
+                        }
+                        return row;
                     }
-                    return row;
                 }
             }
 
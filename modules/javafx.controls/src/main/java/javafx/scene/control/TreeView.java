@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2008, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2008, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -62,13 +62,10 @@ import javafx.scene.control.TreeItem.TreeModificationEvent;
 import javafx.scene.layout.Region;
 import javafx.util.Callback;
 
-import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The TreeView control provides a view on to a tree root (of type
@@ -352,10 +349,6 @@ public class TreeView<T> extends Control {
     // be recalculated.
     private boolean expandedItemCountDirty = true;
 
-    // Used in the getTreeItem(int row) method to act as a cache.
-    // See RT-26716 for the justification and performance gains.
-    private Map<Integer, SoftReference<TreeItem<T>>> treeItemCacheMap = new HashMap<>();
-
 
     /***************************************************************************
      *                                                                         *
@@ -983,7 +976,7 @@ public class TreeView<T> extends Control {
      *      collapsed).
      */
     public int getRow(TreeItem<T> item) {
-        return TreeUtil.getRow(item, getRoot(), expandedItemCountDirty, isShowRoot());
+        return TreeUtil.getRow(item, getRoot(), isShowRoot());
     }
 
     /**
@@ -1000,19 +993,9 @@ public class TreeView<T> extends Control {
 
         if (expandedItemCountDirty) {
             updateExpandedItemCount(getRoot());
-        } else {
-            if (treeItemCacheMap.containsKey(_row)) {
-                SoftReference<TreeItem<T>> treeItemRef = treeItemCacheMap.get(_row);
-                TreeItem<T> treeItem = treeItemRef.get();
-                if (treeItem != null) {
-                    return treeItem;
-                }
-            }
         }
 
-        TreeItem<T> treeItem = TreeUtil.getItem(getRoot(), _row, expandedItemCountDirty);
-        treeItemCacheMap.put(_row, new SoftReference<>(treeItem));
-        return treeItem;
+        return TreeUtil.getItem(getRoot(), _row);
     }
 
     /**
@@ -1074,14 +1057,7 @@ public class TreeView<T> extends Control {
      **************************************************************************/
 
     private void updateExpandedItemCount(TreeItem<T> treeItem) {
-        setExpandedItemCount(TreeUtil.updateExpandedItemCount(treeItem, expandedItemCountDirty, isShowRoot()));
-
-        if (expandedItemCountDirty) {
-            // this is a very inefficient thing to do, but for now having a cache
-            // is better than nothing at all...
-            treeItemCacheMap.clear();
-        }
-
+        setExpandedItemCount(TreeUtil.updateExpandedItemCount(treeItem, isShowRoot()));
         expandedItemCountDirty = false;
     }
 
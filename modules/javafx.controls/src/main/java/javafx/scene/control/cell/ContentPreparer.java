@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.scene.control.cell;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Callback;
+
+/**
+ * Prepares the content of cells ahead of time, on a background thread.
+ *
+ * <p>Cells normally compute what they show in
+ * {@link javafx.scene.control.Cell#updateItem(Object, boolean) updateItem},
+ * on the JavaFX Application Thread and during layout, so expensive work such
+ * as formatting numbers or dates slows down scrolling. A ContentPreparer
+ * splits this work in two: a pure <em>preparer</em> callback computes a value
+ * of type {@code R} from an item, and may be called on any thread, and the
+ * cell only applies that value to itself in {@code updateItem}.
+ *
+ * <p>Once a ContentPreparer is set on a {@link ListView} or a
+ * {@link TableColumn}, the skin of the control predicts from the direction and
+ * speed of scrolling which rows are shown next, and calls {@link #prefetch}
+ * for their items, which runs the preparer on the executor of this
+ * ContentPreparer. When a cell asks for the value of an item with
+ * {@link #getPrepared}, the value is either taken from the cache, or computed
+ * right away if it is not yet available.
+ *
+ * <p>The cells created by {@link #forListView} and {@link #forTableColumn}
+ * follow this contract:
+ *
+ * <pre>
+ * ContentPreparer&lt;Trade, String&gt; preparer =
+ *         new ContentPreparer&lt;&gt;(trade -&gt; formatter.format(trade.getAmount()));
+ * listView.setCellFactory(ContentPreparer.forListView(preparer, ListCell::setText));
+ * </pre>
+ *
+ * <p>The preparer must not access the scene graph, nor any other state that
+ * is only safe to use on the JavaFX Application Thread. Prepared values are
+ * cached by item, using the {@code equals} and {@code hashCode} methods of the
+ * items, so a preparer must return the same value for equal items. Call
+ * {@link #clear()} when the items have changed in a way that changes their
+ * prepared values. Apart from the preparer, the methods of this class must be
+ * called on the JavaFX Application Thread.
+ *
+ * @param <T> The type of the items from which content is prepared.
+ * @param <R> The type of the prepared content.
+ * @since 18
+ */
+public final class ContentPreparer<T, R> {
+
+    /***************************************************************************
+     *                                                                         *
+     * Static fields                                                           *
+     *                                                                         *
+     **************************************************************************/
+
+    private static final String CONTENT_PREPARER_KEY = "content-preparer";
+
+    /**
+     * The number of prepared values that are kept per ContentPreparer. This
+     * is enough for a few pages of rows ahead of and behind the visible rows.
+     */
+    private static final int CACHE_SIZE = 1024;
+
+    private static ExecutorService defaultExecutor;
+
+
+
+    /***************************************************************************
+     *                                                                         *
+     * Static methods                                                          *
+     *                                                                         *
+     **************************************************************************/
+
+    /**
+     * Sets the ContentPreparer that prepares the content of the cells of the
+     * given ListView from their items. Setting the value to null removes it.
+     *
+     * @param <T> The type of the items contained within the ListView.
+     * @param listView the ListView
+     * @param preparer the ContentPreparer, or null
+     */
+    public static <T> void setContentPreparer(ListView<T> listView, ContentPreparer<T, ?> preparer) {
+        if (preparer == null) {
+            listView.getProperties().remove(CONTENT_PREPARER_KEY);
+        } else {
+            listView.getProperties().put(CONTENT_PREPARER_KEY, preparer);
+        }
+    }
+
+    /**
+     * Returns the ContentPreparer of the given ListView, or null if it does
+     * not have one.
+     *
+     * @param <T> The type of the items contained within the ListView.
+     * @param listView the ListView
+     * @return the ContentPreparer, or null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ContentPreparer<T, ?> getContentPreparer(ListView<T> listView) {
+        return listView.hasProperties() ?
+                (ContentPreparer<T, ?>) listView.getProperties().get(CONTENT_PREPARER_KEY) : null;
+    }
+
+    /**
+     * Sets the ContentPreparer that prepares the content of the cells of the
+     * given TableColumn from the items of their rows. Setting the value to
+     * null removes it.
+     *
+     * @param <S> The type of the items contained within the TableView.
+     * @param column the TableColumn
+     * @param preparer the ContentPreparer, or null
+     */
+    public static <S> void setContentPreparer(TableColumn<S, ?> column, ContentPreparer<S, ?> preparer) {
+        if (preparer == null) {
+            column.getProperties().remove(CONTENT_PREPARER_KEY);
+        } else {
+            column.getProperties().put(CONTENT_PREPARER_KEY, preparer);
+        }
+    }
+
+    /**
+     * Returns the ContentPreparer of the given TableColumn, or null if it
+     * does not have one.
+     *
+     * @param <S> The type of the items contained within the TableView.
+     * @param column the TableColumn
+     * @return the ContentPreparer, or null
+     */
+    @SuppressWarnings("unchecked")
+    public static <S> ContentPreparer<S, ?> getContentPreparer(TableColumn<S, ?> column) {
+        return column.hasProperties() ?
+                (ContentPreparer<S, ?>) column.getProperties().get(CONTENT_PREPARER_KEY) : null;
+    }
+
+    /**
+     * Returns a cell factory for a ListView whose cells show content prepared
+     * by the given ContentPreparer. The ContentPreparer is set on the ListView
+     * when the first cell is created. Empty cells have neither text nor a
+     * graphic; for other cells, the prepared value of their item is passed to
+     * the given {@code apply} callback.
+     *
+     * @param <T> The type of the items contained within the ListView.
+     * @param <R> The type of the prepared content.
+     * @param preparer the ContentPreparer
+     * @param apply applies a prepared value to a cell, on the JavaFX
+     *      Application Thread
+     * @return A {@link Callback} that can be inserted into the
+     *      {@link ListView#cellFactoryProperty() cell factory property} of a
+     *      ListView.
+     */
+    public static <T, R> Callback<ListView<T>, ListCell<T>> forListView(
+            final ContentPreparer<T, R> preparer, final BiConsumer<? super ListCell<T>, ? super R> apply) {
+        return list -> {
+            if (getContentPreparer(list) != preparer) {
+                setContentPreparer(list, preparer);
+            }
+            return new ListCell<T>() {
+                @Override protected void updateItem(T item, boolean empty) {
+                    super.updateItem(item, empty);
+                    if (empty || item == null) {
+                        setText(null);
+                        setGraphic(null);
+                    } else {
+                        apply.accept(this, preparer.getPrepared(item));
+                    }
+                }
+            };
+        };
+    }
+
+    /**
+     * Returns a cell factory for a TableColumn whose cells show content
+     * prepared by the given ContentPreparer from the items of their rows. The
+     * ContentPreparer is set on the TableColumn when the first cell is
+     * created. Empty cells have neither text nor a graphic; for other cells,
+     * the prepared value of the item of their row is passed to the given
+     * {@code apply} callback.
+     *
+     * @param <S> The type of the items contained within the TableView.
+     * @param <T> The type of the values contained within the TableColumn.
+     * @param <R> The type of the prepared content.
+     * @param preparer the ContentPreparer
+     * @param apply applies a prepared value to a cell, on the JavaFX
+     *      Application Thread
+     * @return A {@link Callback} that can be inserted into the
+     *      {@link TableColumn#cellFactoryProperty() cell factory property} of a
+     *      TableColumn.
+     */
+    public static <S, T, R> Callback<TableColumn<S, T>, TableCell<S, T>> forTableColumn(
+            final ContentPreparer<S, R> preparer, final BiConsumer<? super TableCell<S, T>, ? super R> apply) {
+        return column -> {
+            if (getContentPreparer(column) != preparer) {
+                setContentPreparer(column, preparer);
+            }
+            return new TableCell<S, T>() {
+                @Override protected void updateItem(T item, boolean empty) {
+                    super.updateItem(item, empty);
+                    final TableView<S> tableView = getTableView();
+                    final int index = getIndex();
+                    if (empty || tableView == null || index < 0 || index >= tableView.getItems().size()) {
+                        setText(null);
+                        setGraphic(null);
+                    } else {
+                        apply.accept(this, preparer.getPrepared(tableView.getItems().get(index)));
+                    }
+                }
+            };
+        };
+    }
+
+    private static synchronized Executor getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            final AtomicInteger count = new AtomicInteger();
+            defaultExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "JavaFX Content Preparer " + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return defaultExecutor;
+    }
+
+
+
+    /***************************************************************************
+     *                                                                         *
+     * Fields                                                                  *
+     *                                                                         *
+     **************************************************************************/
+
+    private final Callback<T, R> preparer;
+    private final Executor executor;
+
+    // accessed on the FX thread only, the futures are completed either by
+    // the executor or by getPrepared
+    private final LinkedHashMap<T, CompletableFuture<R>> cache =
+            new LinkedHashMap<T, CompletableFuture<R>>(16, 0.75f, true) {
+                @Override protected boolean removeEldestEntry(Map.Entry<T, CompletableFuture<R>> eldest) {
+                    if (size() > CACHE_SIZE) {
+                        eldest.getValue().cancel(false);
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+
+
+    /***************************************************************************
+     *                                                                         *
+     * Constructors                                                            *
+     *                                                                         *
+     **************************************************************************/
+
+    /**
+     * Creates a ContentPreparer that runs the given preparer on a shared pool
+     * of daemon threads.
+     *
+     * @param preparer computes the content for an item, on any thread
+     * @throws NullPointerException if the preparer is null
+     */
+    public ContentPreparer(Callback<T, R> preparer) {
+        this(preparer, null);
+    }
+
+    /**
+     * Creates a ContentPreparer that runs the given preparer on the given
+     * executor.
+     *
+     * @param preparer computes the content for an item, on any thread
+     * @param executor the executor, or null to use a shared pool of daemon
+     *      threads
+     * @throws NullPointerException if the preparer is null
+     */
+    public ContentPreparer(Callback<T, R> preparer, Executor executor) {
+        if (preparer == null) {
+            throw new NullPointerException("preparer can not be null");
+        }
+        this.preparer = preparer;
+        this.executor = executor;
+    }
+
+
+
+    /***************************************************************************
+     *                                                                         *
+     * Public API                                                              *
+     *                                                                         *
+     **************************************************************************/
+
+    /**
+     * Returns the prepared content for the given item. If it has been
+     * prepared already, the cached value is returned, otherwise the preparer
+     * is called on the current thread.
+     *
+     * @param item the item
+     * @return the prepared content
+     */
+    public R getPrepared(T item) {
+        CompletableFuture<R> future = cache.get(item);
+        if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+            return future.join();
+        }
+        // not prepared yet, or the preparation failed: prepare it now, so
+        // that any exception is thrown here. Completing the future makes the
+        // executor skip or discard its result.
+        final R value = preparer.call(item);
+        if (future == null || !future.complete(value)) {
+            cache.put(item, CompletableFuture.completedFuture(value));
+        }
+        return value;
+    }
+
+    /**
+     * Prepares the content for the given item on the executor, unless it has
+     * been prepared or is being prepared already.
+     *
+     * @param item the item
+     */
+    public void prefetch(T item) {
+        if (item == null || cache.containsKey(item)) return;
+
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        cache.put(item, future);
+        final Executor e = executor != null ? executor : getDefaultExecutor();
+        e.execute(() -> {
+            if (future.isDone()) return;
+            try {
+                future.complete(preparer.call(item));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+    }
+
+    /**
+     * Returns true if the content for the given item has been prepared, and
+     * can be returned by {@link #getPrepared} without calling the preparer.
+     *
+     * @param item the item
+     * @return true if the content for the item is available
+     */
+    public boolean isPrepared(T item) {
+        CompletableFuture<R> future = cache.get(item);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Discards all prepared content, and cancels the preparations that have
+     * not started yet.
+     */
+    public void clear() {
+        for (CompletableFuture<R> future : cache.values()) {
+            future.cancel(false);
+        }
+        cache.clear();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.scene.control.skin;
+
+/**
+ * Determines when the content of a tab or titled pane is attached to the
+ * scene graph. Content that is not attached is not styled or laid out.
+ *
+ * <p>Set through the {@code -fx-content-policy} property of the
+ * {@link TabPaneSkin} and {@link TitledPaneSkin}.
+ */
+enum ContentPolicy {
+
+    /**
+     * The content is always attached, whether it is shown or not.
+     */
+    EAGER,
+
+    /**
+     * The content is attached the first time it is shown and stays attached.
+     */
+    LAZY,
+
+    /**
+     * The content is attached while it is shown, and is detached again once
+     * it has been hidden for the {@code -fx-content-release-delay}.
+     */
+    RELEASE
+}
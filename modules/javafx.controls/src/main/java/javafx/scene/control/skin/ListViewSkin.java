@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -27,6 +27,7 @@ package javafx.scene.control.skin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import com.sun.javafx.scene.control.Properties;
 import javafx.beans.InvalidationListener;
@@ -51,6 +52,7 @@ import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.MultipleSelectionModel;
 import javafx.scene.control.SelectionModel;
+import javafx.scene.control.cell.ContentPreparer;
 import com.sun.javafx.scene.control.behavior.ListViewBehavior;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.StackPane;
@@ -122,6 +124,7 @@ public class ListViewSkin<T> extends VirtualContainerBase<ListView<T>, ListCell<
      **************************************************************************/
 
     private MapChangeListener<Object, Object> propertiesMapListener = c -> {
+        updatePrefetchHandler();
         if (! c.wasAdded()) return;
         if (Properties.RECREATE.equals(c.getKey())) {
             needCellsRebuilt = true;
@@ -133,8 +136,13 @@ public class ListViewSkin<T> extends VirtualContainerBase<ListView<T>, ListCell<
     private WeakMapChangeListener<Object, Object> weakPropertiesMapListener =
             new WeakMapChangeListener<>(propertiesMapListener);
 
+    private final IntConsumer prefetchHandler = this::prefetchCell;
+
     private final ListChangeListener<T> listViewItemsListener = new ListChangeListener<T>() {
         @Override public void onChanged(Change<? extends T> c) {
+            // keep the cached sizes of the cells that were not changed
+            flow.itemsChanged(c);
+
             while (c.next()) {
                 if (c.wasReplaced()) {
                     // RT-28397: Support for when an item is replaced with itself (but
@@ -245,6 +253,7 @@ public class ListViewSkin<T> extends VirtualContainerBase<ListView<T>, ListCell<
         final ObservableMap<Object, Object> properties = control.getProperties();
         properties.remove(Properties.RECREATE);
         properties.addListener(weakPropertiesMapListener);
+        updatePrefetchHandler();
 
         // Register listeners
         registerChangeListener(control.itemsProperty(), o -> updateListViewItems());
@@ -284,6 +293,7 @@ public class ListViewSkin<T> extends VirtualContainerBase<ListView<T>, ListCell<
         // flow related cleanup
         // leaking without nulling factory
         flow.setCellFactory(null);
+        flow.setPrefetchHandler(null);
         // for completeness - but no effect with/out?
         flow.getVbar().removeEventFilter(MouseEvent.MOUSE_PRESSED, ml);
         flow.getHbar().removeEventFilter(MouseEvent.MOUSE_PRESSED, ml);
@@ -463,6 +473,20 @@ public class ListViewSkin<T> extends VirtualContainerBase<ListView<T>, ListCell<
         return cell;
     }
 
+    // the prefetch handler is only installed while the ListView has a
+    // ContentPreparer, so that scrolling does not predict cells otherwise
+    private void updatePrefetchHandler() {
+        flow.setPrefetchHandler(ContentPreparer.getContentPreparer(getSkinnable()) != null
+                ? prefetchHandler : null);
+    }
+
+    private void prefetchCell(int index) {
+        final ContentPreparer<T, ?> preparer = ContentPreparer.getContentPreparer(getSkinnable());
+        if (preparer != null && listViewItems != null && index < listViewItems.size()) {
+            preparer.prefetch(listViewItems.get(index));
+        }
+    }
+
     private void updateListViewItems() {
         if (listViewItems != null) {
             listViewItems.removeListener(weakListViewItemsListener);
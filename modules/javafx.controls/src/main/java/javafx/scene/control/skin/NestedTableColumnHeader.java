@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -292,15 +292,47 @@ public class NestedTableColumnHeader extends TableColumnHeader {
             label.relocate(snappedLeftInset(), snappedTopInset());
         }
 
+        // leaf column headers outside of this range are taken out of the
+        // scenegraph, see TableHeaderRow.isColumnHeaderCullingEnabled()
+        double cullStart = Double.NEGATIVE_INFINITY;
+        double cullEnd = Double.POSITIVE_INFINITY;
+        final TableHeaderRow headerRow = getTableHeaderRow();
+        if (headerRow != null && headerRow.isColumnHeaderCullingEnabled() && ! headerRow.isReordering()) {
+            // work out where this header is within the header row
+            double offset = 0;
+            Node n = this;
+            while (n != null && n != headerRow) {
+                offset += n.getLayoutX();
+                n = n.getParent();
+            }
+            if (n != null && headerRow.getWidth() > 0) {
+                cullStart = -offset - TableRowSkinBase.COLUMN_MARGIN;
+                cullEnd = headerRow.getWidth() - offset + TableRowSkinBase.COLUMN_MARGIN;
+            }
+        }
+
         // children columns need to share the total available width
         double x = snappedLeftInset();
         final double height = snapSizeY(h - labelHeight);
+        Node previous = label;
         for (int i = 0, max = getColumnHeaders().size(); i < max; i++) {
             TableColumnHeader n = getColumnHeaders().get(i);
             if (! n.isVisible()) continue;
 
             double prefWidth = n.prefWidth(height);
 
+            boolean culled = ! (n instanceof NestedTableColumnHeader) && ! n.isAutoSizePending() &&
+                    (x + prefWidth < cullStart || x > cullEnd);
+            if (culled) {
+                getChildren().remove(n);
+            } else if (n.getParent() != this) {
+                // keep the headers in their original order, in front of the drag rects
+                getChildren().add(getChildren().indexOf(previous) + 1, n);
+            }
+            if (n.getParent() == this) {
+                previous = n;
+            }
+
             // position the column header in the default location...
             n.resize(prefWidth, height);
             n.relocate(x, labelHeight + snappedTopInset());
@@ -637,6 +669,19 @@ public class NestedTableColumnHeader extends TableColumnHeader {
         }
     }
 
+    /*
+     * Requests layout of this header and all nested headers, so that their
+     * column headers can be culled against the current viewport.
+     */
+    void requestColumnHeadersLayout() {
+        requestLayout();
+        for (TableColumnHeader header : getColumnHeaders()) {
+            if (header instanceof NestedTableColumnHeader) {
+                ((NestedTableColumnHeader) header).requestColumnHeadersLayout();
+            }
+        }
+    }
+
     private void checkState() {
         if (updateColumns) {
             updateTableColumnHeaders();
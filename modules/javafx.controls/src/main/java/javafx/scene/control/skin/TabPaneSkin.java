@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -97,6 +97,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import javafx.css.converter.DurationConverter;
 import javafx.css.converter.EnumConverter;
 import com.sun.javafx.scene.control.behavior.TabPaneBehavior;
 
@@ -259,6 +260,38 @@ public class TabPaneSkin extends SkinBase<TabPane> {
         }
     };
 
+    private ObjectProperty<ContentPolicy> contentPolicy = new StyleableObjectProperty<ContentPolicy>(ContentPolicy.EAGER) {
+        @Override protected void invalidated() {
+            updateTabContent();
+        }
+
+        @Override public CssMetaData<TabPane,ContentPolicy> getCssMetaData() {
+            return StyleableProperties.CONTENT_POLICY;
+        }
+
+        @Override public Object getBean() {
+            return TabPaneSkin.this;
+        }
+
+        @Override public String getName() {
+            return "contentPolicy";
+        }
+    };
+
+    private ObjectProperty<Duration> contentReleaseDelay = new StyleableObjectProperty<Duration>(Duration.ZERO) {
+        @Override public CssMetaData<TabPane,Duration> getCssMetaData() {
+            return StyleableProperties.CONTENT_RELEASE_DELAY;
+        }
+
+        @Override public Object getBean() {
+            return TabPaneSkin.this;
+        }
+
+        @Override public String getName() {
+            return "contentReleaseDelay";
+        }
+    };
+
     /***************************************************************************
      *                                                                         *
      * Public API                                                              *
@@ -679,7 +712,7 @@ public class TabPaneSkin extends SkinBase<TabPane> {
     }
 
     private void addTabContent(Tab tab) {
-        TabContentRegion tabContentRegion = new TabContentRegion(tab);
+        TabContentRegion tabContentRegion = new TabContentRegion(tab, this);
         tabContentRegion.setClip(new Rectangle());
         tabContentRegions.add(tabContentRegion);
         // We want the tab content to always sit below the tab headers
@@ -701,6 +734,13 @@ public class TabPaneSkin extends SkinBase<TabPane> {
         getChildren().remove(contentRegion);
     }
 
+    private void updateTabContent() {
+        if (tabContentRegions == null) return;
+        for (TabContentRegion contentRegion : tabContentRegions) {
+            contentRegion.updateContent();
+        }
+    }
+
     private void updateTabPosition() {
         tabHeaderArea.invalidateScrollOffset();
         getSkinnable().applyCss();
@@ -783,12 +823,42 @@ public class TabPaneSkin extends SkinBase<TabPane> {
             }
         };
 
+        private final static CssMetaData<TabPane,ContentPolicy> CONTENT_POLICY =
+                new CssMetaData<TabPane, ContentPolicy>("-fx-content-policy",
+                    new EnumConverter<ContentPolicy>(ContentPolicy.class), ContentPolicy.EAGER) {
+
+            @Override public boolean isSettable(TabPane node) {
+                return true;
+            }
+
+            @Override public StyleableProperty<ContentPolicy> getStyleableProperty(TabPane node) {
+                TabPaneSkin skin = (TabPaneSkin) node.getSkin();
+                return (StyleableProperty<ContentPolicy>)(WritableValue<ContentPolicy>)skin.contentPolicy;
+            }
+        };
+
+        private final static CssMetaData<TabPane,Duration> CONTENT_RELEASE_DELAY =
+                new CssMetaData<TabPane, Duration>("-fx-content-release-delay",
+                    DurationConverter.getInstance(), Duration.ZERO) {
+
+            @Override public boolean isSettable(TabPane node) {
+                return true;
+            }
+
+            @Override public StyleableProperty<Duration> getStyleableProperty(TabPane node) {
+                TabPaneSkin skin = (TabPaneSkin) node.getSkin();
+                return (StyleableProperty<Duration>)(WritableValue<Duration>)skin.contentReleaseDelay;
+            }
+        };
+
         static {
 
            final List<CssMetaData<? extends Styleable, ?>> styleables =
                new ArrayList<CssMetaData<? extends Styleable, ?>>(SkinBase.getClassCssMetaData());
            styleables.add(OPEN_TAB_ANIMATION);
            styleables.add(CLOSE_TAB_ANIMATION);
+           styleables.add(CONTENT_POLICY);
+           styleables.add(CONTENT_RELEASE_DELAY);
            STYLEABLES = Collections.unmodifiableList(styleables);
 
         }
@@ -1681,6 +1751,13 @@ public class TabPaneSkin extends SkinBase<TabPane> {
     static class TabContentRegion extends StackPane {
 
         private Tab tab;
+        private final TabPaneSkin skin;
+
+        // whether the tab has been selected at least once, for ContentPolicy.LAZY
+        private boolean shown;
+
+        // detaches the content of a deselected tab, for ContentPolicy.RELEASE
+        private Timeline releaseTimeline;
 
         private InvalidationListener tabContentListener = valueModel -> {
             updateContent();
@@ -1688,6 +1765,7 @@ public class TabPaneSkin extends SkinBase<TabPane> {
         private InvalidationListener tabSelectedListener = new InvalidationListener() {
             @Override public void invalidated(Observable valueModel) {
                 setVisible(tab.isSelected());
+                tabSelectionChanged();
             }
         };
 
@@ -1700,10 +1778,12 @@ public class TabPaneSkin extends SkinBase<TabPane> {
             return tab;
         }
 
-        public TabContentRegion(Tab tab) {
+        public TabContentRegion(Tab tab, TabPaneSkin skin) {
             getStyleClass().setAll("tab-content-area");
             setManaged(false);
             this.tab = tab;
+            this.skin = skin;
+            shown = tab.isSelected();
             updateContent();
             setVisible(tab.isSelected());
 
@@ -1712,15 +1792,49 @@ public class TabPaneSkin extends SkinBase<TabPane> {
         }
 
         private void updateContent() {
-            Node newContent = getTab().getContent();
+            Node newContent = isContentAttached() ? getTab().getContent() : null;
             if (newContent == null) {
                 getChildren().clear();
-            } else {
+            } else if (getChildren().size() != 1 || getChildren().get(0) != newContent) {
+                // re-adding attached content would apply CSS to it again
                 getChildren().setAll(newContent);
             }
         }
 
+        private boolean isContentAttached() {
+            switch (skin.contentPolicy.get()) {
+                case LAZY: return shown;
+                case RELEASE: return tab.isSelected() || releaseTimeline != null;
+                default: return true;
+            }
+        }
+
+        private void tabSelectionChanged() {
+            stopRelease();
+            if (tab.isSelected()) {
+                shown = true;
+            } else if (skin.contentPolicy.get() == ContentPolicy.RELEASE) {
+                Duration delay = skin.contentReleaseDelay.get();
+                if (delay != null && delay.greaterThan(Duration.ZERO)) {
+                    releaseTimeline = new Timeline(new KeyFrame(delay, e -> {
+                        releaseTimeline = null;
+                        updateContent();
+                    }));
+                    releaseTimeline.play();
+                }
+            }
+            updateContent();
+        }
+
+        private void stopRelease() {
+            if (releaseTimeline != null) {
+                releaseTimeline.stop();
+                releaseTimeline = null;
+            }
+        }
+
         public void dispose() {
+            stopRelease();
             tab.selectedProperty().removeListener(weakTabSelectedListener);
             tab.contentProperty().removeListener(weakTabContentListener);
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -83,10 +83,12 @@ public abstract class TableCellSkinBase<S, T, C extends IndexedCell<T>> extends
         getSkinnable().setClip(clip);
         // --- end of RT-22038
 
-        TableColumnBase<?,?> tableColumn = getTableColumn();
-        if (tableColumn != null) {
-            tableColumn.widthProperty().addListener(weakColumnWidthListener);
-        }
+        updateTableColumnListener();
+        // the row skin may move this cell over to another column
+        registerChangeListener(tableColumnProperty(), e -> {
+            updateTableColumnListener();
+            getSkinnable().requestLayout();
+        });
 
         if (control.getProperties().containsKey(Properties.DEFER_TO_PARENT_PREF_WIDTH)) {
             isDeferToParentForPrefWidth = true;
@@ -106,6 +108,9 @@ public abstract class TableCellSkinBase<S, T, C extends IndexedCell<T>> extends
     private WeakInvalidationListener weakColumnWidthListener =
             new WeakInvalidationListener(columnWidthListener);
 
+    // the column whose width is observed by the columnWidthListener
+    private TableColumnBase<?,?> observedColumn;
+
 
 
     /***************************************************************************
@@ -134,9 +139,9 @@ public abstract class TableCellSkinBase<S, T, C extends IndexedCell<T>> extends
     /** {@inheritDoc} */
     @Override public void dispose() {
         if (getSkinnable() == null) return;
-        TableColumnBase<?,T> tableColumn = getTableColumn();
-        if (tableColumn != null) {
-            tableColumn.widthProperty().removeListener(weakColumnWidthListener);
+        if (observedColumn != null) {
+            observedColumn.widthProperty().removeListener(weakColumnWidthListener);
+            observedColumn = null;
         }
 
         super.dispose();
@@ -160,4 +165,25 @@ public abstract class TableCellSkinBase<S, T, C extends IndexedCell<T>> extends
         TableColumnBase<?,?> tableColumn = getTableColumn();
         return tableColumn == null ? 0 : snapSizeX(tableColumn.getWidth());
     }
+
+
+
+    /***************************************************************************
+     *                                                                         *
+     * Private Implementation                                                  *
+     *                                                                         *
+     **************************************************************************/
+
+    private void updateTableColumnListener() {
+        TableColumnBase<?,?> tableColumn = getTableColumn();
+        if (tableColumn == observedColumn) return;
+
+        if (observedColumn != null) {
+            observedColumn.widthProperty().removeListener(weakColumnWidthListener);
+        }
+        observedColumn = tableColumn;
+        if (tableColumn != null) {
+            tableColumn.widthProperty().addListener(weakColumnWidthListener);
+        }
+    }
 }
@@ -525,6 +525,15 @@ public class TableColumnHeader extends Region {
         }
     }
 
+    /*
+     * Returns true if this header still has to auto-size its column, which it
+     * does as soon as it is added to the scene.
+     */
+    boolean isAutoSizePending() {
+        return ! autoSizeComplete && getTableColumn() != null &&
+                getTableColumn().getWidth() == DEFAULT_COLUMN_WIDTH;
+    }
+
     private void updateScene() {
         // RT-17684: If the TableColumn widths are all currently the default,
         // we attempt to 'auto-size' based on the preferred width of the first
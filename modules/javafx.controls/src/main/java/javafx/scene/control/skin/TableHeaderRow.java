@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -418,6 +418,12 @@ public class TableHeaderRow extends StackPane {
         scrollX = flow.getHbar().isVisible() ? -flow.getHbar().getValue() : 0.0F;
         requestLayout();
 
+        // column headers that are scrolled into (or out of) the viewport need
+        // to be added to (or removed from) the scenegraph
+        if (isColumnHeaderCullingEnabled()) {
+            getRootHeader().requestColumnHeadersLayout();
+        }
+
         // Fix for RT-36392: without this call even though we call requestLayout()
         // we don't seem to ever see the layoutChildren() method above called,
         // which means the layout is not always updated to use the latest scrollX.
@@ -425,6 +431,15 @@ public class TableHeaderRow extends StackPane {
     }
 
 
+    /*
+     * Returns true if column headers outside of the viewport should be taken
+     * out of the scenegraph. Like the virtualization of the table cells (see
+     * TableRowSkinBase), this is only done when a fixed cell size is specified.
+     */
+    boolean isColumnHeaderCullingEnabled() {
+        return flow.getFixedCellSize() > 0;
+    }
+
     /**
      * Updates the table width when a resize operation occurs. This method is called continuously when the control width
      * is resizing in order to properly clip this {@code TableHeaderRow}. Overriding this method allows a subclass to
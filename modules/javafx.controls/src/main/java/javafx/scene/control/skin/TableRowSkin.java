@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,6 +26,7 @@
 package javafx.scene.control.skin;
 
 
+import java.lang.ref.Reference;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -123,6 +124,10 @@ public class TableRowSkin<T> extends TableRowSkinBase<T, TableRow<T>, TableCell<
                 registerChangeListener(fixedCellSizeProperty, e -> {
                     fixedCellSize = fixedCellSizeProperty.get();
                     fixedCellSizeEnabled = fixedCellSize > 0;
+
+                    // cells are only virtualized with a fixed cell size
+                    isDirty = true;
+                    getSkinnable().requestLayout();
                 });
                 fixedCellSize = fixedCellSizeProperty.get();
                 fixedCellSizeEnabled = fixedCellSize > 0;
@@ -168,7 +173,8 @@ public class TableRowSkin<T> extends TableRowSkinBase<T, TableRow<T>, TableCell<
                             /* This is the row-based case */
                             column = getTableView().getVisibleLeafColumn(0);
                         }
-                        TableCell<T,?> cell = cellsMap.get(column).get();
+                        Reference<TableCell<T,?>> cellRef = cellsMap.get(column);
+                        TableCell<T,?> cell = cellRef == null ? null : cellRef.get();
                         if (cell != null) selection.add(cell);
                     }
                     return FXCollections.observableArrayList(selection);
@@ -220,6 +226,16 @@ public class TableRowSkin<T> extends TableRowSkinBase<T, TableRow<T>, TableCell<
         return cell;
     }
 
+    /** {@inheritDoc} */
+    @Override Object getCellFactory(TableColumnBase tcb) {
+        return ((TableColumn<T,?>) tcb).getCellFactory();
+    }
+
+    /** {@inheritDoc} */
+    @Override void updateCellColumn(TableCell<T, ?> cell, TableColumnBase<T, ?> tcb) {
+        cell.updateTableColumn((TableColumn) tcb);
+    }
+
     /** {@inheritDoc} */
     @Override protected ObservableList<TableColumn<T, ?>> getVisibleLeafColumns() {
         return getTableView() == null ? FXCollections.emptyObservableList() : getTableView().getVisibleLeafColumns();
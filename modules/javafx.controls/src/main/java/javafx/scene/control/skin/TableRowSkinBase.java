@@ -28,6 +28,8 @@ package javafx.scene.control.skin;
 
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.*;
 
 import com.sun.javafx.PlatformUtil;
@@ -103,6 +105,14 @@ public abstract class TableRowSkinBase<T,
     // against memory leaks in certain extreme circumstances.
     private static final int DEFAULT_FULL_REFRESH_COUNTER = 100;
 
+    // When a fixed cell size is specified, cells are only created for the
+    // columns that intersect the horizontal viewport, extended on both sides by
+    // this margin (in pixels). It can be configured by setting the system property
+    // javafx.scene.control.skin.TableRowSkin.columnMargin.
+    @SuppressWarnings("removal")
+    static final int COLUMN_MARGIN =
+            AccessController.doPrivileged((PrivilegedAction<Integer>) () -> Integer.getInteger("javafx.scene.control.skin.TableRowSkin.columnMargin", 100));
+
 
 
     /***************************************************************************
@@ -114,9 +124,10 @@ public abstract class TableRowSkinBase<T,
     /*
      * A map that maps from TableColumn to TableCell (i.e. model to view).
      * This is recreated whenever the leaf columns change, however to increase
-     * efficiency we create cells for all columns, even if they aren't visible,
-     * and we only create new cells if we don't already have it cached in this
-     * map.
+     * efficiency we keep cells for columns that are no longer visible, and we
+     * only create new cells if we don't already have it cached in this map.
+     * When the cells are virtualized (see updateCells), cells of columns that
+     * are outside of the viewport may also be moved over to other columns.
      *
      * Note that this means that it is possible for this map to therefore be
      * a memory leak if an application uses TableView and is creating and removing
@@ -128,6 +139,12 @@ public abstract class TableRowSkinBase<T,
     // This observableArrayList contains the currently visible table cells for this row.
     final List<R> cells = new ArrayList<>();
 
+    // When the cells are virtualized, the cells list only holds the cells for
+    // the visible leaf columns from firstCellIndex to lastCellIndex (inclusive).
+    private boolean cellsVirtualized;
+    private int firstCellIndex;
+    private int lastCellIndex;
+
     private int fullRefreshCounter = DEFAULT_FULL_REFRESH_COUNTER;
 
     boolean isDirty = false;
@@ -155,6 +172,14 @@ public abstract class TableRowSkinBase<T,
         super(control);
         getSkinnable().setPickOnBounds(false);
 
+        // subclasses observe the fixed cell size of the table, but we need it
+        // before the cells are created in order to be able to virtualize them
+        VirtualFlow<C> flow = getVirtualFlow();
+        if (flow != null) {
+            fixedCellSize = flow.getFixedCellSize();
+            fixedCellSizeEnabled = fixedCellSize > 0;
+        }
+
         recreateCells();
         updateCells(true);
 
@@ -262,6 +287,20 @@ public abstract class TableRowSkinBase<T,
             return;
         }
 
+        // the virtualized cells may no longer cover the viewport, e.g. after
+        // horizontal scrolling or a change in column widths
+        final boolean virtualize = isCellVirtualizationPossible();
+        if (virtualize != cellsVirtualized) {
+            updateCells(true);
+        } else if (virtualize) {
+            final VirtualFlow<C> flow = getVirtualFlow();
+            final double scrollX = flow.getHbar().getValue();
+            if (getColumnIndexAt(visibleLeafColumns, scrollX) < firstCellIndex ||
+                    getColumnIndexAt(visibleLeafColumns, scrollX + flow.getWidth()) > lastCellIndex) {
+                updateCells(false);
+            }
+        }
+
         C control = getSkinnable();
 
         ///////////////////////////////////////////
@@ -339,8 +378,15 @@ public abstract class TableRowSkinBase<T,
         int index = control.getIndex();
         if (index < 0/* || row >= itemsProperty().get().size()*/) return;
 
-        for (int column = 0, max = cells.size(); column < max; column++) {
-            R tableCell = cells.get(column);
+        // virtualized cells start at the offset of the first column they represent
+        final int firstColumn = cellsVirtualized ? firstCellIndex : 0;
+        for (int column = 0; column < firstColumn; column++) {
+            x += snapSizeX(visibleLeafColumns.get(column).getWidth()) - snapSizeX(horizontalPadding);
+        }
+
+        for (int i = 0, max = cells.size(); i < max; i++) {
+            final int column = firstColumn + i;
+            R tableCell = cells.get(i);
             TableColumnBase<T, ?> tableColumn = getTableColumn(tableCell);
 
             boolean isVisible = true;
@@ -354,7 +400,9 @@ public abstract class TableRowSkinBase<T,
                 // provided by the developer, and this means that we do not have
                 // to concern ourselves with the possibility that the height
                 // may be variable and / or dynamic.
-                isVisible = isColumnPartiallyOrFullyVisible(tableColumn);
+                // Virtualized cells have only been created for the columns
+                // in (or near) the viewport, so we keep them all.
+                isVisible = cellsVirtualized || isColumnPartiallyOrFullyVisible(tableColumn);
 
                 height = fixedCellSize;
             } else {
@@ -495,6 +543,21 @@ public abstract class TableRowSkinBase<T,
         return true;
     }
 
+    /**
+     * Returns the cell factory of the given column. Cells that have been
+     * created by the same cell factory can be reused for other columns, see
+     * updateCellColumn. Returns null if cells should not be reused.
+     */
+    Object getCellFactory(TableColumnBase<T,?> tc) {
+        return null;
+    }
+
+    /**
+     * Moves the given cell over to the given table column.
+     */
+    void updateCellColumn(R cell, TableColumnBase<T,?> tc) {
+    }
+
     void updateCells(boolean resetChildren) {
         // To avoid a potential memory leak (when the TableColumns in the
         // TableView are created/inserted/removed/deleted, we have a 'refresh
@@ -516,7 +579,23 @@ public abstract class TableRowSkinBase<T,
         final int skinnableIndex = skinnable.getIndex();
         final List<? extends TableColumnBase/*<T,?>*/> visibleLeafColumns = getVisibleLeafColumns();
 
-        for (int i = 0, max = visibleLeafColumns.size(); i < max; i++) {
+        // When a fixed cell size is specified, we only create cells for the
+        // columns that intersect the viewport (extended by COLUMN_MARGIN), and
+        // we reuse the cells of the columns that are outside of this range.
+        cellsVirtualized = isCellVirtualizationPossible();
+        List<R> spareCells = null;
+        if (cellsVirtualized) {
+            final VirtualFlow<C> flow = getVirtualFlow();
+            final double scrollX = flow.getHbar().getValue();
+            firstCellIndex = getColumnIndexAt(visibleLeafColumns, scrollX - COLUMN_MARGIN);
+            lastCellIndex = getColumnIndexAt(visibleLeafColumns, scrollX + flow.getWidth() + COLUMN_MARGIN);
+            spareCells = getSpareCells(visibleLeafColumns.subList(firstCellIndex, lastCellIndex + 1));
+        } else {
+            firstCellIndex = 0;
+            lastCellIndex = visibleLeafColumns.size() - 1;
+        }
+
+        for (int i = firstCellIndex; i <= lastCellIndex; i++) {
             TableColumnBase<T,?> col = visibleLeafColumns.get(i);
 
             R cell = null;
@@ -529,6 +608,10 @@ public abstract class TableRowSkinBase<T,
                 }
             }
 
+            if (cell == null && spareCells != null) {
+                cell = reuseCell(spareCells, col);
+            }
+
             if (cell == null) {
                 // if the cell is null it means we don't have it in cache and
                 // need to create it
@@ -543,12 +626,12 @@ public abstract class TableRowSkinBase<T,
         // update children of each row
         if (fixedCellSizeEnabled) {
             // we leave the adding / removing up to the layoutChildren method mostly, but here we remove any children
-            // cells that refer to columns that are removed or not visible.
+            // cells that refer to columns that are removed or not visible, or that have not been virtualized.
             List<Node> toRemove = new ArrayList<>();
             for (Node cell : getChildren()) {
                 if (!(cell instanceof IndexedCell)) continue;
                 TableColumnBase<T, ?> tableColumn = getTableColumn((R) cell);
-                if (!getVisibleLeafColumns().contains(tableColumn)) {
+                if (cellsVirtualized ? !cells.contains(cell) : !getVisibleLeafColumns().contains(tableColumn)) {
                     toRemove.add(cell);
                 }
             }
@@ -572,6 +655,13 @@ public abstract class TableRowSkinBase<T,
     /** {@inheritDoc} */
     @Override protected double computePrefWidth(double height, double topInset, double rightInset, double bottomInset, double leftInset) {
         double prefWidth = 0.0;
+        if (cellsVirtualized) {
+            // not all columns have a cell, but the row still spans all of them
+            for (TableColumnBase<?,?> col : getVisibleLeafColumns()) {
+                prefWidth += snapSizeX(col.getWidth());
+            }
+            return prefWidth;
+        }
         for (R cell : cells) {
             prefWidth += cell.prefWidth(height);
         }
@@ -663,6 +753,72 @@ public abstract class TableRowSkinBase<T,
      *                                                                         *
      **************************************************************************/
 
+    /*
+     * Cells can only be virtualized when they all have the same (fixed) height,
+     * and when we know the size of the viewport they are shown in.
+     */
+    private boolean isCellVirtualizationPossible() {
+        if (!fixedCellSizeEnabled || getVisibleLeafColumns().isEmpty()) return false;
+        final VirtualFlow<C> flow = getVirtualFlow();
+        return flow != null && flow.getWidth() > 0;
+    }
+
+    /*
+     * Returns the index of the visible leaf column at the given horizontal
+     * position, or the index of the first (last) column if the position lies
+     * before (after) all columns.
+     */
+    private int getColumnIndexAt(List<? extends TableColumnBase> columns, double x) {
+        double end = 0;
+        for (int i = 0, max = columns.size(); i < max; i++) {
+            end += snapSizeX(columns.get(i).getWidth());
+            if (x < end) return i;
+        }
+        return columns.size() - 1;
+    }
+
+    /*
+     * Returns the cached cells of all columns that are not in the given list,
+     * and which can therefore be reused for other columns.
+     */
+    private List<R> getSpareCells(List<? extends TableColumnBase> columns) {
+        final Set<TableColumnBase> wanted = new HashSet<>(columns);
+        final List<R> spareCells = new ArrayList<>();
+        for (Map.Entry<TableColumnBase, Reference<R>> entry : cellsMap.entrySet()) {
+            R cell = entry.getValue().get();
+            if (cell != null && !wanted.contains(entry.getKey())) {
+                spareCells.add(cell);
+            }
+        }
+        return spareCells;
+    }
+
+    /*
+     * Moves a spare cell that has been created by the same cell factory as the
+     * cells of the given column over to that column. Returns null if there is
+     * no such cell.
+     */
+    private R reuseCell(List<R> spareCells, TableColumnBase<T,?> col) {
+        final Object cellFactory = getCellFactory(col);
+        if (cellFactory == null) return null;
+
+        for (int i = spareCells.size() - 1; i >= 0; i--) {
+            R cell = spareCells.get(i);
+            TableColumnBase<T,?> oldCol = getTableColumn(cell);
+            if (oldCol != null && getCellFactory(oldCol) == cellFactory) {
+                spareCells.remove(i);
+                cellsMap.remove(oldCol);
+
+                // reset the cell so that it is fully updated for its new column
+                cell.updateIndex(-1);
+                updateCellColumn(cell, col);
+                cellsMap.put(col, new WeakReference<>(cell));
+                return cell;
+            }
+        }
+        return null;
+    }
+
     private boolean isColumnPartiallyOrFullyVisible(TableColumnBase col) {
         if (col == null || !col.isVisible()) return false;
 
@@ -720,19 +876,11 @@ public abstract class TableRowSkinBase<T,
 
         ObservableList<? extends TableColumnBase/*<T,?>*/> columns = getVisibleLeafColumns();
 
+        // the cells themselves are created on demand in updateCells, as they
+        // may not be needed for all columns
         cellsMap = new WeakHashMap<>(columns.size());
         fullRefreshCounter = DEFAULT_FULL_REFRESH_COUNTER;
         getChildren().clear();
-
-        for (TableColumnBase col : columns) {
-            if (cellsMap.containsKey(col)) {
-                continue;
-            }
-
-            // create a TableCell for this column and store it in the cellsMap
-            // for future use
-            createCellAndCache(col);
-        }
     }
 
     private R createCellAndCache(TableColumnBase<T,?> col) {
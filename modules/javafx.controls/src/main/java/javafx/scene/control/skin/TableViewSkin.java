@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -27,6 +27,7 @@ package javafx.scene.control.skin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import com.sun.javafx.scene.control.Properties;
 import com.sun.javafx.scene.control.behavior.BehaviorBase;
@@ -34,7 +35,9 @@ import com.sun.javafx.scene.control.skin.Utils;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.WeakMapChangeListener;
 import javafx.event.EventHandler;
 import javafx.scene.AccessibleAction;
 import javafx.scene.AccessibleAttribute;
@@ -50,6 +53,7 @@ import javafx.scene.control.TableSelectionModel;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableView.TableViewFocusModel;
 import javafx.scene.control.TableView.TableViewSelectionModel;
+import javafx.scene.control.cell.ContentPreparer;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Region;
 import javafx.util.Callback;
@@ -72,6 +76,15 @@ public class TableViewSkin<T> extends TableViewSkinBase<T, T, TableView<T>, Tabl
 
     private final TableViewBehavior<T>  behavior;
 
+    // The prefetch handler is only installed while a visible column has a
+    // ContentPreparer, so that scrolling does not predict rows otherwise
+    private final IntConsumer prefetchHandler = this::prefetchCell;
+
+    private final MapChangeListener<Object, Object> columnPropertiesListener = c -> updatePrefetchHandler();
+
+    private final WeakMapChangeListener<Object, Object> weakColumnPropertiesListener =
+            new WeakMapChangeListener<>(columnPropertiesListener);
+
 
 
     /***************************************************************************
@@ -96,6 +109,10 @@ public class TableViewSkin<T> extends TableViewSkinBase<T, T, TableView<T>, Tabl
 
         flow.setFixedCellSize(control.getFixedCellSize());
         flow.setCellFactory(flow -> createCell());
+        for (TableColumn<T, ?> column : control.getVisibleLeafColumns()) {
+            column.getProperties().addListener(weakColumnPropertiesListener);
+        }
+        updatePrefetchHandler();
 
         EventHandler<MouseEvent> ml = event -> {
             // RT-15127: cancel editing on scroll. This is a bit extreme
@@ -132,6 +149,17 @@ public class TableViewSkin<T> extends TableViewSkinBase<T, T, TableView<T>, Tabl
         behavior.setOnFocusRightCell(() -> onFocusRightCell());
 
         registerChangeListener(control.fixedCellSizeProperty(), e -> flow.setFixedCellSize(getSkinnable().getFixedCellSize()));
+        registerListChangeListener(control.getVisibleLeafColumns(), c -> {
+            while (c.next()) {
+                for (Object column : c.getRemoved()) {
+                    ((TableColumn<?, ?>) column).getProperties().removeListener(weakColumnPropertiesListener);
+                }
+                for (Object column : c.getAddedSubList()) {
+                    ((TableColumn<?, ?>) column).getProperties().addListener(weakColumnPropertiesListener);
+                }
+            }
+            updatePrefetchHandler();
+        });
 
         updateItemCount();
     }
@@ -148,6 +176,12 @@ public class TableViewSkin<T> extends TableViewSkinBase<T, T, TableView<T>, Tabl
     @Override public void dispose() {
         super.dispose();
 
+        // the handler refers back to this skin
+        flow.setPrefetchHandler(null);
+        for (TableColumn<T, ?> column : getSkinnable().getVisibleLeafColumns()) {
+            column.getProperties().removeListener(weakColumnPropertiesListener);
+        }
+
         if (behavior != null) {
             behavior.dispose();
         }
@@ -226,6 +260,34 @@ public class TableViewSkin<T> extends TableViewSkinBase<T, T, TableView<T>, Tabl
         return cell;
     }
 
+    private void updatePrefetchHandler() {
+        for (TableColumn<T, ?> column : getSkinnable().getVisibleLeafColumns()) {
+            if (ContentPreparer.getContentPreparer(column) != null) {
+                flow.setPrefetchHandler(prefetchHandler);
+                return;
+            }
+        }
+        flow.setPrefetchHandler(null);
+    }
+
+    private void prefetchCell(int index) {
+        final TableView<T> tableView = getSkinnable();
+        final List<TableColumn<T, ?>> columns = tableView.getVisibleLeafColumns();
+        final List<T> items = tableView.getItems();
+        if (items == null || index >= items.size()) return;
+
+        T item = null;
+        for (int i = 0, max = columns.size(); i < max; i++) {
+            final ContentPreparer<T, ?> preparer = ContentPreparer.getContentPreparer(columns.get(i));
+            if (preparer != null) {
+                if (item == null) {
+                    item = items.get(index);
+                }
+                preparer.prefetch(item);
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override protected int getItemCount() {
         TableView<T> tableView = getSkinnable();
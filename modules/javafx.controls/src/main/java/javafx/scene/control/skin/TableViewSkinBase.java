@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -574,6 +574,12 @@ public abstract class TableViewSkinBase<M, S, C extends Control, I extends Index
 
     void horizontalScroll() {
         tableHeaderRow.updateScrollX();
+
+        // with a fixed cell size the rows only have cells for the columns in
+        // the viewport, so they need to be laid out again
+        if (flow.getFixedCellSize() > 0) {
+            flow.requestCellLayout();
+        }
     }
 
     /**
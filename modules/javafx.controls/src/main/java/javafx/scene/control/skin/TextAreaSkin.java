@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -25,9 +25,11 @@
 
 package javafx.scene.control.skin;
 
+import com.sun.javafx.scene.control.TextAreaHelper;
 import com.sun.javafx.scene.control.behavior.BehaviorBase;
 import com.sun.javafx.scene.control.behavior.TextAreaBehavior;
 import com.sun.javafx.scene.control.skin.Utils;
+import com.sun.javafx.scene.text.HitInfoHelper;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -58,13 +60,18 @@ import javafx.scene.control.TextArea;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.Region;
+import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
 import javafx.scene.shape.PathElement;
+import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.text.HitInfo;
 import javafx.util.Duration;
 
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
 import java.util.List;
 
 import static com.sun.javafx.PlatformUtil.isMac;
@@ -87,6 +94,15 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
     /** A shared helper object, used only by downLines(). */
     private static final Path tmpCaretPath = new Path();
 
+    // When the text is not wrapped and has more paragraphs than this, the text
+    // node only holds the paragraphs around the viewport (its window), so that
+    // the layout of the text does not grow with the size of the document. It
+    // can be configured by setting the system property
+    // javafx.scene.control.skin.TextAreaSkin.windowThreshold.
+    @SuppressWarnings("removal")
+    static final int WINDOW_THRESHOLD =
+            AccessController.doPrivileged((PrivilegedAction<Integer>) () -> Integer.getInteger("javafx.scene.control.skin.TextAreaSkin.windowThreshold", 1000));
+
 
 
     /**************************************************************************
@@ -113,6 +129,21 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
     private ContentView contentView = new ContentView();
     private Group paragraphNodes = new Group();
 
+    // The window of paragraphs held by the text node, if it does not hold all
+    // of them. Without wrapping all paragraphs are one line high, so the window
+    // is positioned at the height of its first paragraph times the line height.
+    private boolean windowed;
+    private boolean windowDirty;
+    private boolean revealCaret;
+    private int windowFirst;
+    private int windowLast;
+    private int windowStart;
+
+    // The measured widths of the paragraphs while the window is used, from
+    // which the preferred width is computed; created in the first computation
+    // and updated for the changed paragraphs only
+    private ParagraphWidths paragraphWidths;
+
     private Text promptNode;
     private ObservableBooleanValue usePromptText;
 
@@ -182,14 +213,15 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
         };
         caretPosition.addListener((observable, oldValue, newValue) -> {
             targetCaretX = -1;
+            revealCaret = true;
             if (control.getWidth() > 0) {
                 setForwardBias(true);
             }
         });
 
         forwardBiasProperty().addListener(observable -> {
-            if (control.getWidth() > 0) {
-                updateTextNodeCaretPos(control.getCaretPosition());
+            if (control.getWidth() > 0 && isInWindow(control.getCaretPosition())) {
+                updateTextNodeCaretPos(control.getCaretPosition() - windowStart);
             }
         });
 
@@ -249,9 +281,14 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
         scrollSelectionFrames.clear();
         scrollSelectionFrames.add(new KeyFrame(Duration.millis(350), scrollSelectionHandler));
 
-        // Add initial text content
+        // Add initial text content; the window of a large text is filled in
+        // the first layout
+        windowed = !USE_MULTIPLE_NODES && useWindow();
+        windowDirty = windowed;
         for (int i = 0, n = USE_MULTIPLE_NODES ? control.getParagraphs().size() : 1; i < n; i++) {
-            CharSequence paragraph = (n == 1) ? control.textProperty().getValueSafe() : control.getParagraphs().get(i);
+            CharSequence paragraph = (n == 1)
+                    ? (windowed ? "" : control.textProperty().getValueSafe())
+                    : control.getParagraphs().get(i);
             addParagraphNode(i, paragraph.toString());
         }
 
@@ -264,6 +301,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
         control.wrapTextProperty().addListener((observable, oldValue, newValue) -> {
             invalidateMetrics();
             scrollPane.setFitToWidth(newValue);
+            contentView.requestLayout();
         });
 
         control.prefColumnCountProperty().addListener((observable, oldValue, newValue) -> {
@@ -278,7 +316,9 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
 
         updateFontMetrics();
         fontMetrics.addListener(valueModel -> {
+            paragraphWidths = null;
             updateFontMetrics();
+            contentView.requestLayout();
         });
 
         contentView.paddingProperty().addListener(valueModel -> {
@@ -307,6 +347,9 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
             double vValue = (newValue.doubleValue() < getScrollTopMax())
                                ? (newValue.doubleValue() / getScrollTopMax()) : 1.0;
             scrollPane.setVvalue(vValue);
+            if (windowed && !isViewportInWindow()) {
+                contentView.requestLayout();
+            }
         });
 
         control.scrollLeftProperty().addListener((observable, oldValue, newValue) -> {
@@ -345,9 +388,32 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
         } else {
             control.textProperty().addListener(observable -> {
                 invalidateMetrics();
-                ((Text)paragraphNodes.getChildren().get(0)).setText(control.textProperty().getValueSafe());
+                windowed = useWindow();
+                if (windowed) {
+                    windowDirty = true;
+                } else {
+                    windowFirst = 0;
+                    windowStart = 0;
+                    ((Text)paragraphNodes.getChildren().get(0)).setText(control.textProperty().getValueSafe());
+                }
                 contentView.requestLayout();
             });
+
+            // The text property is not necessarily revalidated after each change,
+            // so the window is also invalidated by changes of the paragraphs. As
+            // the text may still be changing, it is updated in the next layout.
+            control.getParagraphs().addListener((ListChangeListener<CharSequence>) change -> {
+                if (windowed || useWindow()) {
+                    if (paragraphWidths != null) {
+                        paragraphWidths.update(change);
+                    }
+                    invalidateMetrics();
+                    windowDirty = true;
+                    contentView.requestLayout();
+                } else {
+                    paragraphWidths = null;
+                }
+            });
         }
 
         usePromptText = new BooleanBinding() {
@@ -401,7 +467,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
                 Point2D tp = textNode.localToScene(0, 0);
                 Point2D p = new Point2D(e.getSceneX() - tp.getX() - pressX + caretHandle.getWidth() / 2,
                                         e.getSceneY() - tp.getY() - pressY - 6);
-                HitInfo hit = textNode.hitTest(translateCaretPosition(p));
+                HitInfo hit = toDocumentHit(textNode.hitTest(translateCaretPosition(p)));
                 positionCaret(hit, false);
                 e.consume();
             });
@@ -412,7 +478,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
                 Point2D tp = textNode.localToScene(0, 0);
                 Point2D p = new Point2D(e.getSceneX() - tp.getX() - pressX + selectionHandle1.getWidth() / 2,
                                         e.getSceneY() - tp.getY() - pressY + selectionHandle1.getHeight() + 5);
-                HitInfo hit = textNode.hitTest(translateCaretPosition(p));
+                HitInfo hit = toDocumentHit(textNode.hitTest(translateCaretPosition(p)));
                 if (control1.getAnchor() < control1.getCaretPosition()) {
                     // Swap caret and anchor
                     control1.selectRange(control1.getCaretPosition(), control1.getAnchor());
@@ -433,7 +499,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
                 Point2D tp = textNode.localToScene(0, 0);
                 Point2D p = new Point2D(e.getSceneX() - tp.getX() - pressX + selectionHandle2.getWidth() / 2,
                                         e.getSceneY() - tp.getY() - pressY - 6);
-                HitInfo hit = textNode.hitTest(translateCaretPosition(p));
+                HitInfo hit = toDocumentHit(textNode.hitTest(translateCaretPosition(p)));
                 if (control1.getAnchor() > control1.getCaretPosition()) {
                     // Swap caret and anchor
                     control1.selectRange(control1.getCaretPosition(), control1.getAnchor());
@@ -490,9 +556,10 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
     public HitInfo getIndex(double x, double y) {
         // adjust the event to be in the same coordinate space as the
         // text content of the textInputControl
+        validateWindow(getParagraphAt(y));
         Text textNode = getTextNode();
-        Point2D p = new Point2D(x - textNode.getLayoutX(), y - getTextTranslateY());
-        HitInfo hit = textNode.hitTest(translateCaretPosition(p));
+        Point2D p = new Point2D(x - textNode.getLayoutX(), y - getTextTranslateY() - getWindowY());
+        HitInfo hit = toDocumentHit(textNode.hitTest(translateCaretPosition(p)));
         return hit;
     };
 
@@ -572,6 +639,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
             moveRight = !moveRight;
         }
 
+        ensureCaretInWindow();
         Text textNode = getTextNode();
         Bounds caretBounds = caretPath.getLayoutBounds();
         if (caretPath.getElements().size() == 4) {
@@ -589,7 +657,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
         if ((moveRight && charShape.getLayoutBounds().getMaxX() > caretBounds.getMaxX()) ||
                 (!moveRight && charShape.getLayoutBounds().getMinX() < caretBounds.getMinX())) {
             leading = !leading;
-            positionCaret(hit.getInsertionIndex(), leading, false, false);
+            positionCaret(hit.getInsertionIndex() + windowStart, leading, false, false);
         } else {
             // We're at beginning or end of line. Try moving up / down.
             int dot = textArea.getCaretPosition();
@@ -608,21 +676,29 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
     }
 
     private void downLines(int nLines, boolean select, boolean extendSelection) {
+        ensureCaretInWindow();
         Text textNode = getTextNode();
         Bounds caretBounds = caretPath.getLayoutBounds();
 
+        // The y coordinates are relative to the start of the text rather than
+        // to the window, which may have to move to the line we want to go to.
+        double caretMinY = caretBounds.getMinY() + getWindowY();
+        double caretMaxY = caretBounds.getMaxY() + getWindowY();
+
         // The middle y coordinate of the the line we want to go to.
-        double targetLineMidY = (caretBounds.getMinY() + caretBounds.getMaxY()) / 2 + nLines * lineHeight;
+        double targetLineMidY = (caretMinY + caretMaxY) / 2 + nLines * lineHeight;
         if (targetLineMidY < 0) {
             targetLineMidY = 0;
         }
+        validateWindow(getParagraphAt(targetLineMidY + getTextTranslateY()));
+        final double windowY = getWindowY();
 
         // The target x for the caret. This may have been set during a
         // previous call.
         double x = (targetCaretX >= 0) ? targetCaretX : (caretBounds.getMaxX());
 
         // Find a text position for the target x,y.
-        HitInfo hit = textNode.hitTest(translateCaretPosition(new Point2D(x, targetLineMidY)));
+        HitInfo hit = textNode.hitTest(translateCaretPosition(new Point2D(x, targetLineMidY - windowY)));
         int pos = hit.getCharIndex();
 
         // Save the old pos temporarily while testing the new one.
@@ -636,17 +712,17 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
         tmpCaretPath.setLayoutY(textNode.getLayoutY());
         Bounds tmpCaretBounds = tmpCaretPath.getLayoutBounds();
         // The y for the middle of the row we found.
-        double foundLineMidY = (tmpCaretBounds.getMinY() + tmpCaretBounds.getMaxY()) / 2;
+        double foundLineMidY = (tmpCaretBounds.getMinY() + tmpCaretBounds.getMaxY()) / 2 + windowY;
         textNode.setCaretBias(oldBias);
         textNode.setCaretPosition(oldPos);
 
         // Test if the found line is in the correct direction and move
         // the caret.
         if (nLines == 0 ||
-                (nLines > 0 && foundLineMidY > caretBounds.getMaxY()) ||
-                (nLines < 0 && foundLineMidY < caretBounds.getMinY())) {
+                (nLines > 0 && foundLineMidY > caretMaxY) ||
+                (nLines < 0 && foundLineMidY < caretMinY)) {
 
-            positionCaret(hit.getInsertionIndex(), hit.isLeading(), select, extendSelection);
+            positionCaret(hit.getInsertionIndex() + windowStart, hit.isLeading(), select, extendSelection);
             targetCaretX = x;
         }
     }
@@ -742,12 +818,13 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
 
     /** {@inheritDoc} */
     @Override protected PathElement[] getUnderlineShape(int start, int end) {
-        int pStart = 0;
+        int pStart = windowStart;
         for (Node node : paragraphNodes.getChildren()) {
             Text p = (Text)node;
-            int pEnd = pStart + p.textProperty().getValueSafe().length();
+            int length = p.textProperty().getValueSafe().length();
+            int pEnd = pStart + length;
             if (pEnd >= start) {
-                return p.underlineShape(start - pStart, end - pStart);
+                return p.underlineShape(clamp(start - pStart, length), clamp(end - pStart, length));
             }
             pStart = pEnd + 1;
         }
@@ -756,12 +833,13 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
 
     /** {@inheritDoc} */
     @Override protected PathElement[] getRangeShape(int start, int end) {
-        int pStart = 0;
+        int pStart = windowStart;
         for (Node node : paragraphNodes.getChildren()) {
             Text p = (Text)node;
-            int pEnd = pStart + p.textProperty().getValueSafe().length();
+            int length = p.textProperty().getValueSafe().length();
+            int pEnd = pStart + length;
             if (pEnd >= start) {
-                return p.rangeShape(start - pStart, end - pStart);
+                return p.rangeShape(clamp(start - pStart, length), clamp(end - pStart, length));
             }
             pStart = pEnd + 1;
         }
@@ -770,7 +848,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
 
     /** {@inheritDoc} */
     @Override protected void addHighlight(List<? extends Node> nodes, int start) {
-        int pStart = 0;
+        int pStart = windowStart;
         Text paragraphNode = null;
         for (Node node : paragraphNodes.getChildren()) {
             Text p = (Text)node;
@@ -825,6 +903,9 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
             case BOUNDS_FOR_RANGE:
             case OFFSET_AT_POINT:
                 Text text = getTextNode();
+                if (windowed) {
+                    return queryWindowAccessibleAttribute(text, attribute, parameters);
+                }
                 return text.queryAccessibleAttribute(attribute, parameters);
             default: return super.queryAccessibleAttribute(attribute, parameters);
         }
@@ -893,7 +974,8 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
                         + (textArea.getLength() - lastParagraphView.getText().length());
             } else {
                 // Select the character at x in the row at y
-                int paragraphOffset = 0;
+                validateWindow(getParagraphAt(y));
+                int paragraphOffset = windowStart;
                 for (int i = 0; i < n; i++) {
                     Text paragraphNode = (Text)paragraphNodes.getChildren().get(i);
 
@@ -955,16 +1037,17 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
     @Override public Rectangle2D getCharacterBounds(int index) {
         TextArea textArea = getSkinnable();
 
+        validateWindow(getParagraphOf(index));
         int paragraphIndex = paragraphNodes.getChildren().size();
-        int paragraphOffset = textArea.getLength() + 1;
+        int paragraphOffset = getWindowEnd() + 1;
 
         Text paragraphNode = null;
         do {
             paragraphNode = (Text)paragraphNodes.getChildren().get(--paragraphIndex);
             paragraphOffset -= paragraphNode.getText().length() + 1;
-        } while (index < paragraphOffset);
+        } while (paragraphIndex > 0 && index < paragraphOffset);
 
-        int characterIndex = index - paragraphOffset;
+        int characterIndex = clamp(index - paragraphOffset, paragraphNode.getText().length());
         boolean terminator = false;
 
         if (characterIndex == paragraphNode.getText().length()) {
@@ -1185,6 +1268,169 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
         textNode.caretBiasProperty().set(isForwardBias());
     }
 
+    private boolean useWindow() {
+        return !USE_MULTIPLE_NODES && !getSkinnable().isWrapText() && lineHeight > 0
+                && getSkinnable().getParagraphs().size() > WINDOW_THRESHOLD;
+    }
+
+    private double getWindowY() {
+        return windowed ? windowFirst * lineHeight : 0;
+    }
+
+    private int getWindowEnd() {
+        return windowed ? windowStart + getTextNode().getText().length() : getSkinnable().getLength();
+    }
+
+    private boolean isInWindow(int index) {
+        return !windowed || (!windowDirty && index >= windowStart && index <= getWindowEnd());
+    }
+
+    private static int clamp(int index, int length) {
+        return Math.max(0, Math.min(index, length));
+    }
+
+    private HitInfo toDocumentHit(HitInfo hit) {
+        if (windowStart == 0) {
+            return hit;
+        }
+        return HitInfoHelper.createHitInfo(hit.getCharIndex() + windowStart,
+                hit.getInsertionIndex() + windowStart, hit.isLeading());
+    }
+
+    // Returns the paragraph at the given y coordinate of the content, which
+    // is only meaningful if the window is used
+    private int getParagraphAt(double y) {
+        if (!windowed) {
+            return 0;
+        }
+        int index = (int) ((y - getTextTranslateY()) / lineHeight);
+        return clamp(index, getSkinnable().getParagraphs().size() - 1);
+    }
+
+    // Returns the paragraph that contains the given offset, counting the line
+    // separator after a paragraph as part of it
+    private int getParagraphOf(int offset) {
+        return TextAreaHelper.getParagraphIndex(getSkinnable(), offset);
+    }
+
+    private boolean isViewportInWindow() {
+        int[] visible = getVisibleParagraphs();
+        return !windowDirty && visible[0] >= windowFirst && visible[1] <= windowLast;
+    }
+
+    private int[] getVisibleParagraphs() {
+        int n = getSkinnable().getParagraphs().size();
+        double top = getSkinnable().getScrollTop() - getTextTranslateY();
+        double height = scrollPane.getViewportBounds().getHeight();
+        int first = clamp((int) Math.floor(top / lineHeight), n - 1);
+        int last = clamp((int) Math.ceil((top + height) / lineHeight), n);
+        return new int[] { first, Math.max(first + 1, last) };
+    }
+
+    // Switches between the text node holding the whole text or a window, and
+    // moves the window to the caret if it has moved, or to the viewport
+    private void updateWindow() {
+        boolean useWindow = useWindow();
+        if (useWindow != windowed) {
+            windowed = useWindow;
+            windowDirty = useWindow;
+            windowFirst = 0;
+            windowStart = 0;
+            if (!useWindow) {
+                getTextNode().setText(getSkinnable().getText());
+            }
+            invalidateMetrics();
+        }
+
+        if (windowed) {
+            if (revealCaret) {
+                int caretParagraph = getParagraphOf(getSkinnable().getCaretPosition());
+                if (windowDirty || caretParagraph < windowFirst || caretParagraph >= windowLast) {
+                    setWindow(caretParagraph, caretParagraph + 1);
+                }
+            } else if (!isViewportInWindow()) {
+                int[] visible = getVisibleParagraphs();
+                setWindow(visible[0], visible[1]);
+            }
+        }
+        revealCaret = false;
+    }
+
+    // Makes sure that the window is up to date and contains the given paragraph
+    private void validateWindow(int paragraph) {
+        if (windowed && (windowDirty || paragraph < windowFirst || paragraph >= windowLast)) {
+            setWindow(paragraph, paragraph + 1);
+            contentView.requestLayout();
+        }
+    }
+
+    // Moves the window to the caret, and the caret shape with it, if the
+    // caret is outside of the window
+    private void ensureCaretInWindow() {
+        if (windowed && !isInWindow(getSkinnable().getCaretPosition())) {
+            revealCaret = true;
+            contentView.layoutChildren();
+        }
+    }
+
+    // Fills the window with the given paragraphs and as many paragraphs as
+    // fit into the viewport on either side of them
+    private void setWindow(int first, int last) {
+        List<CharSequence> paragraphs = getSkinnable().getParagraphs();
+        int margin = Math.max(last - first,
+                (int) Math.ceil(scrollPane.getViewportBounds().getHeight() / lineHeight));
+        windowFirst = Math.max(0, first - margin);
+        windowLast = Math.min(paragraphs.size(), last + margin);
+
+        windowStart = TextAreaHelper.getParagraphStart(getSkinnable(), windowFirst);
+
+        StringBuilder text = new StringBuilder();
+        for (int i = windowFirst; i < windowLast; i++) {
+            if (i > windowFirst) {
+                text.append('\n');
+            }
+            text.append(paragraphs.get(i));
+        }
+        windowDirty = false;
+
+        Text textNode = getTextNode();
+        textNode.setText(text.toString());
+        textNode.setLayoutY(getTextTranslateY() + getWindowY());
+    }
+
+    private Object queryWindowAccessibleAttribute(Text text, AccessibleAttribute attribute, Object... parameters) {
+        // without wrapping, the lines of the text are its paragraphs
+        switch (attribute) {
+            case LINE_FOR_OFFSET: {
+                int offset = (Integer)parameters[0];
+                validateWindow(getParagraphOf(offset));
+                Integer line = (Integer)text.queryAccessibleAttribute(attribute,
+                        clamp(offset - windowStart, text.getText().length()));
+                return line == null ? null : line + windowFirst;
+            }
+            case LINE_START:
+            case LINE_END: {
+                int line = (Integer)parameters[0];
+                validateWindow(line);
+                Integer offset = (Integer)text.queryAccessibleAttribute(attribute, line - windowFirst);
+                return offset == null ? null : offset + windowStart;
+            }
+            case BOUNDS_FOR_RANGE: {
+                int start = (Integer)parameters[0];
+                int end = (Integer)parameters[1];
+                validateWindow(getParagraphOf(start));
+                int length = text.getText().length();
+                return text.queryAccessibleAttribute(attribute,
+                        clamp(start - windowStart, length), clamp(end - windowStart, length));
+            }
+            case OFFSET_AT_POINT: {
+                Integer offset = (Integer)text.queryAccessibleAttribute(attribute, parameters);
+                return offset == null ? null : offset + windowStart;
+            }
+            default: return text.queryAccessibleAttribute(attribute, parameters);
+        }
+    }
+
 
 
     /**************************************************************************
@@ -1193,6 +1439,92 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
      *
      **************************************************************************/
 
+    /**
+     * The widths of the paragraphs of a text, which are measured when the
+     * paragraphs change, and the width of the widest paragraph, which is
+     * only searched for again when the widest paragraph becomes narrower.
+     */
+    private static final class ParagraphWidths {
+        private final Font font;
+        private double[] widths;
+        private int size;
+        private double max;
+        private boolean maxValid;
+
+        ParagraphWidths(Font font, List<? extends CharSequence> paragraphs) {
+            this.font = font;
+            size = paragraphs.size();
+            widths = new double[Math.max(size, 16)];
+            for (int i = 0; i < size; i++) {
+                widths[i] = measure(paragraphs.get(i));
+            }
+        }
+
+        double getMax() {
+            if (!maxValid) {
+                max = 0;
+                for (int i = 0; i < size; i++) {
+                    max = Math.max(max, widths[i]);
+                }
+                maxValid = true;
+            }
+            return max;
+        }
+
+        void update(ListChangeListener.Change<? extends CharSequence> change) {
+            while (change.next()) {
+                int from = change.getFrom();
+                int to = change.getTo();
+                int removed = change.getRemovedSize();
+
+                // Paragraphs that are replaced keep their slots
+                int replaced = Math.min(removed, to - from);
+                if (removed > replaced) {
+                    remove(from + replaced, removed - replaced);
+                } else if (to - from > replaced) {
+                    insert(from + replaced, to - from - replaced);
+                }
+
+                for (int i = from; i < to; i++) {
+                    set(i, measure(change.getList().get(i)));
+                }
+            }
+        }
+
+        private double measure(CharSequence paragraph) {
+            return Utils.computeTextWidth(font, paragraph.toString(), 0);
+        }
+
+        private void set(int index, double width) {
+            double oldWidth = widths[index];
+            widths[index] = width;
+            if (width >= max) {
+                max = width;
+            } else if (oldWidth >= max) {
+                maxValid = false;
+            }
+        }
+
+        private void insert(int index, int count) {
+            if (size + count > widths.length) {
+                widths = Arrays.copyOf(widths, Math.max(size + count, widths.length * 2));
+            }
+            System.arraycopy(widths, index, widths, index + count, size - index);
+            Arrays.fill(widths, index, index + count, 0);
+            size += count;
+        }
+
+        private void remove(int index, int count) {
+            for (int i = index; i < index + count; i++) {
+                if (widths[i] >= max) {
+                    maxValid = false;
+                }
+            }
+            System.arraycopy(widths, index + count, widths, index, size - index - count);
+            size -= count;
+        }
+    }
+
     private class ContentView extends Region {
         {
             getStyleClass().add("content");
@@ -1225,6 +1557,14 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
             if (computedPrefWidth < 0) {
                 double prefWidth = 0;
 
+                if (windowed) {
+                    if (paragraphWidths == null) {
+                        paragraphWidths = new ParagraphWidths(getSkinnable().getFont(),
+                                getSkinnable().getParagraphs());
+                    }
+                    prefWidth = paragraphWidths.getMax();
+                }
+
                 for (Node node : paragraphNodes.getChildren()) {
                     Text paragraphNode = (Text)node;
                     prefWidth = Math.max(prefWidth,
@@ -1256,13 +1596,17 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
 
                 double prefHeight = 0;
 
-                for (Node node : paragraphNodes.getChildren()) {
-                    Text paragraphNode = (Text)node;
-                    prefHeight += Utils.computeTextHeight(
-                            paragraphNode.getFont(),
-                            paragraphNode.getText(),
-                            wrappingWidth,
-                            paragraphNode.getBoundsType());
+                if (windowed) {
+                    prefHeight = getSkinnable().getParagraphs().size() * lineHeight;
+                } else {
+                    for (Node node : paragraphNodes.getChildren()) {
+                        Text paragraphNode = (Text)node;
+                        prefHeight += Utils.computeTextHeight(
+                                paragraphNode.getFont(),
+                                paragraphNode.getText(),
+                                wrappingWidth,
+                                paragraphNode.getBoundsType());
+                    }
                 }
 
                 prefHeight += snappedTopInset() + snappedBottomInset();
@@ -1293,6 +1637,8 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
             TextArea textArea = getSkinnable();
             double width = getWidth();
 
+            updateWindow();
+
             // Lay out paragraphs
             final double topPadding = snappedTopInset();
             final double leftPadding = snappedLeftInset();
@@ -1310,7 +1656,7 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
 
                 Bounds bounds = paragraphNode.getBoundsInLocal();
                 paragraphNode.setLayoutX(leftPadding);
-                paragraphNode.setLayoutY(y);
+                paragraphNode.setLayoutY(y + getWindowY());
 
                 y += bounds.getHeight();
             }
@@ -1344,9 +1690,9 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
 
                 // Position the handle for the anchor. This could be handle1 or handle2.
                 // Do this before positioning the actual caret.
-                if (selection.getLength() > 0) {
+                if (selection.getLength() > 0 && isInWindow(anchorPos)) {
                     int paragraphIndex = paragraphNodesChildren.size();
-                    int paragraphOffset = textArea.getLength() + 1;
+                    int paragraphOffset = getWindowEnd() + 1;
                     Text paragraphNode = null;
                     do {
                         paragraphNode = (Text)paragraphNodesChildren.get(--paragraphIndex);
@@ -1370,10 +1716,10 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
                 }
             }
 
-            {
+            if (isInWindow(caretPos)) {
                 // Position caret
                 int paragraphIndex = paragraphNodesChildren.size();
-                int paragraphOffset = textArea.getLength() + 1;
+                int paragraphOffset = getWindowEnd() + 1;
 
                 Text paragraphNode = null;
                 do {
@@ -1395,11 +1741,19 @@ public class TextAreaSkin extends TextInputControlSkin<TextArea> {
                 if (oldCaretBounds == null || !oldCaretBounds.equals(caretPath.getBoundsInParent())) {
                     scrollCaretToVisible();
                 }
+            } else {
+                // The caret is outside of the window, of which only its line is
+                // known; it is moved into the window when it is revealed
+                Text textNode = getTextNode();
+                double caretY = getParagraphOf(caretPos) * lineHeight - getWindowY();
+                caretPath.getElements().setAll(new MoveTo(0, caretY), new LineTo(0, caretY + lineHeight));
+                caretPath.setLayoutX(textNode.getLayoutX());
+                caretPath.setLayoutY(textNode.getLayoutY());
             }
 
             // Update selection fg and bg
-            int start = selection.getStart();
-            int end = selection.getEnd();
+            int start = Math.max(0, selection.getStart() - windowStart);
+            int end = Math.max(0, selection.getEnd() - windowStart);
             for (int i = 0, max = paragraphNodesChildren.size(); i < max; i++) {
                 Node paragraphNode = paragraphNodesChildren.get(i);
                 Text textNode = (Text)paragraphNode;
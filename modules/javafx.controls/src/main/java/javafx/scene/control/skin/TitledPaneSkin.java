@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -33,7 +33,15 @@ import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
 import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.value.WritableValue;
+import javafx.css.CssMetaData;
+import javafx.css.Styleable;
+import javafx.css.StyleableObjectProperty;
+import javafx.css.StyleableProperty;
+import javafx.css.converter.DurationConverter;
+import javafx.css.converter.EnumConverter;
 import javafx.geometry.HPos;
 import javafx.geometry.Pos;
 import javafx.geometry.VPos;
@@ -51,10 +59,15 @@ import javafx.beans.binding.DoubleBinding;
 import javafx.geometry.Insets;
 import javafx.scene.control.Accordion;
 import javafx.scene.control.Labeled;
+import javafx.scene.control.SkinBase;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.input.MouseButton;
 import javafx.scene.text.Font;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Default skin implementation for the {@link TitledPane} control.
  *
@@ -96,6 +109,12 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
     private HPos hpos;
     private VPos vpos;
 
+    // whether the pane has been expanded at least once, for ContentPolicy.LAZY
+    private boolean shown;
+
+    // detaches the content of a collapsed pane, for ContentPolicy.RELEASE
+    private Timeline releaseTimeline;
+
 
 
     /***************************************************************************
@@ -127,14 +146,12 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
         contentContainer = new StackPane() {
             {
                 getStyleClass().setAll("content");
-
-                if (content != null) {
-                    getChildren().setAll(content);
-                }
             }
         };
         contentContainer.setClip(clipRect);
         updateClip();
+        shown = control.isExpanded();
+        updateContent();
 
         if (control.isExpanded()) {
             setTransition(1.0f);
@@ -150,11 +167,7 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
 
         registerChangeListener(control.contentProperty(), e -> {
             content = getSkinnable().getContent();
-            if (content == null) {
-                contentContainer.getChildren().clear();
-            } else {
-                contentContainer.getChildren().setAll(content);
-            }
+            updateContent();
         });
         registerChangeListener(control.expandedProperty(), e -> setExpanded(getSkinnable().isExpanded()));
         registerChangeListener(control.collapsibleProperty(), e -> titleRegion.update());
@@ -184,6 +197,38 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
      *                                                                         *
      **************************************************************************/
 
+    private ObjectProperty<ContentPolicy> contentPolicy = new StyleableObjectProperty<ContentPolicy>(ContentPolicy.EAGER) {
+        @Override protected void invalidated() {
+            updateContent();
+        }
+
+        @Override public CssMetaData<TitledPane,ContentPolicy> getCssMetaData() {
+            return StyleableProperties.CONTENT_POLICY;
+        }
+
+        @Override public Object getBean() {
+            return TitledPaneSkin.this;
+        }
+
+        @Override public String getName() {
+            return "contentPolicy";
+        }
+    };
+
+    private ObjectProperty<Duration> contentReleaseDelay = new StyleableObjectProperty<Duration>(Duration.ZERO) {
+        @Override public CssMetaData<TitledPane,Duration> getCssMetaData() {
+            return StyleableProperties.CONTENT_RELEASE_DELAY;
+        }
+
+        @Override public Object getBean() {
+            return TitledPaneSkin.this;
+        }
+
+        @Override public String getName() {
+            return "contentReleaseDelay";
+        }
+    };
+
     private DoubleProperty transition;
     private final void setTransition(double value) { transitionProperty().set(value); }
     private final double getTransition() { return transition == null ? 0.0 : transition.get(); }
@@ -208,6 +253,7 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
 
     /** {@inheritDoc} */
     @Override public void dispose() {
+        stopRelease();
         super.dispose();
 
         if (behavior != null) {
@@ -299,9 +345,56 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
         clipRect.setHeight(contentContainer.getHeight());
     }
 
+    private void updateContent() {
+        Node newContent = isContentAttached() ? content : null;
+        if (newContent == null) {
+            contentContainer.getChildren().clear();
+        } else if (contentContainer.getChildren().size() != 1
+                || contentContainer.getChildren().get(0) != newContent) {
+            // re-adding attached content would apply CSS to it again
+            contentContainer.getChildren().setAll(newContent);
+        }
+    }
+
+    private boolean isContentAttached() {
+        switch (contentPolicy.get()) {
+            case LAZY: return shown || getTransition() > 0;
+            case RELEASE: return getSkinnable().isExpanded() || getTransition() > 0 || releaseTimeline != null;
+            default: return true;
+        }
+    }
+
+    // called once the pane is collapsed
+    private void releaseContent() {
+        Duration delay = contentReleaseDelay.get();
+        if (contentPolicy.get() == ContentPolicy.RELEASE && delay != null && delay.greaterThan(Duration.ZERO)) {
+            releaseTimeline = new Timeline(new KeyFrame(delay, e -> {
+                releaseTimeline = null;
+                updateContent();
+            }));
+            releaseTimeline.play();
+        } else {
+            updateContent();
+        }
+    }
+
+    private void stopRelease() {
+        if (releaseTimeline != null) {
+            releaseTimeline.stop();
+            releaseTimeline = null;
+        }
+    }
+
     private void setExpanded(boolean expanded) {
+        stopRelease();
+        if (expanded) {
+            shown = true;
+            updateContent();
+        }
+
         if (! getSkinnable().isCollapsible()) {
             setTransition(1.0f);
+            updateContent();
             return;
         }
 
@@ -318,6 +411,9 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
             if (content != null) {
                 content.setVisible(expanded);
              }
+            if (!expanded) {
+                releaseContent();
+            }
             getSkinnable().requestLayout();
         }
     }
@@ -395,6 +491,7 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
                         // end collapse
                         content.setVisible(false);
                         if (CACHE_ANIMATION) content.setCache(false);
+                        releaseContent();
                     },
                 new KeyValue(transitionProperty(), 0, Interpolator.LINEAR)
             );
@@ -406,6 +503,72 @@ public class TitledPaneSkin extends LabeledSkinBase<TitledPane>  {
 
 
 
+    /***************************************************************************
+     *                                                                         *
+     * CSS                                                                     *
+     *                                                                         *
+     **************************************************************************/
+
+    private static class StyleableProperties {
+        private static final List<CssMetaData<? extends Styleable, ?>> STYLEABLES;
+
+        private final static CssMetaData<TitledPane,ContentPolicy> CONTENT_POLICY =
+                new CssMetaData<TitledPane, ContentPolicy>("-fx-content-policy",
+                    new EnumConverter<ContentPolicy>(ContentPolicy.class), ContentPolicy.EAGER) {
+
+            @Override public boolean isSettable(TitledPane node) {
+                return true;
+            }
+
+            @Override public StyleableProperty<ContentPolicy> getStyleableProperty(TitledPane node) {
+                TitledPaneSkin skin = (TitledPaneSkin) node.getSkin();
+                return (StyleableProperty<ContentPolicy>)(WritableValue<ContentPolicy>)skin.contentPolicy;
+            }
+        };
+
+        private final static CssMetaData<TitledPane,Duration> CONTENT_RELEASE_DELAY =
+                new CssMetaData<TitledPane, Duration>("-fx-content-release-delay",
+                    DurationConverter.getInstance(), Duration.ZERO) {
+
+            @Override public boolean isSettable(TitledPane node) {
+                return true;
+            }
+
+            @Override public StyleableProperty<Duration> getStyleableProperty(TitledPane node) {
+                TitledPaneSkin skin = (TitledPaneSkin) node.getSkin();
+                return (StyleableProperty<Duration>)(WritableValue<Duration>)skin.contentReleaseDelay;
+            }
+        };
+
+        static {
+            final List<CssMetaData<? extends Styleable, ?>> styleables =
+                new ArrayList<CssMetaData<? extends Styleable, ?>>(SkinBase.getClassCssMetaData());
+            styleables.add(CONTENT_POLICY);
+            styleables.add(CONTENT_RELEASE_DELAY);
+            STYLEABLES = Collections.unmodifiableList(styleables);
+        }
+    }
+
+    /**
+     * Returns the CssMetaData associated with this class, which may include the
+     * CssMetaData of its superclasses.
+     * @return the CssMetaData associated with this class, which may include the
+     * CssMetaData of its superclasses
+     * @since 18
+     */
+    public static List<CssMetaData<? extends Styleable, ?>> getClassCssMetaData() {
+        return StyleableProperties.STYLEABLES;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override public List<CssMetaData<? extends Styleable, ?>> getCssMetaData() {
+        return getClassCssMetaData();
+    }
+
+
+
     /***************************************************************************
      *                                                                         *
      * Support classes                                                         *
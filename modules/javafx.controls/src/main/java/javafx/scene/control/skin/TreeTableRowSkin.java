@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -38,6 +38,7 @@ import javafx.scene.control.TreeTablePosition;
 import javafx.scene.control.TreeTableRow;
 import javafx.scene.control.TreeTableView;
 
+import java.lang.ref.Reference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -143,6 +144,10 @@ public class TreeTableRowSkin<T> extends TableRowSkinBase<TreeItem<T>, TreeTable
                 registerChangeListener(fixedCellSizeProperty, e -> {
                     fixedCellSize = fixedCellSizeProperty.get();
                     fixedCellSizeEnabled = fixedCellSize > 0;
+
+                    // cells are only virtualized with a fixed cell size
+                    isDirty = true;
+                    getSkinnable().requestLayout();
                 });
                 fixedCellSize = fixedCellSizeProperty.get();
                 fixedCellSizeEnabled = fixedCellSize > 0;
@@ -314,6 +319,16 @@ public class TreeTableRowSkin<T> extends TableRowSkinBase<TreeItem<T>, TreeTable
         return getTreeTableView().isShowRoot();
     }
 
+    /** {@inheritDoc} */
+    @Override Object getCellFactory(TableColumnBase tcb) {
+        return ((TreeTableColumn<T,?>) tcb).getCellFactory();
+    }
+
+    /** {@inheritDoc} */
+    @Override void updateCellColumn(TreeTableCell<T, ?> cell, TableColumnBase<TreeItem<T>, ?> tcb) {
+        ((TreeTableCell) cell).updateTreeTableColumn((TreeTableColumn) tcb);
+    }
+
     /** {@inheritDoc} */
     @Override protected ObservableList<TreeTableColumn<T, ?>> getVisibleLeafColumns() {
         return getTreeTableView() == null ? FXCollections.emptyObservableList() : getTreeTableView().getVisibleLeafColumns();
@@ -470,7 +485,8 @@ public class TreeTableRowSkin<T> extends TableRowSkinBase<TreeItem<T>, TreeTable
                             /* This is the row-based case */
                             column = treeTableView.getVisibleLeafColumn(0);
                         }
-                        TreeTableCell<T,?> cell = cellsMap.get(column).get();
+                        Reference<TreeTableCell<T,?>> cellRef = cellsMap.get(column);
+                        TreeTableCell<T,?> cell = cellRef == null ? null : cellRef.get();
                         if (cell != null) selection.add(cell);
                     }
                     return FXCollections.observableArrayList(selection);
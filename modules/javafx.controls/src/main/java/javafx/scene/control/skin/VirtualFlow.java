@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -48,6 +48,7 @@ import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.EventDispatcher;
 import javafx.event.EventHandler;
@@ -71,8 +72,10 @@ import com.sun.javafx.logging.PlatformLogger;
 
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Implementation of a virtualized container using a cell based mechanism. This
@@ -117,6 +120,18 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
      */
     private static final int DEFAULT_IMPROVEMENT = 2;
 
+    /**
+     * The time, in seconds, of scrolling at the current speed for which the
+     * upcoming cells are passed to the prefetch handler.
+     */
+    private static final double PREFETCH_TIME = 0.25;
+
+    /**
+     * The maximum number of cells passed to the prefetch handler after a
+     * layout, in pages of visible cells.
+     */
+    private static final int PREFETCH_PAGES = 4;
+
 
 
     /***************************************************************************
@@ -273,15 +288,44 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
     double estimatedSize = -1d;
 
     /**
-     * A list containing the cached version of the calculated size (height for
-     * vertical, width for horizontal) for a (fictive or real) cell for
-     * each element of the backing data.
-     * This list is used to calculate the estimatedSize.
-     * The list is not expected to be complete, but it is always up to date.
-     * When the size of the items in the backing list changes, this list is
-     * cleared.
+     * A cache containing the calculated size (height for vertical, width for
+     * horizontal) for a (fictive or real) cell for each element of the
+     * backing data.
+     * This cache is used to calculate the estimatedSize, and to map between
+     * item indices and offsets.
+     * The cache is not expected to be complete, but it is always up to date.
+     * When the size of the items in the backing list changes, this cache is
+     * cleared, unless the changes were passed to <code>itemsChanged()</code>
+     * first.
+     */
+    private final ItemSizeCache itemSizeCache = new ItemSizeCache();
+
+    /**
+     * True when <code>itemSizeCache</code> has been updated for changes of the
+     * backing data, and therefore does not need to be cleared on the next call
+     * to <code>setCellCount()</code>.
+     */
+    private boolean itemSizeCacheUpdated = false;
+
+    /**
+     * The number of items, from the start of the backing data, whose size has
+     * been requested by <code>recalculateAndImproveEstimatedSize()</code>
+     * since the cell count was last set. Every call requests the size of a few
+     * more items, which only needs a cell for the items that are not in the
+     * cache yet.
+     */
+    private int improvedItemCount = 0;
+
+    /**
+     * Called with the indices of the cells that are predicted to be shown
+     * next, from the direction and the speed of scrolling, so that a skin can
+     * prepare their content ahead of time. The speed is measured in cells per
+     * second, from the changes of the index of the first visible cell.
      */
-    private ArrayList<Double> itemSizeCache = new ArrayList<>();
+    IntConsumer prefetchHandler; // package-private for testing
+    private int prefetchFirstIndex = -1;
+    private long prefetchFirstTime;
+    private double scrollSpeed;
 
     // used for panning the virtual flow
     private double lastX;
@@ -895,7 +939,11 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
     };
     public final int getCellCount() { return cellCount.get(); }
     public final void setCellCount(int value) {
-        resetSizeEstimates();
+        if (!itemSizeCacheUpdated || itemSizeCache.size() != value) {
+            resetSizeEstimates(value);
+        }
+        itemSizeCacheUpdated = false;
+        improvedItemCount = 0;
         cellCount.set(value);
         adjustAbsoluteOffset();
     }
@@ -1340,6 +1388,7 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
         lastPosition = getPosition();
         recalculateEstimatedSize();
         cleanPile();
+        prefetchCells();
     }
 
     /** {@inheritDoc} */
@@ -1718,6 +1767,7 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
         // Finally, update the scroll bars
         updateScrollBarsAndCells(false);
         lastPosition = getPosition();
+        prefetchCells();
 
         // notify
         return answer;
@@ -2829,18 +2879,14 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
      */
     private double computeViewportOffset(double position) {
         double p = com.sun.javafx.util.Utils.clamp(0, position, 1);
-        double bound = 0d;
-        double estSize = estimatedSize / getCellCount();
+        int cellCount = getCellCount();
+        double estSize = estimatedSize / cellCount;
 
-        for (int i = 0; i < getCellCount(); i++) {
-            double h = getCellSize(i);
-            if (h < 0) h = estSize;
-            if (bound + h > absoluteOffset) {
-                return absoluteOffset - bound;
-            }
-            bound += h;
+        int index = itemSizeCache.indexOf(absoluteOffset, estSize);
+        if (index < 0 || index >= cellCount) {
+            return 0d;
         }
-        return 0d;
+        return absoluteOffset - itemSizeCache.getOffset(index, estSize);
     }
 
     private void adjustPositionToIndex(int index) {
@@ -2848,14 +2894,8 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
         if (cellCount <= 0) {
             setPosition(0.0f);
         } else {
-            double targetOffset = 0;
             double estSize = estimatedSize/cellCount;
-            for (int i = 0; i < index; i++) {
-                double cz = getCellSize(i);
-                if (cz < 0) cz = estSize;
-                targetOffset = targetOffset+ cz;
-            }
-            this.absoluteOffset = targetOffset;
+            this.absoluteOffset = itemSizeCache.getOffset(index, estSize);
             adjustPosition();
         }
 
@@ -2908,16 +2948,11 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
     }
 
     private int computeCurrentIndex() {
-        double total = 0;
         int currentCellCount = getCellCount();
         double estSize = estimatedSize / currentCellCount;
-        for (int i = 0; i < currentCellCount; i++) {
-            double nextSize = getCellSize(i);
-            if (nextSize < 0) nextSize = estSize;
-            total = total + nextSize;
-            if (total > absoluteOffset) {
-                return i;
-            }
+        int index = itemSizeCache.indexOf(absoluteOffset, estSize);
+        if (index >= 0 && index < currentCellCount) {
+            return index;
         }
         return currentCellCount == 0 ? 0 : currentCellCount - 1;
     }
@@ -2950,12 +2985,10 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
     }
 
     private double getOrCreateCellSize (int idx, boolean create) {
-        // is the current cache long enough to contain idx?
-        if (itemSizeCache.size() > idx) {
-            // is there a non-null value stored in the cache?
-            if (itemSizeCache.get(idx) != null) {
-                return itemSizeCache.get(idx);
-            }
+        // is there a value stored in the cache?
+        double cachedSize = itemSizeCache.get(idx);
+        if (cachedSize >= 0) {
+            return cachedSize;
         }
         if (!create) return -1;
         boolean doRelease = false;
@@ -2966,10 +2999,6 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
             cell = getCell(idx);
             doRelease = true;
         }
-        // Make sure we have enough space in the cache to store this index
-        while (idx >= itemSizeCache.size()) {
-            itemSizeCache.add(itemSizeCache.size(), null);
-        }
 
         // if we have a valid cell, we can populate the cache
         double answer = 1d;
@@ -2994,7 +3023,7 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
      */
     void updateCellSize(T cell) {
         int cellIndex = cell.getIndex();
-        if (itemSizeCache.size() > cellIndex) {
+        if (cellIndex >= 0 && itemSizeCache.size() > cellIndex) {
         if (isVertical()) {
             double newh = cell.getLayoutBounds().getHeight();
             itemSizeCache.set(cellIndex, newh);
@@ -3005,6 +3034,90 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
         }
     }
 
+    /**
+     * Sets the handler that is called with the indices of the cells that are
+     * predicted to be shown next, or null to stop predicting them.
+     * @param handler the handler, or null
+     */
+    void setPrefetchHandler(IntConsumer handler) {
+        if (handler == prefetchHandler) return;
+        prefetchHandler = handler;
+        prefetchFirstIndex = -1;
+        scrollSpeed = 0;
+    }
+
+    private void prefetchCells() {
+        if (prefetchHandler == null) return;
+
+        final T firstCell = getFirstVisibleCell();
+        final T lastCell = getLastVisibleCell();
+        if (firstCell == null || lastCell == null) return;
+        final int firstIndex = getCellIndex(firstCell);
+        final int lastIndex = getCellIndex(lastCell);
+
+        // update the scroll speed when the first visible cell changes, and
+        // forget it when it did not change for a while
+        final long now = System.nanoTime();
+        final double elapsed = (now - prefetchFirstTime) / 1e9;
+        if (prefetchFirstIndex == -1) {
+            scrollSpeed = 0;
+            prefetchFirstTime = now;
+        } else if (firstIndex != prefetchFirstIndex) {
+            final double speed = (firstIndex - prefetchFirstIndex) / Math.max(elapsed, 0.001);
+            // smooth the speed, unless the direction changed or scrolling
+            // has just started again
+            scrollSpeed = speed * scrollSpeed > 0 && elapsed <= PREFETCH_TIME ?
+                    (scrollSpeed + speed) / 2 : speed;
+            prefetchFirstTime = now;
+        } else if (elapsed > PREFETCH_TIME) {
+            scrollSpeed = 0;
+        }
+        prefetchFirstIndex = firstIndex;
+        if (scrollSpeed == 0) return;
+
+        // prefetch at least one page in the direction of scrolling
+        final int page = lastIndex - firstIndex + 1;
+        final int count = (int) Math.min(Math.max(Math.abs(scrollSpeed) * PREFETCH_TIME, page),
+                PREFETCH_PAGES * page);
+        if (scrollSpeed > 0) {
+            final int to = Math.min(getCellCount(), lastIndex + 1 + count);
+            for (int i = lastIndex + 1; i < to; i++) {
+                prefetchHandler.accept(i);
+            }
+        } else {
+            final int to = Math.max(0, firstIndex - count);
+            for (int i = firstIndex - 1; i >= to; i--) {
+                prefetchHandler.accept(i);
+            }
+        }
+    }
+
+    /**
+     * Updates the cached cell sizes for the given change of the backing data,
+     * so that the sizes of the items that were not changed are kept when the
+     * cell count is set afterwards. Skins call this from the
+     * <code>ListChangeListener</code> on their items, before updating the
+     * cell count.
+     * @param c the change of the backing data
+     */
+    void itemsChanged(ListChangeListener.Change<?> c) {
+        while (c.next()) {
+            final int from = c.getFrom();
+            if (c.wasPermutated() || c.wasUpdated()) {
+                itemSizeCache.invalidate(from, c.getTo());
+            } else {
+                if (c.wasRemoved()) {
+                    itemSizeCache.remove(from, c.getRemovedSize());
+                }
+                if (c.wasAdded()) {
+                    itemSizeCache.insert(from, c.getAddedSize());
+                }
+            }
+        }
+        c.reset();
+        itemSizeCacheUpdated = true;
+    }
+
     /**
      * Recalculate the estimated size for this list based on what we have in the
      * cache.
@@ -3015,27 +3128,18 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
 
     private void recalculateAndImproveEstimatedSize(int improve) {
         int itemCount = getCellCount();
-        int cacheCount = itemSizeCache.size();
         int added = 0;
-        while ((itemCount > itemSizeCache.size()) && (added < improve)) {
-            getOrCreateCellSize(itemSizeCache.size());
+        while ((itemCount > improvedItemCount) && (added < improve)) {
+            getOrCreateCellSize(improvedItemCount++);
             added++;
         }
-        cacheCount = itemSizeCache.size();
-        int cnt = 0;
-        double tot = 0d;
-        for (int i = 0; (i < itemCount && i < cacheCount); i++) {
-            Double il = itemSizeCache.get(i);
-            if (il != null) {
-                tot = tot + il;
-                cnt++;
-            }
-        }
+        int cnt = itemSizeCache.getKnownCount();
+        double tot = itemSizeCache.getKnownTotal();
         this.estimatedSize = cnt == 0 ? 1d: tot * itemCount / cnt;
     }
 
-    private void resetSizeEstimates() {
-        itemSizeCache.clear();
+    private void resetSizeEstimates(int itemCount) {
+        itemSizeCache.reset(itemCount);
         this.estimatedSize = 1d;
     }
 
@@ -3110,6 +3214,213 @@ public class VirtualFlow<T extends IndexedCell> extends Region {
         }
     }
 
+    /**
+     * The cached sizes of the items of the VirtualFlow, indexed by a pair of
+     * Fenwick (binary indexed) trees over the known sizes and the number of
+     * known sizes. Items without a known size count as a given estimate, so
+     * the offset of an item and the item at an offset can both be computed in
+     * O(log n), rather than by summing the sizes of all preceding items.
+     * <p>
+     * Indices at or beyond the size of the cache are treated as items with an
+     * unknown size.
+     * <p>
+     * This class is package private solely for the sake of testing.
+     */
+    static class ItemSizeCache {
+        private static final double UNKNOWN = -1d;
+
+        private double[] sizes = new double[0];
+        private double[] sizeTree = new double[1];
+        private int[] countTree = new int[1];
+        private int size = 0;
+        private int knownCount = 0;
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Clears all sizes and sets the number of items.
+         */
+        public void reset(int itemCount) {
+            size = Math.max(0, itemCount);
+            if (sizes.length < size || sizes.length > 2 * size + 16) {
+                sizes = new double[size];
+                sizeTree = new double[size + 1];
+                countTree = new int[size + 1];
+            } else {
+                Arrays.fill(sizeTree, 0d);
+                Arrays.fill(countTree, 0);
+            }
+            Arrays.fill(sizes, UNKNOWN);
+            knownCount = 0;
+        }
+
+        /**
+         * Returns the size of the item at the given index, or -1 if that is
+         * not known.
+         */
+        public double get(int index) {
+            return index >= 0 && index < size ? sizes[index] : UNKNOWN;
+        }
+
+        /**
+         * Sets the size of the item at the given index, growing the cache if
+         * needed.
+         */
+        public void set(int index, double value) {
+            if (index < 0) return;
+            if (index >= size) {
+                insert(size, index + 1 - size);
+            }
+            final double old = sizes[index];
+            sizes[index] = value;
+            if (old >= 0) {
+                add(index, value - old, 0);
+            } else {
+                add(index, value, 1);
+                knownCount++;
+            }
+        }
+
+        /**
+         * Forgets the sizes of the items from the given index (inclusive) to
+         * the given index (exclusive).
+         */
+        public void invalidate(int from, int to) {
+            to = Math.min(to, size);
+            for (int i = Math.max(0, from); i < to; i++) {
+                final double old = sizes[i];
+                if (old >= 0) {
+                    sizes[i] = UNKNOWN;
+                    add(i, -old, -1);
+                    knownCount--;
+                }
+            }
+        }
+
+        /**
+         * Inserts the given number of items with unknown sizes at the given
+         * index.
+         */
+        public void insert(int index, int count) {
+            if (count <= 0) return;
+            index = Math.max(0, Math.min(index, size));
+            double[] newSizes = sizes;
+            if (size + count > sizes.length) {
+                newSizes = new double[Math.max(size + count, size + (size >> 1))];
+                System.arraycopy(sizes, 0, newSizes, 0, index);
+            }
+            System.arraycopy(sizes, index, newSizes, index + count, size - index);
+            Arrays.fill(newSizes, index, index + count, UNKNOWN);
+            sizes = newSizes;
+            size += count;
+            rebuild();
+        }
+
+        /**
+         * Removes the given number of items at the given index.
+         */
+        public void remove(int index, int count) {
+            index = Math.max(0, index);
+            count = Math.min(count, size - index);
+            if (count <= 0) return;
+            System.arraycopy(sizes, index + count, sizes, index, size - index - count);
+            size -= count;
+            Arrays.fill(sizes, size, size + count, UNKNOWN);
+            rebuild();
+        }
+
+        public int getKnownCount() {
+            return knownCount;
+        }
+
+        public double getKnownTotal() {
+            double total = 0d;
+            for (int i = size; i > 0; i -= i & -i) {
+                total += sizeTree[i];
+            }
+            return total;
+        }
+
+        /**
+         * Returns the sum of the sizes of the items before the given index,
+         * where items with an unknown size count as the given estimate.
+         */
+        public double getOffset(int index, double estimate) {
+            if (index <= 0) return 0d;
+            final int n = Math.min(index, size);
+            double total = 0d;
+            int known = 0;
+            for (int i = n; i > 0; i -= i & -i) {
+                total += sizeTree[i];
+                known += countTree[i];
+            }
+            return total + (index - known) * estimate;
+        }
+
+        /**
+         * Returns the index of the item that contains the given offset, that
+         * is the index i for which getOffset(i) &lt;= offset &lt;
+         * getOffset(i + 1), where items with an unknown size count as the
+         * given estimate. This returns -1 for a negative offset.
+         */
+        public int indexOf(double offset, double estimate) {
+            if (offset < 0) return -1;
+            int index = 0;
+            double remaining = offset;
+            for (int step = Integer.highestOneBit(Math.max(1, size)); step > 0; step >>= 1) {
+                final int next = index + step;
+                if (next <= size) {
+                    final double length = sizeTree[next] + (step - countTree[next]) * estimate;
+                    if (length <= remaining) {
+                        index = next;
+                        remaining -= length;
+                    }
+                }
+            }
+            if (index == size && estimate > 0 && remaining >= estimate) {
+                // beyond the cache, all items count as the estimate
+                final double extra = Math.floor(remaining / estimate);
+                return extra >= Integer.MAX_VALUE - index ? Integer.MAX_VALUE : index + (int) extra;
+            }
+            return index;
+        }
+
+        private void add(int index, double delta, int countDelta) {
+            for (int i = index + 1; i <= size; i += i & -i) {
+                sizeTree[i] += delta;
+                countTree[i] += countDelta;
+            }
+        }
+
+        private void rebuild() {
+            if (sizeTree.length < size + 1) {
+                sizeTree = new double[sizes.length + 1];
+                countTree = new int[sizes.length + 1];
+            }
+            knownCount = 0;
+            for (int i = 1; i <= size; i++) {
+                final double value = sizes[i - 1];
+                if (value >= 0) {
+                    sizeTree[i] = value;
+                    countTree[i] = 1;
+                    knownCount++;
+                } else {
+                    sizeTree[i] = 0d;
+                    countTree[i] = 0;
+                }
+            }
+            for (int i = 1; i <= size; i++) {
+                final int parent = i + (i & -i);
+                if (parent <= size) {
+                    sizeTree[parent] += sizeTree[i];
+                    countTree[parent] += countTree[i];
+                }
+            }
+        }
+    }
+
     /**
      * A List-like implementation that is exceedingly efficient for the purposes
      * of the VirtualFlow. Typically there is not much variance in the number of
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -106,6 +106,10 @@ public class VirtualFlowShim<T extends IndexedCell> extends VirtualFlow<T> {
 
     //------------------- statics --------------------
 
+    public static boolean hasPrefetchHandler(VirtualFlow<?> flow) {
+        return flow.prefetchHandler != null;
+    }
+
     public static <T> T cells_getFirst(VirtualFlow.ArrayLinkedList<T> list) {
         return list.getFirst();
     }
@@ -124,6 +128,65 @@ public class VirtualFlowShim<T extends IndexedCell> extends VirtualFlow<T> {
 
 
 
+    public static class ItemSizeCacheShim extends VirtualFlow.ItemSizeCache {
+
+        @Override
+        public int size() {
+            return super.size();
+        }
+
+        @Override
+        public void reset(int itemCount) {
+            super.reset(itemCount);
+        }
+
+        @Override
+        public double get(int index) {
+            return super.get(index);
+        }
+
+        @Override
+        public void set(int index, double value) {
+            super.set(index, value);
+        }
+
+        @Override
+        public void invalidate(int from, int to) {
+            super.invalidate(from, to);
+        }
+
+        @Override
+        public void insert(int index, int count) {
+            super.insert(index, count);
+        }
+
+        @Override
+        public void remove(int index, int count) {
+            super.remove(index, count);
+        }
+
+        @Override
+        public int getKnownCount() {
+            return super.getKnownCount();
+        }
+
+        @Override
+        public double getKnownTotal() {
+            return super.getKnownTotal();
+        }
+
+        @Override
+        public double getOffset(int index, double estimate) {
+            return super.getOffset(index, estimate);
+        }
+
+        @Override
+        public int indexOf(double offset, double estimate) {
+            return super.indexOf(offset, estimate);
+        }
+
+    }
+
     public static class ArrayLinkedListShim<T> extends VirtualFlow.ArrayLinkedList<T> {
 
         @Override
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.charts;
+
+import com.sun.javafx.charts.WindowExtremum;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class WindowExtremumTest {
+
+    @Test
+    public void testEmpty() {
+        assertEquals(Double.POSITIVE_INFINITY, new WindowExtremum(false).get(), 0);
+        assertEquals(Double.NEGATIVE_INFINITY, new WindowExtremum(true).get(), 0);
+    }
+
+    @Test
+    public void testNaNIsIgnored() {
+        WindowExtremum max = new WindowExtremum(true);
+        max.add(0, 3);
+        max.add(1, Double.NaN);
+        assertEquals(3, max.get(), 0);
+        max.evictBefore(1);
+        assertEquals(Double.NEGATIVE_INFINITY, max.get(), 0);
+    }
+
+    @Test
+    public void testSlidingWindowMatchesScan() {
+        final int window = 50;
+        final Random random = new Random(11);
+        final double[] values = new double[2000];
+        WindowExtremum min = new WindowExtremum(false);
+        WindowExtremum max = new WindowExtremum(true);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(100);
+            min.add(i, values[i]);
+            max.add(i, values[i]);
+            min.evictBefore(i - window + 1);
+            max.evictBefore(i - window + 1);
+
+            double expectedMin = Double.POSITIVE_INFINITY;
+            double expectedMax = Double.NEGATIVE_INFINITY;
+            for (int j = Math.max(0, i - window + 1); j <= i; j++) {
+                expectedMin = Math.min(expectedMin, values[j]);
+                expectedMax = Math.max(expectedMax, values[j]);
+            }
+            assertEquals(expectedMin, min.get(), 0);
+            assertEquals(expectedMax, max.get(), 0);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package test.com.sun.javafx.scene.control;
+
+import com.sun.javafx.scene.control.RankedBitSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class RankedBitSetTest {
+
+    private RankedBitSet bitset;
+
+    @Before
+    public void setup() {
+        bitset = new RankedBitSet();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, bitset.cardinality());
+        assertEquals(0, bitset.rank(100));
+        assertEquals(-1, bitset.select(0));
+    }
+
+    @Test
+    public void testRankAndSelectOfRange() {
+        bitset.set(100, 5000);
+        assertEquals(4900, bitset.cardinality());
+        assertEquals(0, bitset.rank(100));
+        assertEquals(1, bitset.rank(101));
+        assertEquals(4900, bitset.rank(100_000));
+        assertEquals(100, bitset.select(0));
+        assertEquals(4999, bitset.select(4899));
+        assertEquals(-1, bitset.select(4900));
+    }
+
+    @Test
+    public void testIndexIsUpdatedWhenModified() {
+        bitset.set(0, 10);
+        assertEquals(9, bitset.select(9));
+
+        bitset.clear(3);
+        assertEquals(9, bitset.cardinality());
+        assertEquals(4, bitset.rank(5));
+        assertEquals(4, bitset.select(3));
+
+        bitset.or(bitset);
+        bitset.flip(3);
+        assertEquals(10, bitset.cardinality());
+        assertEquals(3, bitset.select(3));
+    }
+
+    @Test
+    public void testCloneHasIndependentIndex() {
+        bitset.set(0, 10);
+        assertEquals(5, bitset.select(5));
+
+        RankedBitSet copy = (RankedBitSet) bitset.clone();
+        copy.clear(0, 5);
+        assertEquals(10, bitset.cardinality());
+        assertEquals(5, copy.cardinality());
+        assertEquals(5, bitset.select(5));
+        assertEquals(9, copy.select(4));
+    }
+
+    @Test
+    public void testRankAndSelectMatchBitSet() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            if (random.nextInt(3) == 0) {
+                bitset.set(random.nextInt(100_000));
+            }
+        }
+
+        int n = 0;
+        for (int bit = bitset.nextSetBit(0); bit >= 0; bit = bitset.nextSetBit(bit + 1), n++) {
+            assertEquals(n, bitset.rank(bit));
+            assertEquals(bit, bitset.select(n));
+        }
+        assertEquals(n, bitset.cardinality());
+    }
+}
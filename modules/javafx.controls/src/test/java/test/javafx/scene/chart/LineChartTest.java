@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -32,8 +32,15 @@ import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.chart.XYChartShim;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -85,6 +92,130 @@ public class LineChartTest extends XYChartTestBase {
         assertEquals(5, countSymbols(lineChart, "chart-line-symbol"));
     }
 
+    @Test
+    public void testDecimationKeepsSparseSeriesUnchanged() {
+        startApp();
+        lineChart.getData().addAll(series1);
+        pulse();
+        String expected = getSeriesLineFromPlot();
+
+        lineChart.setDecimationEnabled(true);
+        pulse();
+        assertEquals(expected, getSeriesLineFromPlot());
+    }
+
+    @Test
+    public void testDecimationBoundsPathElements() {
+        startApp();
+        lineChart.setCreateSymbols(false);
+        lineChart.setDecimationEnabled(true);
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        List<XYChart.Data<Number, Number>> data = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            data.add(new XYChart.Data<>(i, (i % 2 == 0 ? 1 : -1) * (i % 100)));
+        }
+        series.getData().setAll(data);
+        lineChart.getData().add(series);
+        pulse();
+
+        Path line = (Path) series.getNode();
+        double plotWidth = lineChart.getXAxis().getWidth();
+        assertTrue(plotWidth > 0);
+        assertTrue(line.getElements().size() <= 4 * (plotWidth + 2) + 1);
+
+        // the extremes of the data are still part of the path
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (PathElement element : line.getElements()) {
+            double y = element instanceof LineTo ? ((LineTo) element).getY() : ((MoveTo) element).getY();
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        NumberAxis yAxis = (NumberAxis) lineChart.getYAxis();
+        assertEquals(yAxis.getDisplayPosition(98), minY, 1e-6);
+        assertEquals(yAxis.getDisplayPosition(-99), maxY, 1e-6);
+    }
+
+    @Test
+    public void testPointsArePlottedAfterDataItems() {
+        startApp();
+        lineChart.setCreateSymbols(false);
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        series.getData().add(new XYChart.Data<>(0, 0));
+        series.getPoints().addAll(new double[] {1, 2, 3}, new double[] {10, 20, 30});
+        lineChart.getData().add(series);
+        pulse();
+
+        Path line = (Path) series.getNode();
+        assertEquals(5, line.getElements().size());
+        NumberAxis xAxis = (NumberAxis) lineChart.getXAxis();
+        NumberAxis yAxis = (NumberAxis) lineChart.getYAxis();
+        LineTo last = (LineTo) line.getElements().get(4);
+        assertEquals(xAxis.getDisplayPosition(3), last.getX(), 1e-6);
+        assertEquals(yAxis.getDisplayPosition(30), last.getY(), 1e-6);
+    }
+
+    @Test
+    public void testPointsChangesUpdateAxisRange() {
+        startApp();
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        lineChart.getData().add(series);
+        XYChart.Points points = series.getPoints();
+        for (int i = 0; i < 1000; i++) {
+            points.add(i, i % 10);
+        }
+        pulse();
+        NumberAxis xAxis = (NumberAxis) lineChart.getXAxis();
+        NumberAxis yAxis = (NumberAxis) lineChart.getYAxis();
+        assertTrue(xAxis.getUpperBound() >= 999);
+        assertTrue(yAxis.getUpperBound() >= 9);
+
+        // shrinking the range is picked up as well
+        points.remove(10, 1000);
+        points.replace(0, 10, new double[] {0, 1}, new double[] {-500, 0});
+        pulse();
+        assertEquals(2, points.size());
+        assertTrue(xAxis.getUpperBound() < 999);
+        assertTrue(yAxis.getLowerBound() <= -500);
+        assertEquals(3, ((Path) series.getNode()).getElements().size());
+    }
+
+    @Test
+    public void testPointsRollingWindow() {
+        startApp();
+        NumberAxis xAxis = (NumberAxis) lineChart.getXAxis();
+        NumberAxis yAxis = (NumberAxis) lineChart.getYAxis();
+        xAxis.setForceZeroInRange(false);
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        lineChart.getData().add(series);
+        XYChart.Points points = series.getPoints();
+        points.setWindowSize(100);
+        points.add(0, 1000);
+        for (int i = 1; i < 1000; i++) {
+            points.add(i, i % 10);
+        }
+        pulse();
+        assertEquals(100, points.size());
+        assertEquals(900, points.getX(0), 0);
+        assertEquals(999, points.getX(99), 0);
+        assertTrue(xAxis.getLowerBound() > 800);
+        // the spike has left the window
+        assertTrue(yAxis.getUpperBound() < 1000);
+        assertEquals(101, ((Path) series.getNode()).getElements().size());
+
+        // the line segments are reused as the window moves on
+        LineTo segment = (LineTo) ((Path) series.getNode()).getElements().get(1);
+        points.add(1000, 5);
+        pulse();
+        assertEquals(901, points.getX(0), 0);
+        assertSame(segment, ((Path) series.getNode()).getElements().get(1));
+        assertEquals(xAxis.getDisplayPosition(901), segment.getX(), 1e-6);
+
+        points.setWindowSize(10);
+        assertEquals(10, points.size());
+        assertEquals(991, points.getX(0), 0);
+    }
+
     @Test
     public void testDataItemAdd() {
         startApp();
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2015, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -223,4 +223,58 @@ public class AccordionTest {
             fail();
         }
     }
+
+    @Test public void lazyContentPolicyAttachesContentWhenExpanded() {
+        Button b1 = new Button("A");
+        Button b2 = new Button("B");
+
+        TitledPane a = new TitledPane("A", b1);
+        TitledPane b = new TitledPane("B", b2);
+        a.setAnimated(false);
+        b.setAnimated(false);
+
+        accordion.getPanes().addAll(a, b);
+        accordion.setExpandedPane(a);
+        root.getChildren().add(accordion);
+        show();
+        tk.firePulse();
+        a.setStyle("-fx-content-policy: lazy;");
+        b.setStyle("-fx-content-policy: lazy;");
+        tk.firePulse();
+
+        assertNotNull(b1.getScene());
+        assertNull(b2.getScene());
+
+        accordion.setExpandedPane(b);
+        tk.firePulse();
+        assertNotNull(b1.getScene());
+        assertNotNull(b2.getScene());
+    }
+
+    @Test public void releaseContentPolicyDetachesContentWhenCollapsed() {
+        Button b1 = new Button("A");
+        Button b2 = new Button("B");
+
+        TitledPane a = new TitledPane("A", b1);
+        TitledPane b = new TitledPane("B", b2);
+        a.setAnimated(false);
+        b.setAnimated(false);
+
+        accordion.getPanes().addAll(a, b);
+        accordion.setExpandedPane(a);
+        root.getChildren().add(accordion);
+        show();
+        tk.firePulse();
+        a.setStyle("-fx-content-policy: release;");
+        b.setStyle("-fx-content-policy: release;");
+        tk.firePulse();
+
+        assertNotNull(b1.getScene());
+        assertNull(b2.getScene());
+
+        accordion.setExpandedPane(b);
+        tk.firePulse();
+        assertNull(b1.getScene());
+        assertNotNull(b2.getScene());
+    }
 }
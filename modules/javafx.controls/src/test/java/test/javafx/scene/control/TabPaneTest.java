@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -1241,4 +1241,68 @@ public class TabPaneTest {
         attemptGC(10, weakSMRef);
         assertNull(weakSMRef.get());
     }
+
+    @Test
+    public void testEagerContentPolicyAttachesAllContent() {
+        Button content1 = new Button("1");
+        Button content2 = new Button("2");
+        tab1.setContent(content1);
+        tab2.setContent(content2);
+        tabPane.getTabs().addAll(tab1, tab2);
+        root.getChildren().add(tabPane);
+        stage.show();
+        tk.firePulse();
+
+        assertNotNull(content1.getScene());
+        assertNotNull(content2.getScene());
+    }
+
+    @Test
+    public void testLazyContentPolicyAttachesContentWhenSelected() {
+        Button content1 = new Button("1");
+        Button content2 = new Button("2");
+        tab1.setContent(content1);
+        tab2.setContent(content2);
+        tabPane.getTabs().addAll(tab1, tab2);
+        tabPane.setStyle("-fx-content-policy: lazy;");
+        root.getChildren().add(tabPane);
+        stage.show();
+        tk.firePulse();
+
+        assertNotNull(content1.getScene());
+        assertNull(content2.getScene());
+
+        tabPane.getSelectionModel().select(tab2);
+        tk.firePulse();
+        assertNotNull(content2.getScene());
+
+        tabPane.getSelectionModel().select(tab1);
+        tk.firePulse();
+        assertNotNull(content2.getScene());
+    }
+
+    @Test
+    public void testReleaseContentPolicyDetachesContentWhenDeselected() {
+        Button content1 = new Button("1");
+        Button content2 = new Button("2");
+        tab1.setContent(content1);
+        tab2.setContent(content2);
+        tabPane.getTabs().addAll(tab1, tab2);
+        tabPane.setStyle("-fx-content-policy: release;");
+        root.getChildren().add(tabPane);
+        stage.show();
+        tk.firePulse();
+
+        assertNotNull(content1.getScene());
+        assertNull(content2.getScene());
+
+        tabPane.getSelectionModel().select(tab2);
+        tk.firePulse();
+        assertNull(content1.getScene());
+        assertNotNull(content2.getScene());
+
+        tabPane.setStyle("");
+        tk.firePulse();
+        assertNotNull(content1.getScene());
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -98,6 +98,7 @@ import javafx.scene.control.SplitPane;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableCellShim;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumnBase;
 import javafx.scene.control.TablePosition;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableRowShim;
@@ -2741,6 +2742,10 @@ public class TableViewTest {
             @Override public boolean isCellSelectionEnabled() {
                 return false;
             }
+
+            @Override protected TablePosition createPosition(int row, int column, TableColumnBase<?,?> tableColumn) {
+                return new TablePosition(null, row, (TableColumn) tableColumn);
+            }
         };
         ReadOnlyUnbackedObservableList<TablePosition<Object, ?>> selectedCellsSeq = new ReadOnlyUnbackedObservableList<TablePosition<Object, ?>>() {
             @Override public TablePosition<Object, ?> get(int i) {
@@ -5540,4 +5545,100 @@ public class TableViewTest {
 
         sl.dispose();
     }
+
+    @Test
+    public void test_selectAll_largeTable_rowSelection() {
+        TableView<Integer> table = new TableView<>();
+        Integer[] items = new Integer[1_000_000];
+        Arrays.fill(items, 0);
+        table.getItems().setAll(items);
+        table.getColumns().add(new TableColumn<>("Column"));
+
+        TableView.TableViewSelectionModel<Integer> sm = table.getSelectionModel();
+        sm.setSelectionMode(SelectionMode.MULTIPLE);
+        sm.select(10);
+
+        List<String> changes = new ArrayList<>();
+        sm.getSelectedIndices().addListener((ListChangeListener<Integer>) c -> {
+            while (c.next()) {
+                changes.add(c.getFrom() + ":" + c.getAddedSize() + ":" + c.getRemovedSize());
+            }
+        });
+
+        sm.selectAll();
+        assertEquals(items.length, sm.getSelectedIndices().size());
+        assertEquals(items.length, sm.getSelectedCells().size());
+        assertEquals(Integer.valueOf(500_000), sm.getSelectedIndices().get(500_000));
+        assertEquals(500_000, sm.getSelectedCells().get(500_000).getRow());
+        assertNull(sm.getSelectedCells().get(500_000).getTableColumn());
+        assertEquals(500_000, sm.getSelectedIndices().indexOf(500_000));
+        assertTrue(sm.isSelected(999_999));
+
+        sm.clearSelection(500_000);
+        assertEquals(items.length - 1, sm.getSelectedCells().size());
+        assertFalse(sm.isSelected(500_000));
+        assertEquals(500_001, sm.getSelectedCells().get(500_000).getRow());
+
+        changes.clear();
+        sm.clearSelection();
+        assertTrue(sm.getSelectedCells().isEmpty());
+        assertTrue(sm.getSelectedIndices().isEmpty());
+        assertEquals(List.of("0:0:" + (items.length - 1)), changes);
+    }
+
+    @Test
+    public void test_selectAll_largeTable_cellSelection() {
+        TableView<Integer> table = new TableView<>();
+        Integer[] items = new Integer[100_000];
+        Arrays.fill(items, 0);
+        table.getItems().setAll(items);
+        TableColumn<Integer, ?> first = new TableColumn<>("First");
+        TableColumn<Integer, ?> second = new TableColumn<>("Second");
+        table.getColumns().addAll(first, second);
+
+        TableView.TableViewSelectionModel<Integer> sm = table.getSelectionModel();
+        sm.setSelectionMode(SelectionMode.MULTIPLE);
+        sm.setCellSelectionEnabled(true);
+
+        sm.selectAll();
+        assertEquals(2 * items.length, sm.getSelectedCells().size());
+        assertEquals(items.length, sm.getSelectedIndices().size());
+
+        TablePosition<Integer, ?> pos = sm.getSelectedCells().get(2001);
+        assertEquals(1000, pos.getRow());
+        assertSame(second, pos.getTableColumn());
+        assertEquals(2001, sm.getSelectedCells().indexOf(pos));
+
+        sm.clearSelection(1000, first);
+        assertFalse(sm.isSelected(1000, first));
+        assertTrue(sm.isSelected(1000, second));
+        assertEquals(1000, sm.getSelectedCells().get(2000).getRow());
+        assertSame(second, sm.getSelectedCells().get(2000).getTableColumn());
+    }
+
+    @Test
+    public void test_selectAll_cellSelection_removeMiddleColumn() {
+        TableView<Integer> table = new TableView<>();
+        table.getItems().setAll(0, 1, 2);
+        TableColumn<Integer, ?> first = new TableColumn<>("First");
+        TableColumn<Integer, ?> second = new TableColumn<>("Second");
+        TableColumn<Integer, ?> third = new TableColumn<>("Third");
+        table.getColumns().addAll(first, second, third);
+
+        TableView.TableViewSelectionModel<Integer> sm = table.getSelectionModel();
+        sm.setSelectionMode(SelectionMode.MULTIPLE);
+        sm.setCellSelectionEnabled(true);
+
+        sm.selectAll();
+        assertEquals(9, sm.getSelectedCells().size());
+
+        table.getColumns().remove(second);
+        assertEquals(6, sm.getSelectedCells().size());
+        for (int i = 0; i < 6; i++) {
+            TablePosition<Integer, ?> pos = sm.getSelectedCells().get(i);
+            assertEquals(i / 2, pos.getRow());
+            assertSame(i % 2 == 0 ? first : third, pos.getTableColumn());
+        }
+        assertTrue(sm.isSelected(1, first));
+    }
 }
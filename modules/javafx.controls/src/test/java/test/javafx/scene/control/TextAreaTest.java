@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -38,6 +38,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static test.com.sun.javafx.scene.control.infrastructure.ControlTestUtils.*;
 import static org.junit.Assert.*;
 
@@ -500,4 +502,31 @@ public class TextAreaTest {
         dummyTxtArea.deleteText(0,6);
         assertEquals(dummyTxtArea.getParagraphs().get(0).toString(), "another");
     }
+
+    @Test public void editsOfManyParagraphsKeepContentConsistent() {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            expected.append("paragraph ").append(i).append('\n');
+        }
+        txtArea.setText(expected.toString());
+
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(expected.length() + 1);
+            if (random.nextBoolean()) {
+                String text = random.nextBoolean() ? "x" : "a\nb\n";
+                txtArea.insertText(start, text);
+                expected.insert(start, text);
+            } else {
+                int end = Math.min(expected.length(), start + random.nextInt(40));
+                txtArea.deleteText(start, end);
+                expected.delete(start, end);
+            }
+            int from = random.nextInt(expected.length() + 1);
+            int to = from + random.nextInt(expected.length() - from + 1);
+            assertEquals(expected.substring(from, to), txtArea.getText(from, to));
+        }
+        assertEquals(expected.toString(), txtArea.getText());
+        assertEquals(expected.toString().split("\n", -1).length, txtArea.getParagraphs().size());
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.scene.control;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.TreeView;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks the mapping between rows and tree items of TreeView and
+ * TreeTableView against a flattened copy of the tree while the tree is
+ * expanded, collapsed and modified.
+ */
+@RunWith(Parameterized.class)
+public class TreeRowIndexTest {
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][] {
+            { false, true },
+            { false, false },
+            { true, true },
+            { true, false },
+        });
+    }
+
+    private final boolean treeTable;
+    private final boolean showRoot;
+
+    private TreeItem<Integer> root;
+    private TreeView<Integer> treeView;
+    private TreeTableView<Integer> treeTableView;
+    private Random random;
+    private int nextValue;
+
+    public TreeRowIndexTest(boolean treeTable, boolean showRoot) {
+        this.treeTable = treeTable;
+        this.showRoot = showRoot;
+    }
+
+    @Before
+    public void setup() {
+        random = new Random(42);
+        root = createItem();
+        populate(root, 4);
+        root.setExpanded(true);
+        if (treeTable) {
+            treeTableView = new TreeTableView<>(root);
+            treeTableView.setShowRoot(showRoot);
+        } else {
+            treeView = new TreeView<>(root);
+            treeView.setShowRoot(showRoot);
+        }
+    }
+
+    private TreeItem<Integer> createItem() {
+        return new TreeItem<>(nextValue++);
+    }
+
+    private void populate(TreeItem<Integer> item, int depth) {
+        if (depth == 0) return;
+        int count = random.nextInt(8);
+        for (int i = 0; i < count; i++) {
+            TreeItem<Integer> child = createItem();
+            item.getChildren().add(child);
+            populate(child, depth - 1);
+            child.setExpanded(random.nextBoolean());
+        }
+    }
+
+    private int getExpandedItemCount() {
+        return treeTable ? treeTableView.getExpandedItemCount() : treeView.getExpandedItemCount();
+    }
+
+    private TreeItem<Integer> getTreeItem(int row) {
+        return treeTable ? treeTableView.getTreeItem(row) : treeView.getTreeItem(row);
+    }
+
+    private int getRow(TreeItem<Integer> item) {
+        return treeTable ? treeTableView.getRow(item) : treeView.getRow(item);
+    }
+
+    private static void flatten(TreeItem<Integer> item, List<TreeItem<Integer>> rows) {
+        rows.add(item);
+        if (item.isExpanded()) {
+            for (TreeItem<Integer> child : item.getChildren()) {
+                flatten(child, rows);
+            }
+        }
+    }
+
+    private static void collect(TreeItem<Integer> item, List<TreeItem<Integer>> items) {
+        items.add(item);
+        for (TreeItem<Integer> child : item.getChildren()) {
+            collect(child, items);
+        }
+    }
+
+    private void assertRows() {
+        List<TreeItem<Integer>> rows = new ArrayList<>();
+        flatten(root, rows);
+        if (!showRoot) {
+            rows.remove(0);
+        }
+
+        assertEquals(rows.size(), getExpandedItemCount());
+        for (int row = 0; row < rows.size(); row++) {
+            assertSame("row " + row, rows.get(row), getTreeItem(row));
+        }
+        assertNull(getTreeItem(rows.size()));
+
+        Map<TreeItem<Integer>, Integer> rowOf = new IdentityHashMap<>();
+        for (int row = 0; row < rows.size(); row++) {
+            rowOf.put(rows.get(row), row);
+        }
+        List<TreeItem<Integer>> items = new ArrayList<>();
+        collect(root, items);
+        for (TreeItem<Integer> item : items) {
+            assertEquals("item " + item.getValue(), (int) rowOf.getOrDefault(item, -1), getRow(item));
+        }
+    }
+
+    private TreeItem<Integer> randomItem() {
+        List<TreeItem<Integer>> items = new ArrayList<>();
+        collect(root, items);
+        return items.get(random.nextInt(items.size()));
+    }
+
+    @Test
+    public void testInitialRows() {
+        assertRows();
+    }
+
+    @Test
+    public void testExpandAndCollapse() {
+        for (int i = 0; i < 50; i++) {
+            TreeItem<Integer> item = randomItem();
+            item.setExpanded(!item.isExpanded());
+            if (item == root && !showRoot) {
+                // the tree view expands a hidden root again
+                root.setExpanded(true);
+            }
+            assertRows();
+        }
+    }
+
+    @Test
+    public void testManyChangesBetweenQueries() {
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 40; j++) {
+                TreeItem<Integer> item = randomItem();
+                if (item != root) {
+                    item.setExpanded(!item.isExpanded());
+                }
+            }
+            assertRows();
+        }
+    }
+
+    @Test
+    public void testChildrenChanges() {
+        for (int i = 0; i < 50; i++) {
+            TreeItem<Integer> item = randomItem();
+            switch (random.nextInt(4)) {
+                case 0:
+                    TreeItem<Integer> child = createItem();
+                    populate(child, 2);
+                    child.setExpanded(true);
+                    item.getChildren().add(random.nextInt(item.getChildren().size() + 1), child);
+                    break;
+                case 1:
+                    if (!item.getChildren().isEmpty()) {
+                        item.getChildren().remove(random.nextInt(item.getChildren().size()));
+                    }
+                    break;
+                case 2:
+                    item.getChildren().sort(Comparator.comparing(TreeItem::getValue, Comparator.reverseOrder()));
+                    break;
+                default:
+                    if (item != root) {
+                        item.setExpanded(!item.isExpanded());
+                    }
+            }
+            assertRows();
+        }
+    }
+
+    @Test
+    public void testWideTree() {
+        TreeItem<Integer> wide = createItem();
+        for (int i = 0; i < 2000; i++) {
+            TreeItem<Integer> child = createItem();
+            child.getChildren().addAll(createItem(), createItem());
+            wide.getChildren().add(child);
+        }
+        wide.setExpanded(true);
+        root.getChildren().add(0, wide);
+
+        for (int i = 0; i < 20; i++) {
+            TreeItem<Integer> child = wide.getChildren().get(random.nextInt(2000));
+            child.setExpanded(!child.isExpanded());
+            assertRows();
+        }
+    }
+}
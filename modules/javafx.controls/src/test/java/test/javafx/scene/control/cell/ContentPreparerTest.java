@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.scene.control.cell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.ContentPreparer;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.control.skin.VirtualFlowShim;
+import javafx.util.Callback;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import test.com.sun.javafx.scene.control.infrastructure.StageLoader;
+import test.com.sun.javafx.scene.control.infrastructure.VirtualFlowTestUtils;
+
+import static org.junit.Assert.*;
+
+public class ContentPreparerTest {
+
+    private List<Runnable> tasks;
+    private AtomicInteger prepareCount;
+    private ContentPreparer<Integer, String> preparer;
+    private StageLoader stageLoader;
+
+    @Before public void setup() {
+        tasks = new ArrayList<>();
+        prepareCount = new AtomicInteger();
+        preparer = new ContentPreparer<>(item -> {
+            prepareCount.incrementAndGet();
+            return "Item " + item;
+        }, tasks::add);
+    }
+
+    @After public void cleanup() {
+        if (stageLoader != null) {
+            stageLoader.dispose();
+        }
+    }
+
+    private void runTasks() {
+        List<Runnable> pending = new ArrayList<>(tasks);
+        tasks.clear();
+        pending.forEach(Runnable::run);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullPreparer() {
+        new ContentPreparer<Integer, String>(null);
+    }
+
+    @Test public void testGetPrepared_preparesOnCurrentThread() {
+        assertEquals("Item 1", preparer.getPrepared(1));
+        assertEquals(1, prepareCount.get());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test public void testGetPrepared_isCached() {
+        preparer.getPrepared(1);
+        assertEquals("Item 1", preparer.getPrepared(1));
+        assertEquals(1, prepareCount.get());
+    }
+
+    @Test public void testPrefetch_preparesOnExecutor() {
+        preparer.prefetch(1);
+        assertEquals(1, tasks.size());
+        assertEquals(0, prepareCount.get());
+        assertFalse(preparer.isPrepared(1));
+
+        runTasks();
+        assertEquals(1, prepareCount.get());
+        assertTrue(preparer.isPrepared(1));
+        assertEquals("Item 1", preparer.getPrepared(1));
+        assertEquals(1, prepareCount.get());
+    }
+
+    @Test public void testPrefetch_onlyOncePerItem() {
+        preparer.prefetch(1);
+        preparer.prefetch(1);
+        assertEquals(1, tasks.size());
+        runTasks();
+        preparer.prefetch(1);
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test public void testGetPrepared_beforePrefetchHasRun() {
+        preparer.prefetch(1);
+        assertEquals("Item 1", preparer.getPrepared(1));
+        assertEquals(1, prepareCount.get());
+
+        // the prefetch is skipped, as the item has been prepared already
+        runTasks();
+        assertEquals(1, prepareCount.get());
+    }
+
+    @Test public void testGetPrepared_afterFailedPrefetch() {
+        AtomicInteger calls = new AtomicInteger();
+        ContentPreparer<Integer, String> failing = new ContentPreparer<>(item -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException();
+            }
+            return "Item " + item;
+        }, tasks::add);
+        failing.prefetch(1);
+        runTasks();
+        assertFalse(failing.isPrepared(1));
+        assertEquals("Item 1", failing.getPrepared(1));
+        assertEquals(2, calls.get());
+    }
+
+    @Test public void testClear() {
+        preparer.getPrepared(1);
+        preparer.prefetch(2);
+        preparer.clear();
+        runTasks();
+        assertEquals(1, prepareCount.get());
+        assertFalse(preparer.isPrepared(1));
+        assertFalse(preparer.isPrepared(2));
+    }
+
+    @Test public void testContentPreparer_listView() {
+        ListView<Integer> listView = new ListView<>();
+        assertNull(ContentPreparer.getContentPreparer(listView));
+        ContentPreparer.setContentPreparer(listView, preparer);
+        assertSame(preparer, ContentPreparer.getContentPreparer(listView));
+        ContentPreparer.setContentPreparer(listView, null);
+        assertNull(ContentPreparer.getContentPreparer(listView));
+    }
+
+    @Test public void testContentPreparer_tableColumn() {
+        TableColumn<Integer, String> column = new TableColumn<>();
+        assertNull(ContentPreparer.getContentPreparer(column));
+        ContentPreparer.setContentPreparer(column, preparer);
+        assertSame(preparer, ContentPreparer.getContentPreparer(column));
+        ContentPreparer.setContentPreparer(column, null);
+        assertNull(ContentPreparer.getContentPreparer(column));
+    }
+
+    @Test public void testForListView_setsContentPreparer() {
+        Callback<ListView<Integer>, ListCell<Integer>> cellFactory =
+                ContentPreparer.forListView(preparer, ListCell::setText);
+        ListView<Integer> listView = new ListView<>();
+        assertNotNull(cellFactory.call(listView));
+        assertSame(preparer, ContentPreparer.getContentPreparer(listView));
+    }
+
+    @Test public void testForListView_appliesPreparedContent() {
+        ListView<Integer> listView = new ListView<>(FXCollections.observableArrayList(1, 2, 3));
+        listView.setCellFactory(ContentPreparer.forListView(preparer, ListCell::setText));
+        stageLoader = new StageLoader(listView);
+
+        IndexedCell<?> cell = VirtualFlowTestUtils.getCell(listView, 1);
+        assertEquals("Item 2", cell.getText());
+        cell = VirtualFlowTestUtils.getCell(listView, 5);
+        assertNull(cell.getText());
+    }
+
+    @Test public void testForTableColumn_appliesPreparedContent() {
+        TableView<Integer> tableView = new TableView<>(FXCollections.observableArrayList(1, 2, 3));
+        TableColumn<Integer, Integer> column = new TableColumn<>();
+        column.setCellFactory(ContentPreparer.forTableColumn(preparer, TableCell::setText));
+        tableView.getColumns().add(column);
+        stageLoader = new StageLoader(tableView);
+
+        assertSame(preparer, ContentPreparer.getContentPreparer(column));
+        IndexedCell<?> cell = VirtualFlowTestUtils.getCell(tableView, 2, 0);
+        assertEquals("Item 3", cell.getText());
+    }
+
+    @Test public void testScrolling_prefetchesUpcomingRows() {
+        ObservableList<Integer> items = FXCollections.observableArrayList();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+        ListView<Integer> listView = new ListView<>(items);
+        listView.setCellFactory(ContentPreparer.forListView(preparer, ListCell::setText));
+        stageLoader = new StageLoader(listView);
+        VirtualFlow<?> flow = VirtualFlowTestUtils.getVirtualFlow(listView);
+
+        // nothing is prefetched until the list is scrolled
+        assertTrue(tasks.isEmpty());
+
+        flow.scrollPixels(100);
+        flow.scrollPixels(100);
+        int last = flow.getLastVisibleCell().getIndex();
+        assertFalse(tasks.isEmpty());
+        assertFalse(preparer.isPrepared(last + 1));
+        runTasks();
+        assertTrue(preparer.isPrepared(last + 1));
+
+        // rows that are scrolled into view use the prepared content
+        int count = prepareCount.get();
+        flow.scrollPixels(100);
+        assertEquals(count, prepareCount.get());
+        assertEquals("Item " + (last + 1), VirtualFlowTestUtils.getCell(listView, last + 1).getText());
+    }
+
+    @Test public void testPrefetchHandler_onlyWhileListViewHasPreparer() {
+        ListView<Integer> listView = new ListView<>(FXCollections.observableArrayList(1, 2, 3));
+        stageLoader = new StageLoader(listView);
+        VirtualFlow<?> flow = VirtualFlowTestUtils.getVirtualFlow(listView);
+        assertFalse(VirtualFlowShim.hasPrefetchHandler(flow));
+
+        ContentPreparer.setContentPreparer(listView, preparer);
+        assertTrue(VirtualFlowShim.hasPrefetchHandler(flow));
+
+        ContentPreparer.setContentPreparer(listView, null);
+        assertFalse(VirtualFlowShim.hasPrefetchHandler(flow));
+    }
+
+    @Test public void testPrefetchHandler_onlyWhileVisibleColumnHasPreparer() {
+        TableView<Integer> tableView = new TableView<>(FXCollections.observableArrayList(1, 2, 3));
+        TableColumn<Integer, Integer> column = new TableColumn<>();
+        tableView.getColumns().add(column);
+        stageLoader = new StageLoader(tableView);
+        VirtualFlow<?> flow = VirtualFlowTestUtils.getVirtualFlow(tableView);
+        assertFalse(VirtualFlowShim.hasPrefetchHandler(flow));
+
+        ContentPreparer.setContentPreparer(column, preparer);
+        assertTrue(VirtualFlowShim.hasPrefetchHandler(flow));
+
+        column.setVisible(false);
+        assertFalse(VirtualFlowShim.hasPrefetchHandler(flow));
+        column.setVisible(true);
+        assertTrue(VirtualFlowShim.hasPrefetchHandler(flow));
+
+        ContentPreparer.setContentPreparer(column, null);
+        assertFalse(VirtualFlowShim.hasPrefetchHandler(flow));
+
+        // columns that are added later are watched as well
+        TableColumn<Integer, Integer> added = new TableColumn<>();
+        tableView.getColumns().add(added);
+        ContentPreparer.setContentPreparer(added, preparer);
+        assertTrue(VirtualFlowShim.hasPrefetchHandler(flow));
+        tableView.getColumns().remove(added);
+        assertFalse(VirtualFlowShim.hasPrefetchHandler(flow));
+    }
+
+    @Test public void testScrolling_prefetchesUpcomingRows_tableView() {
+        ObservableList<Integer> items = FXCollections.observableArrayList();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+        TableView<Integer> tableView = new TableView<>(items);
+        TableColumn<Integer, Integer> column = new TableColumn<>();
+        column.setCellFactory(ContentPreparer.forTableColumn(preparer, TableCell::setText));
+        tableView.getColumns().add(column);
+        stageLoader = new StageLoader(tableView);
+        VirtualFlow<?> flow = VirtualFlowTestUtils.getVirtualFlow(tableView);
+
+        flow.scrollPixels(-100);
+        assertTrue(tasks.isEmpty());
+        flow.scrollPixels(100);
+        flow.scrollPixels(100);
+        int last = flow.getLastVisibleCell().getIndex();
+        runTasks();
+        assertTrue(preparer.isPrepared(last + 1));
+    }
+}
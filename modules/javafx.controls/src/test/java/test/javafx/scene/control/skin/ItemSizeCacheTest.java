@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.scene.control.skin;
+
+import javafx.scene.control.skin.VirtualFlowShim.ItemSizeCacheShim;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ItemSizeCacheTest {
+    private static final double EPSILON = 1e-6;
+
+    private ItemSizeCacheShim cache;
+
+    @Before public void setUp() {
+        cache = new ItemSizeCacheShim();
+    }
+
+    @Test public void testItemSizeCache_Reset_AllSizesUnknown() {
+        cache.reset(10);
+        assertEquals(10, cache.size());
+        assertEquals(0, cache.getKnownCount());
+        assertEquals(-1, cache.get(0), 0);
+        assertEquals(-1, cache.get(9), 0);
+    }
+
+    @Test public void testItemSizeCache_Set() {
+        cache.reset(10);
+        cache.set(3, 20);
+        cache.set(3, 25);
+        cache.set(5, 10);
+        assertEquals(25, cache.get(3), 0);
+        assertEquals(2, cache.getKnownCount());
+        assertEquals(35, cache.getKnownTotal(), EPSILON);
+    }
+
+    @Test public void testItemSizeCache_SetBeyondSize_Grows() {
+        cache.reset(2);
+        cache.set(4, 10);
+        assertEquals(5, cache.size());
+        assertEquals(10, cache.get(4), 0);
+        assertEquals(-1, cache.get(3), 0);
+    }
+
+    @Test public void testItemSizeCache_GetOffset_UsesEstimateForUnknownSizes() {
+        cache.reset(5);
+        cache.set(0, 10);
+        cache.set(2, 30);
+        assertEquals(0, cache.getOffset(0, 5), EPSILON);
+        assertEquals(10, cache.getOffset(1, 5), EPSILON);
+        assertEquals(15, cache.getOffset(2, 5), EPSILON);
+        assertEquals(45, cache.getOffset(3, 5), EPSILON);
+        assertEquals(55, cache.getOffset(5, 5), EPSILON);
+        // beyond the cache
+        assertEquals(65, cache.getOffset(7, 5), EPSILON);
+    }
+
+    @Test public void testItemSizeCache_IndexOf() {
+        cache.reset(5);
+        cache.set(0, 10);
+        cache.set(2, 30);
+        assertEquals(-1, cache.indexOf(-1, 5));
+        assertEquals(0, cache.indexOf(0, 5));
+        assertEquals(0, cache.indexOf(9.9, 5));
+        assertEquals(1, cache.indexOf(10, 5));
+        assertEquals(2, cache.indexOf(15, 5));
+        assertEquals(2, cache.indexOf(44, 5));
+        assertEquals(3, cache.indexOf(45, 5));
+        assertEquals(4, cache.indexOf(50, 5));
+        // beyond the cache
+        assertEquals(5, cache.indexOf(55, 5));
+        assertEquals(7, cache.indexOf(66, 5));
+    }
+
+    @Test public void testItemSizeCache_Invalidate() {
+        cache.reset(5);
+        for (int i = 0; i < 5; i++) {
+            cache.set(i, i + 1);
+        }
+        cache.invalidate(1, 3);
+        assertEquals(3, cache.getKnownCount());
+        assertEquals(10, cache.getKnownTotal(), EPSILON);
+        assertEquals(-1, cache.get(1), 0);
+        assertEquals(-1, cache.get(2), 0);
+    }
+
+    @Test public void testItemSizeCache_Insert() {
+        cache.reset(3);
+        cache.set(0, 1);
+        cache.set(1, 2);
+        cache.set(2, 3);
+        cache.insert(1, 2);
+        assertEquals(5, cache.size());
+        assertEquals(1, cache.get(0), 0);
+        assertEquals(-1, cache.get(1), 0);
+        assertEquals(-1, cache.get(2), 0);
+        assertEquals(2, cache.get(3), 0);
+        assertEquals(3, cache.get(4), 0);
+        assertEquals(3, cache.getKnownCount());
+        assertEquals(1 + 10 + 10 + 2, cache.getOffset(4, 10), EPSILON);
+    }
+
+    @Test public void testItemSizeCache_Remove() {
+        cache.reset(5);
+        for (int i = 0; i < 5; i++) {
+            cache.set(i, i + 1);
+        }
+        cache.remove(1, 2);
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.get(0), 0);
+        assertEquals(4, cache.get(1), 0);
+        assertEquals(5, cache.get(2), 0);
+        assertEquals(10, cache.getKnownTotal(), EPSILON);
+        assertEquals(-1, cache.get(3), 0);
+    }
+
+    @Test public void testItemSizeCache_RandomOperations_MatchList() {
+        Random random = new Random(42);
+        List<Double> reference = new ArrayList<>();
+        cache.reset(0);
+        for (int n = 0; n < 2000; n++) {
+            int size = reference.size();
+            switch (random.nextInt(4)) {
+                case 0: {
+                    int index = random.nextInt(size + 1);
+                    int count = random.nextInt(20);
+                    cache.insert(index, count);
+                    for (int i = 0; i < count; i++) {
+                        reference.add(index, -1d);
+                    }
+                    break;
+                }
+                case 1: {
+                    if (size == 0) break;
+                    int index = random.nextInt(size);
+                    int count = Math.min(size - index, random.nextInt(10));
+                    cache.remove(index, count);
+                    reference.subList(index, index + count).clear();
+                    break;
+                }
+                case 2: {
+                    if (size == 0) break;
+                    int from = random.nextInt(size);
+                    int to = Math.min(size, from + random.nextInt(5));
+                    cache.invalidate(from, to);
+                    for (int i = from; i < to; i++) {
+                        reference.set(i, -1d);
+                    }
+                    break;
+                }
+                default: {
+                    if (size == 0) break;
+                    int index = random.nextInt(size);
+                    double value = 1 + random.nextInt(50);
+                    cache.set(index, value);
+                    reference.set(index, value);
+                }
+            }
+            assertMatches(reference, 7.5);
+        }
+    }
+
+    private void assertMatches(List<Double> reference, double estimate) {
+        assertEquals(reference.size(), cache.size());
+        double offset = 0;
+        int known = 0;
+        double total = 0;
+        for (int i = 0; i < reference.size(); i++) {
+            double value = reference.get(i);
+            assertEquals(value, cache.get(i), 0);
+            assertEquals(offset, cache.getOffset(i, estimate), EPSILON);
+            double length = value < 0 ? estimate : value;
+            assertEquals(i, cache.indexOf(offset + length / 2, estimate));
+            offset += length;
+            if (value >= 0) {
+                known++;
+                total += value;
+            }
+        }
+        assertEquals(known, cache.getKnownCount());
+        assertEquals(total, cache.getKnownTotal(), EPSILON);
+    }
+}
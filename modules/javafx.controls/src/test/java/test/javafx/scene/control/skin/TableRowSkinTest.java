@@ -26,11 +26,18 @@
 package test.javafx.scene.control.skin;
 
 import com.sun.javafx.tk.Toolkit;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.skin.TableColumnHeader;
+import javafx.util.Callback;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,7 +45,14 @@ import test.com.sun.javafx.scene.control.infrastructure.StageLoader;
 import test.com.sun.javafx.scene.control.infrastructure.VirtualFlowTestUtils;
 import test.com.sun.javafx.scene.control.test.Person;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class TableRowSkinTest {
 
@@ -94,11 +108,128 @@ public class TableRowSkinTest {
         invisibleColumnsShouldRemoveCorrespondingCellsInRowImpl();
     }
 
+    @Test
+    public void cellsAreOnlyCreatedForColumnsInViewportFixedCellSize() {
+        tableView.setFixedCellSize(24);
+        int[] created = addManyColumns(100);
+        Toolkit.getToolkit().firePulse();
+
+        IndexedCell<?> row = VirtualFlowTestUtils.getCell(tableView, 0);
+        int cellCount = getCells(row).size();
+        assertTrue(cellCount > 0);
+        assertTrue("Too many cells: " + cellCount, cellCount < 20);
+        assertEquals("0:firstName1", getCellText(row, 0));
+        assertNull(getCellText(row, 99));
+        assertTrue("Too many cells created: " + created[0], created[0] < 20 * tableView.getItems().size() + 40);
+
+        // the scrollbar is only updated in the pulse after the cells have been laid out
+        Toolkit.getToolkit().firePulse();
+        ScrollBar hbar = VirtualFlowTestUtils.getVirtualFlowHorizontalScrollbar(tableView);
+        hbar.setValue(hbar.getMax());
+        Toolkit.getToolkit().firePulse();
+
+        // the cells of the columns scrolled out of view are reused
+        row = VirtualFlowTestUtils.getCell(tableView, 0);
+        assertTrue(getCells(row).size() < 20);
+        assertNull(getCellText(row, 0));
+        assertEquals("99:firstName1", getCellText(row, 99));
+        assertTrue("Too many cells created: " + created[0], created[0] < 20 * tableView.getItems().size() + 40);
+    }
+
+    @Test
+    public void cellsAreCreatedForAllColumns() {
+        addManyColumns(100);
+        Toolkit.getToolkit().firePulse();
+
+        IndexedCell<?> row = VirtualFlowTestUtils.getCell(tableView, 0);
+        assertEquals(100, getCells(row).size());
+        assertEquals("99:firstName1", getCellText(row, 99));
+    }
+
+    @Test
+    public void columnHeadersAreOnlyShownForColumnsInViewportFixedCellSize() {
+        tableView.setFixedCellSize(24);
+        addManyColumns(100);
+        Toolkit.getToolkit().firePulse();
+
+        long headerCount = VirtualFlowTestUtils.getTableHeaderRow(tableView).getRootHeader()
+                .getChildrenUnmodifiable().stream().filter(n -> n instanceof TableColumnHeader).count();
+        assertTrue("Too many column headers: " + headerCount, headerCount < 20);
+
+        // the scrollbar is only updated in the pulse after the cells have been laid out
+        Toolkit.getToolkit().firePulse();
+        ScrollBar hbar = VirtualFlowTestUtils.getVirtualFlowHorizontalScrollbar(tableView);
+        hbar.setValue(hbar.getMax());
+        Toolkit.getToolkit().firePulse();
+
+        TableColumnHeader first = VirtualFlowTestUtils.getTableHeaderRow(tableView).getRootHeader().getColumnHeaders().get(0);
+        TableColumnHeader last = VirtualFlowTestUtils.getTableHeaderRow(tableView).getRootHeader().getColumnHeaders().get(99);
+        assertNull(first.getScene());
+        assertNotNull(last.getScene());
+    }
+
+    @Test
+    public void disablingFixedCellSizeCreatesCellsForAllColumns() {
+        tableView.setFixedCellSize(24);
+        addManyColumns(100);
+        Toolkit.getToolkit().firePulse();
+
+        tableView.setFixedCellSize(-1);
+        Toolkit.getToolkit().firePulse();
+
+        IndexedCell<?> row = VirtualFlowTestUtils.getCell(tableView, 0);
+        assertEquals(100, getCells(row).size());
+        assertFalse(getCells(row).stream().anyMatch(n -> n.getParent() != row));
+    }
+
     @After
     public void after() {
         stageLoader.dispose();
     }
 
+    /*
+     * Replaces the columns of the table with the given number of columns that
+     * all share a cell factory, and returns the counter of created cells.
+     */
+    private int[] addManyColumns(int count) {
+        int[] created = new int[1];
+        Callback<TableColumn<Person, String>, TableCell<Person, String>> cellFactory = col -> {
+            created[0]++;
+            return (TableCell<Person, String>) TableColumn.DEFAULT_CELL_FACTORY.call(col);
+        };
+
+        tableView.getColumns().clear();
+        for (int i = 0; i < count; i++) {
+            final String prefix = i + ":";
+            TableColumn<Person, String> col = new TableColumn<>("Column " + i);
+            col.setPrefWidth(100);
+            col.setCellValueFactory(param -> new SimpleStringProperty(prefix + param.getValue().getFirstName()));
+            col.setCellFactory(cellFactory);
+            tableView.getColumns().add(col);
+        }
+        tableView.setPrefWidth(300);
+        return created;
+    }
+
+    private List<IndexedCell<?>> getCells(IndexedCell<?> row) {
+        List<IndexedCell<?>> cells = new ArrayList<>();
+        for (Node n : row.getChildrenUnmodifiable()) {
+            if (n instanceof IndexedCell) {
+                cells.add((IndexedCell<?>) n);
+            }
+        }
+        return cells;
+    }
+
+    private String getCellText(IndexedCell<?> row, int column) {
+        for (IndexedCell<?> cell : getCells(row)) {
+            if (((TableCell<?, ?>) cell).getTableColumn() == tableView.getColumns().get(column)) {
+                return cell.getText();
+            }
+        }
+        return null;
+    }
+
     private void invisibleColumnsShouldRemoveCorrespondingCellsInRowImpl() {
         // Set the last 2 columns invisible.
         tableView.getColumns().get(tableView.getColumns().size() - 1).setVisible(false);
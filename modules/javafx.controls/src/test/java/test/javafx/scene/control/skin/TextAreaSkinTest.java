@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.scene.control.skin;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.skin.TextAreaSkin;
+import javafx.scene.layout.Region;
+import javafx.scene.text.Font;
+import javafx.scene.text.HitInfo;
+import javafx.scene.text.Text;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.javafx.tk.Toolkit;
+
+import test.com.sun.javafx.scene.control.infrastructure.StageLoader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the window of paragraphs that TextAreaSkin lays out for large,
+ * unwrapped text.
+ */
+public class TextAreaSkinTest {
+
+    private static final int PARAGRAPHS = 10_000;
+
+    private TextArea textArea;
+    private StageLoader stageLoader;
+
+    @Before
+    public void setup() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < PARAGRAPHS; i++) {
+            if (i > 0) text.append('\n');
+            text.append("line ").append(i);
+        }
+        textArea = new TextArea(text.toString());
+        textArea.setPrefHeight(200);
+        stageLoader = new StageLoader(textArea);
+        Toolkit.getToolkit().firePulse();
+    }
+
+    @After
+    public void cleanup() {
+        stageLoader.dispose();
+    }
+
+    @Test
+    public void testLargeTextIsWindowed() {
+        String text = getTextNode().getText();
+        assertTrue(text.startsWith("line 0\n"));
+        assertTrue(text.length() < textArea.getLength() / 10);
+    }
+
+    @Test
+    public void testWindowFollowsCaret() {
+        textArea.positionCaret(offsetOf(9000));
+        Toolkit.getToolkit().firePulse();
+        assertTrue(getTextNode().getText().contains("\nline 9000\n"));
+    }
+
+    @Test
+    public void testWindowFollowsEdits() {
+        textArea.positionCaret(offsetOf(9000));
+        Toolkit.getToolkit().firePulse();
+        textArea.insertText(offsetOf(9000), "inserted ");
+        Toolkit.getToolkit().firePulse();
+        assertTrue(getTextNode().getText().contains("\ninserted line 9000\n"));
+    }
+
+    @Test
+    public void testHitInfoIsRelativeToText() {
+        textArea.positionCaret(offsetOf(9000));
+        Toolkit.getToolkit().firePulse();
+
+        Text textNode = getTextNode();
+        String windowText = textNode.getText();
+        int line = windowText.substring(0, windowText.indexOf("line 9000")).split("\n", -1).length - 1;
+        double lineHeight = textArea.getFont().getSize();
+        double y = textNode.getLayoutY() + (line + 0.5) * lineHeight;
+
+        HitInfo hit = ((TextAreaSkin) textArea.getSkin()).getIndex(0, y);
+        assertEquals(offsetOf(9000), hit.getInsertionIndex());
+    }
+
+    @Test
+    public void testPrefWidthIsWidthOfWidestParagraph() {
+        Region content = (Region) textArea.lookup(".content");
+        double insets = content.getInsets().getLeft() + content.getInsets().getRight();
+        double charWidth = textArea.getFont().getSize();
+
+        // Tabs make the shorter paragraph the wider one
+        textArea.insertText(offsetOf(5000), "\t".repeat(10) + "\n");
+        textArea.insertText(offsetOf(200), "x".repeat(50) + "\n");
+        Toolkit.getToolkit().firePulse();
+        assertEquals(80 * charWidth + insets, content.prefWidth(-1), 0);
+
+        // Only the paragraph that was widest is measured again
+        int start = offsetOf(5000) - 11;
+        textArea.replaceText(start, start + 10, "\t");
+        Toolkit.getToolkit().firePulse();
+        assertEquals(50 * charWidth + insets, content.prefWidth(-1), 0);
+
+        textArea.setFont(new Font(textArea.getFont().getName(), 2 * charWidth));
+        Toolkit.getToolkit().firePulse();
+        assertEquals(100 * charWidth + insets, content.prefWidth(-1), 0);
+    }
+
+    @Test
+    public void testWrappedTextIsNotWindowed() {
+        textArea.setWrapText(true);
+        Toolkit.getToolkit().firePulse();
+        assertEquals(textArea.getText(), getTextNode().getText());
+
+        textArea.setWrapText(false);
+        Toolkit.getToolkit().firePulse();
+        assertTrue(getTextNode().getText().length() < textArea.getLength() / 10);
+    }
+
+    private int offsetOf(int paragraph) {
+        return textArea.getText().indexOf("line " + paragraph + "\n");
+    }
+
+    private Text getTextNode() {
+        for (Node node : textArea.lookupAll(".text")) {
+            if (node instanceof Text && node.getParent() instanceof Group) {
+                return (Text) node;
+            }
+        }
+        assertNotNull("text node not found", null);
+        return null;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.fxml;
+
+import com.sun.javafx.util.Logging;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javafx.fxml.CompiledFXML;
+
+/**
+ * Locates the classes generated by the FXML compiler for FXML documents.
+ * <p>
+ * A document that is available as the class loader resource
+ * {@code a/b/name.fxml} is compiled into the class {@code a.b.nameFXML}; see
+ * {@link #getClassName(String)}. Lookups are cached per class loader and
+ * location, so that a document without a compiled form costs one failed
+ * class lookup only. The cache only holds weak references to the generated
+ * classes, so that it does not keep their class loader alive.
+ * <p>
+ * The generated class records the digest of the document it was compiled
+ * from in its {@link #DIGEST_FIELD_NAME} field. A class whose digest does not
+ * match the current content of the document is stale and is ignored, so that
+ * the document is parsed instead.
+ */
+public final class CompiledFXMLRegistry {
+    /**
+     * The suffix appended to the document name to form the name of the
+     * generated class.
+     */
+    public static final String CLASS_NAME_SUFFIX = "FXML";
+
+    /**
+     * The name of the {@code public static final String} field of the
+     * generated class that holds the digest of the compiled document; see
+     * {@link #getDigest(InputStream)}.
+     */
+    public static final String DIGEST_FIELD_NAME = "SOURCE_DIGEST";
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final String FXML_EXTENSION = ".fxml";
+
+    @SuppressWarnings("removal")
+    private static final boolean enabled = AccessController.doPrivileged(
+            (PrivilegedAction<Boolean>) () ->
+                    !"false".equals(System.getProperty("javafx.fxml.compiled")));
+
+    // Cached lookups, keyed by the external form of the document location;
+    // documents without a compiled form map to NOT_COMPILED
+    private static final Map<ClassLoader, Map<String, Reference<Class<?>>>> cache =
+            new WeakHashMap<>();
+
+    private static final Reference<Class<?>> NOT_COMPILED = new WeakReference<>(null);
+
+    private CompiledFXMLRegistry() {
+    }
+
+    /**
+     * Returns the name of the class generated for the document with the given
+     * resource name.
+     *
+     * @param resourceName the resource name of the document, for example
+     * {@code com/example/main.fxml}
+     * @return the fully qualified name of the generated class
+     */
+    public static String getClassName(String resourceName) {
+        if (resourceName.startsWith("/")) {
+            resourceName = resourceName.substring(1);
+        }
+
+        int i = resourceName.lastIndexOf('/');
+        String packageName = (i == -1) ? "" : resourceName.substring(0, i).replace('/', '.');
+        String name = resourceName.substring(i + 1);
+        if (name.endsWith(FXML_EXTENSION)) {
+            name = name.substring(0, name.length() - FXML_EXTENSION.length());
+        }
+
+        StringBuilder className = new StringBuilder();
+        for (int j = 0, n = name.length(); j < n; j++) {
+            char c = name.charAt(j);
+            className.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (className.length() == 0 || !Character.isJavaIdentifierStart(className.charAt(0))) {
+            className.insert(0, '_');
+        }
+        className.append(CLASS_NAME_SUFFIX);
+
+        return packageName.isEmpty() ? className.toString() : packageName + "." + className;
+    }
+
+    /**
+     * Returns the digest of the content of a document, as recorded in the
+     * generated class.
+     *
+     * @param inputStream the content of the document
+     * @return the hexadecimal SHA-256 digest of the content
+     * @throws IOException if the document cannot be read
+     */
+    public static String getDigest(InputStream inputStream) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, count);
+        }
+
+        StringBuilder digest = new StringBuilder();
+        for (byte b : messageDigest.digest()) {
+            digest.append(Character.forDigit((b >> 4) & 0xF, 16))
+                  .append(Character.forDigit(b & 0xF, 16));
+        }
+        return digest.toString();
+    }
+
+    /**
+     * Returns the compiled form of the document at the given location, or
+     * {@code null} if the document has not been compiled, has changed since it
+     * was compiled, or is not a resource of the given class loader.
+     *
+     * @param location the location of the document
+     * @param classLoader the class loader used to load the document's classes
+     * @return the compiled document, or {@code null}
+     */
+    public static CompiledFXML lookup(URL location, ClassLoader classLoader) {
+        if (!enabled || location == null || classLoader == null) {
+            return null;
+        }
+
+        String key = location.toExternalForm();
+        Reference<Class<?>> reference;
+        synchronized (cache) {
+            reference = cache.computeIfAbsent(classLoader, cl -> new HashMap<>()).get(key);
+        }
+
+        Class<?> type = (reference == null) ? null : reference.get();
+        if (type == null) {
+            if (reference == NOT_COMPILED) {
+                return null;
+            }
+            type = find(location, classLoader);
+            synchronized (cache) {
+                cache.get(classLoader).put(key, (type == null) ? NOT_COMPILED : new WeakReference<>(type));
+            }
+            if (type == null) {
+                return null;
+            }
+        }
+
+        try {
+            return (CompiledFXML) type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            Logging.getJavaFXLogger().warning("Cannot instantiate compiled FXML for "
+                    + location + ": " + exception);
+            synchronized (cache) {
+                cache.get(classLoader).put(key, NOT_COMPILED);
+            }
+            return null;
+        }
+    }
+
+    private static Class<?> find(URL location, ClassLoader classLoader) {
+        String resourceName = getResourceName(location, classLoader);
+        if (resourceName == null) {
+            return null;
+        }
+
+        // Look for the class file first, so that documents without compiled
+        // form do not cause any class loading
+        String className = getClassName(resourceName);
+        if (classLoader.getResource(className.replace('.', '/') + ".class") == null) {
+            return null;
+        }
+
+        try {
+            Class<?> type = Class.forName(className, true, classLoader);
+            if (!CompiledFXML.class.isAssignableFrom(type)
+                    || !Modifier.isPublic(type.getModifiers())) {
+                return null;
+            }
+            return isCurrent(type, location) ? type : null;
+        } catch (ClassNotFoundException | LinkageError exception) {
+            return null;
+        }
+    }
+
+    // Checks that the class was compiled from the current content of the
+    // document, rather than from an older version of it
+    private static boolean isCurrent(Class<?> type, URL location) {
+        String compiledDigest;
+        try {
+            Field field = type.getField(DIGEST_FIELD_NAME);
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class) {
+                return false;
+            }
+            compiledDigest = (String) field.get(null);
+        } catch (ReflectiveOperationException exception) {
+            return false;
+        }
+
+        String digest;
+        try (InputStream inputStream = location.openStream()) {
+            digest = getDigest(inputStream);
+        } catch (IOException exception) {
+            return false;
+        }
+
+        if (!digest.equals(compiledDigest)) {
+            Logging.getJavaFXLogger().fine("Ignoring compiled FXML for " + location
+                    + ", the document has changed since it was compiled");
+            return false;
+        }
+        return true;
+    }
+
+    // Finds the name under which the class loader provides the document: the
+    // part of the location's path for which the class loader resolves to the
+    // same location
+    private static String getResourceName(URL location, ClassLoader classLoader) {
+        String path = location.getPath();
+        if (path == null || !path.endsWith(FXML_EXTENSION)) {
+            return null;
+        }
+
+        int jarSeparator = path.indexOf("!/");
+        if (jarSeparator != -1) {
+            path = path.substring(jarSeparator + 2);
+        }
+
+        String externalForm = location.toExternalForm();
+        int i = path.length();
+        do {
+            i = path.lastIndexOf('/', i - 1);
+            String resourceName = path.substring(i + 1);
+            URL resource = classLoader.getResource(resourceName);
+            if (resource != null && resource.toExternalForm().equals(externalForm)) {
+                return resourceName;
+            }
+        } while (i > 0);
+
+        return null;
+    }
+}
@@ -0,0 +1,1688 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.fxml.compiler;
+
+import com.sun.javafx.beans.IDProperty;
+import com.sun.javafx.fxml.BeanAdapter;
+import com.sun.javafx.fxml.CompiledFXMLRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javafx.beans.DefaultProperty;
+import javafx.beans.NamedArg;
+import javafx.event.Event;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.fxml.Initializable;
+import javafx.fxml.LoadException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Compiles FXML documents ahead of time into Java source code.
+ * <p>
+ * For each document the compiler emits a class implementing
+ * {@link javafx.fxml.CompiledFXML} that creates the object hierarchy with plain
+ * constructor and setter calls, registers the {@code fx:id} values in the
+ * namespace, and creates, injects and initializes the controller. The class
+ * is named after the document, see
+ * {@link CompiledFXMLRegistry#getClassName(String)}, and is picked up by
+ * {@link FXMLLoader#load()} at run time. The class records the digest of the
+ * document, so that it is ignored once the document changes without being
+ * compiled again.
+ * <p>
+ * Classes referenced by a document, including its controller, are resolved
+ * through the class loader passed to the compiler, so they must have been
+ * compiled before the document. Documents that use features which cannot be
+ * expressed as plain Java code, such as {@code fx:include}, {@code fx:define},
+ * scripts or expression bindings, are rejected with a {@link LoadException};
+ * such documents continue to be parsed at run time.
+ * <p>
+ * The compiler can be run from the command line:
+ * <pre>
+ * FXMLCompiler [-d &lt;output directory&gt;] [-strict] &lt;source directory&gt;...
+ * </pre>
+ * Every {@code .fxml} file below a source directory is compiled, using its
+ * path relative to the source directory as its resource name. Documents that
+ * cannot be compiled are reported and skipped, unless {@code -strict} is
+ * given.
+ */
+public final class FXMLCompiler {
+    private static final String FX_NAMESPACE_PREFIX = FXMLLoader.FX_NAMESPACE_PREFIX;
+    private static final String EVENT_HANDLER_PREFIX = "on";
+    private static final String CHANGE_EVENT_HANDLER_SUFFIX = "Change";
+    private static final String INITIALIZE_METHOD_NAME = "initialize";
+
+    // Types that FXMLLoader creates through dedicated builders
+    private static final List<String> BUILDER_TYPES = List.of(
+            "java.net.URL",
+            "javafx.scene.Scene",
+            "javafx.scene.image.Image",
+            "javafx.scene.shape.TriangleMesh",
+            "javafx.scene.text.Font",
+            "javafx.scene.web.WebView");
+
+    private static final Pattern extraneousWhitespacePattern = Pattern.compile("\\s+");
+
+    private final ClassLoader classLoader;
+
+    /**
+     * Creates a compiler that resolves the classes referenced by documents
+     * through the given class loader.
+     *
+     * @param classLoader the class loader
+     */
+    public FXMLCompiler(ClassLoader classLoader) {
+        if (classLoader == null) {
+            throw new NullPointerException();
+        }
+
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Compiles an FXML document into the source code of a
+     * {@link javafx.fxml.CompiledFXML} implementation.
+     *
+     * @param resourceName the resource name of the document, for example
+     * {@code com/example/main.fxml}
+     * @param inputStream the content of the document
+     * @return the Java source code of the class
+     * @throws LoadException if the document cannot be compiled
+     * @throws IOException if the document cannot be read
+     */
+    public String compile(String resourceName, InputStream inputStream) throws IOException {
+        byte[] content = inputStream.readAllBytes();
+        Element root = parse(resourceName, new ByteArrayInputStream(content));
+        String digest = CompiledFXMLRegistry.getDigest(new ByteArrayInputStream(content));
+        return new Generator(resourceName, digest).generate(root);
+    }
+
+    // Document model
+
+    private static final class Attribute {
+        final String prefix;
+        final String name;
+        final String value;
+
+        Attribute(String prefix, String name, String value) {
+            this.prefix = prefix;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    private static final class Element {
+        final String prefix;
+        final String name;
+        final int line;
+        final List<Attribute> attributes = new ArrayList<>();
+        // Child elements and non-whitespace text, in document order
+        final List<Object> children = new ArrayList<>();
+
+        Element(String prefix, String name, int line) {
+            this.prefix = prefix;
+            this.name = name;
+            this.line = line;
+        }
+
+        boolean isFX(String name) {
+            return FX_NAMESPACE_PREFIX.equals(prefix) && this.name.equals(name);
+        }
+    }
+
+    private final List<String> imports = new ArrayList<>();
+
+    private Element parse(String resourceName, InputStream inputStream) throws IOException {
+        imports.clear();
+
+        try {
+            XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+            xmlInputFactory.setProperty("javax.xml.stream.isCoalescing", true);
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(
+                    new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+            Element root = null;
+            List<Element> stack = new ArrayList<>();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION: {
+                        String target = reader.getPITarget().trim();
+                        if (target.equals(FXMLLoader.IMPORT_PROCESSING_INSTRUCTION)) {
+                            imports.add(reader.getPIData().trim());
+                        } else if (target.equals(FXMLLoader.LANGUAGE_PROCESSING_INSTRUCTION)) {
+                            throw new LoadException(resourceName + ": scripts are not supported");
+                        }
+                        break;
+                    }
+
+                    case XMLStreamConstants.START_ELEMENT: {
+                        Element element = new Element(emptyToNull(reader.getPrefix()),
+                                reader.getLocalName(), reader.getLocation().getLineNumber());
+                        for (int i = 0, n = reader.getAttributeCount(); i < n; i++) {
+                            element.attributes.add(new Attribute(emptyToNull(reader.getAttributePrefix(i)),
+                                    reader.getAttributeLocalName(i), reader.getAttributeValue(i)));
+                        }
+
+                        if (stack.isEmpty()) {
+                            root = element;
+                        } else {
+                            stack.get(stack.size() - 1).children.add(element);
+                        }
+                        stack.add(element);
+                        break;
+                    }
+
+                    case XMLStreamConstants.END_ELEMENT: {
+                        stack.remove(stack.size() - 1);
+                        break;
+                    }
+
+                    case XMLStreamConstants.CHARACTERS: {
+                        if (!reader.isWhiteSpace() && !stack.isEmpty()) {
+                            stack.get(stack.size() - 1).children.add(reader.getText());
+                        }
+                        break;
+                    }
+                }
+            }
+
+            if (root == null) {
+                throw new LoadException(resourceName + ": document has no root element");
+            }
+
+            return root;
+        } catch (XMLStreamException exception) {
+            throw new LoadException(resourceName + ": " + exception.getMessage(), exception);
+        }
+    }
+
+    private static String emptyToNull(String prefix) {
+        return (prefix == null || prefix.isEmpty()) ? null : prefix;
+    }
+
+    // Code generation
+
+    private static final class Value {
+        final String expression;
+        final Class<?> type;
+
+        Value(String expression, Class<?> type) {
+            this.expression = expression;
+            this.type = type;
+        }
+    }
+
+    private final class Generator {
+        private final String resourceName;
+        private final String digest;
+        private final String packageName;
+        private final String simpleClassName;
+
+        private final StringBuilder code = new StringBuilder();
+        private final Map<String, Integer> variableCounts = new HashMap<>();
+        private final Map<String, String> reflectiveMembers = new LinkedHashMap<>();
+        private final Map<String, Class<?>> classes = new HashMap<>();
+        private final List<String> packages = new ArrayList<>();
+
+        private Element current;
+
+        private Class<?> controllerType;
+        private Map<String, List<Field>> controllerFields;
+        private Map<String, Method> parameterlessMethods;
+        private Map<String, Method> eventMethods;
+
+        private boolean usesResource;
+        private boolean usesRelativePath;
+        private boolean usesField;
+        private boolean usesMethod;
+
+        Generator(String resourceName, String digest) {
+            this.resourceName = resourceName;
+            this.digest = digest;
+
+            String className = CompiledFXMLRegistry.getClassName(resourceName);
+            int i = className.lastIndexOf('.');
+            packageName = (i == -1) ? "" : className.substring(0, i);
+            simpleClassName = className.substring(i + 1);
+        }
+
+        String generate(Element root) throws LoadException {
+            current = root;
+            for (String target : imports) {
+                if (target.endsWith(".*")) {
+                    packages.add(target.substring(0, target.length() - 2));
+                } else {
+                    classes.put(getClassKey(target), loadClass(target));
+                }
+            }
+
+            Value value = processInstance(root, true);
+
+            if (controllerType != null) {
+                initializeController();
+            }
+            statement("return " + value.expression + ";");
+
+            return createSource();
+        }
+
+        private String createSource() {
+            StringBuilder source = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                source.append("package ").append(packageName).append(";\n\n");
+            }
+
+            source.append("/**\n");
+            source.append(" * Compiled form of {@code ").append(resourceName).append("}.\n");
+            source.append(" * Generated by the FXML compiler; do not edit.\n");
+            source.append(" */\n");
+            source.append("public final class ").append(simpleClassName)
+                  .append(" implements javafx.fxml.CompiledFXML {\n");
+            source.append("    public static final String ").append(CompiledFXMLRegistry.DIGEST_FIELD_NAME)
+                  .append(" = \"").append(digest).append("\";\n\n");
+
+            for (Map.Entry<String, String> member : reflectiveMembers.entrySet()) {
+                source.append("    private static final ").append(member.getValue()).append(";\n");
+            }
+            if (!reflectiveMembers.isEmpty()) {
+                source.append("\n");
+            }
+
+            source.append("    public ").append(simpleClassName).append("() {\n");
+            source.append("    }\n\n");
+
+            source.append("    @Override\n");
+            source.append("    @SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+            source.append("    public Object load(javafx.fxml.FXMLLoader loader) throws java.io.IOException {\n");
+            source.append("        final java.net.URL location = loader.getLocation();\n");
+            source.append("        final java.util.ResourceBundle resources = loader.getResources();\n");
+            source.append("        final java.util.Map<String, Object> namespace = loader.getNamespace();\n");
+            source.append("        namespace.put(\"location\", location);\n");
+            source.append("        namespace.put(\"resources\", resources);\n");
+            source.append(code);
+            source.append("    }\n");
+
+            if (usesResource) {
+                source.append("\n");
+                source.append("    private static String resource(java.util.ResourceBundle resources, String key)\n");
+                source.append("            throws javafx.fxml.LoadException {\n");
+                source.append("        if (resources == null) {\n");
+                source.append("            throw new javafx.fxml.LoadException(\"No resources specified.\");\n");
+                source.append("        }\n");
+                source.append("        if (!resources.containsKey(key)) {\n");
+                source.append("            throw new javafx.fxml.LoadException(\"Resource \\\"\" + key + \"\\\" not found.\");\n");
+                source.append("        }\n");
+                source.append("        return resources.getString(key);\n");
+                source.append("    }\n");
+            }
+
+            if (usesRelativePath) {
+                source.append("\n");
+                source.append("    private static String relativePath(javafx.fxml.FXMLLoader loader, String path)\n");
+                source.append("            throws javafx.fxml.LoadException {\n");
+                source.append("        if (path.charAt(0) == '/') {\n");
+                source.append("            java.net.URL resource = loader.getClassLoader().getResource(path.substring(1));\n");
+                source.append("            if (resource == null) {\n");
+                source.append("                throw new javafx.fxml.LoadException(\"Invalid resource: \" + path + \" not found on the classpath\");\n");
+                source.append("            }\n");
+                source.append("            return resource.toString();\n");
+                source.append("        }\n");
+                source.append("        try {\n");
+                source.append("            return new java.net.URL(loader.getLocation(), path).toString();\n");
+                source.append("        } catch (java.net.MalformedURLException exception) {\n");
+                source.append("            throw new javafx.fxml.LoadException(exception);\n");
+                source.append("        }\n");
+                source.append("    }\n");
+            }
+
+            if (usesField) {
+                source.append("\n");
+                source.append("    private static java.lang.reflect.Field field(Class<?> type, String name) {\n");
+                source.append("        try {\n");
+                source.append("            java.lang.reflect.Field field = type.getDeclaredField(name);\n");
+                source.append("            field.setAccessible(true);\n");
+                source.append("            return field;\n");
+                source.append("        } catch (NoSuchFieldException exception) {\n");
+                source.append("            throw new NoSuchFieldError(exception.getMessage());\n");
+                source.append("        }\n");
+                source.append("    }\n\n");
+                source.append("    private static void set(java.lang.reflect.Field field, Object target, Object value)\n");
+                source.append("            throws javafx.fxml.LoadException {\n");
+                source.append("        try {\n");
+                source.append("            field.set(target, value);\n");
+                source.append("        } catch (IllegalAccessException exception) {\n");
+                source.append("            throw new javafx.fxml.LoadException(exception);\n");
+                source.append("        }\n");
+                source.append("    }\n");
+            }
+
+            if (usesMethod) {
+                source.append("\n");
+                source.append("    private static java.lang.reflect.Method method(Class<?> type, String name,\n");
+                source.append("                                                   Class<?>... parameterTypes) {\n");
+                source.append("        try {\n");
+                source.append("            java.lang.reflect.Method method = type.getDeclaredMethod(name, parameterTypes);\n");
+                source.append("            method.setAccessible(true);\n");
+                source.append("            return method;\n");
+                source.append("        } catch (NoSuchMethodException exception) {\n");
+                source.append("            throw new NoSuchMethodError(exception.getMessage());\n");
+                source.append("        }\n");
+                source.append("    }\n\n");
+                source.append("    private static void invoke(java.lang.reflect.Method method, Object target, Object... arguments) {\n");
+                source.append("        try {\n");
+                source.append("            method.invoke(target, arguments);\n");
+                source.append("        } catch (java.lang.reflect.InvocationTargetException exception) {\n");
+                source.append("            Throwable cause = exception.getCause();\n");
+                source.append("            if (cause instanceof RuntimeException) {\n");
+                source.append("                throw (RuntimeException) cause;\n");
+                source.append("            } else if (cause instanceof Error) {\n");
+                source.append("                throw (Error) cause;\n");
+                source.append("            }\n");
+                source.append("            throw new RuntimeException(cause);\n");
+                source.append("        } catch (IllegalAccessException exception) {\n");
+                source.append("            throw new RuntimeException(exception);\n");
+                source.append("        }\n");
+                source.append("    }\n");
+            }
+
+            source.append("}\n");
+            return source.toString();
+        }
+
+        // Elements
+
+        private Value processInstance(Element element, boolean isRoot) throws LoadException {
+            Element previous = current;
+            current = element;
+
+            boolean fxRoot = element.isFX("root");
+            if (element.prefix != null && !fxRoot) {
+                throw unsupported(element.prefix + ":" + element.name);
+            }
+            if (fxRoot && !isRoot) {
+                throw error("fx:root is only valid as the root element.");
+            }
+
+            String fxId = null;
+            String fxController = null;
+            String fxValue = null;
+            String fxConstant = null;
+            String fxFactory = null;
+            String rootType = null;
+            List<Attribute> propertyAttributes = new ArrayList<>();
+            List<Attribute> staticPropertyAttributes = new ArrayList<>();
+            List<Attribute> eventHandlerAttributes = new ArrayList<>();
+
+            for (Attribute attribute : element.attributes) {
+                if (attribute.prefix == null) {
+                    if (fxRoot && attribute.name.equals("type")) {
+                        rootType = attribute.value;
+                    } else if (attribute.name.startsWith(EVENT_HANDLER_PREFIX)) {
+                        eventHandlerAttributes.add(attribute);
+                    } else if (attribute.name.indexOf('.') != -1) {
+                        staticPropertyAttributes.add(attribute);
+                    } else {
+                        propertyAttributes.add(attribute);
+                    }
+                } else if (attribute.prefix.equals(FX_NAMESPACE_PREFIX)) {
+                    switch (attribute.name) {
+                        case FXMLLoader.FX_ID_ATTRIBUTE:
+                            fxId = validateId(attribute.value);
+                            break;
+                        case FXMLLoader.FX_CONTROLLER_ATTRIBUTE:
+                            fxController = attribute.value;
+                            break;
+                        case FXMLLoader.FX_VALUE_ATTRIBUTE:
+                            fxValue = attribute.value;
+                            break;
+                        case FXMLLoader.FX_CONSTANT_ATTRIBUTE:
+                            fxConstant = attribute.value;
+                            break;
+                        case FXMLLoader.FX_FACTORY_ATTRIBUTE:
+                            fxFactory = attribute.value;
+                            break;
+                        default:
+                            throw unsupported("fx:" + attribute.name);
+                    }
+                } else {
+                    throw error(attribute.prefix + ":" + attribute.name + " is not a valid attribute.");
+                }
+            }
+
+            if (isRoot && !fxRoot) {
+                statement("if (loader.getRoot() != null) {");
+                statement("    throw new javafx.fxml.LoadException(\"Root value already specified.\");");
+                statement("}");
+            }
+
+            if (fxController != null) {
+                if (!isRoot) {
+                    throw error("fx:controller can only be applied to root element.");
+                }
+                createController(fxController);
+            }
+
+            // Create the value
+            Class<?> type;
+            Value value;
+            boolean namedArguments = false;
+            if (fxRoot) {
+                if (rootType == null) {
+                    throw error("fx:root requires a type attribute.");
+                }
+                type = getType(rootType);
+                requireAccessible(type);
+                value = declare(type, "loader.getRoot()", true);
+                statement("if (" + value.expression + " == null) {");
+                statement("    throw new javafx.fxml.LoadException(\"Root hasn't been set. Use method setRoot() before load.\");");
+                statement("}");
+            } else {
+                type = getType(element.name);
+                requireAccessible(type);
+
+                if (fxValue != null) {
+                    value = declare(type, literal(fxValue, type), false);
+                } else if (fxConstant != null) {
+                    Field field = getPublicStaticField(type, fxConstant);
+                    value = declare(field.getType(), typeName(type) + "." + fxConstant, false);
+                } else if (fxFactory != null) {
+                    Method method = getPublicStaticMethod(type, fxFactory);
+                    value = declare(method.getReturnType(), typeName(type) + "." + fxFactory + "()", false);
+                } else {
+                    Constructor<?> constructor = getNamedArgumentConstructor(type, propertyAttributes);
+                    if (constructor == null) {
+                        value = construct(type);
+                    } else {
+                        value = construct(type, constructor, propertyAttributes);
+                        namedArguments = true;
+                    }
+                }
+            }
+
+            if (namedArguments) {
+                // FXMLLoader creates these values from the complete element;
+                // the attributes that are not constructor arguments are
+                // applied before the value is registered
+                if (!element.children.isEmpty()) {
+                    throw unsupported("child elements of " + type.getName());
+                }
+                processPropertyAttributes(value, propertyAttributes);
+                processValue(value, fxId);
+            } else {
+                processValue(value, fxId);
+
+                for (Object child : element.children) {
+                    if (child instanceof String) {
+                        processCharacters(value, (String) child);
+                    } else {
+                        processChild(value, (Element) child);
+                    }
+                }
+
+                processPropertyAttributes(value, propertyAttributes);
+            }
+
+            for (Attribute attribute : eventHandlerAttributes) {
+                processEventHandlerAttribute(value, attribute);
+            }
+
+            for (Attribute attribute : staticPropertyAttributes) {
+                int i = attribute.name.lastIndexOf('.');
+                Class<?> sourceType = getType(attribute.name.substring(0, i));
+                setStaticProperty(value, sourceType, attribute.name.substring(i + 1),
+                        valueExpression(attribute.value, getStaticPropertyType(sourceType,
+                                attribute.name.substring(i + 1), value.type)));
+            }
+
+            current = previous;
+            return value;
+        }
+
+        private void processChild(Value parent, Element element) throws LoadException {
+            if (element.prefix != null) {
+                throw unsupported(element.prefix + ":" + element.name);
+            }
+
+            int i = element.name.lastIndexOf('.');
+            if (!Character.isLowerCase(element.name.charAt(i + 1))) {
+                addToParent(parent, processInstance(element, false));
+            } else if (i == -1) {
+                processPropertyElement(parent, element);
+            } else {
+                processStaticPropertyElement(parent, element,
+                        getType(element.name.substring(0, i)), element.name.substring(i + 1));
+            }
+        }
+
+        private void processPropertyElement(Value parent, Element element) throws LoadException {
+            Element previous = current;
+            current = element;
+
+            String name = element.name;
+            if (name.startsWith(EVENT_HANDLER_PREFIX)) {
+                throw error("\"" + name + "\" is not a valid element name.");
+            }
+
+            Method getter = getGetter(parent.type, name);
+            Method setter = getSetter(parent.type, name, getter);
+            if (setter == null) {
+                if (!List.class.isAssignableFrom(getter.getReturnType())) {
+                    throw unsupported("read-only property element " + name);
+                }
+                if (!element.attributes.isEmpty()) {
+                    throw unsupported("attributes of read-only property element " + name);
+                }
+
+                String list = parent.expression + "." + getter.getName() + "()";
+                Class<?> itemType = getListItemType(getter.getGenericReturnType());
+                for (Object child : element.children) {
+                    if (child instanceof String) {
+                        String text = normalize((String) child).trim();
+                        statement(list + ".add(" + literal(text, itemType) + ");");
+                    } else {
+                        Value value = instanceChild((Element) child);
+                        requireAssignable(itemType, value.type);
+                        statement(list + ".add(" + value.expression + ");");
+                    }
+                }
+            } else {
+                if (!element.attributes.isEmpty()) {
+                    throw error("Attributes are not supported for writable property elements.");
+                }
+
+                Class<?> type = getter.getReturnType();
+                for (Object child : element.children) {
+                    if (child instanceof String) {
+                        String text = normalize((String) child).trim();
+                        statement(parent.expression + "." + setter.getName() + "(" + literal(text, type) + ");");
+                    } else {
+                        Value value = instanceChild((Element) child);
+                        requireAssignable(type, value.type);
+                        statement(parent.expression + "." + setter.getName() + "(" + value.expression + ");");
+                    }
+                }
+            }
+
+            current = previous;
+        }
+
+        private void processStaticPropertyElement(Value parent, Element element,
+                                                  Class<?> sourceType, String name) throws LoadException {
+            Element previous = current;
+            current = element;
+
+            if (!element.attributes.isEmpty()) {
+                throw error("Attributes are not supported for writable property elements.");
+            }
+
+            for (Object child : element.children) {
+                if (child instanceof String) {
+                    String text = normalize((String) child).trim();
+                    setStaticProperty(parent, sourceType, name,
+                            new Value(literal(text, getStaticPropertyType(sourceType, name, parent.type)), null));
+                } else {
+                    setStaticProperty(parent, sourceType, name, instanceChild((Element) child));
+                }
+            }
+
+            current = previous;
+        }
+
+        private Value instanceChild(Element element) throws LoadException {
+            if (element.prefix != null) {
+                throw unsupported(element.prefix + ":" + element.name);
+            }
+            if (Character.isLowerCase(element.name.charAt(element.name.lastIndexOf('.') + 1))) {
+                throw error(element.name + " is not a valid value element.");
+            }
+
+            return processInstance(element, false);
+        }
+
+        private void processCharacters(Value value, String text) throws LoadException {
+            DefaultProperty defaultProperty = value.type.getAnnotation(DefaultProperty.class);
+            if (defaultProperty == null) {
+                throw error(value.type.getName() + " does not have a default property.");
+            }
+
+            text = normalize(text);
+            String name = defaultProperty.value();
+            Method getter = getGetter(value.type, name);
+            Method setter = getSetter(value.type, name, getter);
+            if (setter == null && List.class.isAssignableFrom(getter.getReturnType())) {
+                Class<?> itemType = getListItemType(getter.getGenericReturnType());
+                statement(value.expression + "." + getter.getName() + "().add("
+                        + literal(text, itemType) + ");");
+            } else {
+                requireSetter(setter, name);
+                statement(value.expression + "." + setter.getName() + "("
+                        + literal(text.trim(), getter.getReturnType()) + ");");
+            }
+        }
+
+        private void addToParent(Value parent, Value value) throws LoadException {
+            if (List.class.isAssignableFrom(parent.type)) {
+                statement(parent.expression + ".add(" + value.expression + ");");
+                return;
+            }
+
+            DefaultProperty defaultProperty = parent.type.getAnnotation(DefaultProperty.class);
+            if (defaultProperty == null) {
+                throw error("Element does not define a default property.");
+            }
+
+            String name = defaultProperty.value();
+            Method getter = getGetter(parent.type, name);
+            if (List.class.isAssignableFrom(getter.getReturnType())) {
+                requireAssignable(getListItemType(getter.getGenericReturnType()), value.type);
+                statement(parent.expression + "." + getter.getName() + "().add(" + value.expression + ");");
+            } else {
+                Method setter = getSetter(parent.type, name, getter);
+                requireSetter(setter, name);
+                requireAssignable(getter.getReturnType(), value.type);
+                statement(parent.expression + "." + setter.getName() + "(" + value.expression + ");");
+            }
+        }
+
+        // Values and attributes
+
+        private Value construct(Class<?> type) throws LoadException {
+            if (BUILDER_TYPES.contains(type.getName())) {
+                throw unsupported("instances of " + type.getName());
+            }
+            if (Modifier.isAbstract(type.getModifiers())) {
+                throw error(type.getName() + " is abstract.");
+            }
+
+            try {
+                if (isAccessible(type.getConstructor())) {
+                    return declare(type, "new " + typeName(type) + "()", false);
+                }
+            } catch (NoSuchMethodException exception) {
+                // No-op
+            }
+            throw error(type.getName() + " does not have an accessible default constructor.");
+        }
+
+        // Mirrors JavaFXBuilderFactory, which creates the instances of types
+        // with annotated constructors from their named arguments; returns
+        // null if the default constructor is to be used
+        private Constructor<?> getNamedArgumentConstructor(Class<?> type,
+                                                         List<Attribute> propertyAttributes) {
+            if (BUILDER_TYPES.contains(type.getName()) || Modifier.isAbstract(type.getModifiers())) {
+                return null;
+            }
+
+            Constructor<?> namedConstructor = null;
+            int namedMatches = 0;
+            for (Constructor<?> constructor : type.getConstructors()) {
+                List<String> names = getArgumentNames(constructor);
+                if (names == null) {
+                    continue;
+                }
+
+                int matches = 0;
+                for (Attribute attribute : propertyAttributes) {
+                    if (names.contains(attribute.name)) {
+                        matches++;
+                    }
+                }
+                if (namedConstructor == null || matches > namedMatches
+                        || (matches == namedMatches
+                            && constructor.getParameterCount() < namedConstructor.getParameterCount())) {
+                    namedConstructor = constructor;
+                    namedMatches = matches;
+                }
+            }
+
+            if (namedConstructor != null && namedMatches == 0) {
+                try {
+                    type.getConstructor();
+                    return null;
+                } catch (NoSuchMethodException exception) {
+                    // No-op
+                }
+            }
+            return namedConstructor;
+        }
+
+        private Value construct(Class<?> type, Constructor<?> constructor,
+                                List<Attribute> propertyAttributes) throws LoadException {
+            if (!isAccessible(constructor)) {
+                throw error(type.getName() + " does not have an accessible constructor.");
+            }
+
+            List<String> names = getArgumentNames(constructor);
+            NamedArg[] namedArgs = getNamedArgs(constructor);
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            StringBuilder arguments = new StringBuilder();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                String argument = null;
+                for (Iterator<Attribute> it = propertyAttributes.iterator(); it.hasNext();) {
+                    Attribute attribute = it.next();
+                    if (attribute.name.equals(names.get(i))) {
+                        argument = valueExpression(attribute.value, parameterTypes[i]).expression;
+                        it.remove();
+                    }
+                }
+                if (argument == null) {
+                    String defaultValue = namedArgs[i].defaultValue();
+                    argument = defaultValue.isEmpty()
+                            ? defaultLiteral(parameterTypes[i])
+                            : literal(defaultValue, parameterTypes[i]);
+                }
+                arguments.append((i == 0) ? "" : ", ").append(argument);
+            }
+
+            return declare(type, "new " + typeName(type) + "(" + arguments + ")", false);
+        }
+
+        private void processValue(Value value, String fxId) throws LoadException {
+            if (fxId == null) {
+                return;
+            }
+
+            statement("namespace.put(" + quote(fxId) + ", " + value.expression + ");");
+
+            IDProperty idProperty = value.type.getAnnotation(IDProperty.class);
+            if (idProperty != null) {
+                Method getter = getGetter(value.type, idProperty.value());
+                Method setter = getSetter(value.type, idProperty.value(), getter);
+                if (setter != null) {
+                    statement("if (" + value.expression + "." + getter.getName() + "() == null) {");
+                    statement("    " + value.expression + "." + setter.getName() + "("
+                            + literal(fxId, getter.getReturnType()) + ");");
+                    statement("}");
+                }
+            }
+
+            if (controllerType != null) {
+                injectFields(fxId, value);
+            }
+        }
+
+        private void processPropertyAttributes(Value value, List<Attribute> attributes) throws LoadException {
+            for (Attribute attribute : attributes) {
+                String text = attribute.value;
+                if (text.startsWith(FXMLLoader.BINDING_EXPRESSION_PREFIX)
+                        && text.endsWith(FXMLLoader.BINDING_EXPRESSION_SUFFIX)) {
+                    throw unsupported("binding expression " + text);
+                }
+                if (text.startsWith(FXMLLoader.BI_DIRECTIONAL_BINDING_PREFIX)) {
+                    throw unsupported("binding expression " + text);
+                }
+
+                Method getter = getGetter(value.type, attribute.name);
+                Method setter = getSetter(value.type, attribute.name, getter);
+                Class<?> type = getter.getReturnType();
+                if (setter == null && List.class.isAssignableFrom(type)) {
+                    Class<?> itemType = getListItemType(getter.getGenericReturnType());
+                    if (text.length() > 0) {
+                        for (String item : text.split(FXMLLoader.ARRAY_COMPONENT_DELIMITER)) {
+                            statement(value.expression + "." + getter.getName() + "().add("
+                                    + valueExpression(item.trim(), itemType).expression + ");");
+                        }
+                    }
+                } else if (type.isArray()) {
+                    throw unsupported("array property " + attribute.name);
+                } else {
+                    requireSetter(setter, attribute.name);
+                    statement(value.expression + "." + setter.getName() + "("
+                            + valueExpression(text, type).expression + ");");
+                }
+            }
+        }
+
+        private void processEventHandlerAttribute(Value value, Attribute attribute) throws LoadException {
+            String name = attribute.name;
+            String handler = attribute.value;
+            if (name.endsWith(CHANGE_EVENT_HANDLER_SUFFIX)) {
+                throw unsupported("property change handler " + name);
+            }
+            if (!handler.startsWith(FXMLLoader.CONTROLLER_METHOD_PREFIX)
+                    || handler.startsWith(FXMLLoader.CONTROLLER_METHOD_PREFIX + FXMLLoader.CONTROLLER_METHOD_PREFIX)) {
+                throw unsupported("event handler " + name + "=\"" + handler + "\"");
+            }
+
+            String methodName = handler.substring(FXMLLoader.CONTROLLER_METHOD_PREFIX.length());
+            if (methodName.isEmpty()) {
+                throw error("Missing controller method.");
+            }
+            if (controllerType == null) {
+                throw unsupported("event handler " + name + " without fx:controller");
+            }
+
+            Method method = eventMethods.get(methodName);
+            if (method == null) {
+                method = parameterlessMethods.get(methodName);
+            }
+            if (method == null) {
+                throw error("Error resolving " + name + "='" + handler
+                        + "', either the event handler is not in the Namespace or there is an error in the script.");
+            }
+
+            Method getter = getGetter(value.type, name);
+            Method setter = getSetter(value.type, name, getter);
+            requireSetter(setter, name);
+
+            String invocation;
+            if (method.getParameterCount() == 0) {
+                invocation = invoke(method, "");
+            } else {
+                Class<?> parameterType = method.getParameterTypes()[0];
+                Class<?> eventType = getEventType(getter.getGenericReturnType());
+                if (eventType != null && !parameterType.isAssignableFrom(eventType)
+                        && !eventType.isAssignableFrom(parameterType)) {
+                    throw error("Controller method " + methodName + " cannot handle " + eventType.getName() + ".");
+                }
+                invocation = invoke(method, "(" + typeName(parameterType) + ") event");
+            }
+
+            statement(value.expression + "." + setter.getName() + "(event -> " + invocation + ");");
+        }
+
+        private void setStaticProperty(Value target, Class<?> sourceType, String name,
+                                       Value value) throws LoadException {
+            String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            Class<?> propertyType = getStaticPropertyType(sourceType, name, target.type);
+
+            Method setter = null;
+            for (Method method : sourceType.getMethods()) {
+                if (method.getName().equals(setterName)
+                        && Modifier.isStatic(method.getModifiers())
+                        && method.getParameterCount() == 2
+                        && method.getParameterTypes()[0].isAssignableFrom(target.type)
+                        && (value.type == null
+                            ? method.getParameterTypes()[1] == propertyType
+                            : isAssignable(method.getParameterTypes()[1], value.type))) {
+                    setter = method;
+                    break;
+                }
+            }
+            if (setter == null) {
+                throw error("Static property \"" + name + "\" does not exist or is read-only.");
+            }
+
+            statement(typeName(sourceType) + "." + setterName + "(" + target.expression
+                    + ", " + value.expression + ");");
+        }
+
+        private Class<?> getStaticPropertyType(Class<?> sourceType, String name,
+                                               Class<?> targetType) throws LoadException {
+            String key = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            for (Method method : sourceType.getMethods()) {
+                if ((method.getName().equals("get" + key) || method.getName().equals("is" + key))
+                        && Modifier.isStatic(method.getModifiers())
+                        && method.getParameterCount() == 1
+                        && method.getParameterTypes()[0].isAssignableFrom(targetType)) {
+                    return method.getReturnType();
+                }
+            }
+
+            throw error("Static property \"" + name + "\" does not exist or is read-only.");
+        }
+
+        // Resolves the prefixes of an attribute value and coerces it to the
+        // given type
+        private Value valueExpression(String text, Class<?> type) throws LoadException {
+            if (text.startsWith(FXMLLoader.ESCAPE_PREFIX)) {
+                text = text.substring(FXMLLoader.ESCAPE_PREFIX.length());
+                if (text.isEmpty()
+                        || !(text.startsWith(FXMLLoader.ESCAPE_PREFIX)
+                            || text.startsWith(FXMLLoader.RELATIVE_PATH_PREFIX)
+                            || text.startsWith(FXMLLoader.RESOURCE_KEY_PREFIX)
+                            || text.startsWith(FXMLLoader.EXPRESSION_PREFIX)
+                            || text.startsWith(FXMLLoader.BI_DIRECTIONAL_BINDING_PREFIX))) {
+                    throw error("Invalid escape sequence.");
+                }
+            } else if (text.startsWith(FXMLLoader.RELATIVE_PATH_PREFIX)) {
+                text = text.substring(FXMLLoader.RELATIVE_PATH_PREFIX.length());
+                if (text.isEmpty()) {
+                    throw error("Missing relative path.");
+                }
+                if (!text.startsWith(FXMLLoader.RELATIVE_PATH_PREFIX)) {
+                    usesRelativePath = true;
+                    return stringValue("relativePath(loader, " + quote(text) + ")", type);
+                }
+            } else if (text.startsWith(FXMLLoader.RESOURCE_KEY_PREFIX)) {
+                text = text.substring(FXMLLoader.RESOURCE_KEY_PREFIX.length());
+                if (text.isEmpty()) {
+                    throw error("Missing resource key.");
+                }
+                if (!text.startsWith(FXMLLoader.RESOURCE_KEY_PREFIX)) {
+                    usesResource = true;
+                    return stringValue("resource(resources, " + quote(text) + ")", type);
+                }
+            } else if (text.startsWith(FXMLLoader.EXPRESSION_PREFIX)) {
+                text = text.substring(FXMLLoader.EXPRESSION_PREFIX.length());
+                if (text.isEmpty()) {
+                    throw error("Missing expression.");
+                }
+                if (text.equals(FXMLLoader.NULL_KEYWORD) && !type.isPrimitive()) {
+                    return new Value("null", type);
+                }
+                if (!text.startsWith(FXMLLoader.EXPRESSION_PREFIX)) {
+                    throw unsupported("expression $" + text);
+                }
+            }
+
+            return new Value(literal(text, type), type);
+        }
+
+        private Value stringValue(String expression, Class<?> type) throws LoadException {
+            if (!type.isAssignableFrom(String.class)) {
+                throw unsupported("coercion of a resolved value to " + type.getName());
+            }
+
+            return new Value(expression, String.class);
+        }
+
+        // Emits the Java expression for a string coerced to the given type,
+        // following BeanAdapter.coerce()
+        private String literal(String text, Class<?> type) throws LoadException {
+            try {
+                if (type.isAssignableFrom(String.class)) {
+                    return quote(text);
+                } else if (type == Boolean.class || type == Boolean.TYPE) {
+                    return Boolean.valueOf(text).toString();
+                } else if (type == Character.class || type == Character.TYPE) {
+                    return "'" + escape(text.charAt(0), '\'') + "'";
+                } else if (type == Byte.class || type == Byte.TYPE) {
+                    return "(byte) " + Byte.valueOf(text);
+                } else if (type == Short.class || type == Short.TYPE) {
+                    return "(short) " + Short.valueOf(text);
+                } else if (type == Integer.class || type == Integer.TYPE) {
+                    return Integer.valueOf(text).toString();
+                } else if (type == Long.class || type == Long.TYPE) {
+                    return Long.valueOf(text) + "L";
+                } else if (type == Float.class || type == Float.TYPE) {
+                    return floatLiteral(Float.valueOf(text));
+                } else if (type == Double.class || type == Double.TYPE) {
+                    return doubleLiteral(Double.valueOf(text));
+                } else if (type == Number.class) {
+                    return text.contains(".")
+                            ? "Double.valueOf(" + doubleLiteral(Double.valueOf(text)) + ")"
+                            : "Long.valueOf(" + Long.valueOf(text) + "L)";
+                } else if (type == BigInteger.class) {
+                    return "new java.math.BigInteger(" + quote(new BigInteger(text).toString()) + ")";
+                } else if (type == BigDecimal.class) {
+                    return "new java.math.BigDecimal(" + quote(new BigDecimal(text).toString()) + ")";
+                }
+            } catch (NumberFormatException | IndexOutOfBoundsException exception) {
+                throw error("Cannot coerce \"" + text + "\" to " + type.getName() + ".");
+            }
+
+            Method valueOf = null;
+            for (Class<?> parameterType : new Class<?>[] { String.class, Object.class }) {
+                try {
+                    valueOf = type.getDeclaredMethod("valueOf", parameterType);
+                    break;
+                } catch (NoSuchMethodException exception) {
+                    // No-op
+                }
+            }
+            if (valueOf == null || !Modifier.isStatic(valueOf.getModifiers())
+                    || !isAccessible(valueOf)) {
+                throw unsupported("coercion of \"" + text + "\" to " + type.getName());
+            }
+
+            if (type.isEnum()) {
+                String name = Character.isLowerCase(text.charAt(0)) ? toAllCaps(text) : text;
+                try {
+                    type.getField(name);
+                } catch (NoSuchFieldException exception) {
+                    throw error("No enum constant " + type.getName() + "." + name + ".");
+                }
+                return typeName(type) + "." + name;
+            }
+
+            String expression = typeName(type) + ".valueOf(" + quote(text) + ")";
+            return type.isAssignableFrom(valueOf.getReturnType())
+                    ? expression
+                    : "(" + typeName(type) + ") " + expression;
+        }
+
+        private String defaultLiteral(Class<?> type) throws LoadException {
+            if (type == Boolean.TYPE) {
+                return "false";
+            } else if (type == Character.TYPE) {
+                return "'\\0'";
+            } else if (type.isPrimitive()) {
+                return literal("0", type);
+            }
+            return "null";
+        }
+
+        // Controller
+
+        private void createController(String className) throws LoadException {
+            controllerType = loadClass(className);
+            requireAccessible(controllerType);
+
+            Constructor<?> constructor;
+            try {
+                constructor = controllerType.getDeclaredConstructor();
+            } catch (NoSuchMethodException exception) {
+                throw error(className + " does not have a default constructor.");
+            }
+            if (!isAccessible(constructor)) {
+                throw unsupported("inaccessible controller constructor of " + className);
+            }
+
+            controllerFields = new HashMap<>();
+            parameterlessMethods = new HashMap<>();
+            eventMethods = new HashMap<>();
+            addControllerMembers(controllerType);
+
+            statement("if (loader.getController() != null) {");
+            statement("    throw new javafx.fxml.LoadException(\"Controller value already specified.\");");
+            statement("}");
+            statement("final " + typeName(controllerType) + " controller = new " + typeName(controllerType) + "();");
+            statement("loader.setController(controller);");
+        }
+
+        // Collects the members FXMLLoader makes available to a document: the
+        // public members of public classes and the members annotated with
+        // @FXML, with subclass members taking precedence
+        private void addControllerMembers(Class<?> type) {
+            if (type == Object.class) {
+                return;
+            }
+
+            addControllerMembers(type.getSuperclass());
+
+            boolean isPublicType = Modifier.isPublic(type.getModifiers());
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if ((modifiers & (Modifier.STATIC | Modifier.FINAL)) != 0) {
+                    continue;
+                }
+                if ((!isPublicType || !Modifier.isPublic(modifiers))
+                        && field.getAnnotation(FXML.class) == null) {
+                    continue;
+                }
+                controllerFields.computeIfAbsent(field.getName(), name -> new ArrayList<>(1)).add(field);
+            }
+
+            for (Method method : type.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if ((modifiers & (Modifier.STATIC | Modifier.NATIVE)) != 0) {
+                    continue;
+                }
+                if ((!isPublicType || !Modifier.isPublic(modifiers))
+                        && method.getAnnotation(FXML.class) == null) {
+                    continue;
+                }
+
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                if (parameterTypes.length == 0) {
+                    parameterlessMethods.put(method.getName(), method);
+                } else if (parameterTypes.length == 1 && Event.class.isAssignableFrom(parameterTypes[0])) {
+                    eventMethods.put(method.getName(), method);
+                }
+            }
+        }
+
+        private void injectFields(String name, Value value) throws LoadException {
+            List<Field> fields = controllerFields.get(name);
+            if (fields == null) {
+                return;
+            }
+
+            for (Field field : fields) {
+                if (!isAssignable(field.getType(), value.type)) {
+                    throw error("Cannot inject " + value.type.getName() + " into field "
+                            + field.getDeclaringClass().getName() + "." + name + ".");
+                }
+
+                if (isAccessible(field)) {
+                    statement(controllerExpression(field.getDeclaringClass()) + "." + name
+                            + " = " + value.expression + ";");
+                } else {
+                    usesField = true;
+                    String constant = reflectiveMember("FIELD_" + name, "java.lang.reflect.Field",
+                            "field(" + typeName(field.getDeclaringClass()) + ".class, " + quote(name) + ")");
+                    statement("set(" + constant + ", controller, " + value.expression + ");");
+                }
+            }
+        }
+
+        private void initializeController() throws LoadException {
+            if (Initializable.class.isAssignableFrom(controllerType)) {
+                statement("controller.initialize(location, resources);");
+                return;
+            }
+
+            injectFields(FXMLLoader.LOCATION_KEY, new Value("location", URL.class));
+            injectFields(FXMLLoader.RESOURCES_KEY, new Value("resources", ResourceBundle.class));
+
+            Method initialize = parameterlessMethods.get(INITIALIZE_METHOD_NAME);
+            if (initialize != null) {
+                if (isAccessible(initialize)) {
+                    statement(invoke(initialize, "") + ";");
+                } else {
+                    statement("try {");
+                    statement("    " + invoke(initialize, "") + ";");
+                    statement("} catch (RuntimeException exception) {");
+                    statement("    throw new javafx.fxml.LoadException(exception);");
+                    statement("}");
+                }
+            }
+        }
+
+        private String invoke(Method method, String argument) {
+            if (isAccessible(method)) {
+                return controllerExpression(method.getDeclaringClass()) + "." + method.getName()
+                        + "(" + argument + ")";
+            }
+
+            usesMethod = true;
+            StringBuilder initializer = new StringBuilder("method(")
+                    .append(typeName(method.getDeclaringClass())).append(".class, ")
+                    .append(quote(method.getName()));
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                initializer.append(", ").append(typeName(parameterType)).append(".class");
+            }
+            initializer.append(")");
+
+            String constant = reflectiveMember("METHOD_" + method.getName(), "java.lang.reflect.Method",
+                    initializer.toString());
+            return "invoke(" + constant + ", controller" + (argument.isEmpty() ? "" : ", " + argument) + ")";
+        }
+
+        private String controllerExpression(Class<?> declaringType) {
+            return (declaringType == controllerType)
+                    ? "controller"
+                    : "((" + typeName(declaringType) + ") controller)";
+        }
+
+        private String reflectiveMember(String name, String type, String initializer) {
+            String declaration = type + " %s = " + initializer;
+            for (Map.Entry<String, String> member : reflectiveMembers.entrySet()) {
+                if (member.getValue().equals(String.format(declaration, member.getKey()))) {
+                    return member.getKey();
+                }
+            }
+
+            String constant = name;
+            for (int i = 1; reflectiveMembers.containsKey(constant); i++) {
+                constant = name + "_" + i;
+            }
+            reflectiveMembers.put(constant, String.format(declaration, constant));
+            return constant;
+        }
+
+        // Reflection
+
+        private Class<?> getType(String name) throws LoadException {
+            Class<?> type = classes.get(name);
+            if (type == null) {
+                if (Character.isLowerCase(name.charAt(0))) {
+                    // This is a fully-qualified class name
+                    type = loadClass(name);
+                } else {
+                    for (String packageName : packages) {
+                        type = findClass(packageName + "." + name.replace('.', '$'));
+                        if (type != null) {
+                            break;
+                        }
+                    }
+                    if (type == null) {
+                        throw error(name + " is not a valid type.");
+                    }
+                }
+                classes.put(name, type);
+            }
+            return type;
+        }
+
+        private Class<?> loadClass(String name) throws LoadException {
+            String key = getClassKey(name);
+            String packageName = name.substring(0, name.length() - key.length() - 1);
+            Class<?> type = findClass(packageName + "." + key.replace('.', '$'));
+            if (type == null) {
+                throw error(name + " is not a valid type.");
+            }
+            return type;
+        }
+
+        // Returns the class name part of a fully-qualified name; nested
+        // classes are written with dots, so it starts at the first segment
+        // that does not start with a lower case letter
+        private String getClassKey(String name) throws LoadException {
+            int i = name.indexOf('.');
+            while (i != -1 && i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1))) {
+                i = name.indexOf('.', i + 1);
+            }
+            if (i == -1 || i + 1 == name.length()) {
+                throw error(name + " is not a valid type.");
+            }
+            return name.substring(i + 1);
+        }
+
+        private Class<?> findClass(String name) {
+            try {
+                return Class.forName(name, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError exception) {
+                return null;
+            }
+        }
+
+        private Method getGetter(Class<?> type, String name) throws LoadException {
+            String key = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            Method getter = findPublicMethod(type, "get" + key);
+            if (getter == null) {
+                getter = findPublicMethod(type, "is" + key);
+            }
+            if (getter == null) {
+                throw error("Property \"" + name + "\" does not exist or is read-only.");
+            }
+            return getter;
+        }
+
+        private Method getSetter(Class<?> type, String name, Method getter) {
+            String key = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            return findPublicMethod(type, "set" + key, getter.getReturnType());
+        }
+
+        // Looks up a public instance method the way BeanAdapter does: in
+        // public classes only, starting with the most specific one
+        private Method findPublicMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                if (!Modifier.isPublic(c.getModifiers())) {
+                    continue;
+                }
+                try {
+                    Method method = c.getDeclaredMethod(name, parameterTypes);
+                    int modifiers = method.getModifiers();
+                    if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers)) {
+                        return method;
+                    }
+                } catch (NoSuchMethodException exception) {
+                    // No-op
+                }
+            }
+            return null;
+        }
+
+        private Field getPublicStaticField(Class<?> type, String name) throws LoadException {
+            try {
+                Field field = type.getField(name);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            } catch (NoSuchFieldException exception) {
+                // No-op
+            }
+            throw error(type.getName() + " does not define a constant " + name + ".");
+        }
+
+        private Method getPublicStaticMethod(Class<?> type, String name) throws LoadException {
+            try {
+                Method method = type.getMethod(name);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException exception) {
+                // No-op
+            }
+            throw error(type.getName() + " does not define a factory method " + name + "().");
+        }
+
+        private List<String> getArgumentNames(Constructor<?> constructor) {
+            NamedArg[] namedArgs = getNamedArgs(constructor);
+            if (namedArgs == null || namedArgs.length == 0) {
+                return null;
+            }
+
+            List<String> names = new ArrayList<>(namedArgs.length);
+            for (NamedArg namedArg : namedArgs) {
+                names.add(namedArg.value());
+            }
+            return names;
+        }
+
+        private NamedArg[] getNamedArgs(Constructor<?> constructor) {
+            Annotation[][] annotations = constructor.getParameterAnnotations();
+            NamedArg[] namedArgs = new NamedArg[annotations.length];
+            for (int i = 0; i < annotations.length; i++) {
+                for (Annotation annotation : annotations[i]) {
+                    if (annotation instanceof NamedArg) {
+                        namedArgs[i] = (NamedArg) annotation;
+                    }
+                }
+                if (namedArgs[i] == null) {
+                    return null;
+                }
+            }
+            return namedArgs;
+        }
+
+        private Class<?> getListItemType(Type listType) {
+            Type itemType = BeanAdapter.getGenericListItemType(listType);
+            if (itemType instanceof ParameterizedType) {
+                itemType = ((ParameterizedType) itemType).getRawType();
+            }
+            return (itemType instanceof Class<?>) ? (Class<?>) itemType : Object.class;
+        }
+
+        private Class<?> getEventType(Type handlerType) {
+            if (!(handlerType instanceof ParameterizedType)) {
+                return null;
+            }
+
+            Type eventType = ((ParameterizedType) handlerType).getActualTypeArguments()[0];
+            if (eventType instanceof WildcardType) {
+                WildcardType wildcardType = (WildcardType) eventType;
+                eventType = (wildcardType.getLowerBounds().length > 0)
+                        ? wildcardType.getLowerBounds()[0]
+                        : wildcardType.getUpperBounds()[0];
+            }
+            if (eventType instanceof ParameterizedType) {
+                eventType = ((ParameterizedType) eventType).getRawType();
+            }
+            return (eventType instanceof Class<?>) ? (Class<?>) eventType : null;
+        }
+
+        // Access checks; the generated class lives in the document's package
+
+        private boolean isAccessible(Class<?> type) {
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            if (type.isPrimitive()) {
+                return true;
+            }
+            if (type.getCanonicalName() == null) {
+                return false;
+            }
+
+            for (Class<?> c = type; c != null; c = c.getDeclaringClass()) {
+                int modifiers = c.getModifiers();
+                if (Modifier.isPrivate(modifiers)
+                        || (!Modifier.isPublic(modifiers) && !isInPackage(c))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isAccessible(Member member) {
+            int modifiers = member.getModifiers();
+            if (Modifier.isPrivate(modifiers)) {
+                return false;
+            }
+            if (!Modifier.isPublic(modifiers) && !isInPackage(member.getDeclaringClass())) {
+                return false;
+            }
+            return isAccessible(member.getDeclaringClass());
+        }
+
+        private boolean isInPackage(Class<?> type) {
+            return type.getPackageName().equals(packageName);
+        }
+
+        private void requireAccessible(Class<?> type) throws LoadException {
+            if (!isAccessible(type)) {
+                throw unsupported("inaccessible type " + type.getName());
+            }
+        }
+
+        private void requireSetter(Method setter, String name) throws LoadException {
+            if (setter == null) {
+                throw error("Property \"" + name + "\" does not exist or is read-only.");
+            }
+        }
+
+        private void requireAssignable(Class<?> type, Class<?> valueType) throws LoadException {
+            if (!isAssignable(type, valueType)) {
+                throw error("Cannot assign " + valueType.getName() + " to " + type.getName() + ".");
+            }
+        }
+
+        private boolean isAssignable(Class<?> type, Class<?> valueType) {
+            if (type.isPrimitive()) {
+                return valueType == type || valueType == box(type);
+            }
+            return type.isAssignableFrom(valueType.isPrimitive() ? box(valueType) : valueType);
+        }
+
+        // Code helpers
+
+        private Value declare(Class<?> type, String expression, boolean cast) throws LoadException {
+            requireAccessible(type);
+
+            String simpleName = type.getSimpleName().replace("[]", "Array");
+            String base = Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+            int count = variableCounts.merge(base, 1, Integer::sum) - 1;
+            String name = base + count;
+
+            String typeName = typeName(type);
+            statement("final " + typeName + " " + name + " = "
+                    + (cast ? "(" + typeName + ") " : "") + expression + ";");
+            return new Value(name, type);
+        }
+
+        private void statement(String statement) {
+            code.append("        ").append(statement).append('\n');
+        }
+
+        private LoadException error(String message) {
+            return new LoadException(resourceName + ":" + current.line + ": " + message);
+        }
+
+        private LoadException unsupported(String feature) {
+            return error("Cannot compile " + feature + ".");
+        }
+    }
+
+    private static String validateId(String id) throws LoadException {
+        if (id.equals(FXMLLoader.NULL_KEYWORD)) {
+            throw new LoadException("Invalid identifier.");
+        }
+        for (int i = 0, n = id.length(); i < n; i++) {
+            if (!Character.isJavaIdentifierPart(id.charAt(i))) {
+                throw new LoadException("Invalid identifier.");
+            }
+        }
+        return id;
+    }
+
+    private static String typeName(Class<?> type) {
+        return type.getCanonicalName();
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (type == Boolean.TYPE) {
+            return Boolean.class;
+        } else if (type == Character.TYPE) {
+            return Character.class;
+        } else if (type == Byte.TYPE) {
+            return Byte.class;
+        } else if (type == Short.TYPE) {
+            return Short.class;
+        } else if (type == Integer.TYPE) {
+            return Integer.class;
+        } else if (type == Long.TYPE) {
+            return Long.class;
+        } else if (type == Float.TYPE) {
+            return Float.class;
+        } else if (type == Double.TYPE) {
+            return Double.class;
+        }
+        return type;
+    }
+
+    private static String normalize(String text) {
+        return extraneousWhitespacePattern.matcher(text).replaceAll(" ");
+    }
+
+    private static String toAllCaps(String value) {
+        StringBuilder allCapsBuilder = new StringBuilder();
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (Character.isUpperCase(c)) {
+                allCapsBuilder.append('_');
+            }
+            allCapsBuilder.append(Character.toUpperCase(c));
+        }
+        return allCapsBuilder.toString();
+    }
+
+    private static String doubleLiteral(double value) {
+        if (Double.isNaN(value)) {
+            return "Double.NaN";
+        } else if (Double.isInfinite(value)) {
+            return (value > 0) ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+        }
+        return Double.toString(value);
+    }
+
+    private static String floatLiteral(float value) {
+        if (Float.isNaN(value)) {
+            return "Float.NaN";
+        } else if (Float.isInfinite(value)) {
+            return (value > 0) ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+        }
+        return Float.toString(value) + "f";
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0, n = text.length(); i < n; i++) {
+            quoted.append(escape(text.charAt(i), '"'));
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String escape(char c, char quote) {
+        switch (c) {
+            case '\\': return "\\\\";
+            case '\n': return "\\n";
+            case '\r': return "\\r";
+            case '\t': return "\\t";
+            default:
+                if (c == quote) {
+                    return "\\" + c;
+                }
+                if (c < 0x20 || c > 0x7e) {
+                    return String.format("\\u%04x", (int) c);
+                }
+                return String.valueOf(c);
+        }
+    }
+
+    /**
+     * Compiles the FXML documents below the given source directories.
+     *
+     * @param args the command line arguments
+     * @throws IOException if a document cannot be read or a class cannot be
+     * written
+     */
+    public static void main(String[] args) throws IOException {
+        Path outputDirectory = Paths.get(".");
+        boolean strict = false;
+        List<Path> sourceDirectories = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-d") && i + 1 < args.length) {
+                outputDirectory = Paths.get(args[++i]);
+            } else if (args[i].equals("-strict")) {
+                strict = true;
+            } else if (args[i].startsWith("-")) {
+                System.err.println("Usage: FXMLCompiler [-d <output directory>] [-strict] <source directory>...");
+                System.exit(2);
+            } else {
+                sourceDirectories.add(Paths.get(args[i]));
+            }
+        }
+
+        FXMLCompiler compiler = new FXMLCompiler(Thread.currentThread().getContextClassLoader());
+        int failures = 0;
+        for (Path sourceDirectory : sourceDirectories) {
+            List<Path> documents;
+            try (Stream<Path> files = Files.walk(sourceDirectory)) {
+                documents = files.filter(file -> file.toString().endsWith(".fxml"))
+                                 .sorted()
+                                 .collect(Collectors.toList());
+            }
+
+            for (Path document : documents) {
+                String resourceName = sourceDirectory.relativize(document).toString()
+                        .replace(document.getFileSystem().getSeparator(), "/");
+                String source;
+                try (InputStream inputStream = Files.newInputStream(document)) {
+                    source = compiler.compile(resourceName, inputStream);
+                } catch (LoadException exception) {
+                    System.err.println("warning: " + exception.getMessage());
+                    failures++;
+                    continue;
+                }
+
+                String className = CompiledFXMLRegistry.getClassName(resourceName);
+                Path file = outputDirectory.resolve(className.replace('.', '/') + ".java");
+                Files.createDirectories(file.getParent());
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    writer.write(source);
+                }
+            }
+        }
+
+        if (strict && failures > 0) {
+            System.exit(1);
+        }
+    }
+}
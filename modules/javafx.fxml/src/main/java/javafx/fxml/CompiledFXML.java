@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.fxml;
+
+import java.io.IOException;
+
+/**
+ * An FXML document that has been compiled ahead of time into Java code.
+ * <p>
+ * The FXML compiler emits one implementation of this interface for each
+ * document it compiles. When {@link FXMLLoader#load()} is asked to load a
+ * document from a location that is also a resource of the loader's class
+ * loader, for example {@code com/example/main.fxml}, it first looks for a
+ * public class named {@code com.example.mainFXML} that implements this
+ * interface and, if one is found, creates the object hierarchy by calling
+ * {@link #load(FXMLLoader)} instead of parsing the document.
+ * <p>
+ * The compiled form is only used when the loader has no controller, controller
+ * factory or load listener, uses the default builder factory, and is not in
+ * static load mode, and only if the class was generated from the current
+ * content of the document; in every other case the document is parsed as usual.
+ * Setting the {@code javafx.fxml.compiled} system property to {@code false}
+ * disables the lookup altogether.
+ *
+ * @since 18
+ */
+public interface CompiledFXML {
+    /**
+     * Creates the object hierarchy described by the compiled document. The
+     * implementation populates the loader's namespace and sets its controller
+     * exactly as {@link FXMLLoader} would have done while parsing the
+     * document.
+     *
+     * @param loader the loader on whose behalf the document is loaded
+     * @return the root of the object hierarchy
+     * @throws IOException if an error occurs while creating the hierarchy
+     */
+    public Object load(FXMLLoader loader) throws IOException;
+}
@@ -84,6 +84,7 @@ import com.sun.javafx.fxml.expression.Expression;
 import com.sun.javafx.fxml.expression.ExpressionValue;
 import com.sun.javafx.fxml.expression.KeyPath;
 import static com.sun.javafx.FXPermissions.MODIFY_FXML_CLASS_LOADER_PERMISSION;
+import com.sun.javafx.fxml.CompiledFXMLRegistry;
 import com.sun.javafx.fxml.FXMLLoaderHelper;
 import com.sun.javafx.fxml.MethodHelper;
 import java.net.MalformedURLException;
@@ -2503,7 +2504,9 @@ public class FXMLLoader {
     /**
      * Loads an object hierarchy from a FXML document. The location from which
      * the document will be loaded must have been set by a prior call to
-     * {@link #setLocation(URL)}.
+     * {@link #setLocation(URL)}. If the document has been compiled ahead of
+     * time into a {@link CompiledFXML}, the compiled form is used instead of
+     * parsing the document.
      *
      * @param <T> the type of the root object
      * @throws IOException if an error occurs during loading
@@ -2541,6 +2544,12 @@ public class FXMLLoader {
             throw new IllegalStateException("Location is not set.");
         }
 
+        // Use the ahead-of-time compiled form of the document, if there is one
+        CompiledFXML compiledFXML = getCompiledFXML(callerClass);
+        if (compiledFXML != null) {
+            return loadCompiled(compiledFXML);
+        }
+
         InputStream inputStream = null;
         T value;
         try {
@@ -2555,6 +2564,37 @@ public class FXMLLoader {
         return value;
     }
 
+    private CompiledFXML getCompiledFXML(Class<?> callerClass) {
+        // The compiled form reproduces the default behavior of the loader
+        // only; anything that customizes the parsing requires the document
+        if (callerClass != null
+                || controller != null
+                || controllerFactory != null
+                || loadListener != null
+                || staticLoad
+                || (builderFactory != null && !(builderFactory instanceof JavaFXBuilderFactory))) {
+            return null;
+        }
+
+        return CompiledFXMLRegistry.lookup(location, getClassLoader());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadCompiled(CompiledFXML compiledFXML) throws IOException {
+        loaders.push(this);
+        try {
+            root = compiledFXML.load(this);
+        } catch (final LoadException exception) {
+            throw exception;
+        } catch (final Exception exception) {
+            throw constructLoadException(exception);
+        } finally {
+            loaders.pop();
+        }
+
+        return (T)root;
+    }
+
     @SuppressWarnings({ "dep-ann", "unchecked" })
     private <T> T loadImpl(InputStream inputStream,
                            Class<?> callerClass) throws IOException {
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.fxml.compiler;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+
+public class CompilerTestController {
+    public VBox root;
+    public Button button;
+    @FXML Label title;
+    @FXML GridPane grid;
+    @FXML protected TextField field;
+    @FXML private Button secretButton;
+
+    @FXML private URL location;
+    @FXML private ResourceBundle resources;
+
+    public int actions;
+    public int secretActions;
+    public boolean initialized;
+
+    @FXML
+    private void initialize() {
+        initialized = true;
+    }
+
+    @FXML
+    void handleAction(ActionEvent event) {
+        actions++;
+    }
+
+    @FXML
+    private void handleSecret() {
+        secretActions++;
+    }
+
+    public Label getTitle() {
+        return title;
+    }
+
+    public Button getSecretButton() {
+        return secretButton;
+    }
+
+    public URL getLocation() {
+        return location;
+    }
+
+    public ResourceBundle getResources() {
+        return resources;
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.fxml.compiler;
+
+import com.sun.javafx.fxml.CompiledFXMLRegistry;
+import com.sun.javafx.fxml.compiler.FXMLCompiler;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.ResourceBundle;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import javafx.fxml.FXMLLoader;
+import javafx.fxml.LoadException;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import test.util.memory.JMemoryBuddy;
+import static org.junit.Assert.*;
+
+public class FXMLCompilerTest {
+    private static final String PACKAGE_NAME = "test.com.sun.javafx.fxml.compiler";
+    private static final String DOCUMENT = "test/com/sun/javafx/fxml/compiler/compiler_test.fxml";
+
+    private static final ResourceBundle RESOURCES = new ListResourceBundle() {
+        @Override
+        protected Object[][] getContents() {
+            return new Object[][] { { "title", "Localized" } };
+        }
+    };
+
+    private Path outputDirectory;
+    private TestClassLoader classLoader;
+
+    @Before
+    public void setUp() throws IOException {
+        outputDirectory = Files.createTempDirectory("fxmlc");
+        classLoader = new TestClassLoader(outputDirectory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testClassName() {
+        assertEquals("com.example.mainFXML", CompiledFXMLRegistry.getClassName("com/example/main.fxml"));
+        assertEquals("com.example.main_viewFXML", CompiledFXMLRegistry.getClassName("/com/example/main-view.fxml"));
+        assertEquals("_1stFXML", CompiledFXMLRegistry.getClassName("1st.fxml"));
+    }
+
+    @Test
+    public void testGeneratedSourceUsesPlainCalls() throws IOException {
+        String source = compile(DOCUMENT);
+
+        assertTrue(source.contains("package " + PACKAGE_NAME + ";"));
+        assertTrue(source.contains("public final class compiler_testFXML implements javafx.fxml.CompiledFXML"));
+        assertTrue(source.contains("public static final String SOURCE_DIGEST = \""));
+        assertTrue(source.contains("new javafx.scene.control.Button()"));
+        assertTrue(source.contains(".setPrefWidth(120.5);"));
+        assertTrue(source.contains(".setAlignment(javafx.geometry.Pos.CENTER_LEFT);"));
+        assertTrue(source.contains("javafx.scene.layout.GridPane.setRowIndex("));
+        assertTrue(source.contains("new javafx.geometry.Insets(1.0, 0.0, 0.0, 2.0)"));
+        // Accessible members are used directly, private ones reflectively
+        assertTrue(source.contains("controller.title = "));
+        assertTrue(source.contains("field(test.com.sun.javafx.fxml.compiler.CompilerTestController.class, \"secretButton\")"));
+        assertFalse(source.contains("getDeclaredField(\"title\")"));
+    }
+
+    @Test
+    public void testUnsupportedDocumentsAreRejected() throws IOException {
+        for (String document : List.of("compiler_include.fxml", "compiler_binding.fxml")) {
+            try {
+                compile("test/com/sun/javafx/fxml/compiler/" + document);
+                fail(document + " should not compile");
+            } catch (LoadException exception) {
+                assertTrue(exception.getMessage(), exception.getMessage().contains("Cannot compile"));
+            }
+        }
+    }
+
+    @Test
+    public void testCompiledDocumentMatchesParsedDocument() throws Exception {
+        compileToClass(DOCUMENT, source -> source);
+
+        URL location = classLoader.getResource(DOCUMENT);
+        assertNotNull(CompiledFXMLRegistry.lookup(location, classLoader));
+
+        FXMLLoader compiledLoader = createLoader(location);
+        VBox compiled = compiledLoader.load();
+
+        // The controller factory disables the compiled form
+        FXMLLoader parsedLoader = createLoader(location);
+        parsedLoader.setControllerFactory(type -> {
+            try {
+                return type.getConstructor().newInstance();
+            } catch (ReflectiveOperationException exception) {
+                throw new RuntimeException(exception);
+            }
+        });
+        VBox parsed = parsedLoader.load();
+
+        for (VBox root : List.of(compiled, parsed)) {
+            assertEquals(4, root.getSpacing(), 0);
+            assertEquals(Pos.CENTER_LEFT, root.getAlignment());
+            assertEquals(List.of("main", "compiled"), root.getStyleClass());
+            assertEquals(new Insets(1, 0, 0, 2), root.getPadding());
+            assertEquals("root", root.getId());
+            assertEquals(5, root.getChildren().size());
+
+            Label title = (Label) root.getChildren().get(0);
+            assertEquals("Localized", title.getText());
+            assertEquals(Priority.ALWAYS, VBox.getVgrow(title));
+
+            Button button = (Button) root.getChildren().get(1);
+            assertEquals("%escaped", button.getText());
+            assertEquals(120.5, button.getPrefWidth(), 0);
+            assertTrue(button.isDefaultButton());
+
+            GridPane grid = (GridPane) root.getChildren().get(3);
+            assertEquals(new Insets(5, 0, 0, 0), VBox.getMargin(grid));
+            Node cell = grid.getChildren().get(0);
+            assertEquals(Integer.valueOf(1), GridPane.getRowIndex(cell));
+            assertEquals(Integer.valueOf(2), GridPane.getColumnIndex(cell));
+
+            TextField field = (TextField) root.getChildren().get(4);
+            assertEquals("Plain", field.getText());
+            assertTrue(field.getStyleClass().contains("extra"));
+        }
+
+        for (FXMLLoader loader : List.of(compiledLoader, parsedLoader)) {
+            Object controller = loader.getController();
+            VBox root = loader.getRoot();
+            assertSame(root, get(controller, "root"));
+            assertSame(root.getChildren().get(0), get(controller, "getTitle"));
+            assertSame(root.getChildren().get(1), get(controller, "button"));
+            assertSame(root.getChildren().get(2), get(controller, "getSecretButton"));
+            assertSame(root.getChildren().get(3), get(controller, "grid"));
+            assertSame(root.getChildren().get(4), get(controller, "field"));
+            assertEquals(location, get(controller, "getLocation"));
+            assertSame(RESOURCES, get(controller, "getResources"));
+            assertEquals(Boolean.TRUE, get(controller, "initialized"));
+            assertSame(root.getChildren().get(1), loader.getNamespace().get("button"));
+            assertSame(controller, loader.getNamespace().get("controller"));
+
+            ((Button) root.getChildren().get(1)).fire();
+            ((Button) root.getChildren().get(2)).fire();
+            ((Button) root.getChildren().get(2)).fire();
+            assertEquals(1, get(controller, "actions"));
+            assertEquals(2, get(controller, "secretActions"));
+        }
+    }
+
+    @Test
+    public void testLoaderUsesCompiledClass() throws Exception {
+        // Make the compiled form distinguishable from the document
+        compileToClass(DOCUMENT, source -> source.replace("\"Plain\"", "\"Compiled\""));
+
+        URL location = classLoader.getResource(DOCUMENT);
+        VBox compiled = createLoader(location).load();
+        assertEquals("Compiled", ((TextField) compiled.getChildren().get(4)).getText());
+
+        // A preset controller requires the document
+        FXMLLoader loader = createLoader(location);
+        loader.setController(new Object());
+        try {
+            loader.load();
+            fail("fx:controller should conflict with the preset controller");
+        } catch (LoadException exception) {
+            assertTrue(exception.getMessage().contains("Controller value already specified."));
+        }
+    }
+
+    @Test
+    public void testLookupDoesNotRetainClassLoader() throws Exception {
+        compileToClass(DOCUMENT, source -> source);
+
+        URL location = classLoader.getResource(DOCUMENT);
+        assertNotNull(CompiledFXMLRegistry.lookup(location, classLoader));
+        assertNotNull(CompiledFXMLRegistry.lookup(location, classLoader));
+
+        WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+        classLoader = null;
+        JMemoryBuddy.assertCollectable(reference);
+    }
+
+    @Test
+    public void testLoaderIgnoresCompiledClassOfChangedDocument() throws Exception {
+        // Use a copy of the document, so that it can change after compiling
+        Path document = outputDirectory.resolve(DOCUMENT);
+        Files.createDirectories(document.getParent());
+        try (InputStream inputStream = FXMLCompilerTest.class.getClassLoader().getResourceAsStream(DOCUMENT)) {
+            Files.copy(inputStream, document);
+        }
+        compileToClass(DOCUMENT, source -> source);
+
+        URL location = classLoader.getResource(DOCUMENT);
+        assertEquals(document.toUri().toURL(), location);
+        assertNotNull(CompiledFXMLRegistry.lookup(location, classLoader));
+
+        String content = Files.readString(document, StandardCharsets.UTF_8);
+        Files.writeString(document, content.replace(">Plain<", ">Changed<"), StandardCharsets.UTF_8);
+
+        // Lookups are cached per class loader
+        classLoader = new TestClassLoader(outputDirectory);
+        assertNull(CompiledFXMLRegistry.lookup(location, classLoader));
+
+        VBox parsed = createLoader(location).load();
+        assertEquals("Changed", ((TextField) parsed.getChildren().get(4)).getText());
+    }
+
+    @Test
+    public void testLoaderWithoutCompiledClassParsesDocument() throws IOException {
+        URL location = classLoader.getResource(DOCUMENT);
+        assertNull(CompiledFXMLRegistry.lookup(location, classLoader));
+
+        VBox parsed = createLoader(location).load();
+        assertEquals("Plain", ((TextField) parsed.getChildren().get(4)).getText());
+    }
+
+    private FXMLLoader createLoader(URL location) {
+        FXMLLoader loader = new FXMLLoader(location, RESOURCES);
+        loader.setClassLoader(classLoader);
+        return loader;
+    }
+
+    private String compile(String document) throws IOException {
+        try (InputStream inputStream = classLoader.getResourceAsStream(document)) {
+            return new FXMLCompiler(classLoader).compile(document, inputStream);
+        }
+    }
+
+    private void compileToClass(String document, UnaryOperator<String> edit) throws IOException {
+        String className = CompiledFXMLRegistry.getClassName(document);
+        Path sourceFile = outputDirectory.resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, edit.apply(compile(document)), StandardCharsets.UTF_8);
+
+        List<String> options = new ArrayList<>(List.of(
+                "-d", outputDirectory.toString(),
+                "-classpath", System.getProperty("java.class.path")));
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            options.addAll(List.of("--module-path", modulePath,
+                    "--add-modules", "javafx.controls,javafx.fxml"));
+        }
+        options.add(sourceFile.toString());
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = javac.run(null, null, errors, options.toArray(new String[0]));
+        assertEquals("javac failed: " + errors, 0, result);
+    }
+
+    private static Object get(Object controller, String member) throws ReflectiveOperationException {
+        Class<?> type = controller.getClass();
+        if (member.startsWith("get")) {
+            return type.getMethod(member).invoke(controller);
+        }
+        java.lang.reflect.Field field = type.getDeclaredField(member);
+        field.setAccessible(true);
+        return field.get(controller);
+    }
+
+    /**
+     * Loads the controller and the generated class into the same runtime
+     * package, so that the generated class can access package private
+     * members of the controller.
+     */
+    private static final class TestClassLoader extends ClassLoader {
+        private final Path outputDirectory;
+
+        TestClassLoader(Path outputDirectory) {
+            super(FXMLCompilerTest.class.getClassLoader());
+            this.outputDirectory = outputDirectory;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(CompilerTestController.class.getName())
+                    && !name.startsWith(PACKAGE_NAME + ".compiler_")) {
+                return super.loadClass(name, resolve);
+            }
+
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    String path = name.replace('.', '/') + ".class";
+                    Path file = outputDirectory.resolve(path);
+                    byte[] bytes;
+                    try (InputStream inputStream = Files.exists(file)
+                            ? Files.newInputStream(file)
+                            : getParent().getResourceAsStream(path)) {
+                        if (inputStream == null) {
+                            throw new ClassNotFoundException(name);
+                        }
+                        bytes = inputStream.readAllBytes();
+                    } catch (IOException exception) {
+                        throw new ClassNotFoundException(name, exception);
+                    }
+                    type = defineClass(name, bytes, 0, bytes.length);
+                }
+                return type;
+            }
+        }
+
+        @Override
+        public URL getResource(String name) {
+            // Documents in the output directory take precedence
+            URL resource = findResource(name);
+            return (resource != null) ? resource : super.getResource(name);
+        }
+
+        @Override
+        protected URL findResource(String name) {
+            Path file = outputDirectory.resolve(name);
+            try {
+                return Files.exists(file) ? file.toUri().toURL() : null;
+            } catch (MalformedURLException exception) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import javafx.css.CompoundSelector;
+import javafx.css.Selector;
+import javafx.css.SimpleSelector;
+import javafx.css.StyleClass;
+import javafx.css.Styleable;
+
+import java.util.List;
+
+/**
+ * A bloom filter over the type selectors, ids and style classes of the
+ * ancestors of a Styleable, used to reject compound selectors such as
+ * {@code .tree-cell .arrow} without walking up the scene graph.
+ * <p>
+ * A compound selector can only apply to a node if every part but the
+ * right-most one matches some ancestor of the node, whatever the combinator.
+ * The type, id and style classes that these parts require are hashed into
+ * bits once per selector. The ancestors of a node are hashed into bits once
+ * per node, and a selector whose bits are not all present among the
+ * ancestor bits cannot apply. The converse does not hold, so selectors that
+ * pass the filter still have to be checked with
+ * {@link Selector#applies(Styleable, java.util.Set, int)}.
+ */
+public final class AncestorFilter {
+
+    private AncestorFilter() {
+    }
+
+    /* The filter has 1 << LOG2_SIZE bits */
+    private static final int LOG2_SIZE = 8;
+    private static final int LENGTH = (1 << LOG2_SIZE) / Long.SIZE;
+
+    /* Keep types, ids and style classes with the same name apart */
+    private static final int TYPE_SALT = 0x1F3D5B79;
+    private static final int ID_SALT = 0x2C1B3C6D;
+    private static final int STYLECLASS_SALT = 0;
+
+    /**
+     * Get the bits that the ancestors of a node need to have for the given
+     * selector to apply to the node.
+     *
+     * @param selector the selector
+     * @return the required bits, or null if the selector places no
+     * requirements on the ancestors of a node
+     */
+    public static long[] getRequiredBits(Selector selector) {
+        if (!(selector instanceof CompoundSelector)) {
+            return null;
+        }
+
+        final List<SimpleSelector> selectors = ((CompoundSelector)selector).getSelectors();
+        long[] bits = null;
+        // the right-most selector is matched against the node itself
+        for (int n = 0, nMax = selectors.size() - 1; n < nMax; n++) {
+            final SimpleSelector simpleSelector = selectors.get(n);
+
+            final String name = simpleSelector.getName();
+            if (name != null && !name.isEmpty() && !"*".equals(name)) {
+                bits = set(bits, TYPE_SALT, name);
+            }
+
+            final String id = simpleSelector.getId();
+            if (id != null && !id.isEmpty()) {
+                bits = set(bits, ID_SALT, id);
+            }
+
+            for (StyleClass styleClass : simpleSelector.getStyleClassSet()) {
+                bits = set(bits, STYLECLASS_SALT, styleClass.getStyleClassName());
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Get the bits of the ancestors of the given Styleable. The Styleable
+     * itself is not included.
+     *
+     * @param styleable the styleable
+     * @return the bits of the ancestors of the styleable
+     */
+    public static long[] getAncestorBits(Styleable styleable) {
+        long[] bits = new long[LENGTH];
+        Styleable parent = styleable.getStyleableParent();
+        while (parent != null) {
+            final String name = parent.getTypeSelector();
+            if (name != null && !name.isEmpty()) {
+                set(bits, TYPE_SALT, name);
+            }
+
+            final String id = parent.getId();
+            if (id != null && !id.isEmpty()) {
+                set(bits, ID_SALT, id);
+            }
+
+            final List<String> styleClasses = parent.getStyleClass();
+            for (int n = 0, nMax = styleClasses.size(); n < nMax; n++) {
+                final String styleClass = styleClasses.get(n);
+                if (styleClass == null || styleClass.isEmpty()) continue;
+                set(bits, STYLECLASS_SALT, styleClass);
+            }
+
+            parent = parent.getStyleableParent();
+        }
+        return bits;
+    }
+
+    /**
+     * Test whether a selector with the given required bits might apply to a
+     * node with the given ancestor bits.
+     *
+     * @param ancestorBits the bits of the ancestors of a node
+     * @param requiredBits the bits required by a selector, or null
+     * @return false if the selector cannot apply, true otherwise
+     */
+    public static boolean mayApply(long[] ancestorBits, long[] requiredBits) {
+        if (requiredBits == null) {
+            return true;
+        }
+        for (int n = 0; n < LENGTH; n++) {
+            if ((requiredBits[n] & ~ancestorBits[n]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] set(long[] bits, int salt, String name) {
+        if (bits == null) {
+            bits = new long[LENGTH];
+        }
+        final int bit = ((name.hashCode() ^ salt) * 0x9E3779B9) >>> (Integer.SIZE - LOG2_SIZE);
+        bits[bit / Long.SIZE] |= 1L << bit;
+        return bits;
+    }
+}
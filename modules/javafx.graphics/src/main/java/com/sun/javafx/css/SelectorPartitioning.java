@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2015, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -105,11 +106,14 @@ public final class SelectorPartitioning {
 
         private final PartitionKey key;
         private final Map<PartitionKey, Slot> slots;
+        // The style class Slots of this Partition, see StyleClassIndex
+        private final StyleClassIndex styleClassSlots;
         private List<Selector> selectors;
 
         private Partition(PartitionKey key) {
            this.key = key;
             slots = new HashMap<PartitionKey,Slot>();
+            styleClassSlots = new StyleClassIndex();
         }
 
         private void addSelector(Selector pair) {
@@ -130,6 +134,9 @@ public final class SelectorPartitioning {
                 Partition partition = getPartition(id,map);
                 slot = new Slot(partition);
                 slots.put(id, slot);
+                if (id.key instanceof Set) {
+                    styleClassSlots.add(slot);
+                }
             }
             return slot;
         }
@@ -148,12 +155,16 @@ public final class SelectorPartitioning {
         // The other Slots to which this Slot refers
         private final Map<PartitionKey, Slot> referents;
 
+        // The style class Slots among the referents, see StyleClassIndex
+        private final StyleClassIndex styleClassReferents;
+
         // Selectors that match the path to this slot
         private List<Selector> selectors;
 
         private Slot(Partition partition) {
             this.partition = partition;
             this.referents = new HashMap<PartitionKey, Slot>();
+            this.styleClassReferents = new StyleClassIndex();
         }
 
         private void addSelector(Selector pair) {
@@ -174,6 +185,9 @@ public final class SelectorPartitioning {
                 Partition p = getPartition(id, map);
                 slot = new Slot(p);
                 referents.put(id, slot);
+                if (id.key instanceof Set) {
+                    styleClassReferents.add(slot);
+                }
 
             }
             return slot;
@@ -181,6 +195,60 @@ public final class SelectorPartitioning {
 
     }
 
+    /**
+     * Slots for style classes, filed under one of the style classes of the
+     * Slot's Partition. A node can only match the selectors of such a Slot if
+     * the node has all of the Slot's style classes, so matching only needs to
+     * look at the Slots filed under the node's own style classes. Without the
+     * index, every style class Slot of a Partition would have to be checked,
+     * and the wildcard Partition of a typical stylesheet has hundreds of them.
+     */
+    private static final class StyleClassIndex {
+
+        private final Map<StyleClass, List<Slot>> slots = new HashMap<>();
+
+        private void add(Slot slot) {
+            final Set<StyleClass> styleClasses = (Set<StyleClass>)slot.partition.key.key;
+            // Any of the Slot's style classes will do since the node needs
+            // all of them. StyleClass instances are unique, so identity
+            // equality is fine for the key. Note that the StyleClassSet
+            // iterator only advances in hasNext().
+            final Iterator<StyleClass> iterator = styleClasses.iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            final StyleClass styleClass = iterator.next();
+            List<Slot> list = slots.get(styleClass);
+            if (list == null) {
+                list = new ArrayList<>(2);
+                slots.put(styleClass, list);
+            }
+            list.add(slot);
+        }
+
+        /*
+         * Add the selectors of the Slots whose style classes are all
+         * contained in the given set of style classes.
+         */
+        private void match(Set<StyleClass> styleClasses, List<Selector> selectors) {
+            if (slots.isEmpty()) {
+                return;
+            }
+            for (StyleClass styleClass : styleClasses) {
+                final List<Slot> list = slots.get(styleClass);
+                if (list == null) continue;
+                for (int n = 0, nMax = list.size(); n < nMax; n++) {
+                    final Slot s = list.get(n);
+                    if (s.selectors == null || s.selectors.isEmpty()) continue;
+                    final Set<StyleClass> other = (Set<StyleClass>)s.partition.key.key;
+                    if (styleClasses.containsAll(other)) {
+                        selectors.addAll(s.selectors);
+                    }
+                }
+            }
+        }
+    }
+
     /* A Map for selectors that have an id */
     private final Map<PartitionKey, Partition> idMap = new HashMap<PartitionKey,Partition>();
 
@@ -355,13 +423,7 @@ public final class SelectorPartitioning {
                                 }
                                 if ((c & STYLECLASS_BIT) == STYLECLASS_BIT) {
                                     Set<StyleClass> key = (Set<StyleClass>)styleClassKey.key;
-                                    for (Slot s : slot.referents.values()) {
-                                        if (s.selectors == null || s.selectors.isEmpty()) continue;
-                                        Set<StyleClass> other = (Set<StyleClass>)s.partition.key.key;
-                                        if (key.containsAll(other)) {
-                                            selectors.addAll(s.selectors);
-                                        }
-                                    }
+                                    slot.styleClassReferents.match(key, selectors);
                                 }
 
                             }
@@ -397,13 +459,7 @@ public final class SelectorPartitioning {
                             }
                             if ((c & STYLECLASS_BIT) == STYLECLASS_BIT) {
                                 Set<StyleClass> key = (Set<StyleClass>)styleClassKey.key;
-                                for (Slot s : partition.slots.values()) {
-                                    if (s.selectors == null || s.selectors.isEmpty()) continue;
-                                    Set<StyleClass> other = (Set<StyleClass>)s.partition.key.key;
-                                    if (key.containsAll(other)) {
-                                        selectors.addAll(s.selectors);
-                                    }
-                                }
+                                partition.styleClassSlots.match(key, selectors);
                             }
                         }
                         // if typePK is 'A', make it '*', if it is '*' make it null
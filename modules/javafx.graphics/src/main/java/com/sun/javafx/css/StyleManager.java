@@ -1121,7 +1121,7 @@ final public class StyleManager {
                     DataURI dataUri = null;
 
                     if (url != null) {
-                        stylesheet = new CssParser().parse(url);
+                        stylesheet = StylesheetCache.parse(url);
                     } else {
                         dataUri = DataURI.tryParse(fname);
                     }
@@ -2187,10 +2187,17 @@ final public class StyleManager {
         // list of selectors will be in the same order in which the selectors
         // appear in the stylesheets.
         private final List<Selector> selectors;
+        // The AncestorFilter bits required by each of the selectors
+        private final long[][] requiredAncestorBits;
         private final Map<Key, Integer> cache;
 
         Cache(List<Selector> selectors) {
             this.selectors = selectors;
+            final int nSelectors = selectors != null ? selectors.size() : 0;
+            this.requiredAncestorBits = new long[nSelectors][];
+            for (int s = 0; s < nSelectors; s++) {
+                requiredAncestorBits[s] = AncestorFilter.getRequiredBits(selectors.get(s));
+            }
             this.cache = new HashMap<Key, Integer>();
         }
 
@@ -2216,10 +2223,29 @@ final public class StyleManager {
             long key[] = new long[selectorDataSize/Long.SIZE + 1];
             boolean nothingMatched = true;
 
+            // Bits of the node's ancestors, computed when the first
+            // compound selector is checked.
+            long[] ancestorBits = null;
+
             for (int s = 0; s < selectorDataSize; s++) {
 
                 final Selector sel = selectors.get(s);
 
+                //
+                // A compound selector whose ancestor parts are not found among
+                // the node's ancestors cannot apply, so don't walk up the scene
+                // graph for it.
+                //
+                final long[] requiredBits = requiredAncestorBits[s];
+                if (requiredBits != null) {
+                    if (ancestorBits == null) {
+                        ancestorBits = AncestorFilter.getAncestorBits(node);
+                    }
+                    if (!AncestorFilter.mayApply(ancestorBits, requiredBits)) {
+                        continue;
+                    }
+                }
+
                 //
                 // This particular flavor of applies takes a PseudoClassState[]
                 // fills in the pseudo-class states from the selectors where
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.css;
+
+import com.sun.javafx.logging.PlatformLogger;
+import com.sun.javafx.logging.PlatformLogger.Level;
+import com.sun.javafx.runtime.VersionInfo;
+import com.sun.javafx.util.Logging;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import javafx.css.CssParser;
+import javafx.css.Stylesheet;
+
+/**
+ * A persistent cache of parsed stylesheets, kept on disk in binary css form.
+ * <p>
+ * The cache is enabled with {@code -Djavafx.css.cache=true}, in which case the
+ * files are stored in the {@code css} subdirectory of the JavaFX cache directory
+ * ({@code javafx.cachedir} or {@code ~/.openjfx/cache/<version>}), or with
+ * {@code -Djavafx.css.cache=<directory>}.
+ * <p>
+ * An entry is keyed by a hash of the JavaFX runtime version, the binary css
+ * version, the URL of the stylesheet and the content of the stylesheet, so a
+ * modified stylesheet or a different runtime never reads a stale entry.
+ * Stylesheets with an {@code @import} are not cached since the imported
+ * stylesheets are merged into them when they are parsed. The cache is also
+ * bypassed while css errors are collected, so that no parse error goes
+ * unreported.
+ */
+final class StylesheetCache {
+
+    private static final File cacheDir = initCacheDir();
+
+    private static final byte[] IMPORT = "@import".getBytes(StandardCharsets.US_ASCII);
+
+    private StylesheetCache() {
+    }
+
+    @SuppressWarnings("removal")
+    private static File initCacheDir() {
+        return AccessController.doPrivileged((PrivilegedAction<File>) () -> {
+            final String cache = System.getProperty("javafx.css.cache");
+            if (cache == null || cache.isEmpty() || "false".equalsIgnoreCase(cache)) {
+                return null;
+            }
+            if (!"true".equalsIgnoreCase(cache)) {
+                return new File(cache);
+            }
+            String userCache = System.getProperty("javafx.cachedir", "");
+            if (userCache.isEmpty()) {
+                String jfxVersion = System.getProperty("javafx.version", "versionless");
+                userCache = System.getProperty("user.home") + "/.openjfx/cache/" + jfxVersion;
+            }
+            return new File(userCache, "css");
+        });
+    }
+
+    static boolean isEnabled() {
+        return cacheDir != null && StyleManager.getErrors() == null;
+    }
+
+    /**
+     * Parses the stylesheet at the given url, or loads it from the cache
+     * if it was parsed before.
+     *
+     * @param url the url of the stylesheet
+     * @return the parsed stylesheet
+     * @throws IOException if the stylesheet cannot be read
+     */
+    static Stylesheet parse(URL url) throws IOException {
+        if (!isEnabled()) {
+            return new CssParser().parse(url);
+        }
+        return parse(url, cacheDir);
+    }
+
+    static Stylesheet parse(URL url, File cacheDir) throws IOException {
+
+        final byte[] content;
+        try (InputStream stream = url.openStream()) {
+            content = stream.readAllBytes();
+        }
+        final String path = url.toExternalForm();
+        // read the content the way CssParser.parse(URL) does
+        final String text = new String(content, Charset.defaultCharset());
+        if (indexOf(content, IMPORT) >= 0) {
+            return new CssParser().parse(path, text);
+        }
+
+        final File file = new File(cacheDir, key(path, content) + ".bss");
+        if (file.isFile()) {
+            try (InputStream stream = new FileInputStream(file)) {
+                return StylesheetHelper.loadBinary(stream, path);
+            } catch (IOException | RuntimeException e) {
+                log("Could not read cached stylesheet " + file + " for " + path, e);
+                file.delete();
+            }
+        }
+
+        final Stylesheet stylesheet = new CssParser().parse(path, text);
+        // the parser may have just started to collect errors
+        if (StyleManager.getErrors() == null) {
+            store(stylesheet, cacheDir, file);
+        }
+        return stylesheet;
+    }
+
+    private static void store(Stylesheet stylesheet, File cacheDir, File file) {
+        File tmp = null;
+        try {
+            if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+                log("Could not create stylesheet cache " + cacheDir, null);
+                return;
+            }
+            // write to a temporary file first, so that a concurrent reader
+            // never sees a partially written entry
+            tmp = File.createTempFile("stylesheet", ".tmp", cacheDir);
+            try (FileOutputStream stream = new FileOutputStream(tmp)) {
+                StylesheetHelper.writeBinary(stylesheet, stream);
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException | RuntimeException e) {
+            log("Could not cache stylesheet " + stylesheet.getUrl(), e);
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    private static String key(String path, byte[] content) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalError(e);
+        }
+        final String header = VersionInfo.getRuntimeVersion() + '\n'
+                + StylesheetHelper.getBinaryVersion() + '\n'
+                + path + '\n';
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+        digest.update(content);
+
+        final StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16))
+               .append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    private static int indexOf(byte[] content, byte[] pattern) {
+        outer:
+        for (int i = 0, n = content.length - pattern.length; i <= n; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (content[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static void log(String message, Throwable t) {
+        final PlatformLogger logger = Logging.getCSSLogger();
+        if (logger.isLoggable(Level.FINE)) {
+            if (t != null) {
+                logger.fine(message, t);
+            } else {
+                logger.fine(message);
+            }
+        }
+    }
+}
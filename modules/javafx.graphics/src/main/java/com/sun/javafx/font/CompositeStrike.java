@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -142,6 +142,15 @@ public class CompositeStrike implements FontStrike {
         return getStrikeSlot(0).drawAsShapes();
     }
 
+    /* The fallback fonts are created by the same factory as the primary
+     * font. The GlyphRasterizer still skips the glyphs of the slots that are
+     * not thread safe.
+     */
+    @Override
+    public boolean isRasterizerThreadSafe() {
+        return getStrikeSlot(0).isRasterizerThreadSafe();
+    }
+
     private PrismMetrics metrics;
 
     public Metrics getMetrics() {
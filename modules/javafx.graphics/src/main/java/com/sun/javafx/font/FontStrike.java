@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -47,6 +47,17 @@ public interface FontStrike {
     public Metrics getMetrics();
     public Glyph getGlyph(char symbol);
     public Glyph getGlyph(int glyphCode);
+
+    /**
+     * Returns true if the glyphs of this strike can be rasterized on any
+     * thread while holding the lock of the strike. This is not the case when
+     * the glyphs of all the strikes are rasterized into a shared native
+     * surface.
+     */
+    public default boolean isRasterizerThreadSafe() {
+        return false;
+    }
+
     public void clearDesc(); // for cache management.
     public int getAAMode();
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2015, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -198,12 +198,12 @@ class FTFontFile extends PrismFontFile {
         }
 
         glyph.buffer = buffer;
-        glyph.bitmap = bitmap;
         glyph.bitmap_left = glyphRec.bitmap_left;
         glyph.bitmap_top = glyphRec.bitmap_top;
         glyph.advanceX = glyphRec.advance_x / 64f;    /* Fixed 26.6*/
         glyph.advanceY = glyphRec.advance_y / 64f;
         glyph.userAdvance = glyphRec.linearHoriAdvance / 65536.0f; /* Fixed 16.16 */
         glyph.lcd = lcd;
+        glyph.bitmap = bitmap;
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -78,6 +78,12 @@ class FTFontStrike extends PrismFontStrike<FTFontFile> {
         return fontResource.createGlyphOutline(glyphCode, getSize());
     }
 
+    /* FTFontFile.initGlyph() is synchronized on the font file */
+    @Override
+    public boolean isRasterizerThreadSafe() {
+        return true;
+    }
+
     void initGlyph(FTGlyph glyph) {
         FTFontFile fontResource = getFontResource();
         fontResource.initGlyph(glyph, this);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -33,7 +33,9 @@ class FTGlyph implements Glyph {
     FTFontStrike strike;
     int glyphCode;
     byte[] buffer;
-    FT_Bitmap bitmap;
+    /* Set last by FTFontFile.initGlyph(), so the other fields are visible
+     * to any thread that sees the glyph initialized */
+    volatile FT_Bitmap bitmap;
     int bitmap_left;
     int bitmap_top;
     float advanceX;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -27,9 +27,11 @@ package com.sun.javafx.sg.prism;
 
 import javafx.geometry.VPos;
 import javafx.scene.text.Font;
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.LinkedList;
 import com.sun.javafx.font.PGFont;
 import com.sun.javafx.geom.Arc2D;
@@ -348,6 +350,38 @@ public class NGCanvas extends NGNode {
     private Effect effect;
     private int arctype;
 
+    /*
+     * The direct buffer of the last PUT_ARGBPRE_BUF command that was
+     * rendered, reused by the next large pixel write so that a canvas that
+     * writes a large image every frame does not allocate a direct buffer
+     * each time. The buffer is taken by the FX thread and given back by the
+     * render thread, once its pixels are uploaded to a texture.
+     */
+    private static final AtomicReference<ByteBuffer> pixelBuffer = new AtomicReference<>();
+
+    /**
+     * Returns a direct buffer of the given size, to hold the pixels of a
+     * PUT_ARGBPRE_BUF command.
+     */
+    public static ByteBuffer getPixelBuffer(int size) {
+        ByteBuffer buffer = pixelBuffer.getAndSet(null);
+        if (buffer == null || buffer.capacity() < size) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    static void recyclePixelBuffer(ByteBuffer buffer) {
+        if (buffer.isDirect()) {
+            ByteBuffer current = pixelBuffer.get();
+            if (current == null || current.capacity() < buffer.capacity()) {
+                pixelBuffer.compareAndSet(current, buffer);
+            }
+        }
+    }
+
     static float TEMP_COORDS[] = new float[6];
     private static Arc2D TEMP_ARC = new Arc2D();
     private static RectBounds TEMP_RECTBOUNDS = new RectBounds();
@@ -923,7 +957,7 @@ public class NGCanvas extends NGNode {
                     float dy1 = buf.getInt();
                     int w  = buf.getInt();
                     int h  = buf.getInt();
-                    byte[] data = (byte[]) buf.getObject();
+                    ByteBuffer data = (ByteBuffer) buf.getObject();
                     Image img = Image.fromByteBgraPreData(data, w, h);
                     Graphics gr = cv.g;
                     ResourceFactory factory = gr.getResourceFactory();
@@ -943,6 +977,8 @@ public class NGCanvas extends NGNode {
                     tex.contentsNotUseful();
                     tex.unlock();
                     gr.setCompositeMode(CompositeMode.SRC_OVER);
+                    // the pixels were uploaded by getCachedTexture
+                    recyclePixelBuffer(data);
                     break;
                 }
                 case TRANSFORM:
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -191,12 +191,31 @@ public class NGRegion extends NGGroup {
      */
     private int cacheMode;
 
+    /**
+     * Whether the border strokes of a region with a shape can be cached along
+     * with the background. Only borders made of strokes that are not painted
+     * with an image can be cached.
+     */
+    private boolean cacheBorder;
+
+    /**
+     * An estimate of the cost of rendering the cached image of the region, 1 for
+     * a single plain fill. Expensive images are cached up to a larger size.
+     */
+    private int renderCost = 1;
+
     /**
      * Is the key into the image cache that identifies the required background
      * for the region.
      */
     private Integer cacheKey;
 
+    /**
+     * The bounds of the image of the shape in the image cache, which are
+     * cleared along with the cache key.
+     */
+    private RectBounds cacheShapeBounds;
+
     /**
      * Simple Helper Function for cleanup.
      */
@@ -232,10 +251,12 @@ public class NGRegion extends NGGroup {
         this.scaleShape = scaleShape;
         this.centerShape = positionShape;
         this.cacheShape = cacheShape;
+        updateRenderCost();
         // Technically I don't think this is needed because whenever the shape changes, setOpaqueInsets
         // is also called, so this will get invalidated twice.
         invalidateOpaqueRegion();
         cacheKey = null;
+        cacheShapeBounds = null;
         visualsChanged();
     }
 
@@ -251,6 +272,7 @@ public class NGRegion extends NGGroup {
         this.height = height;
         invalidateOpaqueRegion();
         cacheKey = null;
+        cacheShapeBounds = null;
         visualsChanged();
         // We only have to clear the background insets when the size changes if the
         // background has fills who's insets are dependent on the size (as would be
@@ -281,6 +303,22 @@ public class NGRegion extends NGGroup {
         final Border old = border;
         border = b == null ? Border.EMPTY : b;
 
+        cacheBorder = !border.getStrokes().isEmpty() && border.getImages().isEmpty();
+        final List<BorderStroke> strokes = border.getStrokes();
+        for (int i = 0, max = strokes.size(); i < max && cacheBorder; i++) {
+            final BorderStroke stroke = strokes.get(i);
+            cacheBorder = !(stroke.getTopStroke() instanceof javafx.scene.paint.ImagePattern) &&
+                          !(stroke.getRightStroke() instanceof javafx.scene.paint.ImagePattern) &&
+                          !(stroke.getBottomStroke() instanceof javafx.scene.paint.ImagePattern) &&
+                          !(stroke.getLeftStroke() instanceof javafx.scene.paint.ImagePattern);
+        }
+        updateRenderCost();
+        if (shape != null) {
+            // The border is part of the cached image of a shape
+            cacheKey = null;
+            cacheShapeBounds = null;
+        }
+
         // Determine whether the geometry has changed, or if only the visuals have
         // changed. Geometry changes will require more work, and an equals check
         // on the border objects is generally very fast (either for identity or
@@ -374,6 +412,8 @@ public class NGRegion extends NGGroup {
         }
         backgroundInsets = null;
         cacheKey = null;
+        cacheShapeBounds = null;
+        updateRenderCost();
 
         // Only update the geom if the new background is geometrically different from the old
         if (!background.getOutsets().equals(old.getOutsets())) {
@@ -383,6 +423,32 @@ public class NGRegion extends NGGroup {
         }
     }
 
+    /**
+     * Estimates the cost of rendering the cached image of this region: every
+     * fill with rounded corners or a gradient, a shape and the border strokes
+     * cached along with a shape make the image more expensive to render.
+     */
+    private void updateRenderCost() {
+        int cost = 1;
+        final List<BackgroundFill> fills = background.getFills();
+        for (int i = 0, max = fills.size(); i < max; i++) {
+            final BackgroundFill fill = fills.get(i);
+            if (fill.getRadii() != null && !CornerRadii.EMPTY.equals(fill.getRadii())) {
+                cost++;
+            }
+            if (!(fill.getFill() instanceof Color)) {
+                cost++;
+            }
+        }
+        if (shape != null) {
+            cost++;
+            if (cacheBorder) {
+                cost += border.getStrokes().size();
+            }
+        }
+        renderCost = cost;
+    }
+
     /**
      * Called by the Region when any parameters are changed.
      * It is only technically needed when a parameter that affects the size
@@ -460,8 +526,7 @@ public class NGRegion extends NGGroup {
         final Screen screen = g.getAssociatedScreen();
         RegionImageCache cache = imageCacheMap.get(screen);
         if (cache != null) {
-            RTTexture tex = cache.getBackingStore();
-            if (tex.isSurfaceLost()) {
+            if (cache.isSurfaceLost()) {
                 imageCacheMap.remove(screen);
                 cache = null;
             }
@@ -480,6 +545,9 @@ public class NGRegion extends NGGroup {
             key = key * 47 + background.hashCode();
             if (shape != null) {
                 key = key * 73 + shape.hashCode();
+                if (cacheBorder) {
+                    key = key * 97 + border.hashCode();
+                }
             }
             cacheKey = key;
         }
@@ -591,15 +659,12 @@ public class NGRegion extends NGGroup {
      *************************************************************************/
 
     private void renderAsShape(Graphics g) {
+        // Whether the border strokes were drawn along with the background from the cache
+        boolean borderCached = false;
         if (!background.isEmpty()) {
-            // Note: resizeShape is not cheap. This should be refactored so that we only invoke
-            // it if we absolutely have to. Specifically, if the background, shape, and size of the region
-            // has not changed since the last time we rendered we could skip all this and render
-            // directly out of a cache.
-            final Insets outsets = background.getOutsets();
-            final Shape outsetShape = resizeShape((float) -outsets.getTop(), (float) -outsets.getRight(),
-                                                  (float) -outsets.getBottom(), (float) -outsets.getLeft());
-            final RectBounds outsetShapeBounds = outsetShape.getBounds();
+            // Note: resizeShape is not cheap, the bounds of the cached image are only computed
+            // again when the background, border, shape, or size of the region has changed.
+            final RectBounds outsetShapeBounds = getCacheShapeBounds();
             final int textureWidth = Math.round(outsetShapeBounds.getWidth()),
                       textureHeight = Math.round(outsetShapeBounds.getHeight());
 
@@ -615,11 +680,12 @@ public class NGRegion extends NGGroup {
             // scaled region, or things won't look right (they'll looked scaled instead of vector-resized).
             if (cacheMode != 0 && g.getTransformNoClone().isTranslateOrIdentity() && !(g instanceof PrinterGraphics)) {
                 final RegionImageCache imageCache = getImageCache(g);
-                if (imageCache.isImageCachable(textureWidth, textureHeight)) {
+                if (imageCache.isImageCachable(textureWidth, textureHeight, renderCost)) {
                     final Integer key = getCacheKey(textureWidth, textureHeight);
                     rect = TEMP_RECT;
                     rect.setBounds(0, 0, textureWidth + border, textureHeight + border);
-                    boolean render = imageCache.getImageLocation(key, rect, background, shape, g);
+                    boolean render = imageCache.getImageLocation(key, rect, background,
+                                                                 cacheBorder ? this.border : null, shape, g);
                     if (!rect.isEmpty()) {
                         // An empty rect indicates a failure occurred in the imageCache
                         cached = imageCache.getBackingStore();
@@ -632,6 +698,9 @@ public class NGRegion extends NGGroup {
                         cachedGraphics.translate(rect.x - outsetShapeBounds.getMinX(),
                                                  rect.y - outsetShapeBounds.getMinY());
                         renderBackgroundShape(cachedGraphics);
+                        if (cacheBorder) {
+                            renderBorderShape(cachedGraphics);
+                        }
                         if (PULSE_LOGGING_ENABLED) {
                             PulseLogger.incrementCounter("Rendering region shape image to cache");
                         }
@@ -654,6 +723,7 @@ public class NGRegion extends NGGroup {
                 final float srcY2 = srcY1 + textureHeight;
 
                 g.drawTexture(cached, dstX1, dstY1, dstX2, dstY2, srcX1, srcY1, srcX2, srcY2);
+                borderCached = cacheBorder;
                 if (PULSE_LOGGING_ENABLED) {
                     PulseLogger.incrementCounter("Cached region shape image used");
                 }
@@ -663,28 +733,73 @@ public class NGRegion extends NGGroup {
             }
         }
 
-        // Note that if you use borders, you're going to pay a premium in performance.
-        // I don't think this is strictly necessary (since we won't stretch a cached
-        // region shape anyway), so really this code should some how be combined
-        // with the caching code that happened above for backgrounds.
-        if (!border.isEmpty()) {
-            // We only deal with stroke borders, we never deal with ImageBorders when
-            // painting a shape on a Region. This is primarily because we don't know
-            // how to handle a 9-patch image on a random shape. We'll have to implement
-            // this at some point, but today is not that day.
-            final List<BorderStroke> strokes = border.getStrokes();
-            for (int i = 0, max = strokes.size(); i < max; i++) {
-                // Get the BorderStroke. When stroking a shape, we only honor the
-                // topStroke, topStyle, widths.top, and insets.
-                final BorderStroke stroke = strokes.get(i);
-                // We're stroking a path, so there is no point trying to figure out the length.
-                // Instead, we just pass -1, telling setBorderStyle to just do a simple stroke
-                setBorderStyle(g, stroke, -1, false);
-                final Insets insets = stroke.getInsets();
-                g.draw(resizeShape((float) insets.getTop(), (float) insets.getRight(),
-                                   (float) insets.getBottom(), (float) insets.getLeft()));
+        // Borders made of strokes are cached along with the background when possible,
+        // otherwise they are stroked each time.
+        if (!border.isEmpty() && !borderCached) {
+            renderBorderShape(g);
+        }
+    }
+
+    /**
+     * Returns the bounds of the shape drawn with the background outsets, and
+     * of its border strokes if they are cached along with the background.
+     */
+    RectBounds getCacheShapeBounds() {
+        if (cacheShapeBounds == null) {
+            final Insets outsets = background.getOutsets();
+            final Shape outsetShape = resizeShape((float) -outsets.getTop(), (float) -outsets.getRight(),
+                                                  (float) -outsets.getBottom(), (float) -outsets.getLeft());
+            cacheShapeBounds = outsetShape.getBounds();
+            if (cacheBorder) {
+                // The cached image must also hold the border strokes
+                unionWithBorderShapeBounds(cacheShapeBounds);
             }
         }
+        return cacheShapeBounds;
+    }
+
+    /*
+     * Adds the bounds of the border strokes of the shape to the bounds. The
+     * border outsets only account for the stroke widths, while the miter
+     * joins at the sharp corners of a shape may reach much further.
+     */
+    private void unionWithBorderShapeBounds(RectBounds bounds) {
+        final List<BorderStroke> strokes = border.getStrokes();
+        for (int i = 0, max = strokes.size(); i < max; i++) {
+            final BorderStroke stroke = strokes.get(i);
+            final BasicStroke bs = createBorderStroke(stroke, -1, false);
+            if (bs == null) {
+                continue;
+            }
+            final Insets insets = stroke.getInsets();
+            // The inner and outer strokes lie within the centered stroke
+            final Shape strokedShape = bs.createCenteredStrokedShape(
+                    resizeShape((float) insets.getTop(), (float) insets.getRight(),
+                                (float) insets.getBottom(), (float) insets.getLeft()));
+            final RectBounds strokeBounds = strokedShape.getBounds();
+            // Leave room for the antialiased pixels along the edges
+            bounds.unionWith(strokeBounds.getMinX() - 1, strokeBounds.getMinY() - 1,
+                             strokeBounds.getMaxX() + 1, strokeBounds.getMaxY() + 1);
+        }
+    }
+
+    private void renderBorderShape(Graphics g) {
+        // We only deal with stroke borders, we never deal with ImageBorders when
+        // painting a shape on a Region. This is primarily because we don't know
+        // how to handle a 9-patch image on a random shape. We'll have to implement
+        // this at some point, but today is not that day.
+        final List<BorderStroke> strokes = border.getStrokes();
+        for (int i = 0, max = strokes.size(); i < max; i++) {
+            // Get the BorderStroke. When stroking a shape, we only honor the
+            // topStroke, topStyle, widths.top, and insets.
+            final BorderStroke stroke = strokes.get(i);
+            // We're stroking a path, so there is no point trying to figure out the length.
+            // Instead, we just pass -1, telling setBorderStyle to just do a simple stroke
+            setBorderStyle(g, stroke, -1, false);
+            final Insets insets = stroke.getInsets();
+            g.draw(resizeShape((float) insets.getTop(), (float) insets.getRight(),
+                               (float) insets.getBottom(), (float) insets.getLeft()));
+        }
     }
 
     private void renderBackgroundShape(Graphics g) {
@@ -813,11 +928,11 @@ public class NGRegion extends NGGroup {
         Rectangle rect = null;
         if (cache) {
             RegionImageCache imageCache = getImageCache(g);
-            if (imageCache.isImageCachable(textureWidth, textureHeight)) {
+            if (imageCache.isImageCachable(textureWidth, textureHeight, renderCost)) {
                 final Integer key = getCacheKey(textureWidth, textureHeight);
                 rect = TEMP_RECT;
                 rect.setBounds(0, 0, textureWidth + border, textureHeight + border);
-                boolean render = imageCache.getImageLocation(key, rect, background, shape, g);
+                boolean render = imageCache.getImageLocation(key, rect, background, null, shape, g);
                 if (!rect.isEmpty()) {
                     // An empty rect indicates a failure occurred in the imageCache
                     cached = imageCache.getBackingStore();
@@ -1611,33 +1726,52 @@ public class NGRegion extends NGGroup {
     }
 
     private void setBorderStyle(Graphics g, BorderStroke sb, double length, boolean forceCentered) {
+        final BasicStroke stroke = createBorderStroke(sb, length, forceCentered);
+        if (stroke == null) {
+            return;
+        }
+
+        final javafx.scene.paint.Paint sbFill;
+        if (sb.getTopStyle() != null) {
+            sbFill = sb.getTopStroke();
+        } else if (sb.getLeftStyle() != null) {
+            sbFill = sb.getLeftStroke();
+        } else if (sb.getBottomStyle() != null) {
+            sbFill = sb.getBottomStroke();
+        } else {
+            sbFill = sb.getRightStroke();
+        }
+        g.setStroke(stroke);
+        g.setPaint(getPlatformPaint(sbFill));
+    }
+
+    /**
+     * Creates the stroke used to draw the border stroke as a single stroke,
+     * or returns null if the border stroke is not drawn.
+     */
+    private BasicStroke createBorderStroke(BorderStroke sb, double length, boolean forceCentered) {
         // Any one of, or all of, the sides could be 'none'.
         // Take the first side that isn't.
         final BorderWidths widths = sb.getWidths();
         BorderStrokeStyle bs = sb.getTopStyle();
         double sbWidth = widths.isTopAsPercentage() ? height * widths.getTop() : widths.getTop();
-        Paint sbFill = getPlatformPaint(sb.getTopStroke());
         if (bs == null) {
             bs = sb.getLeftStyle();
             sbWidth = widths.isLeftAsPercentage() ? width * widths.getLeft() : widths.getLeft();
-            sbFill = getPlatformPaint(sb.getLeftStroke());
             if (bs == null) {
                 bs = sb.getBottomStyle();
                 sbWidth = widths.isBottomAsPercentage() ? height * widths.getBottom() : widths.getBottom();
-                sbFill = getPlatformPaint(sb.getBottomStroke());
                 if (bs == null) {
                     bs = sb.getRightStyle();
                     sbWidth = widths.isRightAsPercentage() ? width * widths.getRight() : widths.getRight();
-                    sbFill = getPlatformPaint(sb.getRightStroke());
                 }
             }
         }
         if (bs == null || bs == BorderStrokeStyle.NONE) {
-            return;
+            return null;
         }
 
-        g.setStroke(createStroke(bs, sbWidth, length, forceCentered));
-        g.setPaint(sbFill);
+        return createStroke(bs, sbWidth, length, forceCentered);
     }
 
     /**
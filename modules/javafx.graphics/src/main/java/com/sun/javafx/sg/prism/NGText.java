@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -39,6 +39,7 @@ import com.sun.javafx.geom.transform.BaseTransform;
 import com.sun.javafx.scene.text.GlyphList;
 import com.sun.javafx.text.TextRun;
 import com.sun.prism.Graphics;
+import com.sun.prism.impl.GlyphRasterizer;
 import com.sun.prism.paint.Color;
 
 public class NGText extends NGShape {
@@ -52,6 +53,12 @@ public class NGText extends NGShape {
     public void setGlyphs(Object[] glyphs) {
         this.runs = (GlyphList[])glyphs;
         geometryChanged();
+        if (GlyphRasterizer.isEnabled() && font != null && runs != null) {
+            /* Start rasterizing the glyphs before the render pass, for the
+             * strike used by the last render (identity for a new text).
+             */
+            GlyphRasterizer.prefetch(fontStrike != null ? fontStrike : getStrike(IDENT), runs);
+        }
     }
 
     private float layoutX, layoutY;
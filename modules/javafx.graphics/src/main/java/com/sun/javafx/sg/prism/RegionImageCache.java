@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,7 +26,11 @@
 package com.sun.javafx.sg.prism;
 
 import javafx.scene.layout.Background;
+import javafx.scene.layout.Border;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import com.sun.javafx.geom.Rectangle;
 import com.sun.javafx.geom.Shape;
 import com.sun.javafx.logging.PulseLogger;
@@ -35,31 +39,70 @@ import com.sun.prism.Graphics;
 import com.sun.prism.RTTexture;
 import com.sun.prism.ResourceFactory;
 import com.sun.prism.Texture.WrapMode;
+import com.sun.prism.impl.PrismSettings;
 import com.sun.prism.impl.packrect.RectanglePacker;
 
 /**
- * RegionImageCache - A fixed pixel count sized cache of Images keyed by arbitrary set of arguments. All images are held with
- * SoftReferences so they will be dropped by the GC if heap memory gets tight. When our size hits max pixel count least
- * recently requested images are removed first.
+ * RegionImageCache - A cache of the images of region backgrounds (and of the
+ * borders of shaped regions) keyed by arbitrary set of arguments.
  *
+ * The images are stored in up to prism.regionCachePages textures (pages).
+ * When a page is full, the least recently used images of the page are
+ * evicted to make room, the page is only cleared when no room can be made
+ * otherwise. Which images are admitted depends on their size and on the cost
+ * of rendering them, see {@link #isImageCachable}.
  */
 class RegionImageCache {
 
-    // Maximum cached image size in pixels
-    private final static int MAX_SIZE = 300 * 300;
-    private static final int WIDTH = 1024;
-    private static final int HEIGHT = 1024;
+    // Maximum cached image size in pixels, for the cheapest images
+    private final static int MAX_SIZE = PrismSettings.regionCacheMaxSize;
+    // The size limit grows with the render cost up to this factor
+    final static int MAX_COST = 4;
+    private static final int WIDTH = PrismSettings.regionCacheWidth;
+    private static final int HEIGHT = PrismSettings.regionCacheHeight;
+    private static final int MAX_PAGES = Math.max(1, PrismSettings.regionCachePages);
 
+    private static final class Page {
+        final RTTexture backingStore;
+        final RectanglePacker hPacker;
+        final RectanglePacker vPacker;
+        final int index;
+
+        Page(RTTexture backingStore, int pad, int index) {
+            this.backingStore = backingStore;
+            this.index = index;
+            // Subdivide the texture in two halves where on half is used to store
+            // horizontal regions and the other vertical regions. Otherwise, mixing
+            // horizontal and vertical regions on the same area, would result in
+            // a lot of waste texture space.
+            // Note that requests are already padded on the right and bottom edges
+            // (and that includes the gap between the caches) so we only have to
+            // pad top and left edges if CLAMP_TO_ZERO needs to be simulated.
+            hPacker = new RectanglePacker(backingStore, pad, pad, WIDTH-pad, HEIGHT-pad, false);
+            vPacker = new RectanglePacker(backingStore, WIDTH, pad, WIDTH, HEIGHT-pad, true);
+        }
+    }
+
+    private final ResourceFactory factory;
+    private final WrapMode mode;
+    private final int pad;
+    private final List<Page> pages = new ArrayList<>();
     private HashMap<Integer, CachedImage> imageMap;
     private RTTexture backingStore;
-    private RectanglePacker hPacker;
-    private RectanglePacker vPacker;
+    // Incremented on every lookup, see RectanglePacker.touch
+    private int stamp;
+    // The page to evict from next, pages take turns
+    private int evictPage;
 
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+    private int flushCount;
+    private int rejectionCount;
 
     RegionImageCache(final ResourceFactory factory) {
+        this.factory = factory;
         imageMap = new HashMap<>();
-        WrapMode mode;
-        int pad;
         if (factory.isWrapModeSupported(WrapMode.CLAMP_TO_ZERO)) {
             mode = WrapMode.CLAMP_TO_ZERO;
             pad = 0;
@@ -67,42 +110,76 @@ class RegionImageCache {
             mode = WrapMode.CLAMP_NOT_NEEDED;
             pad = 1;
         }
-        backingStore = factory.createRTTexture(WIDTH + WIDTH, HEIGHT, mode);
-        backingStore.contentsUseful();
-        backingStore.makePermanent();
-        factory.setRegionTexture(backingStore);
-        // Subdivide the texture in two halves where on half is used to store
-        // horizontal regions and the other vertical regions. Otherwise, mixing
-        // horizontal and vertical regions on the same area, would result in
-        // a lot of waste texture space.
-        // Note that requests are already padded on the right and bottom edges
-        // (and that includes the gap between the caches) so we only have to
-        // pad top and left edges if CLAMP_TO_ZERO needs to be simulated.
-        hPacker = new RectanglePacker(backingStore, pad, pad, WIDTH-pad, HEIGHT-pad, false);
-        vPacker = new RectanglePacker(backingStore, WIDTH, pad, WIDTH, HEIGHT-pad, true);
+        backingStore = createPage().backingStore;
+    }
+
+    private Page createPage() {
+        RTTexture tex = factory.createRTTexture(WIDTH + WIDTH, HEIGHT, mode);
+        tex.contentsUseful();
+        tex.makePermanent();
+        if (pages.isEmpty()) {
+            // only the first page can be used by the super shader
+            factory.setRegionTexture(tex);
+        }
+        Page page = new Page(tex, pad, pages.size());
+        pages.add(page);
+        if (PULSE_LOGGING_ENABLED) {
+            PulseLogger.addMessage("Region image cache page " + page.index + " created");
+        }
+        return page;
     }
 
     /**
-     * Check if the image size is to big to be stored in the cache
+     * Check if the image size is to big to be stored in the cache. The
+     * maximum size is prism.regionCacheMaxSize pixels for the images that
+     * are cheap to render, and grows with the render cost up to
+     * {@code MAX_COST} times that size. No image can take more than a
+     * quarter of a page.
      *
      * @param w The image width
      * @param h The image height
+     * @param cost The cost of rendering the image, 1 for a single plain fill
      * @return True if the image size is less than max
      */
-    boolean isImageCachable(int w, int h) {
-        return 0 < w && w < WIDTH &&
-               0 < h && h < HEIGHT &&
-               (w * h) < MAX_SIZE;
+    boolean isImageCachable(int w, int h, int cost) {
+        if (w <= 0 || h <= 0) {
+            return false;
+        }
+        final long size = (long) w * h;
+        final long maxSize = (long) MAX_SIZE * Math.max(1, Math.min(cost, MAX_COST));
+        if (w < WIDTH && h < HEIGHT && size < maxSize &&
+                size <= (long) WIDTH * HEIGHT / 4) {
+            return true;
+        }
+        rejectionCount++;
+        if (PULSE_LOGGING_ENABLED) {
+            PulseLogger.incrementCounter("Region image cache rejected");
+        }
+        return false;
     }
 
+    /**
+     * Returns the texture holding the image found or placed by the last call
+     * to {@link #getImageLocation}.
+     */
     RTTexture getBackingStore() {
         return backingStore;
     }
 
+    boolean isSurfaceLost() {
+        for (Page page : pages) {
+            if (page.backingStore.isSurfaceLost()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Search the cache for a background image representing the arguments.
      * When this method succeeds the x and y coordinates in rect are adjust
-     * to the location in the backing store when the image is stored.
+     * to the location in the backing store when the image is stored, and
+     * {@link #getBackingStore} returns the texture holding it.
      * If a failure occurred the rect is set to empty to indicate the caller
      * to disable caching.
      *
@@ -110,17 +187,22 @@ class RegionImageCache {
      * @param rect the rect image. On input, width and height determine the requested
      *        texture space. On ouput, the x and y the location in the texture
      * @param background the background used to validated if the correct image was found
+     * @param border the border used to validated if the correct image was found, may be null
      * @param shape the shape used to validated if the correct image was found
      * @param g the graphics to flush if the texture needs to be restarted
      * @return true means to caller needs to render to rect to initialize the content.
      */
     boolean getImageLocation(Integer key, Rectangle rect, Background background,
-                             Shape shape, Graphics g) {
+                             Border border, Shape shape, Graphics g) {
+        stamp++;
         CachedImage cache = imageMap.get(key);
         if (cache != null) {
-            if (cache.equals(rect.width, rect.height, background, shape)) {
+            if (cache.equals(rect.width, rect.height, background, border, shape)) {
                 rect.x = cache.x;
                 rect.y = cache.y;
+                cache.getPacker().touch(rect, stamp);
+                backingStore = cache.page.backingStore;
+                hitCount++;
                 return false;
             }
             // hash collision, mark rectangle empty indicates the caller to
@@ -128,43 +210,146 @@ class RegionImageCache {
             rect.width = rect.height = -1;
             return false;
         }
+        missCount++;
         boolean vertical = rect.height > 64;
-        RectanglePacker packer = vertical ? vPacker : hPacker;
 
-        if (!packer.add(rect)) {
+        Page page = null;
+        for (Page p : pages) {
+            if ((vertical ? p.vPacker : p.hPacker).add(rect)) {
+                page = p;
+                break;
+            }
+        }
+        if (page == null && pages.size() < MAX_PAGES) {
+            page = createPage();
+            if (!(vertical ? page.vPacker : page.hPacker).add(rect)) {
+                page = null;
+            }
+        }
+        if (page == null) {
+            // Pending rendering may still read the content being replaced
             g.sync();
+            page = makeRoom(rect, vertical);
+        }
+        if (page == null) {
+            rect.width = rect.height = -1;
+            return false;
+        }
+        (vertical ? page.vPacker : page.hPacker).touch(rect, stamp);
+        imageMap.put(key, new CachedImage(rect, page, vertical, background, border, shape));
+        backingStore = page.backingStore;
+        return true;
+    }
 
-            vPacker.clear();
-            hPacker.clear();
-            imageMap.clear();
-            packer.add(rect);
-            backingStore.createGraphics().clear();
-            if (PULSE_LOGGING_ENABLED) {
-                PulseLogger.incrementCounter("Region image cache flushed");
+    /*
+     * Evicts the least recently used images of a page, or clears the packer
+     * of a page when that fails, and places the rectangle there.
+     */
+    private Page makeRoom(Rectangle rect, boolean vertical) {
+        final int count = pages.size();
+        for (int i = 0; i < count; i++) {
+            final Page page = pages.get((evictPage + i) % count);
+            final RectanglePacker packer = vertical ? page.vPacker : page.hPacker;
+            if (packer.evict(rect, stamp, (x, y, w, h) -> evicted(page, vertical, x, y, w, h)) &&
+                    packer.add(rect)) {
+                evictPage = (evictPage + i + 1) % count;
+                return page;
             }
         }
-        imageMap.put(key, new CachedImage(rect, background, shape));
-        return true;
+
+        // Every level is in use, flush a page
+        final Page page = pages.get(evictPage);
+        evictPage = (evictPage + 1) % count;
+        flushCount++;
+        if (PULSE_LOGGING_ENABLED) {
+            PulseLogger.incrementCounter("Region image cache flushed");
+        }
+        for (Iterator<CachedImage> it = imageMap.values().iterator(); it.hasNext();) {
+            if (it.next().page == page) {
+                it.remove();
+            }
+        }
+        page.hPacker.clear();
+        page.vPacker.clear();
+        page.backingStore.createGraphics().clear();
+        return (vertical ? page.vPacker : page.hPacker).add(rect) ? page : null;
+    }
+
+    private void evicted(Page page, boolean vertical, int x, int y, int w, int h) {
+        evictionCount++;
+        if (PULSE_LOGGING_ENABLED) {
+            PulseLogger.incrementCounter("Region image cache levels evicted");
+        }
+        for (Iterator<CachedImage> it = imageMap.values().iterator(); it.hasNext();) {
+            CachedImage image = it.next();
+            if (image.page == page && image.vertical == vertical &&
+                    image.x >= x && image.x < x + w && image.y >= y && image.y < y + h) {
+                it.remove();
+            }
+        }
+        Graphics g = page.backingStore.createGraphics();
+        g.setClipRect(new Rectangle(x, y, w, h));
+        g.clear();
+    }
+
+    int getPageCount() {
+        return pages.size();
+    }
+
+    int getImageCount() {
+        return imageMap.size();
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    int getMissCount() {
+        return missCount;
+    }
+
+    int getEvictionCount() {
+        return evictionCount;
+    }
+
+    int getFlushCount() {
+        return flushCount;
+    }
+
+    int getRejectionCount() {
+        return rejectionCount;
     }
 
     static class CachedImage {
         Background background;
+        Border border;
         Shape shape;
+        Page page;
+        boolean vertical;
         int x, y, width, height;
 
-        CachedImage(Rectangle rect, Background background, Shape shape) {
+        CachedImage(Rectangle rect, Page page, boolean vertical,
+                    Background background, Border border, Shape shape) {
             this.x = rect.x;
             this.y = rect.y;
             this.width = rect.width;
             this.height = rect.height;
+            this.page = page;
+            this.vertical = vertical;
             this.background = background;
+            this.border = border;
             this.shape = shape;
         }
 
-        public boolean equals(int width, int height, Background background, Shape shape) {
+        RectanglePacker getPacker() {
+            return vertical ? page.vPacker : page.hPacker;
+        }
+
+        public boolean equals(int width, int height, Background background, Border border, Shape shape) {
             return this.width == width &&
                    this.height == height &&
                    (this.background == null ? background == null : this.background.equals(background)) &&
+                   (this.border == null ? border == null : this.border.equals(border)) &&
                    (this.shape == null ? shape == null : this.shape.equals(shape));
         }
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -49,8 +49,6 @@ import com.sun.javafx.scene.text.TextSpan;
 import java.text.Bidi;
 import java.text.BreakIterator;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Hashtable;
 
 public class PrismTextLayout implements TextLayout {
     private static final BaseTransform IDENTITY = BaseTransform.IDENTITY_TRANSFORM;
@@ -59,17 +57,17 @@ public class PrismTextLayout implements TextLayout {
     private static final int X_MAX_INDEX = 2;
     private static final int Y_MAX_INDEX = 3;
 
-    private static final Hashtable<Integer, LayoutCache> stringCache = new Hashtable<>();
-    private static final Object  CACHE_SIZE_LOCK = new Object();
-    private static int cacheSize = 0;
     private static final int MAX_STRING_SIZE = 256;
     private static final int MAX_CACHE_SIZE = PrismFontFactory.cacheLayoutSize;
+    private static final TextLayoutCache stringCache = new TextLayoutCache(MAX_CACHE_SIZE);
+    /* The flags that change the lines of the layout */
+    private static final int CACHE_KEY_MASK = ALIGN_MASK | DIRECTION_MASK | BOUNDS_MASK;
 
     private char[] text;
     private TextSpan[] spans;   /* Rich text  (null for single font text) */
     private PGFont font;        /* Single font text (null for rich text) */
     private FontStrike strike;  /* cached strike of font (identity) */
-    private Integer cacheKey;
+    private TextLayoutCache.Key cacheKey;
     private TextLine[] lines;
     private TextRun[] runs;
     private int runCount;
@@ -87,6 +85,13 @@ public class PrismTextLayout implements TextLayout {
         flags = ALIGN_LEFT;
     }
 
+    /**
+     * Returns the layout cache shared by all the instances.
+     */
+    public static TextLayoutCache getLayoutCache() {
+        return stringCache;
+    }
+
     private void reset() {
         layoutCache = null;
         runs = null;
@@ -140,7 +145,7 @@ public class PrismTextLayout implements TextLayout {
         if (MAX_CACHE_SIZE > 0) {
             int length = text.length();
             if (0 < length && length <= MAX_STRING_SIZE) {
-                cacheKey = text.hashCode() * strike.hashCode();
+                cacheKey = new TextLayoutCache.Key(this.text, this.font);
             }
         }
         return true;
@@ -681,52 +686,45 @@ public class PrismTextLayout implements TextLayout {
         return index;
     }
 
-    private boolean copyCache() {
-        int align = flags & ALIGN_MASK;
-        int boundsType = flags & BOUNDS_MASK;
-        /* Caching for boundsType == Center, bias towards  Modena */
-        return wrapWidth != 0 || align != ALIGN_LEFT || boundsType == 0 || isMirrored();
-    }
-
     private void initCache() {
-        if (cacheKey != null) {
-            if (layoutCache == null) {
-                LayoutCache cache = stringCache.get(cacheKey);
-                if (cache != null && cache.font.equals(font) && Arrays.equals(cache.text, text)) {
-                    layoutCache = cache;
-                    runs = cache.runs;
-                    runCount = cache.runCount;
-                    flags |= cache.analysis;
-                }
-            }
-            if (layoutCache != null) {
-                if (copyCache()) {
-                    /* This instance has some property that requires it to
-                     * build its own lines (i.e. wrapping width). Thus, only use
-                     * the runs from the cache (and it needs to make a copy
-                     * before using it as they will be modified).
-                     * Note: the copy of the elements in the array happens in
-                     * reuseRuns().
-                     */
-                    if (layoutCache.runs == runs) {
-                        runs = new TextRun[runCount];
-                        System.arraycopy(layoutCache.runs, 0, runs, 0, runCount);
-                    }
-                } else {
-                    if (layoutCache.lines != null) {
-                        runs = layoutCache.runs;
-                        runCount = layoutCache.runCount;
-                        flags |= layoutCache.analysis;
-                        lines = layoutCache.lines;
-                        layoutWidth = layoutCache.layoutWidth;
-                        layoutHeight = layoutCache.layoutHeight;
-                        float ascent = lines[0].getBounds().getMinY();
-                        logicalBounds = logicalBounds.deriveWithNewBounds(0, ascent, 0,
-                                layoutWidth, layoutHeight + ascent, 0);
-                    }
-                }
+        if (cacheKey == null) return;
+        cacheKey = cacheKey.derive(wrapWidth, spacing, flags & CACHE_KEY_MASK, tabSize);
+        LayoutCache cache = stringCache.get(cacheKey);
+        if (cache != null) {
+            /* Whole layout retrieved from the cache */
+            layoutCache = cache;
+            runs = cache.runs;
+            runCount = cache.runCount;
+            flags |= cache.analysis;
+            lines = cache.lines;
+            layoutWidth = cache.layoutWidth;
+            layoutHeight = cache.layoutHeight;
+            float ascent = lines[0].getBounds().getMinY();
+            logicalBounds = logicalBounds.deriveWithNewBounds(0, ascent, 0,
+                    layoutWidth, layoutHeight + ascent, 0);
+            return;
+        }
+        if (layoutCache == null) {
+            /* Reuse the runs of a layout of the same text and font that
+             * was built for different properties (i.e. wrapping width).
+             */
+            cache = stringCache.getShaped(cacheKey);
+            if (cache != null) {
+                layoutCache = cache;
+                runs = cache.runs;
+                runCount = cache.runCount;
+                flags |= cache.analysis & ~FLAGS_WRAPPED;
             }
         }
+        if (layoutCache != null && layoutCache.runs == runs) {
+            /* The runs are shared, this instance has to make a copy before
+             * building its own lines as they will be modified.
+             * Note: the copy of the elements in the array happens in
+             * reuseRuns().
+             */
+            runs = new TextRun[runCount];
+            System.arraycopy(layoutCache.runs, 0, runs, 0, runCount);
+        }
     }
 
     private int getLineCount() {
@@ -1292,29 +1290,29 @@ public class PrismTextLayout implements TextLayout {
 
 
         if (layoutCache != null) {
-            if (cacheKey != null && !layoutCache.valid && !copyCache()) {
+            if (cacheKey != null) {
                 /* After layoutCache is added to the stringCache it can be
                  * accessed by multiple threads. All the data in it must
-                 * be immutable. See copyCache() for the cases where the entire
-                 * layout is immutable.
+                 * be immutable. A layout that started from a cached entry
+                 * stores its lines in a new entry, sharing the glyphs.
                  */
-                layoutCache.font = font;
-                layoutCache.text = text;
-                layoutCache.runs = runs;
-                layoutCache.runCount = runCount;
-                layoutCache.lines = lines;
-                layoutCache.layoutWidth = layoutWidth;
-                layoutCache.layoutHeight = layoutHeight;
-                layoutCache.analysis = flags & ANALYSIS_MASK;
-                synchronized (CACHE_SIZE_LOCK) {
-                    int charCount = chars.length;
-                    if (cacheSize + charCount > MAX_CACHE_SIZE) {
-                        stringCache.clear();
-                        cacheSize = 0;
-                    }
-                    stringCache.put(cacheKey, layoutCache);
-                    cacheSize += charCount;
+                LayoutCache cache = layoutCache;
+                if (cache.lines != null) {
+                    cache = new LayoutCache();
+                    cache.glyphs = layoutCache.glyphs;
+                    cache.advances = layoutCache.advances;
                 }
+                cache.font = font;
+                cache.text = text;
+                cache.runs = runs;
+                cache.runCount = runCount;
+                cache.lines = lines;
+                cache.layoutWidth = layoutWidth;
+                cache.layoutHeight = layoutHeight;
+                cache.analysis = flags & ANALYSIS_MASK;
+                cache.valid = true;
+                stringCache.put(cacheKey, cache);
+                layoutCache = cache;
             }
             layoutCache.valid = true;
         }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import com.sun.javafx.font.PGFont;
+
+/**
+ * A least recently used cache of text layouts shared by all the
+ * {@link PrismTextLayout} instances.
+ *
+ * An entry holds the shaped runs and the lines of one layout and it is
+ * keyed by the text, the font and every property that affects the
+ * position of the line breaks (wrapping width, line spacing, alignment,
+ * direction, bounds type and tab size). The total number of characters in
+ * the cache is bounded, when it is exceeded the least recently used entries
+ * are evicted one by one.
+ *
+ * The shaped runs do not depend on the line breaks, so a layout that misses
+ * the cache can still reuse the runs of any cached layout of the same text
+ * and font (see {@link #getShaped}).
+ *
+ * At most one wrapped layout is cached for each text and font, a layout for
+ * another wrapping width replaces it. Otherwise resizing wrapped text would
+ * cache a layout for every intermediate width and evict the layouts the
+ * cache is meant to keep.
+ *
+ * All the data in the cached entries must be immutable, as they are accessed
+ * by multiple threads.
+ */
+public final class TextLayoutCache {
+
+    static final class Key {
+        private final char[] text;
+        private final PGFont font;
+        private final int textHash;
+        private final float wrapWidth;
+        private final float spacing;
+        private final int flags;
+        private final int tabSize;
+        private final int hash;
+
+        Key(char[] text, PGFont font) {
+            this(text, font, Arrays.hashCode(text) * 31 + Objects.hashCode(font), 0, 0, 0, 0);
+        }
+
+        private Key(char[] text, PGFont font, int textHash,
+                    float wrapWidth, float spacing, int flags, int tabSize) {
+            this.text = text;
+            this.font = font;
+            this.textHash = textHash;
+            this.wrapWidth = wrapWidth;
+            this.spacing = spacing;
+            this.flags = flags;
+            this.tabSize = tabSize;
+            int h = textHash;
+            h = 31 * h + Float.floatToIntBits(wrapWidth);
+            h = 31 * h + Float.floatToIntBits(spacing);
+            h = 31 * h + flags;
+            h = 31 * h + tabSize;
+            this.hash = h;
+        }
+
+        /**
+         * Returns the key for the same text and font laid out with the
+         * given properties. The receiver is returned when nothing changed.
+         */
+        Key derive(float wrapWidth, float spacing, int flags, int tabSize) {
+            if (this.wrapWidth == wrapWidth && this.spacing == spacing &&
+                this.flags == flags && this.tabSize == tabSize) {
+                return this;
+            }
+            return new Key(text, font, textHash, wrapWidth, spacing, flags, tabSize);
+        }
+
+        /* The key of the shaped runs, ignores the layout properties */
+        Key base() {
+            return derive(0, 0, 0, 0);
+        }
+
+        int length() {
+            return text.length;
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        @Override public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key)obj;
+            return hash == other.hash &&
+                   wrapWidth == other.wrapWidth &&
+                   spacing == other.spacing &&
+                   flags == other.flags &&
+                   tabSize == other.tabSize &&
+                   Objects.equals(font, other.font) &&
+                   Arrays.equals(text, other.text);
+        }
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<Key, LayoutCache> layouts = new LinkedHashMap<>(64, 0.75f, true);
+    /* Most recently cached layout for each text and font, used to share the runs */
+    private final HashMap<Key, LayoutCache> shapes = new HashMap<>();
+    /* The key of the wrapped layout cached for each text and font */
+    private final HashMap<Key, Key> wrapped = new HashMap<>();
+    private int size;
+    private long hitCount;
+    private long shapeHitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a cache holding at most {@code maxSize} characters.
+     */
+    public TextLayoutCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the layout cached for the key or null.
+     * Counts a hit when a layout is found.
+     */
+    synchronized LayoutCache get(Key key) {
+        LayoutCache cache = layouts.get(key);
+        if (cache != null) {
+            hitCount++;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns a layout of the same text and font as the key, regardless of
+     * the layout properties, or null. Only its runs can be reused.
+     * Counts a shape hit or a miss.
+     */
+    synchronized LayoutCache getShaped(Key key) {
+        LayoutCache cache = shapes.get(key.base());
+        if (cache != null) {
+            shapeHitCount++;
+        } else {
+            missCount++;
+        }
+        return cache;
+    }
+
+    synchronized void put(Key key, LayoutCache cache) {
+        int length = key.length();
+        if (length > maxSize) return;
+        Key base = key.base();
+        if (key.wrapWidth != 0) {
+            Key previous = wrapped.put(base, key);
+            if (previous != null && !previous.equals(key) && layouts.remove(previous) != null) {
+                size -= length;
+            }
+        }
+        LayoutCache old = layouts.put(key, cache);
+        if (old != null) {
+            size -= length;
+        }
+        shapes.put(base, cache);
+        size += length;
+        Iterator<Map.Entry<Key, LayoutCache>> it = layouts.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Map.Entry<Key, LayoutCache> eldest = it.next();
+            Key eldestKey = eldest.getKey();
+            it.remove();
+            size -= eldestKey.length();
+            evictionCount++;
+            Key eldestBase = eldestKey.base();
+            if (shapes.get(eldestBase) == eldest.getValue()) {
+                shapes.remove(eldestBase);
+            }
+            if (eldestKey.equals(wrapped.get(eldestBase))) {
+                wrapped.remove(eldestBase);
+            }
+        }
+    }
+
+    /**
+     * Removes all the layouts from the cache. The counters are not reset.
+     */
+    public synchronized void clear() {
+        layouts.clear();
+        shapes.clear();
+        wrapped.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the maximum number of characters held by the cache.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of characters currently held by the cache.
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of layouts currently held by the cache.
+     */
+    public synchronized int getEntryCount() {
+        return layouts.size();
+    }
+
+    /**
+     * Returns the number of layouts entirely reused from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of layouts that reused the runs of a cached layout
+     * of the same text and font but built their own lines.
+     */
+    public synchronized long getShapeHitCount() {
+        return shapeHitCount;
+    }
+
+    /**
+     * Returns the number of layouts that had to shape their text.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of layouts evicted to keep the cache within its
+     * maximum size.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+}
@@ -608,6 +608,12 @@ public abstract class Toolkit {
 
     public abstract PlatformImage createPlatformImage(int w, int h);
 
+    // Creates a writable image whose pixels are stored outside of the Java heap.
+    // Subclasses may override this; the default keeps the pixels on the heap
+    public PlatformImage createDirectPlatformImage(int w, int h) {
+        return createPlatformImage(w, h);
+    }
+
     // Indicates the default state of smooth for ImageView and MediaView
     // Subclasses may override this to provide a platform-specific default
     public boolean getDefaultImageSmooth() { return true; }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -1467,6 +1467,12 @@ public final class QuantumToolkit extends Toolkit {
         return com.sun.prism.Image.fromByteBgraPreData(bytebuf, w, h);
     }
 
+    @Override
+    public PlatformImage createDirectPlatformImage(int w, int h) {
+        ByteBuffer bytebuf = ByteBuffer.allocateDirect(w * h * 4);
+        return com.sun.prism.Image.fromByteBgraPreData(bytebuf, w, h);
+    }
+
     @Override
     public Object renderToImage(ImageRenderingContext p) {
         Object saveImage = p.platformImage;
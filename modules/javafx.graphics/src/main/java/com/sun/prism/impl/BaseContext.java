@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2009, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -181,12 +181,28 @@ public abstract class BaseContext {
 
         for (GlyphCache cache : glyphCaches.values()) {
             if (cache != null) {
-                cache.clear();
+                cache.dispose();
             }
         }
         glyphCaches.clear();
     }
 
+    /**
+     * Removes a glyph cache whose glyphs were all evicted from the glyph
+     * cache textures, so its strike can be released.
+     */
+    void disposeGlyphCache(GlyphCache cache) {
+        FontStrike strike = cache.getStrike();
+        Map<FontStrike, GlyphCache> glyphCaches =
+            (strike.getAAMode() == FontResource.AA_LCD)
+            ? lcdGlyphCaches : greyGlyphCaches;
+        if (glyphCaches.get(strike) == cache) {
+            glyphCaches.remove(strike);
+            strike.clearDesc();
+        }
+        cache.clear();
+    }
+
     abstract public RTTexture getLCDBuffer();
 
     public GlyphCache getGlyphCache(FontStrike strike) {
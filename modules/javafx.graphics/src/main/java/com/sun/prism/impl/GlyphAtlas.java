@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl;
+
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.logging.PulseLogger;
+import com.sun.prism.ResourceFactory;
+import com.sun.prism.Texture;
+import com.sun.prism.Texture.WrapMode;
+import com.sun.prism.impl.packrect.RectanglePacker;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.sun.javafx.logging.PulseLogger.PULSE_LOGGING_ENABLED;
+
+/**
+ * The textures holding the glyph images of the {@link GlyphCache}s of a
+ * context, for one anti-aliasing mode.
+ *
+ * The atlas has up to prism.glyphCachePages textures (pages). Each glyph
+ * cache is assigned a page when it is created, so all the glyphs of a
+ * strike are drawn from the same texture. When a page is full, its least
+ * recently used levels are evicted, along with the glyphs they hold. A
+ * page is only cleared when no room can be made otherwise.
+ */
+final class GlyphAtlas {
+
+    // REMIND: For a less powerful device, the size of this cache
+    // is likely something we'd want to tune as they may have much less
+    // VRAM and are less likely to be used for apps that have huge
+    // text demands.
+    // 2048 pixels introduced very noticeable pauses when trying
+    // to free 1/4 of the glyphs, which for spiral text also amounts
+    // to 1/4 of the strikes.
+    private static final int WIDTH = PrismSettings.glyphCacheWidth; // in pixels
+    private static final int HEIGHT = PrismSettings.glyphCacheHeight; // in pixels
+    private static final int MAX_PAGES = Math.max(1, PrismSettings.glyphCachePages);
+
+    /* A new page is added when the occupancy of all the pages is higher */
+    private static final float PAGE_FULL = 0.75f;
+
+    /* Incremented each time glyphs are evicted from any page */
+    private static int evictionCount;
+
+    static final class Page {
+        final RectanglePacker packer;
+        final List<GlyphCache> caches = new ArrayList<>();
+        final int index;
+
+        Page(RectanglePacker packer, int index) {
+            this.packer = packer;
+            this.index = index;
+        }
+
+        Texture getBackingStore() {
+            return packer.getBackingStore();
+        }
+    }
+
+    private final BaseContext context;
+    private final boolean lcd;
+    private final List<Page> pages = new ArrayList<>();
+    private int stamp = 1;
+
+    GlyphAtlas(BaseContext context, boolean lcd) {
+        this.context = context;
+        this.lcd = lcd;
+    }
+
+    static int getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Starts a new use of the atlas, the glyphs touched from now on are not
+     * evicted until the next use.
+     */
+    int nextStamp() {
+        return ++stamp;
+    }
+
+    int getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Assigns a page to a new glyph cache.
+     */
+    Page addCache(GlyphCache cache) {
+        Page page = null;
+        float occupancy = Float.MAX_VALUE;
+        for (Page p : pages) {
+            float o = p.packer.getOccupancy();
+            if (o < occupancy) {
+                page = p;
+                occupancy = o;
+            }
+        }
+        if (page == null || (occupancy > PAGE_FULL && pages.size() < MAX_PAGES)) {
+            page = createPage();
+        }
+        page.caches.add(cache);
+        return page;
+    }
+
+    void removeCache(GlyphCache cache, Page page) {
+        page.caches.remove(cache);
+    }
+
+    private Page createPage() {
+        ResourceFactory factory = context.getResourceFactory();
+        Texture tex = factory.createMaskTexture(WIDTH, HEIGHT,
+                                                WrapMode.CLAMP_NOT_NEEDED);
+        tex.contentsUseful();
+        tex.makePermanent();
+        if (!lcd && pages.isEmpty()) {
+            // only the first page can be used by the super shader
+            factory.setGlyphTexture(tex);
+        }
+        tex.setLinearFiltering(false);
+        Page page = new Page(new RectanglePacker(tex, WIDTH, HEIGHT), pages.size());
+        pages.add(page);
+        if (PULSE_LOGGING_ENABLED) {
+            PulseLogger.addMessage("Glyph cache page " + page.index + " created (" + getModeName() + ")");
+        }
+        return page;
+    }
+
+    /**
+     * Places the rectangle on the page of the cache, evicting the least
+     * recently used glyphs of the page if needed.
+     */
+    boolean add(Page page, Rectangle rect, GlyphCache requester) {
+        RectanglePacker packer = page.packer;
+        if (packer.add(rect)) {
+            return true;
+        }
+
+        // flush any pending vertices that may depend on the current state
+        // of the glyph cache texture.
+        context.flushVertexBuffer();
+        evictionCount++;
+        if (packer.evict(rect, stamp, (x, y, w, h) -> evicted(page, requester, x, y, w, h))) {
+            if (PULSE_LOGGING_ENABLED) {
+                logOccupancy(page);
+            }
+            if (packer.add(rect)) {
+                return true;
+            }
+        }
+
+        // Every level of the page is in use, clear the page.
+        if (PULSE_LOGGING_ENABLED) {
+            PulseLogger.incrementCounter("Font Glyph Cache Cleared");
+        }
+        for (Iterator<GlyphCache> it = page.caches.iterator(); it.hasNext();) {
+            GlyphCache cache = it.next();
+            if (cache != requester) {
+                it.remove();
+                context.disposeGlyphCache(cache);
+            } else {
+                cache.clear();
+            }
+        }
+        packer.clear();
+        return packer.add(rect);
+    }
+
+    private void evicted(Page page, GlyphCache requester, int x, int y, int w, int h) {
+        if (PULSE_LOGGING_ENABLED) {
+            PulseLogger.incrementCounter("Glyph cache levels evicted");
+        }
+        for (Iterator<GlyphCache> it = page.caches.iterator(); it.hasNext();) {
+            GlyphCache cache = it.next();
+            int remaining = cache.evict(x, y, w, h);
+            if (remaining == 0 && cache != requester) {
+                // Release the strike of a cache without glyphs left
+                it.remove();
+                context.disposeGlyphCache(cache);
+            }
+        }
+    }
+
+    private void logOccupancy(Page page) {
+        PulseLogger.addMessage("Glyph cache page " + page.index + " (" + getModeName() + "): " +
+                               Math.round(page.packer.getOccupancy() * 100) + "% used");
+    }
+
+    private String getModeName() {
+        return lcd ? "LCD" : "grey";
+    }
+
+    void dispose() {
+        for (Page page : pages) {
+            page.packer.dispose();
+        }
+        pages.clear();
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2009, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -29,13 +29,12 @@ import com.sun.javafx.font.CharToGlyphMapper;
 import com.sun.javafx.font.CompositeGlyphMapper;
 import com.sun.javafx.font.FontResource;
 import com.sun.javafx.font.FontStrike;
-import com.sun.javafx.font.Glyph;
 import com.sun.javafx.geom.BaseBounds;
 import com.sun.javafx.geom.Rectangle;
 import com.sun.javafx.geom.Point2D;
 import com.sun.javafx.geom.transform.BaseTransform;
 import com.sun.javafx.scene.text.GlyphList;
-import com.sun.prism.impl.packrect.RectanglePacker;
+import com.sun.prism.impl.GlyphRasterizer.PreparedGlyph;
 import com.sun.prism.Texture;
 import com.sun.prism.impl.shape.MaskData;
 import com.sun.prism.paint.Color;
@@ -47,20 +46,8 @@ import java.util.WeakHashMap;
 import static com.sun.javafx.logging.PulseLogger.PULSE_LOGGING_ENABLED;
 import com.sun.javafx.logging.PulseLogger;
 
-import com.sun.prism.ResourceFactory;
-import com.sun.prism.Texture.WrapMode;
-
 public class GlyphCache {
 
-    // REMIND: For a less powerful device, the size of this cache
-    // is likely something we'd want to tune as they may have much less
-    // VRAM and are less likely to be used for apps that have huge
-    // text demands.
-    // 2048 pixels introduced very noticeable pauses when trying
-    // to free 1/4 of the glyphs, which for spiral text also amounts
-    // to 1/4 of the strikes.
-    private static final int WIDTH = PrismSettings.glyphCacheWidth; // in pixels
-    private static final int HEIGHT = PrismSettings.glyphCacheHeight; // in pixels
     private static ByteBuffer emptyMask;
 
     private final BaseContext context;
@@ -77,18 +64,19 @@ public class GlyphCache {
     // Using them for subpixel
     private static final int SUBPIXEL_SHIFT = 27;
 
-    private RectanglePacker packer;
+    private final GlyphAtlas atlas;
+    private final GlyphAtlas.Page page;
 
     private boolean isLCDCache;
 
-    /* Share a RectanglePacker and its associated texture cache
+    /* Share a GlyphAtlas and its associated texture caches
      * for all uses on a particular screen.
      */
-    static WeakHashMap<BaseContext, RectanglePacker> greyPackerMap =
-        new WeakHashMap<BaseContext, RectanglePacker>();
+    static WeakHashMap<BaseContext, GlyphAtlas> greyAtlasMap =
+        new WeakHashMap<BaseContext, GlyphAtlas>();
 
-    static WeakHashMap<BaseContext, RectanglePacker> lcdPackerMap =
-        new WeakHashMap<BaseContext, RectanglePacker>();
+    static WeakHashMap<BaseContext, GlyphAtlas> lcdAtlasMap =
+        new WeakHashMap<BaseContext, GlyphAtlas>();
 
     public GlyphCache(BaseContext context, FontStrike strike) {
         this.context = context;
@@ -97,22 +85,15 @@ public class GlyphCache {
         //int numSegments = (numGlyphs + SEGSIZE-1)/SEGSIZE;
         //this.glyphs = new GlyphData[numSegments][];
         isLCDCache = strike.getAAMode() == FontResource.AA_LCD;
-        WeakHashMap<BaseContext, RectanglePacker>
-            packerMap = isLCDCache ? lcdPackerMap : greyPackerMap;
-        packer = packerMap.get(context);
-        if (packer == null) {
-            ResourceFactory factory = context.getResourceFactory();
-            Texture tex = factory.createMaskTexture(WIDTH, HEIGHT,
-                                                    WrapMode.CLAMP_NOT_NEEDED);
-            tex.contentsUseful();
-            tex.makePermanent();
-            if (!isLCDCache) {
-                factory.setGlyphTexture(tex);
-            }
-            tex.setLinearFiltering(false);
-            packer = new RectanglePacker(tex, WIDTH, HEIGHT);
-            packerMap.put(context, packer);
+        WeakHashMap<BaseContext, GlyphAtlas>
+            atlasMap = isLCDCache ? lcdAtlasMap : greyAtlasMap;
+        GlyphAtlas contextAtlas = atlasMap.get(context);
+        if (contextAtlas == null) {
+            contextAtlas = new GlyphAtlas(context, isLCDCache);
+            atlasMap.put(context, contextAtlas);
         }
+        atlas = contextAtlas;
+        page = atlas.addCache(this);
     }
 
     public void render(BaseContext ctx, GlyphList gl, float x, float y,
@@ -127,6 +108,10 @@ public class GlyphCache {
             dstw = 1;
             dsth = 1;
         }
+        int stamp = atlas.nextStamp();
+        if (GlyphRasterizer.isEnabled()) {
+            GlyphRasterizer.uploadPrepared(context);
+        }
         Texture tex = getBackingStore();
         VertexBuffer vb = ctx.getVertexBuffer();
 
@@ -170,14 +155,14 @@ public class GlyphCache {
                         }
                     }
                 }
-                addDataToQuad(data, vb, tex, pt.x, pt.y, dstw, dsth);
+                addDataToQuad(data, vb, tex, pt.x, pt.y, dstw, dsth, stamp);
             }
         }
     }
 
     private void addDataToQuad(GlyphData data, VertexBuffer vb,
                                Texture tex, float x, float y,
-                               float dstw, float dsth) {
+                               float dstw, float dsth, int stamp) {
         // We are sampling texture using nearest point sampling, for clear
         // text. As a consequence of nearest point sampling, graphics artifacts
         // may occur when sampling close to texel boundaries.
@@ -190,6 +175,7 @@ public class GlyphCache {
             // Glyph with no visual representation (whitespace)
             return;
         }
+        page.packer.touch(rect, stamp);
         int border = data.getBlankBoundary();
         float gw = rect.width - (border * 2);
         float gh = rect.height - (border * 2);
@@ -223,122 +209,173 @@ public class GlyphCache {
     }
 
     public Texture getBackingStore() {
-        return packer.getBackingStore();
+        return page.getBackingStore();
+    }
+
+    FontStrike getStrike() {
+        return strike;
     }
 
     public void clear() {
         glyphDataMap.clear();
     }
 
-    private void clearAll() {
-        // flush any pending vertices that may depend on the current state
-        // of the glyph cache texture.
-        context.flushVertexBuffer();
-        context.clearGlyphCaches();
-        packer.clear();
+    /**
+     * Releases the page of the atlas assigned to this cache.
+     */
+    void dispose() {
+        clear();
+        atlas.removeCache(this, page);
     }
 
-    private GlyphData getCachedGlyph(int glyphCode, int subPixel) {
+    /**
+     * Removes the glyphs within the given area of the backing store, evicted
+     * by the atlas. Returns the number of glyphs left on the backing store.
+     */
+    int evict(int x, int y, int width, int height) {
+        int remaining = 0;
+        for (GlyphData[] segment : glyphDataMap.values()) {
+            for (int i = 0; i < SEGSIZE; i++) {
+                GlyphData data = segment[i];
+                if (data == null) continue;
+                Rectangle rect = data.getRect();
+                if (rect == null) continue;
+                if (rect.x < x + width && x < rect.x + rect.width &&
+                    rect.y < y + height && y < rect.y + rect.height) {
+                    segment[i] = null;
+                    if (PULSE_LOGGING_ENABLED) {
+                        PulseLogger.incrementCounter("Glyph cache glyphs evicted");
+                    }
+                } else {
+                    remaining++;
+                }
+            }
+        }
+        return remaining;
+    }
+
+    private GlyphData[] getSegment(int glyphCode, int subPixel) {
         int segIndex = glyphCode >>> SEGSHIFT;
-        int subIndex = glyphCode & SEGMASK;
         segIndex |= (subPixel << SUBPIXEL_SHIFT);
         GlyphData[] segment = glyphDataMap.get(segIndex);
-        if (segment != null) {
-            if (segment[subIndex] != null) {
-                return segment[subIndex];
-            }
-        } else {
+        if (segment == null) {
             segment = new GlyphData[SEGSIZE];
             glyphDataMap.put(segIndex, segment);
         }
+        return segment;
+    }
+
+    private GlyphData getCachedGlyph(int glyphCode, int subPixel) {
+        GlyphData[] segment = getSegment(glyphCode, subPixel);
+        int subIndex = glyphCode & SEGMASK;
+        if (segment[subIndex] != null) {
+            return segment[subIndex];
+        }
 
         // Render the glyph and insert it in the cache
-        GlyphData data = null;
-        Glyph glyph = strike.getGlyph(glyphCode);
-        if (glyph != null) {
-            byte[] glyphImage = glyph.getPixelData(subPixel);
-            if (glyphImage == null || glyphImage.length == 0) {
-                data = new GlyphData(0, 0, 0,
-                                     glyph.getPixelXAdvance(),
-                                     glyph.getPixelYAdvance(),
-                                     null);
-            } else {
-                // Rasterize the glyph
-                // NOTE : if the MaskData can be stored back directly
-                // in the glyph, even as an opaque type, it should save
-                // repeated work next time the glyph is used.
-                MaskData maskData = MaskData.create(glyphImage,
-                                                    glyph.getOriginX(),
-                                                    glyph.getOriginY(),
-                                                    glyph.getWidth(),
-                                                    glyph.getHeight());
-
-                // Make room for the rectangle on the backing store
-                int border = 1;
-                int rectW = maskData.getWidth()  + (2 * border);
-                int rectH = maskData.getHeight() + (2 * border);
-                int originX = maskData.getOriginX();
-                int originY = maskData.getOriginY();
-                Rectangle rect = new Rectangle(0, 0, rectW, rectH);
-                data = new GlyphData(originX, originY, border,
-                                     glyph.getPixelXAdvance(),
-                                     glyph.getPixelYAdvance(),
-                                     rect);
-
-                if (!packer.add(rect)) {
-                    if (PULSE_LOGGING_ENABLED) {
-                        PulseLogger.incrementCounter("Font Glyph Cache Cleared");
-                    }
-                    // If add fails,clear up the cache. Try add again.
-                    clearAll();
-                    if (!packer.add(rect)) {
-                        if (PrismSettings.verbose) {
-                            System.out.println(rect + " won't fit in GlyphCache");
-                        }
-                        return null;
-                    }
-                }
+        PreparedGlyph glyph = GlyphRasterizer.prepare(strike, glyphCode, subPixel);
+        if (glyph == null) {
+            return null;
+        }
+        GlyphData data = createGlyphData(glyph);
+        if (data != null) {
+            // the cache may have been cleared to make room for the glyph
+            getSegment(glyphCode, subPixel)[subIndex] = data;
+        }
+        return data;
+    }
 
-                // We always pass skipFlush=true to backingStore.update()
-                // since we are in control of the contents of the backingStore
-                // texture and explicitly flush the vertex buffer only when
-                // it is truly needed.
-                boolean skipFlush = true;
-
-                // Upload the an empty byte array to ensure the boundary
-                // area is filled with zeros. Note that the rectangle
-                // is already padded on each edge.
-                Texture backingStore = getBackingStore();
-                int emw = rect.width;
-                int emh = rect.height;
-                int bpp = backingStore.getPixelFormat().getBytesPerPixelUnit();
-                int stride = emw * bpp;
-                int size = stride * emh;
-                if (emptyMask == null || size > emptyMask.capacity()) {
-                    emptyMask = BufferUtil.newByteBuffer(size);
-                }
-                // try/catch is a precaution against not fitting into the store.
-                try {
-                    backingStore.update(emptyMask,
-                                        backingStore.getPixelFormat(),
-                                        rect.x, rect.y,
-                                        0, 0, emw, emh, stride,
-                                        skipFlush);
-                } catch (Exception e) {
-                    if (PrismSettings.verbose) {
-                        e.printStackTrace();
-                    }
-                    return null;
-                }
-                // Upload the glyph
-                maskData.uploadToTexture(backingStore,
-                                         border + rect.x,
-                                         border + rect.y,
-                                         skipFlush);
+    /**
+     * Adds a glyph prepared by the {@link GlyphRasterizer} to the cache.
+     * Returns false if glyphs had to be evicted from the backing store to
+     * make room for the glyph.
+     */
+    boolean addPreparedGlyph(PreparedGlyph glyph) {
+        GlyphData[] segment = getSegment(glyph.glyphCode, glyph.subPixel);
+        int subIndex = glyph.glyphCode & SEGMASK;
+        if (segment[subIndex] != null) {
+            return true;
+        }
+        int count = GlyphAtlas.getEvictionCount();
+        GlyphData data = createGlyphData(glyph);
+        if (data != null) {
+            getSegment(glyph.glyphCode, glyph.subPixel)[subIndex] = data;
+        }
+        return count == GlyphAtlas.getEvictionCount();
+    }
 
+    private GlyphData createGlyphData(PreparedGlyph glyph) {
+        byte[] glyphImage = glyph.pixels;
+        if (glyphImage == null) {
+            return new GlyphData(0, 0, 0,
+                                 glyph.xAdvance,
+                                 glyph.yAdvance,
+                                 null);
+        }
+        // Wrap the glyph image
+        // NOTE : if the MaskData can be stored back directly
+        // in the glyph, even as an opaque type, it should save
+        // repeated work next time the glyph is used.
+        MaskData maskData = MaskData.create(glyphImage,
+                                            glyph.originX,
+                                            glyph.originY,
+                                            glyph.width,
+                                            glyph.height);
+        // Make room for the rectangle on the backing store
+        int border = 1;
+        int rectW = maskData.getWidth()  + (2 * border);
+        int rectH = maskData.getHeight() + (2 * border);
+        int originX = maskData.getOriginX();
+        int originY = maskData.getOriginY();
+        Rectangle rect = new Rectangle(0, 0, rectW, rectH);
+        GlyphData data = new GlyphData(originX, originY, border,
+                                       glyph.xAdvance,
+                                       glyph.yAdvance,
+                                       rect);
+
+        if (!atlas.add(page, rect, this)) {
+            if (PrismSettings.verbose) {
+                System.out.println(rect + " won't fit in GlyphCache");
+            }
+            return null;
+        }
+
+        // We always pass skipFlush=true to backingStore.update()
+        // since we are in control of the contents of the backingStore
+        // texture and explicitly flush the vertex buffer only when
+        // it is truly needed.
+        boolean skipFlush = true;
+
+        // Upload the an empty byte array to ensure the boundary
+        // area is filled with zeros. Note that the rectangle
+        // is already padded on each edge.
+        Texture backingStore = getBackingStore();
+        int emw = rect.width;
+        int emh = rect.height;
+        int bpp = backingStore.getPixelFormat().getBytesPerPixelUnit();
+        int stride = emw * bpp;
+        int size = stride * emh;
+        if (emptyMask == null || size > emptyMask.capacity()) {
+            emptyMask = BufferUtil.newByteBuffer(size);
+        }
+        // try/catch is a precaution against not fitting into the store.
+        try {
+            backingStore.update(emptyMask,
+                                backingStore.getPixelFormat(),
+                                rect.x, rect.y,
+                                0, 0, emw, emh, stride,
+                                skipFlush);
+        } catch (Exception e) {
+            if (PrismSettings.verbose) {
+                e.printStackTrace();
             }
-            segment[subIndex] = data;
+            return null;
         }
+        // Upload the glyph
+        maskData.uploadToTexture(backingStore,
+                                 border + rect.x,
+                                 border + rect.y,
+                                 skipFlush);
 
         return data;
     }
@@ -398,18 +435,18 @@ public class GlyphCache {
         }
     }
 
-    private static void disposePackerForContext(BaseContext ctx,
-            WeakHashMap<BaseContext, RectanglePacker> packerMap) {
+    private static void disposeAtlasForContext(BaseContext ctx,
+            WeakHashMap<BaseContext, GlyphAtlas> atlasMap) {
 
-        RectanglePacker packer = packerMap.remove(ctx);
-        if (packer != null) {
-            packer.dispose();
+        GlyphAtlas atlas = atlasMap.remove(ctx);
+        if (atlas != null) {
+            atlas.dispose();
         }
     }
 
     public static void disposeForContext(BaseContext ctx) {
-        disposePackerForContext(ctx, greyPackerMap);
-        disposePackerForContext(ctx, lcdPackerMap);
+        disposeAtlasForContext(ctx, greyAtlasMap);
+        disposeAtlasForContext(ctx, lcdAtlasMap);
     }
 
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl;
+
+import com.sun.javafx.font.CharToGlyphMapper;
+import com.sun.javafx.font.CompositeGlyphMapper;
+import com.sun.javafx.font.CompositeStrike;
+import com.sun.javafx.font.FontStrike;
+import com.sun.javafx.font.Glyph;
+import com.sun.javafx.scene.text.GlyphList;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Rasterizes glyphs on background threads, ahead of the render pass that
+ * draws them.
+ *
+ * The glyph lists of a text are handed to {@link #prefetch} when the text is
+ * synchronized to the render graph. The glyph images are prepared on the
+ * rasterizer threads and queued, then the render thread uploads the queued
+ * glyphs to the glyph cache textures in a batch, before drawing the first
+ * glyph list of the pass (see {@link #uploadPrepared}).
+ *
+ * The glyphs of a strike are only rasterized while holding the lock of
+ * the strike, by the rasterizer threads and by the {@link GlyphCache}, as
+ * the glyphs are not thread safe. The glyphs of a composite strike are
+ * rasterized by the strike of their slot, under the lock of that strike,
+ * as the slot strikes of fallback fonts are shared by composite strikes.
+ * Only the strikes whose rasterizer does not share state with the other
+ * strikes are prefetched (see {@link FontStrike#isRasterizerThreadSafe}),
+ * which is the case of FreeType.
+ *
+ * The number of threads is set by the prism.glyphRasterizerThreads
+ * property, the rasterizer is disabled when it is 0 (the default).
+ */
+public final class GlyphRasterizer {
+
+    private static final int THREADS = PrismSettings.glyphRasterizerThreads;
+
+    /* The glyphs requested per strike, only accessed by the FX thread */
+    private static final int MAX_REQUESTED = 4096;
+    private static final WeakHashMap<FontStrike, Set<Integer>> requested = new WeakHashMap<>();
+
+    private static final ConcurrentLinkedQueue<PreparedGlyph> prepared = new ConcurrentLinkedQueue<>();
+    private static ExecutorService executor;
+
+    private GlyphRasterizer() {
+    }
+
+    public static boolean isEnabled() {
+        return THREADS > 0;
+    }
+
+    /**
+     * Rasterizes the glyphs of the lists for the strike on the rasterizer
+     * threads. Glyphs already requested for the strike are skipped.
+     * Must be called on the FX thread.
+     */
+    public static void prefetch(FontStrike strike, GlyphList[] runs) {
+        if (!isEnabled() || strike == null || runs == null || !canPrefetch(strike)) {
+            return;
+        }
+        request(strike, runs, getExecutor());
+    }
+
+    static boolean canPrefetch(FontStrike strike) {
+        return !strike.drawAsShapes() && strike.isRasterizerThreadSafe();
+    }
+
+    /* Rasterizes the glyphs not requested yet on the executor */
+    static void request(FontStrike strike, GlyphList[] runs, Executor executor) {
+        Set<Integer> glyphs = requested.get(strike);
+        if (glyphs == null || glyphs.size() > MAX_REQUESTED) {
+            glyphs = new HashSet<>();
+            requested.put(strike, glyphs);
+        }
+        CompositeStrike compositeStrike =
+            strike instanceof CompositeStrike ? (CompositeStrike) strike : null;
+        int[] codes = null;
+        FontStrike[] strikes = null;
+        int count = 0;
+        for (GlyphList run : runs) {
+            int len = run.getGlyphCount();
+            for (int gi = 0; gi < len; gi++) {
+                int gc = run.getGlyphCode(gi);
+                if ((gc & CompositeGlyphMapper.GLYPHMASK) == CharToGlyphMapper.INVISIBLE_GLYPH_ID) {
+                    continue;
+                }
+                /* The slot strikes are resolved here, as the composite
+                 * strike creates them lazily on the FX and render threads.
+                 */
+                FontStrike glyphStrike = strike;
+                if (compositeStrike != null) {
+                    glyphStrike = compositeStrike.getStrikeSlot(
+                            compositeStrike.getStrikeSlotForGlyph(gc));
+                    if (!glyphStrike.isRasterizerThreadSafe()) {
+                        continue;
+                    }
+                }
+                if (glyphs.add(gc)) {
+                    if (codes == null) {
+                        codes = new int[len];
+                        strikes = new FontStrike[len];
+                    } else if (count == codes.length) {
+                        int[] newCodes = new int[count + len];
+                        System.arraycopy(codes, 0, newCodes, 0, count);
+                        codes = newCodes;
+                        FontStrike[] newStrikes = new FontStrike[count + len];
+                        System.arraycopy(strikes, 0, newStrikes, 0, count);
+                        strikes = newStrikes;
+                    }
+                    strikes[count] = glyphStrike;
+                    codes[count++] = gc;
+                }
+            }
+        }
+        if (count == 0) return;
+        final int[] glyphCodes = codes;
+        final FontStrike[] glyphStrikes = strikes;
+        final int glyphCount = count;
+        executor.execute(() -> {
+            for (int i = 0; i < glyphCount; i++) {
+                PreparedGlyph glyph = prepare(strike, glyphStrikes[i], glyphCodes[i], 0);
+                if (glyph != null) {
+                    prepared.add(glyph);
+                }
+            }
+        });
+    }
+
+    /**
+     * Uploads the glyphs prepared by the rasterizer threads to the glyph
+     * caches of the context. Must be called on the render thread.
+     */
+    static void uploadPrepared(BaseContext context) {
+        uploadPrepared(glyph -> context.getGlyphCache(glyph.strike).addPreparedGlyph(glyph));
+    }
+
+    /**
+     * Hands the prepared glyphs to the uploader, which returns false when
+     * glyphs had to be evicted to make room for the glyph.
+     */
+    static void uploadPrepared(Predicate<PreparedGlyph> uploader) {
+        PreparedGlyph glyph;
+        while ((glyph = prepared.poll()) != null) {
+            if (!uploader.test(glyph)) {
+                /* The glyph cache textures are full and glyphs had to be
+                 * evicted, stop here so the batch does not evict the glyphs
+                 * about to be drawn.
+                 */
+                prepared.clear();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Rasterizes a glyph of the strike, returns null when the strike has no
+     * such glyph.
+     */
+    static PreparedGlyph prepare(FontStrike strike, int glyphCode, int subPixel) {
+        FontStrike glyphStrike = strike;
+        if (strike instanceof CompositeStrike) {
+            CompositeStrike compositeStrike = (CompositeStrike) strike;
+            glyphStrike = compositeStrike.getStrikeSlot(
+                    compositeStrike.getStrikeSlotForGlyph(glyphCode));
+        }
+        return prepare(strike, glyphStrike, glyphCode, subPixel);
+    }
+
+    /*
+     * Rasterizes a glyph of the strike with the strike that holds the glyph,
+     * which is the strike of its slot for a composite strike.
+     */
+    private static PreparedGlyph prepare(FontStrike strike, FontStrike glyphStrike,
+                                         int glyphCode, int subPixel) {
+        int slotGlyphCode = glyphStrike != strike
+                            ? glyphCode & CompositeGlyphMapper.GLYPHMASK
+                            : glyphCode;
+        synchronized (glyphStrike) {
+            Glyph glyph = glyphStrike.getGlyph(slotGlyphCode);
+            if (glyph == null) return null;
+            byte[] pixels = glyph.getPixelData(subPixel);
+            if (pixels == null || pixels.length == 0) {
+                return new PreparedGlyph(strike, glyphCode, subPixel, null, 0, 0, 0, 0,
+                                         glyph.getPixelXAdvance(),
+                                         glyph.getPixelYAdvance());
+            }
+            return new PreparedGlyph(strike, glyphCode, subPixel, pixels,
+                                     glyph.getOriginX(), glyph.getOriginY(),
+                                     glyph.getWidth(), glyph.getHeight(),
+                                     glyph.getPixelXAdvance(),
+                                     glyph.getPixelYAdvance());
+        }
+    }
+
+    @SuppressWarnings("removal")
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, runnable ->
+                AccessController.doPrivileged((PrivilegedAction<Thread>) () -> {
+                    Thread thread = new Thread(runnable, "Glyph Rasterizer");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+            );
+        }
+        return executor;
+    }
+
+    static final class PreparedGlyph {
+        final FontStrike strike;
+        final int glyphCode;
+        final int subPixel;
+        final byte[] pixels;    /* null for a glyph without image */
+        final int originX, originY;
+        final int width, height;
+        final float xAdvance, yAdvance;
+
+        PreparedGlyph(FontStrike strike, int glyphCode, int subPixel,
+                      byte[] pixels, int originX, int originY,
+                      int width, int height, float xAdvance, float yAdvance) {
+            this.strike = strike;
+            this.glyphCode = glyphCode;
+            this.subPixel = subPixel;
+            this.pixels = pixels;
+            this.originX = originX;
+            this.originY = originY;
+            this.width = width;
+            this.height = height;
+            this.xAdvance = xAdvance;
+            this.yAdvance = yAdvance;
+        }
+    }
+}
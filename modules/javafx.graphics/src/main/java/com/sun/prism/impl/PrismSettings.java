@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -66,6 +66,10 @@ public final class PrismSettings {
     public static final int maxTextureSize;
     public static final int primTextureSize;
     public static final boolean disableRegionCaching;
+    public static final int regionCacheWidth;
+    public static final int regionCacheHeight;
+    public static final int regionCachePages;
+    public static final int regionCacheMaxSize;
     public static final boolean forcePow2;
     public static final boolean noClampToZero;
     public static final boolean disableD3D9Ex;
@@ -77,6 +81,8 @@ public final class PrismSettings {
     public static final boolean disableEffects;
     public static final int glyphCacheWidth;
     public static final int glyphCacheHeight;
+    public static final int glyphRasterizerThreads;
+    public static final int glyphCachePages;
     public static final String perfLog;
     public static final boolean perfLogExitFlush;
     public static final boolean perfLogFirstPaintFlush;
@@ -85,6 +91,7 @@ public final class PrismSettings {
     public static final boolean forceUploadingPainter;
     public static final boolean forceAlphaTestShader;
     public static final boolean forceNonAntialiasedShape;
+    public static final int swRasterThreads;
 
     public static enum RasterizerType {
         DoubleMarlin("Double Precision Marlin Rasterizer");
@@ -324,6 +331,14 @@ public final class PrismSettings {
         disableRegionCaching = getBoolean(systemProperties,
                                           "prism.disableRegionCaching",
                                           false);
+        regionCacheWidth = getInt(systemProperties, "prism.regionCacheWidth", 1024,
+                "Try -Dprism.regionCacheWidth=<number>");
+        regionCacheHeight = getInt(systemProperties, "prism.regionCacheHeight", 1024,
+                "Try -Dprism.regionCacheHeight=<number>");
+        regionCachePages = getInt(systemProperties, "prism.regionCachePages", 1,
+                "Try -Dprism.regionCachePages=<number>");
+        regionCacheMaxSize = getInt(systemProperties, "prism.regionCacheMaxSize", 300 * 300,
+                "Try -Dprism.regionCacheMaxSize=<number>");
 
         disableD3D9Ex = getBoolean(systemProperties, "prism.disableD3D9Ex", false);
 
@@ -333,6 +348,10 @@ public final class PrismSettings {
                 "Try -Dprism.glyphCacheWidth=<number>");
         glyphCacheHeight = getInt(systemProperties, "prism.glyphCacheHeight", 1024,
                 "Try -Dprism.glyphCacheHeight=<number>");
+        glyphCachePages = getInt(systemProperties, "prism.glyphCachePages", 1,
+                "Try -Dprism.glyphCachePages=<number>");
+        glyphRasterizerThreads = getInt(systemProperties, "prism.glyphRasterizerThreads", 0,
+                "Try -Dprism.glyphRasterizerThreads=<number>");
 
         /*
          * Performance Logger flags
@@ -354,6 +373,12 @@ public final class PrismSettings {
         // Force non anti-aliasing (not smooth) shape rendering
         forceNonAntialiasedShape = getBoolean(systemProperties, "prism.forceNonAntialiasedShape", false);
 
+        // Number of threads used by the SW pipeline to rasterize large shapes
+        // in horizontal bands, 1 means rasterize on the render thread only
+        swRasterThreads = Math.max(1, getInt(systemProperties, "prism.sw.rasterThreads",
+                1, Runtime.getRuntime().availableProcessors(),
+                "Try -Dprism.sw.rasterThreads=<true or number>"));
+
     }
 
     private static int parseInt(String s, int dflt, int trueDflt,
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006, 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2006, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -30,8 +30,8 @@ import com.sun.javafx.geom.Rectangle;
 class Level {
     int length;
     int size;
-    private int sizeOffset;
-    private int lengthOffset;
+    int sizeOffset;
+    int lengthOffset;
 
     Level(int length, int size, int sizeOffset) {
         this.length = length;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2006, 2013, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2006, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -28,6 +28,7 @@ package com.sun.prism.impl.packrect;
 import com.sun.javafx.geom.Rectangle;
 import com.sun.prism.Texture;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -35,8 +36,22 @@ import java.util.List;
  * into a larger backing store rectangle (typically representing a large
  * texture). Supports automatic compaction of the space on the backing store,
  * and automatic expansion of the backing store, when necessary.
+ *
+ * The rectangles are packed in levels. When the backing store is full, the
+ * least recently used levels can be evicted to make room (see
+ * {@link #evict}), instead of clearing the whole backing store. The users
+ * mark the levels they use with {@link #touch}.
  */
 public class RectanglePacker {
+
+    /**
+     * Notified of the area of the backing store emptied by {@link #evict}.
+     * All the rectangles packed in that area are lost.
+     */
+    public interface EvictionListener {
+        void evicted(int x, int y, int width, int height);
+    }
+
     /**
      * A reference to the backing store that was created (lazily)
      * by the backing store manager.
@@ -57,6 +72,8 @@ public class RectanglePacker {
     private int x;
     private int y;
     private boolean vertical;
+    /* The last use of each level, indexed by the offset of the level */
+    private int[] levelUse;
 
     public RectanglePacker(Texture backingStore, int x, int y,
                            int width, int height, boolean vertical) {
@@ -71,6 +88,7 @@ public class RectanglePacker {
         this.x = x;
         this.y = y;
         this.vertical = vertical;
+        this.levelUse = new int[Math.max(this.size, 0)];
     }
 
     /**
@@ -159,6 +177,123 @@ public class RectanglePacker {
         return newLevel.add(rect, x, y, requestedLength, requestedSize, vertical);
     }
 
+    /**
+     * Marks the level holding the rectangle as used at {@code stamp}.
+     * The stamp must increase over time, levels used at the stamp given to
+     * {@link #evict} are never evicted.
+     *
+     * @param rect a rectangle previously placed by {@link #add}
+     * @param stamp the current use
+     */
+    public final void touch(Rectangle rect, int stamp) {
+        int offset = vertical ? rect.x - x : rect.y - y;
+        if (offset >= 0 && offset < levelUse.length) {
+            levelUse[offset] = stamp;
+        }
+    }
+
+    /**
+     * Empties the least recently used levels to make room for the given
+     * rectangle, which can then be added with {@link #add}.
+     * When no single level is large enough, adjacent levels are merged into
+     * a new level, and a level much larger than the rectangle is split.
+     * The levels used at {@code stamp} are kept.
+     *
+     * @param rect the rectangle to make room for
+     * @param stamp the current use, see {@link #touch}
+     * @param listener notified of the area emptied
+     * @return false if no room could be made
+     */
+    public final boolean evict(Rectangle rect, int stamp, EvictionListener listener) {
+        final int requestedLength = vertical ? rect.height : rect.width;
+        final int requestedSize = vertical ? rect.width : rect.height;
+        if (requestedLength > length || requestedSize > size) return false;
+
+        int newSize = MIN_SIZE > requestedSize ? MIN_SIZE : requestedSize;
+        newSize = (newSize + ROUND_UP - 1) - (newSize - 1) % ROUND_UP;
+
+        Level[] byOffset = levels.toArray(new Level[levels.size()]);
+        Arrays.sort(byOffset, (l1, l2) -> l1.sizeOffset - l2.sizeOffset);
+
+        // Find the run of adjacent levels, not used at stamp, that is large
+        // enough and whose most recent use is the oldest. A run reaching the
+        // last level also takes the space never allocated to a level.
+        int bestStart = -1, bestEnd = -1;
+        int bestUse = 0;
+        for (int i = 0; i < byOffset.length; i++) {
+            int total = 0;
+            int use = Integer.MIN_VALUE;
+            for (int j = i; j < byOffset.length; j++) {
+                Level level = byOffset[j];
+                int levelStamp = levelUse[level.sizeOffset];
+                if (levelStamp - stamp >= 0) break;
+                use = Math.max(use, levelStamp);
+                total += level.size;
+                if (j == byOffset.length - 1) {
+                    total += size - sizeOffset;
+                }
+                if (total >= newSize) {
+                    if (bestStart < 0 || use - bestUse < 0) {
+                        bestStart = i;
+                        bestEnd = j;
+                        bestUse = use;
+                    }
+                    break;
+                }
+            }
+        }
+        if (bestStart < 0) return false;
+
+        int start = byOffset[bestStart].sizeOffset;
+        int end;
+        for (int i = bestStart; i <= bestEnd; i++) {
+            levels.remove(byOffset[i]);
+        }
+        if (bestEnd == byOffset.length - 1) {
+            // The free space at the end now starts with the evicted levels
+            end = sizeOffset;
+            sizeOffset = start;
+        } else {
+            end = byOffset[bestEnd].sizeOffset + byOffset[bestEnd].size;
+            int remaining = end - start - newSize;
+            if (remaining >= MIN_SIZE) {
+                addLevel(new Level(length, newSize, start));
+                addLevel(new Level(length, remaining, start + newSize));
+            } else {
+                addLevel(new Level(length, end - start, start));
+            }
+        }
+        recentUsedLevelIndex = 0;
+
+        if (vertical) {
+            listener.evicted(x + start, y, end - start, length);
+        } else {
+            listener.evicted(x, y + start, length, end - start);
+        }
+        return true;
+    }
+
+    /* Inserts the level keeping the levels sorted by size */
+    private void addLevel(Level level) {
+        int index = 0;
+        while (index < levels.size() && levels.get(index).size <= level.size) {
+            index++;
+        }
+        levels.add(index, level);
+    }
+
+    /**
+     * Returns the fraction of the backing store area used by the packed
+     * rectangles, between 0 and 1.
+     */
+    public final float getOccupancy() {
+        long used = 0;
+        for (Level level : levels) {
+            used += (long) level.lengthOffset * level.size;
+        }
+        return (float) used / ((long) length * size);
+    }
+
     /**
      * Clears all Rectangles contained in this RectanglePacker.
      */
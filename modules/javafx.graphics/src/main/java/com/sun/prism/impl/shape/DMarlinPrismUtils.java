@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -226,6 +226,7 @@ public final class DMarlinPrismUtils {
             final BasicStroke stroke,
             final BaseTransform tx,
             final Rectangle clip,
+            final Rectangle bounds,
             final int piRule,
             final MarlinRenderer renderer)
     {
@@ -259,7 +260,7 @@ public final class DMarlinPrismUtils {
         }
 
         if (stroke != null) {
-            renderer.init(clip.x, clip.y, clip.width, clip.height,
+            renderer.init(bounds.x, bounds.y, bounds.width, bounds.height,
                           MarlinConst.WIND_NON_ZERO);
 
             return initStroker(rdrCtx, stroke, stroke.getLineWidth(), tx, renderer);
@@ -268,7 +269,7 @@ public final class DMarlinPrismUtils {
             final int oprule = (piRule == PathIterator.WIND_EVEN_ODD) ?
                 MarlinConst.WIND_EVEN_ODD : MarlinConst.WIND_NON_ZERO;
 
-            renderer.init(clip.x, clip.y, clip.width, clip.height, oprule);
+            renderer.init(bounds.x, bounds.y, bounds.width, bounds.height, oprule);
 
             DPathConsumer2D pc = renderer;
 
@@ -297,6 +298,23 @@ public final class DMarlinPrismUtils {
             final BaseTransform xform,
             final Rectangle rclip,
             final boolean antialiasedShape)
+    {
+        return setupRenderer(rdrCtx, shape, stroke, xform, rclip, rclip, antialiasedShape);
+    }
+
+    /**
+     * Sets up the renderer to produce the alphas within the given bounds
+     * only. The path is still clipped to the clip, so the alphas within the
+     * bounds are the same as when the whole clip is rendered.
+     */
+    public static MarlinRenderer setupRenderer(
+            final RendererContext rdrCtx,
+            final Shape shape,
+            final BasicStroke stroke,
+            final BaseTransform xform,
+            final Rectangle rclip,
+            final Rectangle bounds,
+            final boolean antialiasedShape)
     {
         // Test if transform is identity:
         final BaseTransform tf = ((xform != null) && !xform.isIdentity()) ? xform : null;
@@ -306,11 +324,11 @@ public final class DMarlinPrismUtils {
 
         if (shape instanceof Path2D) {
             final Path2D p2d = (Path2D)shape;
-            final DPathConsumer2D pc2d = initRenderer(rdrCtx, stroke, tf, rclip, p2d.getWindingRule(), r);
+            final DPathConsumer2D pc2d = initRenderer(rdrCtx, stroke, tf, rclip, bounds, p2d.getWindingRule(), r);
             feedConsumer(rdrCtx, p2d, tf, pc2d);
         } else {
             final PathIterator pi = shape.getPathIterator(tf);
-            final DPathConsumer2D pc2d = initRenderer(rdrCtx, stroke, tf, rclip, pi.getWindingRule(), r);
+            final DPathConsumer2D pc2d = initRenderer(rdrCtx, stroke, tf, rclip, bounds, pi.getWindingRule(), r);
             feedConsumer(rdrCtx, pi, pc2d);
         }
         return r;
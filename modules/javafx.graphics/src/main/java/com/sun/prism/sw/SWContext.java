@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -25,7 +25,9 @@
 
 package com.sun.prism.sw;
 
+import com.sun.javafx.geom.BaseBounds;
 import com.sun.javafx.geom.Path2D;
+import com.sun.javafx.geom.RectBounds;
 import com.sun.javafx.geom.Rectangle;
 import com.sun.javafx.geom.Shape;
 import com.sun.javafx.geom.transform.BaseTransform;
@@ -48,11 +50,18 @@ import com.sun.prism.impl.shape.MaskData;
 import com.sun.prism.impl.shape.ShapeUtil;
 
 import java.lang.ref.SoftReference;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 final class SWContext {
 
     private final ResourceFactory factory;
     private final ShapeRenderer shapeRenderer;
+    private final int rasterThreads;
+    private ForkJoinPool rasterPool;
     private SoftReference<SWRTTexture> readBackBufferRef;
     private SoftReference<SWArgbPreTexture> imagePaintTextureRef;
 
@@ -164,15 +173,26 @@ final class SWContext {
                 shape = stroke.createStrokedShape(shape);
                 stroke = null;
             }
+            rasterize(alphaConsumer, pr, shape, stroke, tr, clip, clip, antialiasedShape);
+        }
+
+        /*
+         * Rasterizes the rows of the shape within the bounds, clipping the
+         * shape to the clip.
+         */
+        static void rasterize(DirectRTMarlinAlphaConsumer alphaConsumer, PiscesRenderer pr,
+                              Shape shape, BasicStroke stroke, BaseTransform tr, Rectangle clip,
+                              Rectangle bounds, boolean antialiasedShape)
+        {
             final RendererContext rdrCtx = DMarlinRenderingEngine.getRendererContext();
             MarlinRenderer renderer = null;
             try {
                 if (shape instanceof Path2D) {
-                    renderer = DMarlinPrismUtils.setupRenderer(rdrCtx, (Path2D) shape, stroke, tr, clip,
+                    renderer = DMarlinPrismUtils.setupRenderer(rdrCtx, (Path2D) shape, stroke, tr, clip, bounds,
                             antialiasedShape);
                 }
                 if (renderer == null) {
-                    renderer = DMarlinPrismUtils.setupRenderer(rdrCtx, shape, stroke, tr, clip,
+                    renderer = DMarlinPrismUtils.setupRenderer(rdrCtx, shape, stroke, tr, clip, bounds,
                             antialiasedShape);
                 }
                 final int outpix_xmin = renderer.getOutpixMinX();
@@ -199,8 +219,142 @@ final class SWContext {
         public void dispose() { }
     }
 
+    /**
+     * Rasterizes a shape in horizontal bands of the clip, one band per thread
+     * of the raster pool. Each band is rasterized with its own Marlin
+     * RendererContext and PiscesRenderer, so the bands share no state other
+     * than the pixels of the target, of which each band writes a disjoint
+     * set of rows.
+     */
+    static final class BandRasterizer extends RecursiveAction {
+        private final PiscesRenderer pr;
+        private final Shape shape;
+        private final BasicStroke stroke;
+        private final BaseTransform tr;
+        private final Rectangle clip;
+        private final Rectangle band;
+        private final boolean antialiasedShape;
+
+        BandRasterizer(PiscesRenderer pr, Shape shape, BasicStroke stroke, BaseTransform tr,
+                       Rectangle clip, Rectangle band, boolean antialiasedShape)
+        {
+            this.pr = pr;
+            this.shape = shape;
+            this.stroke = stroke;
+            this.tr = tr;
+            this.clip = clip;
+            this.band = band;
+            this.antialiasedShape = antialiasedShape;
+        }
+
+        @Override
+        protected void compute() {
+            // The shape is clipped to the whole clip, as Marlin subdivides the
+            // curves crossing the clip, which would change the alphas of the
+            // rows of the band if the shape was clipped to the band
+            pr.setClip(band.x, band.y, band.width, band.height);
+            DMarlinShapeRenderer.rasterize(new DirectRTMarlinAlphaConsumer(), pr,
+                    shape, stroke, tr, clip, band, antialiasedShape);
+        }
+    }
+
+    // Shapes covering less than this number of pixels are not worth
+    // splitting into bands
+    private static final int MIN_BANDED_AREA = 256 * 256;
+    private static final int MIN_BAND_HEIGHT = 32;
+
+    private ForkJoinPool getRasterPool() {
+        if (rasterPool == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            rasterPool = new ForkJoinPool(rasterThreads, pool -> {
+                ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                t.setName("SW Raster Thread-" + threadCount.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }, null, false);
+        }
+        return rasterPool;
+    }
+
+    /**
+     * Renders the shape with a solid color concurrently in horizontal bands,
+     * if the tile-parallel mode is enabled and the shape is large enough.
+     *
+     * @param target the render target
+     * @param setup sets the paint and composite rule on the renderer of each band
+     * @return false if the shape was not rendered and should be rendered
+     *         with {@link #renderShape} instead
+     */
+    boolean renderShapeInBands(SWRTTexture target, Shape shape, BasicStroke stroke, BaseTransform tr,
+                               Rectangle clip, boolean antialiasedShape, Consumer<PiscesRenderer> setup)
+    {
+        if (rasterThreads <= 1 ||
+                PrismSettings.rasterizerSpec != PrismSettings.RasterizerType.DoubleMarlin) {
+            return false;
+        }
+        if (stroke != null && stroke.getType() != BasicStroke.TYPE_CENTERED) {
+            shape = stroke.createStrokedShape(shape);
+            stroke = null;
+        }
+
+        // conservative device bounds, only used to decide whether and where to split
+        final RectBounds shapeBounds = shape.getBounds();
+        float pad = 1f;
+        if (stroke != null) {
+            float lw = stroke.getLineWidth();
+            pad += (stroke.getLineJoin() == BasicStroke.JOIN_MITER)
+                   ? lw * Math.max(1f, stroke.getMiterLimit())
+                   : lw;
+        }
+        final BaseBounds bounds = tr.transform(
+                new RectBounds(shapeBounds.getMinX() - pad, shapeBounds.getMinY() - pad,
+                               shapeBounds.getMaxX() + pad, shapeBounds.getMaxY() + pad),
+                new RectBounds());
+        final int minY = Math.max(clip.y, (int) Math.floor(bounds.getMinY()));
+        final int maxY = Math.min(clip.y + clip.height, (int) Math.ceil(bounds.getMaxY()));
+        final int minX = Math.max(clip.x, (int) Math.floor(bounds.getMinX()));
+        final int maxX = Math.min(clip.x + clip.width, (int) Math.ceil(bounds.getMaxX()));
+        final int height = maxY - minY;
+        if (maxX <= minX || height <= 0 ||
+                (long) (maxX - minX) * height < MIN_BANDED_AREA) {
+            return false;
+        }
+        final int bandCount = Math.min(rasterThreads,
+                                       Math.max(1, height / MIN_BAND_HEIGHT));
+        if (bandCount <= 1) {
+            return false;
+        }
+
+        final PiscesRenderer[] renderers = target.getBandRenderers(bandCount);
+        final BandRasterizer[] tasks = new BandRasterizer[bandCount];
+        final int clipMaxY = clip.y + clip.height;
+        int y = clip.y;
+        for (int i = 0; i < bandCount; i++) {
+            // the first and the last band extend to the clip, so that the
+            // bands always cover the whole clip whatever the bounds
+            final int bandMaxY = (i == bandCount - 1) ? clipMaxY
+                                 : minY + (int) ((long) height * (i + 1) / bandCount);
+            setup.accept(renderers[i]);
+            tasks[i] = new BandRasterizer(renderers[i], shape, stroke, tr, clip,
+                    new Rectangle(clip.x, y, clip.width, bandMaxY - y), antialiasedShape);
+            y = bandMaxY;
+        }
+        getRasterPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return true;
+    }
+
     SWContext(ResourceFactory factory) {
+        this(factory, PrismSettings.swRasterThreads);
+    }
+
+    SWContext(ResourceFactory factory, int rasterThreads) {
         this.factory = factory;
+        this.rasterThreads = rasterThreads;
         switch (PrismSettings.rasterizerSpec) {
             default:
             case DoubleMarlin:
@@ -283,5 +437,9 @@ final class SWContext {
         this.disposeRBBuffer();
         this.disposeImagePaintTexture();
         this.shapeRenderer.dispose();
+        if (rasterPool != null) {
+            rasterPool.shutdown();
+            rasterPool = null;
+        }
     }
 }
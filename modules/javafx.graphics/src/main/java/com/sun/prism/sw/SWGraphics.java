@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -78,6 +78,7 @@ final class SWGraphics implements ReadbackGraphics {
     private final BaseTransform tx = new Affine2D();
 
     private CompositeMode compositeMode = CompositeMode.SRC_OVER;
+    private int piscesCompositeRule = RendererBase.COMPOSITE_SRC_OVER;
 
     private Rectangle clip;
     private final Rectangle finalClip = new Rectangle();
@@ -342,6 +343,7 @@ final class SWGraphics implements ReadbackGraphics {
             default:
                 throw new InternalError("Unrecognized composite mode: "+mode);
         }
+        this.piscesCompositeRule = piscesComp;
         this.pr.setCompositeRule(piscesComp);
     }
 
@@ -492,10 +494,20 @@ final class SWGraphics implements ReadbackGraphics {
             }
             return;
         }
+        if (this.paint.getType() == Paint.Type.COLOR &&
+                context.renderShapeInBands(target, shape, st, tr, this.finalClip,
+                                           isAntialiasedShape(), this::setupBandRenderer)) {
+            return;
+        }
         swPaint.setPaintFromShape(this.paint, this.tx, shape, this.nodeBounds, 0,0,0,0);
         this.paintShapePaintAlreadySet(shape, st, tr);
     }
 
+    private void setupBandRenderer(PiscesRenderer bandRenderer) {
+        bandRenderer.setCompositeRule(piscesCompositeRule);
+        SWPaint.setColor(bandRenderer, (Color) this.paint, swPaint.getCompositeAlpha());
+    }
+
     private void paintShapePaintAlreadySet(Shape shape, BasicStroke st, BaseTransform tr) {
         if (this.finalClip.isEmpty()) {
             if (PrismSettings.debug) {
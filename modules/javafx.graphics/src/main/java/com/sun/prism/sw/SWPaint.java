@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -73,7 +73,11 @@ final class SWPaint {
         if (PrismSettings.debug) {
             System.out.println("PR.setColor: " + c);
         }
-        this.pr.setColor((int) (c.getRed() * 255),
+        setColor(this.pr, c, compositeAlpha);
+    }
+
+    static void setColor(PiscesRenderer pr, Color c, float compositeAlpha) {
+        pr.setColor((int) (c.getRed() * 255),
                 (int) (255 * c.getGreen()),
                 (int) (255 * c.getBlue()),
                 (int) (255 * c.getAlpha() * compositeAlpha));
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -42,6 +42,7 @@ class SWRTTexture extends SWArgbPreTexture implements RTTexture {
 
     private PiscesRenderer pr;
     private JavaSurface surface;
+    private PiscesRenderer[] bandRenderers;
     private final Rectangle dimensions = new Rectangle();
     private boolean isOpaque;
 
@@ -56,6 +57,30 @@ class SWRTTexture extends SWArgbPreTexture implements RTTexture {
         return this.surface;
     }
 
+    /**
+     * Returns renderers that can be used concurrently to render into disjoint
+     * horizontal bands of this texture. Each renderer has its own surface over
+     * the pixel data of this texture, since the native surface state can only
+     * be used by one thread at a time.
+     */
+    PiscesRenderer[] getBandRenderers(int count) {
+        if (bandRenderers == null || bandRenderers.length < count) {
+            PiscesRenderer[] renderers = new PiscesRenderer[count];
+            int i = 0;
+            if (bandRenderers != null) {
+                for (; i < bandRenderers.length; i++) {
+                    renderers[i] = bandRenderers[i];
+                }
+            }
+            for (; i < count; i++) {
+                renderers[i] = new PiscesRenderer(new JavaSurface(getDataNoClone(),
+                        RendererBase.TYPE_INT_ARGB_PRE, getPhysicalWidth(), getPhysicalHeight()));
+            }
+            bandRenderers = renderers;
+        }
+        return bandRenderers;
+    }
+
     @Override
     public int[] getPixels() {
         if (contentWidth == physicalWidth) {
@@ -32,6 +32,7 @@ import javafx.collections.ObservableList;
 
 import com.sun.javafx.collections.TrackableObservableList;
 import com.sun.javafx.css.FontFaceImpl;
+import com.sun.javafx.css.StylesheetHelper;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
@@ -42,6 +43,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
@@ -66,6 +68,25 @@ public class Stylesheet {
      */
     final static int BINARY_CSS_VERSION = 6;
 
+    static {
+        StylesheetHelper.setStylesheetAccessor(new StylesheetHelper.StylesheetAccessor() {
+            @Override
+            public int getBinaryVersion() {
+                return BINARY_CSS_VERSION;
+            }
+
+            @Override
+            public Stylesheet loadBinary(InputStream stream, String url) throws IOException {
+                return Stylesheet.loadBinary(stream, url);
+            }
+
+            @Override
+            public void writeBinary(Stylesheet stylesheet, OutputStream stream) throws IOException {
+                stylesheet.writeBinary(stream);
+            }
+        });
+    }
+
     private final String url;
     /**
      *  The URL from which this {@code Stylesheet} was loaded.
@@ -379,16 +400,23 @@ public class Stylesheet {
         URI sourceURI = source.toURI();
         Stylesheet stylesheet = new CssParser().parse(sourceURI.toURL());
 
+        try (FileOutputStream fos = new FileOutputStream(destination)) {
+            stylesheet.writeBinary(fos);
+        }
+    }
+
+    // Writes this stylesheet in the binary format read by loadBinary
+    private void writeBinary(OutputStream stream) throws IOException {
+
         // first write all the css binary data into the buffer and collect strings on way
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         DataOutputStream dos = new DataOutputStream(baos);
         StringStore stringStore = new StringStore();
-        stylesheet.writeBinary(dos, stringStore);
+        writeBinary(dos, stringStore);
         dos.flush();
         dos.close();
 
-        FileOutputStream fos = new FileOutputStream(destination);
-        DataOutputStream os = new DataOutputStream(fos);
+        DataOutputStream os = new DataOutputStream(stream);
 
         // write file version
         os.writeShort(BINARY_CSS_VERSION);
@@ -399,7 +427,6 @@ public class Stylesheet {
         // write binary css
         os.write(baos.toByteArray());
         os.flush();
-        os.close();
     }
 
     // Add the rules from the other stylesheet to this one
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -84,6 +84,12 @@ public abstract class Parent extends Node {
     // parent if it is currently a child of another parent.
     private static final boolean warnOnAutoMove = PropertyHelper.getBooleanProperty("javafx.sg.warn");
 
+    // The number of children from which picking uses a PickGrid to find the
+    // children under the pick ray, instead of testing all of them. Picking
+    // with a grid is disabled unless the javafx.sg.pickGridThreshold system
+    // property is set to a positive value. Package private for testing.
+    static int pickGridThreshold = PropertyHelper.getIntegerProperty("javafx.sg.pickGridThreshold", 0);
+
     /**
      * Threshold when it's worth to populate list of removed children.
      */
@@ -264,6 +270,9 @@ public abstract class Parent extends Node {
 
     void markViewOrderChildrenDirty() {
         viewOrderChildren.clear();
+        if (pickGrid != null) {
+            pickGrid.invalidate();
+        }
         NodeHelper.markDirty(this, DirtyBits.PARENT_CHILDREN_VIEW_ORDER);
     }
 
@@ -455,6 +464,9 @@ public abstract class Parent extends Node {
             }
 
             NodeHelper.markDirty(Parent.this, DirtyBits.PARENT_CHILDREN);
+            if (pickGrid != null) {
+                pickGrid.invalidate();
+            }
             // Force synchronization to include the handling of invisible node
             // so that removed list will get cleanup to prevent memory leak.
             NodeHelper.markDirty(Parent.this, DirtyBits.NODE_FORCE_SYNC);
@@ -800,8 +812,21 @@ public abstract class Parent extends Node {
         }
     }
 
+    // created on first use when picking with a grid is enabled
+    private PickGrid pickGrid;
+
     boolean pickChildrenNode(PickRay pickRay, PickResultChooser result) {
         List<Node> orderedChildren = getOrderedChildren();
+        if (pickGridThreshold > 0 && orderedChildren.size() >= pickGridThreshold) {
+            if (PickGrid.canPick(pickRay)) {
+                if (pickGrid == null) {
+                    pickGrid = new PickGrid();
+                }
+                return pickGrid.pickChildrenNode(orderedChildren, pickRay, result);
+            }
+        } else {
+            pickGrid = null;
+        }
         for (int i = orderedChildren.size() - 1; i >= 0; i--) {
             orderedChildren.get(i).pickNode(pickRay, result);
             if (result.isClosed()) {
@@ -1854,6 +1879,10 @@ public abstract class Parent extends Node {
      * Called by Node whenever its bounds have changed.
      */
     void childBoundsChanged(Node node) {
+        if (pickGrid != null) {
+            pickGrid.childBoundsChanged(node);
+        }
+
         // See comment above at "currentlyProcessedChild" field
         if (node == currentlyProcessedChild) {
             return;
@@ -1883,6 +1912,12 @@ public abstract class Parent extends Node {
             childExcluded(node);
         }
 
+        // The bounds changes of a child are not reported while it is invisible,
+        // so its cells in the pick grid may be out of date
+        if (pickGrid != null) {
+            pickGrid.childBoundsChanged(node);
+        }
+
         NodeHelper.geomChanged(this);
     }
 
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.scene;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.javafx.geom.BaseBounds;
+import com.sun.javafx.geom.PickRay;
+import com.sun.javafx.geom.RectBounds;
+import com.sun.javafx.geom.Vec3d;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.javafx.scene.input.PickResultChooser;
+
+/**
+ * A uniform grid over the bounds in parent of the children of a
+ * {@code Parent}. A pick ray that is parallel to the z axis can only hit the
+ * children whose bounds contain the origin of the ray in x and y, so picking
+ * only needs to test the children that overlap the grid cell of the origin,
+ * rather than all of them.
+ *
+ * The grid is rebuilt whenever the children, or their order, change. Children
+ * whose bounds change are moved to their new cells the next time the grid is
+ * used.
+ */
+final class PickGrid {
+
+    // the average number of children per cell the grid is sized for
+    private static final int CHILDREN_PER_CELL = 4;
+
+    private static final int MAX_CELLS_PER_AXIS = 512;
+
+    private static final int[] NO_RANKS = new int[0];
+
+    private boolean valid;
+
+    // the children in picking order, indexed by their rank
+    private Node[] nodes;
+    private final Map<Node, Integer> ranks = new IdentityHashMap<>();
+
+    // the first and last column and row of each child, or -1 if it is empty
+    private int[] extents;
+
+    // the ranks of the children that overlap each cell, in increasing order
+    private int[][] cells;
+    private int[] cellSizes;
+
+    private int columns;
+    private int rows;
+    private double minX;
+    private double minY;
+    private double cellWidth;
+    private double cellHeight;
+
+    private final BitSet dirty = new BitSet();
+    private int dirtyCount;
+
+    private BaseBounds tmpBounds = new RectBounds();
+
+    /**
+     * Returns whether the grid can be used to pick along the given ray,
+     * which is the case if it is parallel to the z axis.
+     */
+    static boolean canPick(PickRay pickRay) {
+        final Vec3d dir = pickRay.getDirectionNoClone();
+        return dir.x == 0 && dir.y == 0 && dir.z != 0;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    void childBoundsChanged(Node node) {
+        if (!valid) {
+            return;
+        }
+        final Integer rank = ranks.get(node);
+        if (rank != null && !dirty.get(rank)) {
+            dirty.set(rank);
+            // moving many children costs more than rebuilding the grid
+            if (++dirtyCount > nodes.length / CHILDREN_PER_CELL) {
+                valid = false;
+            }
+        }
+    }
+
+    /**
+     * Picks the children of a parent along a ray parallel to the z axis, in
+     * the same way as testing all of them in reverse order would.
+     *
+     * @param orderedChildren the children of the parent in picking order
+     * @return false if the result was closed by one of the children
+     */
+    boolean pickChildrenNode(List<Node> orderedChildren, PickRay pickRay, PickResultChooser result) {
+        if (!valid) {
+            build(orderedChildren);
+        } else if (dirtyCount > 0) {
+            update();
+        }
+
+        final Vec3d origin = pickRay.getOriginNoClone();
+        final int cell = row(origin.y) * columns + column(origin.x);
+        final int[] cellRanks = cells[cell];
+        for (int i = cellSizes[cell] - 1; i >= 0; i--) {
+            nodes[cellRanks[i]].pickNode(pickRay, result);
+            if (result.isClosed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void build(List<Node> orderedChildren) {
+        final int count = orderedChildren.size();
+        nodes = orderedChildren.toArray(new Node[count]);
+        ranks.clear();
+        extents = new int[count * 4];
+        dirty.clear();
+        dirtyCount = 0;
+
+        float x0 = Float.POSITIVE_INFINITY, y0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY;
+        final float[] bounds = new float[count * 4];
+        for (int i = 0; i < count; i++) {
+            final Node node = nodes[i];
+            ranks.put(node, i);
+            tmpBounds = node.getTransformedBounds(tmpBounds, BaseTransform.IDENTITY_TRANSFORM);
+            if (tmpBounds.isEmpty()) {
+                bounds[i * 4] = Float.NaN;
+                continue;
+            }
+            bounds[i * 4] = tmpBounds.getMinX();
+            bounds[i * 4 + 1] = tmpBounds.getMinY();
+            bounds[i * 4 + 2] = tmpBounds.getMaxX();
+            bounds[i * 4 + 3] = tmpBounds.getMaxY();
+            x0 = Math.min(x0, tmpBounds.getMinX());
+            y0 = Math.min(y0, tmpBounds.getMinY());
+            x1 = Math.max(x1, tmpBounds.getMaxX());
+            y1 = Math.max(y1, tmpBounds.getMaxY());
+        }
+
+        final int perAxis = (int) Math.min(MAX_CELLS_PER_AXIS,
+                Math.max(1, Math.ceil(Math.sqrt((double) count / CHILDREN_PER_CELL))));
+        if (x0 <= x1 && y0 <= y1) {
+            minX = x0;
+            minY = y0;
+            columns = x1 > x0 ? perAxis : 1;
+            rows = y1 > y0 ? perAxis : 1;
+            cellWidth = x1 > x0 ? (x1 - x0) / columns : 1;
+            cellHeight = y1 > y0 ? (y1 - y0) / rows : 1;
+        } else {
+            minX = minY = 0;
+            columns = rows = 1;
+            cellWidth = cellHeight = 1;
+        }
+
+        cells = new int[columns * rows][];
+        Arrays.fill(cells, NO_RANKS);
+        cellSizes = new int[columns * rows];
+        for (int i = 0; i < count; i++) {
+            if (Float.isNaN(bounds[i * 4])) {
+                extents[i * 4] = -1;
+                continue;
+            }
+            extents[i * 4] = column(bounds[i * 4]);
+            extents[i * 4 + 1] = row(bounds[i * 4 + 1]);
+            extents[i * 4 + 2] = column(bounds[i * 4 + 2]);
+            extents[i * 4 + 3] = row(bounds[i * 4 + 3]);
+            // ranks are added in increasing order, so cells stay sorted
+            for (int r = extents[i * 4 + 1]; r <= extents[i * 4 + 3]; r++) {
+                for (int c = extents[i * 4]; c <= extents[i * 4 + 2]; c++) {
+                    append(r * columns + c, i);
+                }
+            }
+        }
+        valid = true;
+    }
+
+    private void update() {
+        for (int rank = dirty.nextSetBit(0); rank >= 0; rank = dirty.nextSetBit(rank + 1)) {
+            final int e = rank * 4;
+            if (extents[e] >= 0) {
+                for (int r = extents[e + 1]; r <= extents[e + 3]; r++) {
+                    for (int c = extents[e]; c <= extents[e + 2]; c++) {
+                        remove(r * columns + c, rank);
+                    }
+                }
+            }
+            tmpBounds = nodes[rank].getTransformedBounds(tmpBounds, BaseTransform.IDENTITY_TRANSFORM);
+            if (tmpBounds.isEmpty()) {
+                extents[e] = -1;
+                continue;
+            }
+            extents[e] = column(tmpBounds.getMinX());
+            extents[e + 1] = row(tmpBounds.getMinY());
+            extents[e + 2] = column(tmpBounds.getMaxX());
+            extents[e + 3] = row(tmpBounds.getMaxY());
+            for (int r = extents[e + 1]; r <= extents[e + 3]; r++) {
+                for (int c = extents[e]; c <= extents[e + 2]; c++) {
+                    insert(r * columns + c, rank);
+                }
+            }
+        }
+        dirty.clear();
+        dirtyCount = 0;
+    }
+
+    // Coordinates outside of the grid are clamped to its border cells, both
+    // when adding children and when picking, so children that moved out of
+    // the grid are still found.
+    private int column(double x) {
+        final int c = (int) Math.floor((x - minX) / cellWidth);
+        return c < 0 ? 0 : c >= columns ? columns - 1 : c;
+    }
+
+    private int row(double y) {
+        final int r = (int) Math.floor((y - minY) / cellHeight);
+        return r < 0 ? 0 : r >= rows ? rows - 1 : r;
+    }
+
+    private void append(int cell, int rank) {
+        int[] cellRanks = cells[cell];
+        final int size = cellSizes[cell];
+        if (size == cellRanks.length) {
+            cells[cell] = cellRanks = Arrays.copyOf(cellRanks, Math.max(4, size * 2));
+        }
+        cellRanks[size] = rank;
+        cellSizes[cell] = size + 1;
+    }
+
+    private void insert(int cell, int rank) {
+        final int size = cellSizes[cell];
+        final int index = -Arrays.binarySearch(cells[cell], 0, size, rank) - 1;
+        append(cell, rank);
+        final int[] cellRanks = cells[cell];
+        System.arraycopy(cellRanks, index, cellRanks, index + 1, size - index);
+        cellRanks[index] = rank;
+    }
+
+    private void remove(int cell, int rank) {
+        final int size = cellSizes[cell];
+        final int[] cellRanks = cells[cell];
+        final int index = Arrays.binarySearch(cellRanks, 0, size, rank);
+        if (index >= 0) {
+            System.arraycopy(cellRanks, index + 1, cellRanks, index, size - index - 1);
+            cellSizes[cell] = size - 1;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -45,4 +45,19 @@ class PropertyHelper {
         return false;
     }
 
+    // Function to return the integer value of a system property, or the given
+    // default if it is not set or not an integer. Note that this runs within a
+    // doPrivilege block so this function must be package-private.
+    static int getIntegerProperty(final String propName, final int defaultValue) {
+        try {
+            @SuppressWarnings("removal")
+            int answer =
+                AccessController.doPrivileged((java.security.PrivilegedAction<Integer>) () ->
+                        Integer.getInteger(propName, defaultValue));
+            return answer;
+        } catch (Exception any) {
+        }
+        return defaultValue;
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -2722,6 +2722,11 @@ public final class GraphicsContext {
         writeImage(img, dx, dy, dw, dh, sx, sy, sw, sh);
     }
 
+    // Pixel data written to the canvas is copied into a buffer that is kept
+    // until the canvas is rendered; large copies are kept outside of the heap,
+    // in a direct buffer that NGCanvas reuses once it has rendered the copy.
+    private static final int DIRECT_PIXEL_BUFFER_SIZE = 256 * 1024;
+
     private PixelWriter writer;
     /**
      * Returns a {@link PixelWriter} object that can be used to modify
@@ -2766,8 +2771,15 @@ public final class GraphicsContext {
                     setArgb(x, y, (a << 24) | (r << 16) | (g << 8) | b);
                 }
 
+                private ByteBuffer allocatePixelBuffer(int w, int h) {
+                    int size = w * h * 4;
+                    return (size >= DIRECT_PIXEL_BUFFER_SIZE)
+                           ? NGCanvas.getPixelBuffer(size)
+                           : ByteBuffer.allocate(size);
+                }
+
                 private void writePixelBuffer(int x, int y, int w, int h,
-                                              byte[] pixels)
+                                              ByteBuffer pixels)
                 {
                     GrowableDataBuffer buf = getBuffer();
                     buf.putByte(NGCanvas.PUT_ARGBPRE_BUF);
@@ -2851,14 +2863,13 @@ public final class GraphicsContext {
                         offset += adjustments[4];
                     }
 
-                    byte pixels[] = new byte[w * h * 4];
-                    ByteBuffer dst = ByteBuffer.wrap(pixels);
+                    ByteBuffer pixels = allocatePixelBuffer(w, h);
 
                     PixelGetter<T> getter = PixelUtils.getGetter(pixelformat);
                     PixelConverter<T, ByteBuffer> converter =
                         PixelUtils.getConverter(getter, getSetter());
                     converter.convert(buffer, offset, scan,
-                                      dst, 0, w * 4,
+                                      pixels, 0, w * 4,
                                       w, h);
                     writePixelBuffer(x, y, w, h, pixels);
                 }
@@ -2881,12 +2892,12 @@ public final class GraphicsContext {
                         offset += adjustments[4];
                     }
 
-                    byte pixels[] = new byte[w * h * 4];
+                    ByteBuffer pixels = allocatePixelBuffer(w, h);
 
                     BytePixelGetter getter = PixelUtils.getByteGetter(pixelformat);
                     ByteToBytePixelConverter converter =
                         PixelUtils.getB2BConverter(getter, getSetter());
-                    converter.convert(buffer, offset, scanlineStride,
+                    converter.convert(ByteBuffer.wrap(buffer), offset, scanlineStride,
                                       pixels, 0, w * 4,
                                       w, h);
                     writePixelBuffer(x, y, w, h, pixels);
@@ -2910,12 +2921,12 @@ public final class GraphicsContext {
                         offset += adjustments[4];
                     }
 
-                    byte pixels[] = new byte[w * h * 4];
+                    ByteBuffer pixels = allocatePixelBuffer(w, h);
 
                     IntPixelGetter getter = PixelUtils.getIntGetter(pixelformat);
                     IntToBytePixelConverter converter =
                         PixelUtils.getI2BConverter(getter, getSetter());
-                    converter.convert(buffer, offset, scanlineStride,
+                    converter.convert(IntBuffer.wrap(buffer), offset, scanlineStride,
                                       pixels, 0, w * 4,
                                       w, h);
                     writePixelBuffer(x, y, w, h, pixels);
@@ -2939,10 +2950,10 @@ public final class GraphicsContext {
                         h = adjustments[3];
                     }
 
-                    byte pixels[] = new byte[w * h * 4];
+                    ByteBuffer pixels = allocatePixelBuffer(w, h);
                     reader.getPixels(srcx, srcy, w, h,
                                      PixelFormat.getByteBgraPreInstance(),
-                                     pixels, 0, w * 4);
+                                     pixels, w * 4);
                     writePixelBuffer(dstx, dsty, w, h, pixels);
                 }
             };
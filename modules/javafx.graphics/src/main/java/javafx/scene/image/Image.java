@@ -736,11 +736,26 @@ public class Image {
      * @throws IllegalArgumentException if either dimension is negative or zero.
      */
     Image(int width, int height) {
+        this(width, height, false);
+    }
+
+    /**
+     * Package private internal constructor used only by {@link WritableImage}.
+     * The dimensions must both be positive numbers <code>(&gt;&nbsp;0)</code>.
+     *
+     * @param width the width of the empty image
+     * @param height the height of the empty image
+     * @param offHeap whether the pixels are stored outside of the Java heap
+     * @throws IllegalArgumentException if either dimension is negative or zero.
+     */
+    Image(int width, int height, boolean offHeap) {
         this(null, null, width, height, false, false, false);
         if (width <= 0 || height <= 0) {
             throw new IllegalArgumentException("Image dimensions must be positive (w,h > 0)");
         }
-        initialize(Toolkit.getToolkit().createPlatformImage(width, height));
+        Toolkit tk = Toolkit.getToolkit();
+        initialize(offHeap ? tk.createDirectPlatformImage(width, height)
+                           : tk.createPlatformImage(width, height));
     }
 
     /**
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -77,6 +77,30 @@ public class WritableImage extends Image {
         super(width, height);
     }
 
+    /**
+     * Constructs an empty image of the specified dimensions, optionally
+     * keeping its pixels outside of the Java heap.
+     * The image will initially be filled with transparent pixels.
+     * Images constructed this way will always be readable and writable
+     * so the corresponding getPixelReader() and getPixelWriter() will
+     * always return valid objects.
+     * When {@code offHeap} is {@code true}, the pixels are stored in a
+     * direct buffer, so that large images do not add to the size of the
+     * Java heap. Such an image is read and written exactly like an image
+     * constructed with {@link #WritableImage(int, int)}.
+     * The dimensions must both be positive numbers <code>(&gt;&nbsp;0)</code>.
+     *
+     * @param width the desired width of the writable image
+     * @param height the desired height of the desired image
+     * @param offHeap whether the pixels should be stored outside of the Java heap
+     * @throws IllegalArgumentException if either dimension is negative or zero.
+     * @since 18
+     */
+    public WritableImage(@NamedArg("width") int width, @NamedArg("height") int height,
+                         @NamedArg("offHeap") boolean offHeap) {
+        super(width, height, offHeap);
+    }
+
     private PixelBuffer<? extends Buffer> pixelBuffer = null;
 
     /**
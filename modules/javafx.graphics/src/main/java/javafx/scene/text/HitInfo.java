@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -27,6 +27,8 @@ package javafx.scene.text;
 
 import java.text.BreakIterator;
 
+import com.sun.javafx.scene.text.HitInfoHelper;
+
 /**
  * Represents the hit information in a Text node.
  *
@@ -39,6 +41,13 @@ public class HitInfo {
     private int insertionIndex;
     private String text;
 
+    static {
+        // This is used by classes in different packages to get access to
+        // private and package private methods.
+        HitInfoHelper.setHitInfoAccessor((charIndex, insertionIndex, leading) ->
+                new HitInfo(charIndex, insertionIndex, leading, null));
+    }
+
     /**
      * Create a HitInfo object representing a text index and forward bias.
      *
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -55,4 +55,8 @@ public class NGRegionShim extends NGRegion {
                 dirtyRegionContainer, tx, pvTx);
     }
 
+    public static RectBounds getCacheShapeBounds(NGRegion region) {
+        return region.getCacheShapeBounds();
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.sg.prism;
+
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.geom.Shape;
+import com.sun.prism.Graphics;
+import com.sun.prism.RTTexture;
+import com.sun.prism.ResourceFactory;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.Border;
+
+public class RegionImageCacheShim {
+
+    public static final int MAX_COST = RegionImageCache.MAX_COST;
+
+    private final RegionImageCache cache;
+
+    public RegionImageCacheShim(ResourceFactory factory) {
+        cache = new RegionImageCache(factory);
+    }
+
+    public boolean isImageCachable(int w, int h, int cost) {
+        return cache.isImageCachable(w, h, cost);
+    }
+
+    public boolean getImageLocation(Integer key, Rectangle rect, Background background,
+                                    Border border, Shape shape, Graphics g) {
+        return cache.getImageLocation(key, rect, background, border, shape, g);
+    }
+
+    public RTTexture getBackingStore() {
+        return cache.getBackingStore();
+    }
+
+    public int getPageCount() {
+        return cache.getPageCount();
+    }
+
+    public int getImageCount() {
+        return cache.getImageCount();
+    }
+
+    public int getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public int getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public int getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public int getFlushCount() {
+        return cache.getFlushCount();
+    }
+
+    public int getRejectionCount() {
+        return cache.getRejectionCount();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.text;
+
+public class TextLayoutCacheShim {
+
+    private static TextLayoutCache.Key key(String text, float wrapWidth) {
+        return new TextLayoutCache.Key(text.toCharArray(), null).derive(wrapWidth, 0, 0, 0);
+    }
+
+    public static void put(TextLayoutCache cache, String text, float wrapWidth) {
+        cache.put(key(text, wrapWidth), new LayoutCache());
+    }
+
+    public static boolean get(TextLayoutCache cache, String text, float wrapWidth) {
+        return cache.get(key(text, wrapWidth)) != null;
+    }
+
+    public static boolean getShaped(TextLayoutCache cache, String text, float wrapWidth) {
+        return cache.getShaped(key(text, wrapWidth)) != null;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.impl;
+
+import com.sun.javafx.font.FontStrike;
+import com.sun.javafx.scene.text.GlyphList;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+public class GlyphRasterizerShim {
+
+    public static final class Prepared {
+        public final FontStrike strike;
+        public final int glyphCode;
+        public final byte[] pixels;
+        public final int width, height;
+
+        Prepared(GlyphRasterizer.PreparedGlyph glyph) {
+            strike = glyph.strike;
+            glyphCode = glyph.glyphCode;
+            pixels = glyph.pixels;
+            width = glyph.width;
+            height = glyph.height;
+        }
+    }
+
+    public static boolean canPrefetch(FontStrike strike) {
+        return GlyphRasterizer.canPrefetch(strike);
+    }
+
+    public static void request(FontStrike strike, GlyphList[] runs, Executor executor) {
+        GlyphRasterizer.request(strike, runs, executor);
+    }
+
+    public static void uploadPrepared(Predicate<Prepared> uploader) {
+        GlyphRasterizer.uploadPrepared(glyph -> uploader.test(new Prepared(glyph)));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.prism.sw;
+
+import com.sun.javafx.util.Utils;
+import com.sun.pisces.PiscesRenderer;
+import com.sun.prism.Graphics;
+
+/**
+ * A render target of the SW pipeline, with its own context.
+ */
+public class SWContextShim {
+
+    static {
+        // loads the native rasterizer
+        Utils.forceInit(SWPipeline.class);
+    }
+
+    private final SWContext context;
+    private final SWRTTexture target;
+    private final Graphics graphics;
+
+    /**
+     * Creates a render target of the given size, on which large shapes are
+     * rasterized with the given number of threads.
+     */
+    public SWContextShim(int width, int height, int rasterThreads) {
+        context = new SWContext(null, rasterThreads);
+        target = new SWRTTexture(null, width, height);
+        graphics = new SWGraphics(target, context, new PiscesRenderer(target.getSurface()));
+    }
+
+    public Graphics getGraphics() {
+        return graphics;
+    }
+
+    public int[] getPixels() {
+        return target.getDataNoClone();
+    }
+
+    public void dispose() {
+        context.dispose();
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -51,4 +51,8 @@ public class ParentShim extends Parent {
     public static List<Node> test_getViewOrderChildren(Parent p) {
         return p.test_getViewOrderChildren();
     }
+
+    public static void setPickGridThreshold(int threshold) {
+        Parent.pickGridThreshold = threshold;
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.css;
+
+import com.sun.javafx.css.AncestorFilter;
+import javafx.css.Selector;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.shape.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AncestorFilterTest {
+
+    private static final String[] SELECTORS = {
+        ".a .leaf",
+        ".a > .leaf",
+        ".a .b .leaf",
+        ".a.b .leaf",
+        "HBox .leaf",
+        "StackPane > Rectangle",
+        "#outer .leaf",
+        "#inner > .leaf",
+        ".c .leaf",
+        "Group .leaf",
+        ".a #outer .leaf",
+    };
+
+    private HBox outer;
+    private StackPane inner;
+    private Rectangle leaf;
+
+    @Before
+    public void setUp() {
+        leaf = new Rectangle();
+        leaf.getStyleClass().add("leaf");
+        inner = new StackPane(leaf);
+        inner.setId("inner");
+        inner.getStyleClass().addAll("b");
+        outer = new HBox(inner);
+        outer.setId("outer");
+        outer.getStyleClass().addAll("a", "b");
+    }
+
+    @Test
+    public void testSimpleSelectorHasNoRequirements() {
+        assertNull(AncestorFilter.getRequiredBits(Selector.createSelector(".leaf")));
+        assertNull(AncestorFilter.getRequiredBits(Selector.createSelector("Rectangle.leaf#x")));
+    }
+
+    @Test
+    public void testWildcardAncestorHasNoRequirements() {
+        assertNull(AncestorFilter.getRequiredBits(Selector.createSelector("* > .leaf")));
+        assertNotNull(AncestorFilter.getRequiredBits(Selector.createSelector(".a > .leaf")));
+    }
+
+    @Test
+    public void testNoSelectorThatAppliesIsRejected() {
+        long[] ancestorBits = AncestorFilter.getAncestorBits(leaf);
+        for (String text : SELECTORS) {
+            Selector selector = Selector.createSelector(text);
+            if (selector.applies(leaf)) {
+                assertTrue(text, AncestorFilter.mayApply(ancestorBits,
+                        AncestorFilter.getRequiredBits(selector)));
+            }
+        }
+    }
+
+    @Test
+    public void testSelectorsAreRejectedWithoutAncestors() {
+        Node orphan = new Rectangle();
+        orphan.getStyleClass().add("leaf");
+        long[] ancestorBits = AncestorFilter.getAncestorBits(orphan);
+        for (String text : SELECTORS) {
+            assertFalse(text, AncestorFilter.mayApply(ancestorBits,
+                    AncestorFilter.getRequiredBits(Selector.createSelector(text))));
+        }
+    }
+
+    @Test
+    public void testNodeItselfIsNotAnAncestor() {
+        Group group = new Group();
+        group.getStyleClass().add("a");
+        long[] ancestorBits = AncestorFilter.getAncestorBits(group);
+        assertFalse(AncestorFilter.mayApply(ancestorBits,
+                AncestorFilter.getRequiredBits(Selector.createSelector(".a .a"))));
+    }
+
+    @Test
+    public void testAncestorChangesAreSeen() {
+        Selector selector = Selector.createSelector(".c .leaf");
+        outer.getStyleClass().add("c");
+        assertTrue(selector.applies(leaf));
+        assertTrue(AncestorFilter.mayApply(AncestorFilter.getAncestorBits(leaf),
+                AncestorFilter.getRequiredBits(selector)));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.css;
+
+import com.sun.javafx.css.StylesheetCacheShim;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import javafx.css.Rule;
+import javafx.css.Stylesheet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class StylesheetCacheTest {
+
+    private File dir;
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("StylesheetCacheTest").toFile();
+        cacheDir = new File(dir, "cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<java.nio.file.Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private File writeCss(String name, String css) throws IOException {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), css.getBytes(Charset.defaultCharset()));
+        return file;
+    }
+
+    private static void assertSameRules(Stylesheet expected, Stylesheet actual) {
+        assertEquals(expected.getRules().size(), actual.getRules().size());
+        for (int i = 0; i < expected.getRules().size(); i++) {
+            Rule expectedRule = expected.getRules().get(i);
+            Rule actualRule = actual.getRules().get(i);
+            assertEquals(expectedRule.getSelectors().toString(), actualRule.getSelectors().toString());
+            assertEquals(expectedRule.getDeclarations().toString(), actualRule.getDeclarations().toString());
+        }
+    }
+
+    private int cachedCount() {
+        String[] names = cacheDir.list();
+        return names == null ? 0 : names.length;
+    }
+
+    @Test
+    public void testStylesheetIsCachedAndReloaded() throws IOException {
+        File css = writeCss("test.css", ".rect { -fx-fill: red; }\n.text { -fx-font-size: 12px; }");
+        Stylesheet parsed = StylesheetCacheShim.parse(css.toURI().toURL(), cacheDir);
+        assertEquals(1, cachedCount());
+
+        Stylesheet cached = StylesheetCacheShim.parse(css.toURI().toURL(), cacheDir);
+        assertNotNull(cached);
+        assertEquals(1, cachedCount());
+        assertEquals(parsed.getUrl(), cached.getUrl());
+        assertSameRules(parsed, cached);
+    }
+
+    @Test
+    public void testModifiedStylesheetIsNotReadFromCache() throws IOException {
+        File css = writeCss("test.css", ".rect { -fx-fill: red; }");
+        StylesheetCacheShim.parse(css.toURI().toURL(), cacheDir);
+
+        writeCss("test.css", ".rect { -fx-fill: blue; }");
+        Stylesheet stylesheet = StylesheetCacheShim.parse(css.toURI().toURL(), cacheDir);
+        assertEquals(2, cachedCount());
+        assertEquals(1, stylesheet.getRules().size());
+        assertEquals("0x0000ffff", stylesheet.getRules().get(0).getDeclarations().get(0)
+                .getParsedValue().convert(null).toString());
+    }
+
+    @Test
+    public void testCorruptEntryIsReplaced() throws IOException {
+        File css = writeCss("test.css", ".rect { -fx-fill: red; }");
+        Stylesheet parsed = StylesheetCacheShim.parse(css.toURI().toURL(), cacheDir);
+        File entry = cacheDir.listFiles()[0];
+        Files.write(entry.toPath(), new byte[] { 0x7f, 0x7f });
+
+        Stylesheet stylesheet = StylesheetCacheShim.parse(css.toURI().toURL(), cacheDir);
+        assertSameRules(parsed, stylesheet);
+        assertEquals(1, cachedCount());
+    }
+
+    @Test
+    public void testStylesheetWithImportIsNotCached() throws IOException {
+        writeCss("imported.css", ".rect { -fx-fill: red; }");
+        File css = writeCss("test.css", "@import \"imported.css\";\n.text { -fx-font-size: 12px; }");
+        Stylesheet stylesheet = StylesheetCacheShim.parse(css.toURI().toURL(), cacheDir);
+        assertEquals(2, stylesheet.getRules().size());
+        assertEquals(0, cachedCount());
+    }
+}
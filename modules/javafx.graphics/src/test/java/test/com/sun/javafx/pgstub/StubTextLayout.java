@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -126,7 +126,9 @@ public class StubTextLayout implements TextLayout {
             return new GlyphList[0];
         }
         @Override public RectBounds getBounds() {
-            return new RectBounds();
+            // lines are as high as the font size, as in getBounds(TextSpan, BaseBounds)
+            final float fontSize = (float) (font == null ? nullFontSize : ((Font)font).getSize());
+            return new RectBounds(0, -fontSize, 0, 0);
         }
         @Override public float getLeftSideBearing() {
             return 0;
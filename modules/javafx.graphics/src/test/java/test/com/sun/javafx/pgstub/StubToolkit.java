@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -65,6 +65,7 @@ import javafx.util.Pair;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.security.AccessControlContext;
 import java.util.*;
 import java.util.concurrent.Future;
@@ -611,6 +612,15 @@ public class StubToolkit extends Toolkit {
         return image;
     }
 
+    @Override
+    public PlatformImage createDirectPlatformImage(int w, int h) {
+        // the same image as QuantumToolkit creates, which needs no pipeline
+        ByteBuffer bytebuf = ByteBuffer.allocateDirect(w * h * 4);
+        PlatformImage image = com.sun.prism.Image.fromByteBgraPreData(bytebuf, w, h);
+        imageLoaderFactory.registerImage(image, new StubPlatformImageInfo(w, h));
+        return image;
+    }
+
     @Override
     public void waitFor(Task t) {
         throw new UnsupportedOperationException();
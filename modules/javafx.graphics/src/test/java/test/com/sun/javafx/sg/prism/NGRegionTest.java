@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -25,18 +25,27 @@
 
 package test.com.sun.javafx.sg.prism;
 
+import com.sun.javafx.geom.RectBounds;
 import com.sun.javafx.scene.NodeHelper;
 import com.sun.javafx.sg.prism.NGNodeShim;
 import com.sun.javafx.sg.prism.NGRegion;
+import com.sun.javafx.sg.prism.NGRegionShim;
 import javafx.geometry.Insets;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.Border;
+import javafx.scene.layout.BorderStroke;
+import javafx.scene.layout.BorderStrokeStyle;
+import javafx.scene.layout.BorderWidths;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.ClosePath;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.scene.shape.StrokeType;
 import org.junit.Test;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -140,4 +149,35 @@ public class NGRegionTest {
         NodeHelper.updatePeer(r);
         assertTrue(NGNodeShim.isOpaqueRegionInvalid(peer));
     }
+
+    // The miter join at the sharp tip of the shape reaches beyond the border
+    // outsets, the cached image of the shape must still hold it
+    @Test public void cachedShapeImageHoldsMiterJoinsOfBorder() {
+        Region r = new Region();
+        NGRegion peer = NodeHelper.getPeer(r);
+        r.setShape(new Path(new MoveTo(0, 0), new LineTo(40, 10), new LineTo(0, 20), new ClosePath()));
+        // the strokes of scaled shapes are drawn inside of the shape
+        r.setScaleShape(false);
+        r.setCenterShape(false);
+        r.setBackground(new Background(new BackgroundFill(Color.RED, null, null)));
+        BorderStrokeStyle style = new BorderStrokeStyle(StrokeType.CENTERED, StrokeLineJoin.MITER,
+                                                        StrokeLineCap.BUTT, 10, 0, null);
+        r.setBorder(new Border(new BorderStroke(Color.BLACK, style, null, new BorderWidths(4))));
+        r.resize(40, 20);
+        NodeHelper.updatePeer(r);
+
+        // The tip angle is 2 * atan(1 / 4), so the miter reaches 2 / sin(atan(1 / 4))
+        // past the tip of the shape
+        float miter = (float) (2 / Math.sin(Math.atan(0.25)));
+        RectBounds bounds = NGRegionShim.getCacheShapeBounds(peer);
+        assertTrue(bounds.getMaxX() >= 40 + miter);
+        assertTrue(bounds.getMinX() <= -2);
+        assertTrue(bounds.getMinY() <= -2);
+        assertTrue(bounds.getMaxY() >= 22);
+
+        // The bounds are computed again when the border changes
+        r.setBorder(new Border(new BorderStroke(Color.BLACK, style, null, new BorderWidths(1))));
+        NodeHelper.updatePeer(r);
+        assertTrue(NGRegionShim.getCacheShapeBounds(peer).getMaxX() < 40 + miter / 2);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.sg.prism;
+
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.sg.prism.RegionImageCacheShim;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.paint.Color;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RegionImageCacheTest {
+
+    private static final Background RED = new Background(new BackgroundFill(Color.RED, null, null));
+    private static final Background BLUE = new Background(new BackgroundFill(Color.BLUE, null, null));
+
+    RegionImageCacheShim cache;
+
+    @Before
+    public void setUp() {
+        cache = new RegionImageCacheShim(TestGraphics.TEST_GRAPHICS.getResourceFactory());
+    }
+
+    private Rectangle locate(int key, int width, int height, Background background) {
+        Rectangle rect = new Rectangle(0, 0, width, height);
+        cache.getImageLocation(key, rect, background, null, null, TestGraphics.TEST_GRAPHICS);
+        return rect;
+    }
+
+    @Test
+    public void testAdmissionDependsOnRenderCost() {
+        assertTrue(cache.isImageCachable(200, 200, 1));
+        assertFalse(cache.isImageCachable(400, 400, 1));
+        assertTrue(cache.isImageCachable(400, 400, 2));
+        assertTrue(cache.isImageCachable(500, 500, RegionImageCacheShim.MAX_COST));
+        assertFalse(cache.isImageCachable(600, 600, RegionImageCacheShim.MAX_COST));
+        assertFalse(cache.isImageCachable(600, 600, 100));
+        assertEquals(3, cache.getRejectionCount());
+    }
+
+    @Test
+    public void testEmptyImageIsNotCachable() {
+        assertFalse(cache.isImageCachable(0, 10, 1));
+        assertFalse(cache.isImageCachable(10, 0, 1));
+        assertEquals(0, cache.getRejectionCount());
+    }
+
+    @Test
+    public void testImageIsFoundAgain() {
+        Rectangle rect = new Rectangle(0, 0, 50, 20);
+        assertTrue(cache.getImageLocation(1, rect, RED, null, null, TestGraphics.TEST_GRAPHICS));
+        Rectangle again = new Rectangle(0, 0, 50, 20);
+        assertFalse(cache.getImageLocation(1, again, RED, null, null, TestGraphics.TEST_GRAPHICS));
+        assertEquals(rect, again);
+        assertNotNull(cache.getBackingStore());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testHashCollisionDisablesCaching() {
+        locate(1, 50, 20, RED);
+        assertTrue(locate(1, 50, 20, BLUE).isEmpty());
+        assertEquals(1, cache.getImageCount());
+    }
+
+    private boolean isCached(int key, int width, int height, Background background) {
+        final int hits = cache.getHitCount();
+        locate(key, width, height, background);
+        return cache.getHitCount() > hits;
+    }
+
+    @Test
+    public void testFullPageEvictsImagesInsteadOfFlushing() {
+        int key = 0;
+        while (cache.getEvictionCount() == 0) {
+            locate(key++, 500, 32, RED);
+        }
+        assertEquals(0, cache.getFlushCount());
+        assertEquals(1, cache.getPageCount());
+        // only the first two images, sharing the least recently used level, were evicted
+        assertEquals(key - 2, cache.getImageCount());
+        assertTrue(isCached(key - 1, 500, 32, RED));
+        assertTrue(isCached(2, 500, 32, RED));
+        assertFalse(isCached(0, 500, 32, RED));
+    }
+
+    @Test
+    public void testRecentlyUsedImagesAreKept() {
+        int key = 0;
+        while (cache.getEvictionCount() == 0) {
+            locate(key++, 500, 32, RED);
+            // keep using the first image
+            locate(0, 500, 32, RED);
+        }
+        assertEquals(0, cache.getFlushCount());
+        assertTrue(isCached(0, 500, 32, RED));
+        assertFalse(isCached(2, 500, 32, RED));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.text;
+
+import com.sun.javafx.text.TextLayoutCache;
+import com.sun.javafx.text.TextLayoutCacheShim;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TextLayoutCacheTest {
+
+    @Test public void testHitAndMissCounts() {
+        TextLayoutCache cache = new TextLayoutCache(100);
+        assertFalse(TextLayoutCacheShim.get(cache, "hello", 0));
+        assertFalse(TextLayoutCacheShim.getShaped(cache, "hello", 0));
+        TextLayoutCacheShim.put(cache, "hello", 0);
+        assertTrue(TextLayoutCacheShim.get(cache, "hello", 0));
+        assertTrue(TextLayoutCacheShim.get(cache, "hello", 0));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(0, cache.getShapeHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(5, cache.getSize());
+    }
+
+    @Test public void testWrapWidthIsPartOfTheKey() {
+        TextLayoutCache cache = new TextLayoutCache(100);
+        TextLayoutCacheShim.put(cache, "hello world", 0);
+        assertFalse(TextLayoutCacheShim.get(cache, "hello world", 40));
+        assertTrue(TextLayoutCacheShim.getShaped(cache, "hello world", 40));
+        assertFalse(TextLayoutCacheShim.getShaped(cache, "hello", 40));
+        assertEquals(1, cache.getShapeHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        TextLayoutCacheShim.put(cache, "hello world", 40);
+        assertTrue(TextLayoutCacheShim.get(cache, "hello world", 0));
+        assertTrue(TextLayoutCacheShim.get(cache, "hello world", 40));
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(22, cache.getSize());
+    }
+
+    @Test public void testOneWrappedLayoutPerText() {
+        TextLayoutCache cache = new TextLayoutCache(30);
+        TextLayoutCacheShim.put(cache, "aaaa", 0);
+        TextLayoutCacheShim.put(cache, "hello world", 0);
+        // resizing lays out the text for many widths
+        for (int width = 40; width <= 100; width += 10) {
+            TextLayoutCacheShim.put(cache, "hello world", width);
+        }
+
+        assertTrue(TextLayoutCacheShim.get(cache, "aaaa", 0));
+        assertTrue(TextLayoutCacheShim.get(cache, "hello world", 0));
+        assertTrue(TextLayoutCacheShim.get(cache, "hello world", 100));
+        assertFalse(TextLayoutCacheShim.get(cache, "hello world", 90));
+        assertTrue(TextLayoutCacheShim.getShaped(cache, "hello world", 90));
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(26, cache.getSize());
+    }
+
+    @Test public void testLeastRecentlyUsedIsEvicted() {
+        TextLayoutCache cache = new TextLayoutCache(10);
+        TextLayoutCacheShim.put(cache, "aaaa", 0);
+        TextLayoutCacheShim.put(cache, "bbbb", 0);
+        assertTrue(TextLayoutCacheShim.get(cache, "aaaa", 0));
+        TextLayoutCacheShim.put(cache, "cccc", 0);
+
+        assertTrue(TextLayoutCacheShim.get(cache, "aaaa", 0));
+        assertFalse(TextLayoutCacheShim.get(cache, "bbbb", 0));
+        assertFalse(TextLayoutCacheShim.getShaped(cache, "bbbb", 0));
+        assertTrue(TextLayoutCacheShim.get(cache, "cccc", 0));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(8, cache.getSize());
+    }
+
+    @Test public void testReplacingAnEntryKeepsTheSize() {
+        TextLayoutCache cache = new TextLayoutCache(10);
+        TextLayoutCacheShim.put(cache, "aaaa", 0);
+        TextLayoutCacheShim.put(cache, "aaaa", 0);
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(4, cache.getSize());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test public void testTextLongerThanTheCacheIsNotCached() {
+        TextLayoutCache cache = new TextLayoutCache(10);
+        TextLayoutCacheShim.put(cache, "aaaa", 0);
+        TextLayoutCacheShim.put(cache, "bbbbbbbbbbbb", 0);
+        assertFalse(TextLayoutCacheShim.get(cache, "bbbbbbbbbbbb", 0));
+        assertTrue(TextLayoutCacheShim.get(cache, "aaaa", 0));
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test public void testClear() {
+        TextLayoutCache cache = new TextLayoutCache(10);
+        TextLayoutCacheShim.put(cache, "aaaa", 0);
+        cache.clear();
+        assertFalse(TextLayoutCacheShim.get(cache, "aaaa", 0));
+        assertFalse(TextLayoutCacheShim.getShaped(cache, "aaaa", 0));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.prism.impl;
+
+import com.sun.javafx.font.CharToGlyphMapper;
+import com.sun.javafx.font.CompositeStrikeShim;
+import com.sun.javafx.font.FontResource;
+import com.sun.javafx.font.FontStrike;
+import com.sun.javafx.font.Glyph;
+import com.sun.javafx.font.Metrics;
+import com.sun.javafx.geom.Point2D;
+import com.sun.javafx.geom.RectBounds;
+import com.sun.javafx.geom.Shape;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.javafx.scene.text.GlyphList;
+import com.sun.javafx.scene.text.TextSpan;
+import com.sun.prism.impl.GlyphRasterizerShim;
+import com.sun.prism.impl.GlyphRasterizerShim.Prepared;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GlyphRasterizerTest {
+
+    List<Runnable> tasks;
+
+    @Before
+    public void setUp() {
+        tasks = new ArrayList<>();
+        // discard the glyphs left by other tests
+        GlyphRasterizerShim.uploadPrepared(glyph -> true);
+    }
+
+    private void runTasks() {
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        tasks.clear();
+    }
+
+    private List<Prepared> upload() {
+        List<Prepared> uploaded = new ArrayList<>();
+        GlyphRasterizerShim.uploadPrepared(uploaded::add);
+        return uploaded;
+    }
+
+    private static List<Integer> codes(List<Prepared> glyphs) {
+        List<Integer> codes = new ArrayList<>();
+        for (Prepared glyph : glyphs) {
+            codes.add(glyph.glyphCode);
+        }
+        return codes;
+    }
+
+    @Test
+    public void testOnlyThreadSafeStrikesArePrefetched() {
+        assertTrue(GlyphRasterizerShim.canPrefetch(new TestStrike(true, false)));
+        assertFalse(GlyphRasterizerShim.canPrefetch(new TestStrike(false, false)));
+        assertFalse(GlyphRasterizerShim.canPrefetch(new TestStrike(true, true)));
+    }
+
+    @Test
+    public void testRequestedGlyphsArePreparedOnce() {
+        TestStrike strike = new TestStrike(true, false);
+        GlyphRasterizerShim.request(strike, new GlyphList[] {
+            new TestGlyphList(1, 2, 2), new TestGlyphList(3, 1)
+        }, tasks::add);
+        assertEquals(1, tasks.size());
+        assertTrue(upload().isEmpty());
+
+        runTasks();
+        List<Prepared> uploaded = upload();
+        assertEquals(List.of(1, 2, 3), codes(uploaded));
+        for (Prepared glyph : uploaded) {
+            assertSame(strike, glyph.strike);
+        }
+
+        GlyphRasterizerShim.request(strike, new GlyphList[] {new TestGlyphList(3, 2, 1)}, tasks::add);
+        assertTrue(tasks.isEmpty());
+
+        GlyphRasterizerShim.request(strike, new GlyphList[] {new TestGlyphList(3, 4)}, tasks::add);
+        runTasks();
+        assertEquals(List.of(4), codes(upload()));
+    }
+
+    @Test
+    public void testInvisibleGlyphsAreSkipped() {
+        TestStrike strike = new TestStrike(true, false);
+        GlyphRasterizerShim.request(strike, new GlyphList[] {
+            new TestGlyphList(CharToGlyphMapper.INVISIBLE_GLYPH_ID, 5)
+        }, tasks::add);
+        runTasks();
+        assertEquals(List.of(5), codes(upload()));
+    }
+
+    @Test
+    public void testGlyphImagesArePrepared() {
+        TestStrike strike = new TestStrike(true, false);
+        GlyphRasterizerShim.request(strike, new GlyphList[] {
+            new TestGlyphList(TestGlyph.EMPTY, 7)
+        }, tasks::add);
+        runTasks();
+        List<Prepared> uploaded = upload();
+        assertEquals(2, uploaded.size());
+        assertNull(uploaded.get(0).pixels);
+        assertArrayEquals(new byte[] {7, 7, 7, 7, 7, 7}, uploaded.get(1).pixels);
+        assertEquals(3, uploaded.get(1).width);
+        assertEquals(2, uploaded.get(1).height);
+        assertTrue(strike.rasterizedWithLock);
+    }
+
+    @Test
+    public void testUploadStopsWhenGlyphsAreEvicted() {
+        TestStrike strike = new TestStrike(true, false);
+        GlyphRasterizerShim.request(strike, new GlyphList[] {new TestGlyphList(1, 2, 3)}, tasks::add);
+        runTasks();
+        List<Integer> uploaded = new ArrayList<>();
+        GlyphRasterizerShim.uploadPrepared(glyph -> {
+            uploaded.add(glyph.glyphCode);
+            return glyph.glyphCode != 2;
+        });
+        assertEquals(List.of(1, 2), uploaded);
+        assertTrue(upload().isEmpty());
+    }
+
+    @Test
+    public void testPrefetchOnRasterizerThread() throws Exception {
+        TestStrike strike = new TestStrike(true, false);
+        List<Thread> threads = new ArrayList<>();
+        GlyphRasterizerShim.request(strike, new GlyphList[] {new TestGlyphList(1, 2)}, task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            thread.start();
+        });
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(1, 2), codes(upload()));
+        assertTrue(strike.rasterizedWithLock);
+    }
+
+    @Test
+    public void testCompositeStrikeGlyphsArePreparedBySlotStrikes() {
+        TestStrike primary = new TestStrike(true, false);
+        TestStrike fallback = new TestStrike(true, false);
+        TestCompositeStrike strike = new TestCompositeStrike(primary, fallback);
+        assertTrue(GlyphRasterizerShim.canPrefetch(strike));
+
+        int fallbackGlyph = (1 << 24) | 9;
+        GlyphRasterizerShim.request(strike, new GlyphList[] {
+            new TestGlyphList(5, fallbackGlyph)
+        }, tasks::add);
+        runTasks();
+        List<Prepared> uploaded = upload();
+        assertEquals(List.of(5, fallbackGlyph), codes(uploaded));
+        for (Prepared glyph : uploaded) {
+            assertSame(strike, glyph.strike);
+        }
+        assertArrayEquals(new byte[] {9, 9, 9, 9, 9, 9}, uploaded.get(1).pixels);
+        assertEquals(List.of(5), primary.rasterized);
+        assertEquals(List.of(9), fallback.rasterized);
+        assertTrue(primary.rasterizedWithLock);
+        assertTrue(fallback.rasterizedWithLock);
+    }
+
+    @Test
+    public void testCompositeStrikeSkipsSlotsThatAreNotThreadSafe() {
+        TestStrike primary = new TestStrike(true, false);
+        TestStrike fallback = new TestStrike(false, false);
+        TestCompositeStrike strike = new TestCompositeStrike(primary, fallback);
+        GlyphRasterizerShim.request(strike, new GlyphList[] {
+            new TestGlyphList(5, (1 << 24) | 9)
+        }, tasks::add);
+        runTasks();
+        assertEquals(List.of(5), codes(upload()));
+        assertTrue(fallback.rasterized.isEmpty());
+
+        assertFalse(GlyphRasterizerShim.canPrefetch(new TestCompositeStrike(fallback, primary)));
+    }
+
+    static final class TestCompositeStrike extends CompositeStrikeShim {
+        final FontStrike[] slots;
+
+        TestCompositeStrike(FontStrike... slots) {
+            super(null, 12, BaseTransform.IDENTITY_TRANSFORM, 0);
+            this.slots = slots;
+        }
+
+        @Override public FontStrike getStrikeSlot(int slot) { return slots[slot]; }
+    }
+
+    static final class TestStrike implements FontStrike {
+        final boolean threadSafe;
+        final boolean drawAsShapes;
+        volatile boolean rasterizedWithLock = true;
+        final List<Integer> rasterized = new ArrayList<>();
+
+        TestStrike(boolean threadSafe, boolean drawAsShapes) {
+            this.threadSafe = threadSafe;
+            this.drawAsShapes = drawAsShapes;
+        }
+
+        @Override public boolean isRasterizerThreadSafe() { return threadSafe; }
+        @Override public boolean drawAsShapes() { return drawAsShapes; }
+        @Override public Glyph getGlyph(int glyphCode) { return new TestGlyph(this, glyphCode); }
+        @Override public Glyph getGlyph(char symbol) { return getGlyph((int) symbol); }
+        @Override public FontResource getFontResource() { return null; }
+        @Override public float getSize() { return 12; }
+        @Override public BaseTransform getTransform() { return BaseTransform.IDENTITY_TRANSFORM; }
+        @Override public int getQuantizedPosition(Point2D point) { return 0; }
+        @Override public Metrics getMetrics() { return null; }
+        @Override public void clearDesc() { }
+        @Override public int getAAMode() { return 0; }
+        @Override public float getCharAdvance(char ch) { return 0; }
+        @Override public Shape getOutline(GlyphList gl, BaseTransform transform) { return null; }
+    }
+
+    static final class TestGlyph implements Glyph {
+        // a glyph without image, like a space
+        static final int EMPTY = 32;
+
+        final TestStrike strike;
+        final int glyphCode;
+
+        TestGlyph(TestStrike strike, int glyphCode) {
+            this.strike = strike;
+            this.glyphCode = glyphCode;
+        }
+
+        @Override public byte[] getPixelData(int subPixel) {
+            if (!Thread.holdsLock(strike)) {
+                strike.rasterizedWithLock = false;
+            }
+            synchronized (strike.rasterized) {
+                strike.rasterized.add(glyphCode);
+            }
+            if (glyphCode == EMPTY) {
+                return new byte[0];
+            }
+            byte[] pixels = new byte[getWidth() * getHeight()];
+            Arrays.fill(pixels, (byte) glyphCode);
+            return pixels;
+        }
+
+        @Override public byte[] getPixelData() { return getPixelData(0); }
+        @Override public int getGlyphCode() { return glyphCode; }
+        @Override public RectBounds getBBox() { return new RectBounds(); }
+        @Override public float getAdvance() { return 4; }
+        @Override public Shape getShape() { return null; }
+        @Override public float getPixelXAdvance() { return 4; }
+        @Override public float getPixelYAdvance() { return 0; }
+        @Override public boolean isLCDGlyph() { return false; }
+        @Override public int getWidth() { return 3; }
+        @Override public int getHeight() { return 2; }
+        @Override public int getOriginX() { return 0; }
+        @Override public int getOriginY() { return -2; }
+    }
+
+    static final class TestGlyphList implements GlyphList {
+        final int[] codes;
+
+        TestGlyphList(int... codes) {
+            this.codes = codes;
+        }
+
+        @Override public int getGlyphCount() { return codes.length; }
+        @Override public int getGlyphCode(int glyphIndex) { return codes[glyphIndex]; }
+        @Override public float getPosX(int glyphIndex) { return glyphIndex * 4; }
+        @Override public float getPosY(int glyphIndex) { return 0; }
+        @Override public float getWidth() { return codes.length * 4; }
+        @Override public float getHeight() { return 12; }
+        @Override public RectBounds getLineBounds() { return new RectBounds(); }
+        @Override public Point2D getLocation() { return new Point2D(); }
+        @Override public int getCharOffset(int glyphIndex) { return glyphIndex; }
+        @Override public boolean isComplex() { return false; }
+        @Override public TextSpan getTextSpan() { return null; }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.prism.impl.packrect;
+
+import com.sun.javafx.geom.Rectangle;
+import com.sun.prism.impl.packrect.RectanglePacker;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RectanglePackerTest {
+
+    RectanglePacker packer;
+    List<Rectangle> evicted;
+
+    @Before
+    public void setUp() {
+        packer = new RectanglePacker(null, 64, 64);
+        evicted = new ArrayList<>();
+    }
+
+    private Rectangle add(int width, int height) {
+        Rectangle rect = new Rectangle(0, 0, width, height);
+        return packer.add(rect) ? rect : null;
+    }
+
+    private boolean evict(Rectangle rect, int stamp) {
+        return packer.evict(rect, stamp, (x, y, w, h) -> evicted.add(new Rectangle(x, y, w, h)));
+    }
+
+    private List<Rectangle> fill(int width, int height) {
+        List<Rectangle> rects = new ArrayList<>();
+        Rectangle rect;
+        while ((rect = add(width, height)) != null) {
+            rects.add(rect);
+        }
+        return rects;
+    }
+
+    @Test
+    public void testAddUntilFull() {
+        assertEquals(16, fill(16, 16).size());
+        assertEquals(1f, packer.getOccupancy(), 0f);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedLevelIsEvicted() {
+        List<Rectangle> rects = fill(16, 16);
+        for (Rectangle rect : rects) {
+            packer.touch(rect, rect.y == 16 ? 1 : 2);
+        }
+        Rectangle rect = new Rectangle(0, 0, 16, 16);
+        assertTrue(evict(rect, 3));
+        assertEquals(List.of(new Rectangle(0, 16, 64, 16)), evicted);
+        assertEquals(0.75f, packer.getOccupancy(), 0f);
+
+        assertTrue(packer.add(rect));
+        assertEquals(16, rect.y);
+    }
+
+    @Test
+    public void testLevelsUsedAtStampAreKept() {
+        for (Rectangle rect : fill(16, 16)) {
+            packer.touch(rect, 3);
+        }
+        assertFalse(evict(new Rectangle(0, 0, 16, 16), 3));
+        assertTrue(evicted.isEmpty());
+        assertTrue(evict(new Rectangle(0, 0, 16, 16), 4));
+    }
+
+    @Test
+    public void testAdjacentLevelsAreMerged() {
+        List<Rectangle> rects = fill(8, 8);
+        assertEquals(64, rects.size());
+        for (Rectangle rect : rects) {
+            packer.touch(rect, rect.y >= 16 && rect.y < 40 ? 1 : 2);
+        }
+        Rectangle rect = new Rectangle(0, 0, 32, 20);
+        assertTrue(evict(rect, 3));
+        assertEquals(List.of(new Rectangle(0, 16, 64, 24)), evicted);
+        assertTrue(packer.add(rect));
+        assertEquals(16, rect.y);
+    }
+
+    @Test
+    public void testLargeLevelIsSplit() {
+        Rectangle large = add(64, 40);
+        for (Rectangle rect : fill(16, 8)) {
+            packer.touch(rect, 2);
+        }
+        packer.touch(large, 1);
+
+        Rectangle rect = new Rectangle(0, 0, 16, 8);
+        assertTrue(evict(rect, 3));
+        assertEquals(List.of(new Rectangle(0, 0, 64, 40)), evicted);
+        assertTrue(packer.add(rect));
+        assertEquals(0, rect.y);
+        // the rest of the evicted level is kept as a level of its own
+        assertEquals(3 + 4, fill(16, 8).size());
+    }
+
+    @Test
+    public void testVerticalPackerEvictsColumns() {
+        packer = new RectanglePacker(null, 10, 20, 64, 64, true);
+        List<Rectangle> rects = fill(16, 16);
+        assertEquals(16, rects.size());
+        for (Rectangle rect : rects) {
+            packer.touch(rect, rect.x == 10 ? 1 : 2);
+        }
+        assertTrue(evict(new Rectangle(0, 0, 16, 16), 3));
+        assertEquals(List.of(new Rectangle(10, 20, 16, 64)), evicted);
+    }
+}
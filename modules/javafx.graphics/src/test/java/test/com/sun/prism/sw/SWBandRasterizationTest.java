@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.prism.sw;
+
+import com.sun.javafx.geom.Path2D;
+import com.sun.javafx.geom.Rectangle;
+import com.sun.javafx.geom.transform.Affine2D;
+import com.sun.prism.BasicStroke;
+import com.sun.prism.Graphics;
+import com.sun.prism.paint.Color;
+import com.sun.prism.sw.SWContextShim;
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the shapes rasterized in bands by several threads are
+ * rendered exactly as by the render thread alone.
+ */
+public class SWBandRasterizationTest {
+
+    private static final int WIDTH = 700;
+    private static final int HEIGHT = 600;
+
+    private SWContextShim banded;
+    private SWContextShim single;
+
+    @Before
+    public void setUp() {
+        banded = new SWContextShim(WIDTH, HEIGHT, 4);
+        single = new SWContextShim(WIDTH, HEIGHT, 1);
+    }
+
+    @After
+    public void tearDown() {
+        banded.dispose();
+        single.dispose();
+    }
+
+    private void assertSameAsSingleThread(Consumer<Graphics> renderer) {
+        renderer.accept(single.getGraphics());
+        renderer.accept(banded.getGraphics());
+
+        int[] expected = single.getPixels();
+        int[] actual = banded.getPixels();
+        int painted = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int i = y * WIDTH + x;
+                if (expected[i] != actual[i]) {
+                    fail("pixel (" + x + ", " + y + ") is " + Integer.toHexString(actual[i]) +
+                         " instead of " + Integer.toHexString(expected[i]));
+                }
+                if (expected[i] != 0) {
+                    painted++;
+                }
+            }
+        }
+        // sanity check, the shapes were rendered
+        assertTrue(painted > 10000);
+    }
+
+    // A star with curved edges that spans the whole target
+    private static Path2D createStar() {
+        Path2D path = new Path2D();
+        int points = 7;
+        double cx = WIDTH / 2.0, cy = HEIGHT / 2.0;
+        for (int i = 0; i < points * 2; i++) {
+            double angle = Math.PI * i / points;
+            double r = (i % 2 == 0) ? HEIGHT * 0.49 : HEIGHT * 0.17;
+            float x = (float) (cx + r * Math.sin(angle));
+            float y = (float) (cy - r * Math.cos(angle));
+            if (i == 0) {
+                path.moveTo(x, y);
+            } else {
+                path.quadTo((float) cx + 0.3f * (x - (float) cx) + 11.5f, (float) cy + 0.6f * (y - (float) cy), x, y);
+            }
+        }
+        path.closePath();
+        return path;
+    }
+
+    // Horizontal stripes with fractional edges, some of which fall on the
+    // boundaries between bands
+    private static Path2D createStripes() {
+        Path2D path = new Path2D();
+        for (float y = 3.25f; y < HEIGHT - 10; y += 7.3f) {
+            path.moveTo(20.5f, y);
+            path.lineTo(WIDTH - 20.5f, y + 0.5f);
+            path.lineTo(WIDTH - 20.5f, y + 4.1f);
+            path.lineTo(20.5f, y + 3.6f);
+            path.closePath();
+        }
+        return path;
+    }
+
+    @Test
+    public void testFillAntialiased() {
+        assertSameAsSingleThread(g -> {
+            g.setPaint(new Color(0.2f, 0.4f, 0.8f, 1f));
+            g.fill(createStar());
+        });
+    }
+
+    @Test
+    public void testFillNotAntialiased() {
+        assertSameAsSingleThread(g -> {
+            g.setAntialiasedShape(false);
+            g.setPaint(new Color(0.2f, 0.4f, 0.8f, 1f));
+            g.fill(createStar());
+        });
+    }
+
+    @Test
+    public void testFillStripesAntialiased() {
+        assertSameAsSingleThread(g -> {
+            g.setPaint(new Color(0.9f, 0.1f, 0.1f, 0.6f));
+            g.fill(createStripes());
+        });
+    }
+
+    @Test
+    public void testStrokeAntialiased() {
+        assertSameAsSingleThread(g -> {
+            g.setPaint(new Color(0f, 0.5f, 0f, 0.7f));
+            g.setStroke(new BasicStroke(9.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f));
+            g.draw(createStar());
+        });
+    }
+
+    @Test
+    public void testStrokeDashedAndRotated() {
+        assertSameAsSingleThread(g -> {
+            Affine2D tx = new Affine2D();
+            tx.rotate(Math.toRadians(17), WIDTH / 2.0, HEIGHT / 2.0);
+            g.setTransform(tx);
+            g.setPaint(new Color(0.5f, 0f, 0.5f, 1f));
+            g.setStroke(new BasicStroke(7f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 10f,
+                                        new float[] {31f, 13f}, 5f));
+            g.draw(createStar());
+        });
+    }
+
+    @Test
+    public void testInnerStroke() {
+        assertSameAsSingleThread(g -> {
+            g.setPaint(new Color(0.1f, 0.1f, 0.1f, 0.8f));
+            g.setStroke(new BasicStroke(BasicStroke.TYPE_INNER, 12f,
+                                        BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 10f));
+            g.draw(createStar());
+        });
+    }
+
+    @Test
+    public void testClipCutsThroughBands() {
+        assertSameAsSingleThread(g -> {
+            g.setClipRect(new Rectangle(37, 101, 611, 433));
+            g.setPaint(new Color(0.2f, 0.4f, 0.8f, 0.5f));
+            g.fill(createStar());
+            g.setPaint(new Color(0.9f, 0.1f, 0.1f, 0.6f));
+            g.fill(createStripes());
+            g.setPaint(new Color(0f, 0.5f, 0f, 0.7f));
+            g.setStroke(new BasicStroke(9.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f));
+            g.draw(createStar());
+        });
+    }
+
+    @Test
+    public void testOverlappingTranslucentShapes() {
+        assertSameAsSingleThread(g -> {
+            g.setPaint(new Color(0.2f, 0.4f, 0.8f, 0.5f));
+            g.fill(createStar());
+            g.setExtraAlpha(0.5f);
+            g.setPaint(new Color(0.9f, 0.1f, 0.1f, 1f));
+            g.fill(createStripes());
+        });
+    }
+
+    @Test
+    public void testBandsAreRasterizedByRasterThreads() {
+        banded.getGraphics().setPaint(new Color(0.2f, 0.4f, 0.8f, 1f));
+        banded.getGraphics().fill(createStar());
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(t -> t.getName().startsWith("SW Raster Thread")));
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2015, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -185,6 +185,16 @@ public class SelectorPartitioningTest {
                     new SimpleData("*", null, null, Color.rgb(0, green += 10, 0), true),
                     new SimpleData("*", "c", null, Color.rgb(0, green += 10, 0), true),
                     new SimpleData("*", "b.c", null, Color.rgb(0, green += 10, 0), true)
+                )},
+            new Object[] {
+                new ComplexData(
+                    SimpleSelectorShim.getSimpleSelector("A", Arrays.asList("b", "c"), null, "d"),
+                    new SimpleData("A", "b", "d", Color.rgb(0, 0, blue += 10), true),
+                    new SimpleData("*", "c", "d", Color.rgb(0, 0, blue += 10), true),
+                    new SimpleData("A", "c.b", "d", Color.rgb(0, 0, blue += 10), true),
+                    new SimpleData("A", "e", "d", Color.rgb(0, 0, blue += 10), false),
+                    new SimpleData("A", "b.e", "d", Color.rgb(0, 0, blue += 10), false),
+                    new SimpleData("A", "b", "e", Color.rgb(0, 0, blue += 10), false)
                 )}
         });
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -31,6 +31,8 @@ import com.sun.javafx.sg.prism.NGGroup;
 import com.sun.javafx.tk.Toolkit;
 import com.sun.javafx.geom.PickRay;
 import com.sun.javafx.scene.input.PickResultChooser;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javafx.scene.Group;
 import javafx.scene.GroupShim;
@@ -773,6 +775,110 @@ public class ParentTest {
         assertNull(res.getIntersectedNode());
     }
 
+    @Test
+    public void testPickingWithPickGridMatchesPickingAllChildren() {
+        Random random = new Random(7);
+        Group g = new Group();
+        for (int i = 0; i < 300; i++) {
+            Rectangle rect = new Rectangle(random.nextInt(500), random.nextInt(500),
+                    1 + random.nextInt(60), 1 + random.nextInt(60));
+            if (i % 7 == 0) {
+                rect.setRotate(random.nextInt(90));
+            }
+            if (i % 11 == 0) {
+                rect.setViewOrder(-1);
+            }
+            if (i % 13 == 0) {
+                rect.setVisible(false);
+            }
+            ParentShim.getChildren(g).add(rect);
+        }
+
+        // needed since picking doesn't work unless rooted in a scene and visible
+        Scene scene = new Scene(g);
+        stage.setScene(scene);
+        stage.show();
+        toolkit.fireTestPulse();
+
+        ParentShim.setPickGridThreshold(1);
+        try {
+            assertSamePicks(g, random);
+
+            // move some children, and some of them out of the grid
+            for (int i = 0; i < 20; i++) {
+                Rectangle rect = (Rectangle) ParentShim.getChildren(g).get(random.nextInt(300));
+                rect.setX(random.nextInt(700) - 100);
+                rect.setY(random.nextInt(700) - 100);
+            }
+            assertSamePicks(g, random);
+
+            ParentShim.getChildren(g).get(5).setViewOrder(-2);
+            ParentShim.getChildren(g).get(6).toFront();
+            ParentShim.getChildren(g).remove(7, 50);
+            assertSamePicks(g, random);
+        } finally {
+            ParentShim.setPickGridThreshold(0);
+        }
+    }
+
+    @Test
+    public void testPickGridPicksChildMovedWhileInvisible() {
+        Group g = new Group();
+        for (int i = 0; i < 100; i++) {
+            ParentShim.getChildren(g).add(new Rectangle((i % 10) * 50, (i / 10) * 50, 10, 10));
+        }
+        Rectangle rect = (Rectangle) ParentShim.getChildren(g).get(99);
+
+        // needed since picking doesn't work unless rooted in a scene and visible
+        Scene scene = new Scene(g);
+        stage.setScene(scene);
+        stage.show();
+        toolkit.fireTestPulse();
+
+        ParentShim.setPickGridThreshold(1);
+        try {
+            PickResultChooser res = new PickResultChooser();
+            NodeHelper.pickNode(g, new PickRay(455, 455, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), res);
+            assertSame(rect, res.getIntersectedNode());
+
+            rect.setVisible(false);
+            rect.setX(20);
+            rect.setY(20);
+            rect.setVisible(true);
+
+            res = new PickResultChooser();
+            NodeHelper.pickNode(g, new PickRay(25, 25, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), res);
+            assertSame(rect, res.getIntersectedNode());
+            res = new PickResultChooser();
+            NodeHelper.pickNode(g, new PickRay(455, 455, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), res);
+            assertNull(res.getIntersectedNode());
+        } finally {
+            ParentShim.setPickGridThreshold(0);
+        }
+    }
+
+    private void assertSamePicks(Group g, Random random) {
+        for (int i = 0; i < 1000; i++) {
+            double x = random.nextInt(600) - 50;
+            double y = random.nextInt(600) - 50;
+
+            PickResultChooser actual = new PickResultChooser();
+            NodeHelper.pickNode(g, new PickRay(x, y, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), actual);
+
+            // pick all children in reverse order, as picking without a grid does
+            List<Node> ordered = ParentShim.test_getViewOrderChildren(g);
+            if (ordered.isEmpty()) {
+                ordered = ParentShim.getChildren(g);
+            }
+            PickResultChooser expected = new PickResultChooser();
+            for (int j = ordered.size() - 1; j >= 0 && !expected.isClosed(); j--) {
+                NodeHelper.pickNode(ordered.get(j), new PickRay(x, y, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), expected);
+            }
+
+            assertSame("at " + x + ", " + y, expected.getIntersectedNode(), actual.getIntersectedNode());
+        }
+    }
+
     @Test
     public void testPickingChildNodeWithViewOrderSet() {
         Rectangle rect1 = new Rectangle();
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -25,11 +25,19 @@
 
 package test.javafx.scene.canvas;
 
+import com.sun.javafx.sg.prism.GrowableDataBuffer;
+import com.sun.javafx.sg.prism.NGCanvas;
+import com.sun.javafx.sg.prism.NGCanvasShim;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import javafx.geometry.VPos;
 import test.javafx.scene.NodeTest;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.CanvasShim;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.effect.BlendMode;
+import javafx.scene.image.PixelFormat;
 import test.javafx.scene.image.ImageForTesting;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.ArcType;
@@ -48,6 +56,7 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
@@ -149,6 +158,154 @@ public class CanvasTest {
         gc.strokeArc(10, 10, 100, 100, 0, 361, null);
     }
 
+    @Test public void testGCsetPixels_basic() throws Exception {
+        canvas.setWidth(600);
+        canvas.setHeight(600);
+        int[] small = new int[4 * 4];
+        gc.getPixelWriter().setPixels(0, 0, 4, 4, PixelFormat.getIntArgbInstance(), small, 0, 4);
+        int[] large = new int[600 * 600];
+        gc.getPixelWriter().setPixels(0, 0, 600, 600, PixelFormat.getIntArgbInstance(), large, 0, 600);
+        byte[] bytes = new byte[600 * 600 * 4];
+        gc.getPixelWriter().setPixels(-10, -10, 600, 600, PixelFormat.getByteBgraInstance(), bytes, 0, 600 * 4);
+
+        List<PixelWrite> writes = getPixelWrites();
+        assertEquals(3, writes.size());
+        writes.get(0).assertBounds(0, 0, 4, 4);
+        assertFalse(writes.get(0).pixels.isDirect());
+        writes.get(1).assertBounds(0, 0, 600, 600);
+        assertTrue(writes.get(1).pixels.isDirect());
+        writes.get(2).assertBounds(0, 0, 590, 590);
+        assertTrue(writes.get(2).pixels.isDirect());
+    }
+
+    @Test public void testGCsetPixels_largeWritesAreStagedOffHeap() {
+        canvas.setWidth(600);
+        canvas.setHeight(600);
+        // below and above the size of 256KB from which writes are staged off heap
+        int[] small = createPixels(200, 200);
+        gc.getPixelWriter().setPixels(10, 20, 200, 200, PixelFormat.getIntArgbInstance(), small, 0, 200);
+        int[] large = createPixels(300, 300);
+        gc.getPixelWriter().setPixels(10, 20, 300, 300, PixelFormat.getIntArgbInstance(), large, 0, 300);
+
+        List<PixelWrite> writes = getPixelWrites();
+        assertEquals(2, writes.size());
+        assertFalse(writes.get(0).pixels.isDirect());
+        writes.get(0).assertBounds(10, 20, 200, 200);
+        writes.get(0).assertPixels(small, 0, 200);
+        assertTrue(writes.get(1).pixels.isDirect());
+        writes.get(1).assertBounds(10, 20, 300, 300);
+        writes.get(1).assertPixels(large, 0, 300);
+    }
+
+    @Test public void testGCsetPixels_largeWriteWithNegativeOffsets() {
+        canvas.setWidth(600);
+        canvas.setHeight(600);
+        int[] argb = createPixels(300, 320);
+        byte[] bgra = new byte[argb.length * 4];
+        for (int i = 0; i < argb.length; i++) {
+            bgra[i * 4]     = (byte) argb[i];
+            bgra[i * 4 + 1] = (byte) (argb[i] >> 8);
+            bgra[i * 4 + 2] = (byte) (argb[i] >> 16);
+            bgra[i * 4 + 3] = (byte) (argb[i] >> 24);
+        }
+        gc.getPixelWriter().setPixels(-10, -20, 300, 320, PixelFormat.getByteBgraInstance(), bgra, 0, 300 * 4);
+        gc.getPixelWriter().setPixels(-20, -10, 300, 320, PixelFormat.getIntArgbInstance(), argb, 0, 300);
+
+        List<PixelWrite> writes = getPixelWrites();
+        assertEquals(2, writes.size());
+        assertTrue(writes.get(0).pixels.isDirect());
+        writes.get(0).assertBounds(0, 0, 290, 300);
+        writes.get(0).assertPixels(argb, 20 * 300 + 10, 300);
+        assertTrue(writes.get(1).pixels.isDirect());
+        writes.get(1).assertBounds(0, 0, 280, 310);
+        writes.get(1).assertPixels(argb, 10 * 300 + 20, 300);
+    }
+
+    @Test public void testGCsetPixels_largeWriteReusesRenderedBuffer() {
+        canvas.setWidth(600);
+        canvas.setHeight(600);
+        int[] first = createPixels(300, 300);
+        gc.getPixelWriter().setPixels(0, 0, 300, 300, PixelFormat.getIntArgbInstance(), first, 0, 300);
+        ByteBuffer rendered = getPixelWrites().get(0).pixels;
+        // what the render thread does once the pixels are uploaded
+        NGCanvasShim.recyclePixelBuffer(rendered);
+
+        int[] second = createPixels(280, 290);
+        for (int i = 0; i < second.length; i++) {
+            second[i] ^= 0x00FFFFFF;
+        }
+        gc.getPixelWriter().setPixels(5, 6, 280, 290, PixelFormat.getIntArgbInstance(), second, 0, 280);
+
+        List<PixelWrite> writes = getPixelWrites();
+        assertEquals(1, writes.size());
+        assertSame(rendered, writes.get(0).pixels);
+        assertEquals(280 * 290 * 4, writes.get(0).pixels.limit());
+        writes.get(0).assertBounds(5, 6, 280, 290);
+        writes.get(0).assertPixels(second, 0, 280);
+    }
+
+    // Opaque pixels, which are the same whether premultiplied or not
+    private static int[] createPixels(int w, int h) {
+        int[] pixels = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                pixels[y * w + x] = 0xFF000000 | (x << 12) | (y & 0xFFF);
+            }
+        }
+        return pixels;
+    }
+
+    private static final class PixelWrite {
+        final int x, y, w, h;
+        final ByteBuffer pixels;
+
+        PixelWrite(int x, int y, int w, int h, ByteBuffer pixels) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+            this.pixels = pixels;
+        }
+
+        void assertBounds(int x, int y, int w, int h) {
+            assertEquals(x, this.x);
+            assertEquals(y, this.y);
+            assertEquals(w, this.w);
+            assertEquals(h, this.h);
+        }
+
+        void assertPixels(int[] argb, int offset, int scan) {
+            for (int j = 0; j < h; j++) {
+                for (int i = 0; i < w; i++) {
+                    int index = (j * w + i) * 4;
+                    int pixel = ((pixels.get(index + 3) & 0xFF) << 24)
+                            | ((pixels.get(index + 2) & 0xFF) << 16)
+                            | ((pixels.get(index + 1) & 0xFF) << 8)
+                            | (pixels.get(index) & 0xFF);
+                    assertEquals("pixel " + i + ", " + j, argb[offset + j * scan + i], pixel);
+                }
+            }
+        }
+    }
+
+    // Reads the pixel writes recorded in the buffer of the canvas
+    private List<PixelWrite> getPixelWrites() {
+        GrowableDataBuffer buf = CanvasShim.getBuffer(canvas);
+        List<PixelWrite> writes = new ArrayList<>();
+        while (buf.hasValues()) {
+            byte command = buf.getByte();
+            if (command == NGCanvas.SET_DIMS) {
+                buf.getFloat();
+                buf.getFloat();
+            } else {
+                assertEquals(NGCanvas.PUT_ARGBPRE_BUF, command);
+                writes.add(new PixelWrite(buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt(),
+                        (ByteBuffer) buf.getObject()));
+            }
+        }
+        return writes;
+    }
+
     @Test public void testGCfillPath_basic() throws Exception {
         gc.arcTo(0, 0, 5, 5, 5);
         gc.moveTo(50, 50);
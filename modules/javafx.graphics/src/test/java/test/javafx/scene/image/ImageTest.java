@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -43,6 +43,8 @@ import java.util.LinkedList;
 import java.util.Queue;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageShim;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 
 import static org.junit.Assert.*;
 
@@ -557,4 +559,38 @@ public final class ImageTest {
     public void createImageAsyncFromUnsupportedUrlTest() {
         new Image("unsupported:image.png", true);
     }
+
+    @Test
+    public void createOffHeapWritableImageTest() {
+        final WritableImage image = new WritableImage(4, 3, true);
+        assertEquals(4, image.getWidth(), 0);
+        assertEquals(3, image.getHeight(), 0);
+        assertEquals(0, image.getPixelReader().getArgb(1, 2));
+
+        image.getPixelWriter().setArgb(1, 2, 0xff102030);
+        assertEquals(0xff102030, image.getPixelReader().getArgb(1, 2));
+    }
+
+    @Test
+    public void offHeapWritableImageIsBackedByDirectBufferTest() {
+        final WritableImage image = new WritableImage(64, 48, true);
+        final Object platformImage = Toolkit.getImageAccessor().getPlatformImage(image);
+        assertTrue(((com.sun.prism.Image) platformImage).getPixelBuffer().isDirect());
+
+        final int[] pixels = new int[64 * 48];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xff000000 | (i * 0x10203);
+        }
+        image.getPixelWriter().setPixels(0, 0, 64, 48, PixelFormat.getIntArgbInstance(), pixels, 0, 64);
+
+        final int[] read = new int[64 * 48];
+        image.getPixelReader().getPixels(0, 0, 64, 48, PixelFormat.getIntArgbInstance(), read, 0, 64);
+        assertArrayEquals(pixels, read);
+        assertEquals(pixels[47 * 64 + 63], image.getPixelReader().getArgb(63, 47));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void createOffHeapWritableImageWithInvalidSizeTest() {
+        new WritableImage(0, 3, true);
+    }
 }
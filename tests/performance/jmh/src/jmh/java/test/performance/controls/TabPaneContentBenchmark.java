@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.controls;
+
+import java.util.concurrent.TimeUnit;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.performance.util.FxBenchmarkSupport;
+
+/**
+ * Measures showing a {@link TabPane} workspace of {@link #TAB_COUNT} tabs,
+ * each holding a form, under each {@code -fx-content-policy}.
+ *
+ * <p>{@link #firstShow} creates the workspace and runs its first CSS and
+ * layout pass. {@link #selectNext} selects the next tab, which attaches its
+ * content under the lazy policies, and {@link #restyle} changes a style class
+ * on the root, which applies CSS to all attached content again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabPaneContentBenchmark {
+
+    private static final int TAB_COUNT = 30;
+    private static final int ROWS_PER_TAB = 20;
+
+    /**
+     * The value of {@code -fx-content-policy} of the tab pane.
+     */
+    @Param({"eager", "lazy", "release"})
+    public String policy;
+
+    private TabPane tabPane;
+    private StackPane root;
+    private Scene scene;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FxBenchmarkSupport.startup();
+        FxBenchmarkSupport.runAndWait(() -> {
+            root = new StackPane();
+            scene = new Scene(root, 800, 600);
+            tabPane = createWorkspace();
+            root.getChildren().setAll(tabPane);
+            layout();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            scene.setRoot(new StackPane());
+            tabPane = null;
+        });
+    }
+
+    /**
+     * Creates a new workspace and shows it.
+     */
+    @Benchmark
+    public TabPane firstShow() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            TabPane workspace = createWorkspace();
+            root.getChildren().setAll(workspace);
+            layout();
+            return workspace;
+        });
+    }
+
+    /**
+     * Selects the next tab of the workspace.
+     */
+    @Benchmark
+    public int selectNext() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            int index = (tabPane.getSelectionModel().getSelectedIndex() + 1) % TAB_COUNT;
+            tabPane.getSelectionModel().select(index);
+            layout();
+            return index;
+        });
+    }
+
+    /**
+     * Toggles a style class on the root of the scene.
+     */
+    @Benchmark
+    public boolean restyle() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            boolean dense = !root.getStyleClass().remove("dense");
+            if (dense) {
+                root.getStyleClass().add("dense");
+            }
+            layout();
+            return dense;
+        });
+    }
+
+    private TabPane createWorkspace() {
+        TabPane workspace = new TabPane();
+        workspace.setStyle("-fx-content-policy: " + policy + ";");
+        for (int i = 0; i < TAB_COUNT; i++) {
+            GridPane form = new GridPane();
+            for (int row = 0; row < ROWS_PER_TAB; row++) {
+                form.addRow(row, new Label("Field " + row), new TextField());
+            }
+            workspace.getTabs().add(new Tab("Tab " + i, form));
+        }
+        return workspace;
+    }
+
+    private void layout() {
+        root.applyCss();
+        root.layout();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.controls;
+
+import java.util.AbstractList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javafx.collections.FXCollections;
+import javafx.scene.Scene;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.StackPane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.performance.util.FxBenchmarkSupport;
+
+/**
+ * Measures scrolling a {@link ListView} whose rows have different heights.
+ *
+ * <p>Every row has one of {@code HEIGHTS.length} heights, chosen at random,
+ * so the size of the content can only be estimated from the rows that have
+ * been measured. {@link #scrollPixels} scrolls by a few rows at a time, as a
+ * mouse wheel or a drag of the content would, {@link #scrollTo} jumps to a
+ * random row and {@link #setPosition} moves the scroll bar to a random
+ * position. Each invocation includes the layout pass of the list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VirtualFlowScrollBenchmark {
+
+    private static final double[] HEIGHTS = { 18, 24, 24, 24, 36, 48, 96 };
+    private static final double SCROLL_STEP = 120;
+
+    /**
+     * The number of rows in the list.
+     */
+    @Param({"10000", "1000000"})
+    public int rowCount;
+
+    private byte[] heights;
+    private ListView<Integer> listView;
+    private VirtualFlow<?> flow;
+    private StackPane root;
+    private Scene scene;
+    private final Random random = new Random(0);
+    private double direction = 1;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FxBenchmarkSupport.startup();
+        heights = new byte[rowCount];
+        final Random rows = new Random(42);
+        for (int i = 0; i < rowCount; i++) {
+            heights[i] = (byte) rows.nextInt(HEIGHTS.length);
+        }
+        FxBenchmarkSupport.runAndWait(() -> {
+            listView = new ListView<>(FXCollections.observableList(new Rows(rowCount)));
+            listView.setCellFactory(lv -> new ListCell<Integer>() {
+                @Override protected void updateItem(Integer item, boolean empty) {
+                    super.updateItem(item, empty);
+                    if (empty || item == null) {
+                        setText(null);
+                        setPrefHeight(USE_COMPUTED_SIZE);
+                    } else {
+                        setText("Row " + item);
+                        setPrefHeight(HEIGHTS[heights[item]]);
+                    }
+                }
+            });
+            root = new StackPane(listView);
+            scene = new Scene(root, 400, 600);
+            layout();
+            flow = (VirtualFlow<?>) listView.lookup(".virtual-flow");
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            scene.setRoot(new StackPane());
+            listView = null;
+            flow = null;
+        });
+    }
+
+    /**
+     * Scrolls by {@code SCROLL_STEP} pixels, reversing the direction at
+     * either end of the list.
+     */
+    @Benchmark
+    public int scrollPixels() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            if (flow.scrollPixels(direction * SCROLL_STEP) == 0) {
+                direction = -direction;
+            }
+            layout();
+            return flow.getFirstVisibleCell().getIndex();
+        });
+    }
+
+    /**
+     * Scrolls a random row into view.
+     */
+    @Benchmark
+    public int scrollTo() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            flow.scrollTo(random.nextInt(rowCount));
+            layout();
+            return flow.getFirstVisibleCell().getIndex();
+        });
+    }
+
+    /**
+     * Moves the scroll bar to a random position.
+     */
+    @Benchmark
+    public int setPosition() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            flow.setPosition(random.nextDouble());
+            layout();
+            return flow.getFirstVisibleCell().getIndex();
+        });
+    }
+
+    private void layout() {
+        root.applyCss();
+        root.layout();
+    }
+
+    /**
+     * The rows of the list, without storing an element for each of them.
+     */
+    private static final class Rows extends AbstractList<Integer> {
+        private final int size;
+
+        Rows(int size) {
+            this.size = size;
+        }
+
+        @Override public Integer get(int index) {
+            return index;
+        }
+
+        @Override public int size() {
+            return size;
+        }
+    }
+}
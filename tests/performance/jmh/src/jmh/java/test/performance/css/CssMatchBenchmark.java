@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.css;
+
+import com.sun.javafx.css.PseudoClassState;
+import com.sun.javafx.css.StyleManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.performance.util.FxBenchmarkSupport;
+
+/**
+ * Measures the cost of matching the selectors of a stylesheet against the
+ * nodes of a scene.
+ *
+ * <p>The stylesheet has {@code ruleCount} groups of rules that use type,
+ * style class and id selectors as well as descendant and child combinators,
+ * most of which do not apply to any given node. {@link #matchPerNode}
+ * reports the time {@link StyleManager#findMatchingStyles} takes for a
+ * single node, and {@link #css} the time of a CSS pass over the whole scene
+ * after a style class change on the root.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CssMatchBenchmark {
+
+    private static final int COLUMNS = 10;
+    private static final int BATCH = 1000;
+    private static final int VARIANTS = 16;
+
+    /**
+     * The number of cells in the scene. Each cell contributes three nodes.
+     */
+    @Param({"1000", "10000"})
+    public int sceneSize;
+
+    /**
+     * The number of rule groups in the stylesheet.
+     */
+    @Param({"10", "100"})
+    public int ruleCount;
+
+    private File stylesheet;
+    private Scene scene;
+    private VBox root;
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Set<PseudoClass>[]> triggerStates = new ArrayList<>();
+    private int next;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        FxBenchmarkSupport.startup();
+        stylesheet = writeStylesheet(ruleCount);
+        FxBenchmarkSupport.runAndWait(() -> {
+            root = new VBox();
+            root.getStyleClass().add("grid");
+            for (int i = 0; i < sceneSize; i += COLUMNS) {
+                HBox row = new HBox();
+                row.getStyleClass().addAll("row", "row-" + (i / COLUMNS % VARIANTS));
+                for (int j = i; j < Math.min(i + COLUMNS, sceneSize); j++) {
+                    Rectangle rect = new Rectangle(12, 12);
+                    rect.getStyleClass().add("icon");
+                    Text text = new Text("Item " + j);
+                    text.getStyleClass().add("caption");
+                    StackPane cell = new StackPane(rect, text);
+                    cell.getStyleClass().addAll("cell", "cell-" + (j % VARIANTS));
+                    if (j % 100 == 0) {
+                        cell.setId("cell" + j / 100 % VARIANTS);
+                    }
+                    row.getChildren().add(cell);
+                }
+                root.getChildren().add(row);
+            }
+
+            scene = new Scene(root, 1024, 768);
+            scene.getStylesheets().add(stylesheet.toURI().toString());
+            root.applyCss();
+
+            collect(root, 0);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            scene.setRoot(new VBox());
+            nodes.clear();
+            triggerStates.clear();
+        });
+        stylesheet.delete();
+    }
+
+    /**
+     * Selector matching for a single node, averaged over {@code BATCH}
+     * nodes of the scene.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int matchPerNode() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            final StyleManager styleManager = StyleManager.getInstance();
+            final int size = nodes.size();
+            int ids = 0;
+            for (int n = 0; n < BATCH; n++) {
+                final int index = next;
+                next = (next + 1) % size;
+                ids += styleManager.findMatchingStyles(
+                        nodes.get(index), null, triggerStates.get(index)).getId();
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * CSS pass after a style class change on the root that affects the
+     * matching rules of every node.
+     */
+    @Benchmark
+    public void css() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            toggle = !toggle;
+            if (toggle) {
+                root.getStyleClass().add("alternate");
+            } else {
+                root.getStyleClass().remove("alternate");
+            }
+            root.applyCss();
+        });
+    }
+
+    private void collect(Node node, int depth) {
+        nodes.add(node);
+        @SuppressWarnings("unchecked")
+        final Set<PseudoClass>[] states = new PseudoClassState[depth + 1];
+        triggerStates.add(states);
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                collect(child, depth + 1);
+            }
+        }
+    }
+
+    private static File writeStylesheet(int ruleCount) throws IOException {
+        File file = File.createTempFile("CssMatchBenchmark", ".css");
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println(".grid { -fx-spacing: 2; }");
+            out.println(".alternate .cell { -fx-padding: 1; }");
+            out.println(".cell:hover .icon { -fx-fill: blue; }");
+            for (int i = 0; i < ruleCount; i++) {
+                final int v = i % VARIANTS;
+                out.printf(".group-%d .cell { -fx-padding: 2; }%n", i);
+                out.printf(".row-%d > .cell-%d { -fx-padding: 3; }%n", v, (i + 1) % VARIANTS);
+                out.printf(".panel-%d .cell-%d .icon { -fx-fill: red; }%n", i, v);
+                out.printf(".row.row-%d .caption.variant-%d { -fx-fill: green; }%n", v, i);
+                out.printf("#cell%d > Rectangle.icon { -fx-stroke: black; }%n", v);
+                out.printf("HBox.row-%d StackPane.cell-%d:focused { -fx-opacity: 0.9; }%n", v, v);
+                out.printf(".variant-%d { -fx-opacity: 0.8; }%n", i);
+                out.printf(".cell-%d.variant-%d { -fx-opacity: 0.7; }%n", v, i);
+                out.printf("Text.caption-%d { -fx-font-size: 11; }%n", i);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.fxml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import javafx.fxml.FXMLLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import test.performance.util.FxBenchmarkSupport;
+
+/**
+ * Compares loading an FXML form by parsing the document with loading it
+ * through the class generated by the FXML compiler.
+ *
+ * <p>The Gradle build compiles {@code form.fxml} ahead of time, so
+ * {@link FXMLLoader#load()} with the document's location picks up the
+ * generated class, whereas {@link FXMLLoader#load(InputStream)} always
+ * parses the document. Both variants create the same form, including its
+ * controller, and run on the benchmark thread; the controls are not part of
+ * a scene.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FXMLLoadBenchmark {
+
+    private URL location;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FxBenchmarkSupport.startup();
+        location = FXMLLoadBenchmark.class.getResource("form.fxml");
+    }
+
+    @Benchmark
+    public Object loadParsed() throws IOException {
+        FXMLLoader loader = new FXMLLoader(location);
+        try (InputStream inputStream = location.openStream()) {
+            return loader.load(inputStream);
+        }
+    }
+
+    @Benchmark
+    public Object loadCompiled() throws IOException {
+        FXMLLoader loader = new FXMLLoader(location);
+        return loader.load();
+    }
+}
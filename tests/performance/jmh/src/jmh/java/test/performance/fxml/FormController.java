@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.fxml;
+
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+
+/**
+ * Controller of the form loaded by {@link FXMLLoadBenchmark}.
+ */
+public class FormController {
+    @FXML private Label title;
+    @FXML private GridPane grid;
+    @FXML private TextField firstName;
+    @FXML private TextField lastName;
+    @FXML private TextField street;
+    @FXML private TextField city;
+    @FXML private TextField zip;
+    @FXML private ComboBox<String> country;
+    @FXML private TextField email;
+    @FXML private TextField phone;
+    @FXML private CheckBox newsletter;
+    @FXML private TextArea notes;
+    @FXML Button cancel;
+    @FXML Button save;
+
+    private boolean saved;
+
+    @FXML
+    private void initialize() {
+        country.getItems().addAll("Germany", "France", "Italy");
+    }
+
+    @FXML
+    void save(ActionEvent event) {
+        saved = true;
+    }
+
+    @FXML
+    void cancel(ActionEvent event) {
+        saved = false;
+    }
+
+    boolean isSaved() {
+        return saved;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.scene;
+
+import com.sun.javafx.geom.PickRay;
+import com.sun.javafx.scene.NodeHelper;
+import com.sun.javafx.scene.input.PickResultChooser;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.performance.util.FxBenchmarkSupport;
+
+/**
+ * Measures picking the node under the mouse in a flat {@link Group} of
+ * rectangles, laid out like the rooms of a floor plan.
+ *
+ * <p>{@link #pick} tests every child of the group, while
+ * {@link #pickWithGrid} runs with the {@code javafx.sg.pickGridThreshold}
+ * system property set, so the group only tests the children in the grid
+ * cell under the mouse. {@link #moveAndPickWithGrid} also moves a room
+ * before each pick, so the grid has to be updated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickBenchmark {
+
+    private static final int PICKS = 100;
+    private static final double ROOM_SIZE = 20;
+
+    /**
+     * The number of children of the group.
+     */
+    @Param({"1000", "10000", "60000"})
+    public int childCount;
+
+    private Group group;
+    private Stage stage;
+    private int columns;
+    private final Random random = new Random(0);
+
+    @Setup
+    public void setup() {
+        FxBenchmarkSupport.startup();
+        FxBenchmarkSupport.runAndWait(() -> {
+            group = new Group();
+            columns = (int) Math.ceil(Math.sqrt(childCount));
+            for (int i = 0; i < childCount; i++) {
+                group.getChildren().add(new Rectangle((i % columns) * ROOM_SIZE, (i / columns) * ROOM_SIZE,
+                        ROOM_SIZE - 2, ROOM_SIZE - 2));
+            }
+            // a showing stage lets the pulse synchronize the group, which
+            // would otherwise sort its children for every pick
+            stage = new Stage();
+            stage.setScene(new Scene(group, 1024, 768));
+            stage.show();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            stage.hide();
+            stage = null;
+            group = null;
+        });
+    }
+
+    /**
+     * Picks {@code PICKS} random points, testing every child.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PICKS)
+    public int pick() {
+        return FxBenchmarkSupport.callAndWait(this::pickAll);
+    }
+
+    /**
+     * Picks {@code PICKS} random points using the pick grid.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PICKS)
+    @Fork(value = 1, jvmArgsAppend = "-Djavafx.sg.pickGridThreshold=256")
+    public int pickWithGrid() {
+        return FxBenchmarkSupport.callAndWait(this::pickAll);
+    }
+
+    /**
+     * Moves a random room before picking each of {@code PICKS} random points,
+     * using the pick grid.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PICKS)
+    @Fork(value = 1, jvmArgsAppend = "-Djavafx.sg.pickGridThreshold=256")
+    public int moveAndPickWithGrid() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            int hits = 0;
+            for (int i = 0; i < PICKS; i++) {
+                Rectangle room = (Rectangle) group.getChildren().get(random.nextInt(childCount));
+                room.setX(random.nextDouble() * columns * ROOM_SIZE);
+                if (pickRandomPoint() != null) {
+                    hits++;
+                }
+            }
+            return hits;
+        });
+    }
+
+    private int pickAll() {
+        int hits = 0;
+        for (int i = 0; i < PICKS; i++) {
+            if (pickRandomPoint() != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private Node pickRandomPoint() {
+        double x = random.nextDouble() * columns * ROOM_SIZE;
+        double y = random.nextDouble() * columns * ROOM_SIZE;
+        PickResultChooser result = new PickResultChooser();
+        NodeHelper.pickNode(group, new PickRay(x, y, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), result);
+        return result.getIntersectedNode();
+    }
+}
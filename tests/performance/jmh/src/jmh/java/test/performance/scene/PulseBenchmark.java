@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.scene;
+
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.javafx.scene.NodeHelper;
+import com.sun.javafx.scene.SceneHelper;
+import com.sun.javafx.tk.Toolkit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.performance.util.FxBenchmarkSupport;
+
+/**
+ * Measures the individual phases of a scene graph pulse: the CSS pass, the
+ * layout pass, the synchronization of nodes to their {@code NGNode} peers and
+ * the rendering of the peer tree.
+ *
+ * <p>The scene is a grid of styled cells, each holding a shape and a text.
+ * Every benchmark first invalidates the state consumed by its phase, so
+ * each invocation does the same amount of work as a pulse in which the
+ * whole scene changed. Rendering goes through
+ * {@link Toolkit#renderToImage}, which renders with the current pipeline;
+ * the Gradle task runs the benchmarks with {@code prism.order=sw} on the
+ * headless Monocle platform.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PulseBenchmark {
+
+    private static final int COLUMNS = 10;
+    private static final int WIDTH = 1024;
+    private static final int HEIGHT = 768;
+
+    /**
+     * The number of cells in the scene. Each cell contributes three nodes.
+     */
+    @Param({"100", "1000", "10000"})
+    public int sceneSize;
+
+    private Scene scene;
+    private VBox root;
+    private final List<Parent> parents = new ArrayList<>();
+    private final List<Node> leaves = new ArrayList<>();
+    private Toolkit.ImageRenderingContext renderContext;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FxBenchmarkSupport.startup();
+        FxBenchmarkSupport.runAndWait(() -> {
+            root = new VBox();
+            root.getStyleClass().add("grid");
+            for (int i = 0; i < sceneSize; i += COLUMNS) {
+                HBox row = new HBox();
+                row.getStyleClass().add("row");
+                for (int j = i; j < Math.min(i + COLUMNS, sceneSize); j++) {
+                    Rectangle rect = new Rectangle(12, 12);
+                    Text text = new Text("Item " + j);
+                    StackPane cell = new StackPane(rect, text);
+                    cell.getStyleClass().add((j & 1) == 0 ? "even" : "odd");
+                    cell.getStyleClass().add("cell");
+                    row.getChildren().add(cell);
+                    parents.add(cell);
+                    leaves.add(rect);
+                    leaves.add(text);
+                }
+                root.getChildren().add(row);
+                parents.add(row);
+            }
+            parents.add(root);
+
+            scene = new Scene(root, WIDTH, HEIGHT, Color.WHITE);
+            scene.getStylesheets().add(
+                    PulseBenchmark.class.getResource("pulse.css").toExternalForm());
+
+            root.applyCss();
+            root.layout();
+            syncAll();
+
+            renderContext = new Toolkit.ImageRenderingContext();
+            renderContext.root = NodeHelper.getPeer(root);
+            renderContext.width = WIDTH;
+            renderContext.height = HEIGHT;
+            renderContext.transform = BaseTransform.IDENTITY_TRANSFORM;
+            renderContext.platformPaint = Toolkit.getToolkit().getPaint(Color.WHITE);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            scene.setRoot(new VBox());
+            parents.clear();
+            leaves.clear();
+        });
+    }
+
+    /**
+     * Cost of handing work to the FX application thread, which every other
+     * benchmark in this class includes.
+     */
+    @Benchmark
+    public void handOff() {
+        FxBenchmarkSupport.runAndWait(() -> {});
+    }
+
+    /**
+     * CSS pass after a style class change on the root that affects the
+     * matching rules of every cell.
+     */
+    @Benchmark
+    public void css() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            toggle = !toggle;
+            if (toggle) {
+                root.getStyleClass().add("alternate");
+            } else {
+                root.getStyleClass().remove("alternate");
+            }
+            root.applyCss();
+        });
+    }
+
+    /**
+     * Layout pass with every parent in the scene marked as needing layout.
+     */
+    @Benchmark
+    public void layout() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            for (int i = 0, n = parents.size(); i < n; i++) {
+                parents.get(i).requestLayout();
+            }
+            root.layout();
+        });
+    }
+
+    /**
+     * Synchronization of the whole tree to its peers after the transform of
+     * every leaf node changed.
+     */
+    @Benchmark
+    public void sync() {
+        FxBenchmarkSupport.runAndWait(() -> {
+            toggle = !toggle;
+            final double tx = toggle ? 1 : 0;
+            for (int i = 0, n = leaves.size(); i < n; i++) {
+                leaves.get(i).setTranslateX(tx);
+            }
+            syncAll();
+        });
+    }
+
+    /**
+     * Rendering of the synchronized peer tree into a {@code WIDTH x HEIGHT}
+     * render target.
+     */
+    @Benchmark
+    public Object render() {
+        return FxBenchmarkSupport.callAndWait(() -> {
+            Object image = Toolkit.getToolkit().renderToImage(renderContext);
+            renderContext.platformImage = image;
+            return image;
+        });
+    }
+
+    private void syncAll() {
+        SceneHelper.setAllowPGAccess(true);
+        try {
+            syncAll(root);
+        } finally {
+            SceneHelper.setAllowPGAccess(false);
+        }
+    }
+
+    private static void syncAll(Node node) {
+        NodeHelper.syncPeer(node);
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                syncAll(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.scene;
+
+import java.util.concurrent.TimeUnit;
+import javafx.scene.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import test.performance.util.FxBenchmarkSupport;
+
+/**
+ * Measures laying out the strings of a table column, drawn from a pool of
+ * {@code distinctCount} strings, the way a cell lays out its text when it
+ * is reused for another item.
+ *
+ * <p>The layouts are shared through the text layout cache, whose size is
+ * set by the {@code prism.cacheLayoutSize} system property. A pool whose
+ * total length exceeds the cache size measures the cost of the evictions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextLayoutBenchmark {
+
+    private static final int LAYOUTS = 1000;
+
+    /**
+     * The number of distinct strings.
+     */
+    @Param({"100", "1000", "10000"})
+    public int distinctCount;
+
+    private String[] strings;
+    private Text text;
+    private int index;
+
+    @Setup
+    public void setup() {
+        FxBenchmarkSupport.startup();
+        strings = new String[distinctCount];
+        for (int i = 0; i < distinctCount; i++) {
+            strings[i] = "Order " + i + " - shipped to warehouse " + (i % 17);
+        }
+        FxBenchmarkSupport.runAndWait(() -> text = new Text());
+    }
+
+    /**
+     * Lays out {@code LAYOUTS} strings of the pool.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LAYOUTS)
+    public double layout() {
+        return FxBenchmarkSupport.callAndWait(() -> layoutAll(0));
+    }
+
+    /**
+     * Lays out {@code LAYOUTS} strings of the pool, wrapped to a fixed width.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LAYOUTS)
+    public double layoutWrapped() {
+        return FxBenchmarkSupport.callAndWait(() -> layoutAll(120));
+    }
+
+    private double layoutAll(double wrappingWidth) {
+        text.setWrappingWidth(wrappingWidth);
+        double height = 0;
+        for (int i = 0; i < LAYOUTS; i++) {
+            text.setText(strings[index]);
+            height += text.getLayoutBounds().getHeight();
+            index = (index + 1) % distinctCount;
+        }
+        return height;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.performance.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javafx.application.Platform;
+
+/**
+ * Utility methods shared by the benchmarks for starting the JavaFX runtime
+ * and executing work on the FX application thread.
+ *
+ * <p>Every call to {@link #runAndWait} or {@link #callAndWait} costs one
+ * hand-off to the FX application thread. Benchmarks that measure very short
+ * operations should compare against a benchmark that only performs the
+ * hand-off.
+ */
+public final class FxBenchmarkSupport {
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private static boolean started;
+
+    private FxBenchmarkSupport() {
+    }
+
+    /**
+     * Starts the JavaFX runtime once per VM. Subsequent calls are no-ops.
+     */
+    public static synchronized void startup() {
+        if (started) {
+            return;
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        Platform.setImplicitExit(false);
+        Platform.startup(latch::countDown);
+        await(latch);
+        started = true;
+    }
+
+    /**
+     * Runs the given runnable on the FX application thread and waits for it
+     * to complete, rethrowing anything it threw.
+     *
+     * @param runnable the work to execute
+     */
+    public static void runAndWait(Runnable runnable) {
+        callAndWait(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls the given callable on the FX application thread and returns its
+     * result once it completes, rethrowing anything it threw.
+     *
+     * @param <T> the result type
+     * @param callable the work to execute
+     * @return the value returned by the callable
+     */
+    public static <T> T callAndWait(Callable<T> callable) {
+        if (Platform.isFxApplicationThread()) {
+            try {
+                return callable.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        final AtomicReference<T> result = new AtomicReference<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                result.set(callable.call());
+            } catch (Throwable t) {
+                error.set(t);
+            } finally {
+                latch.countDown();
+            }
+        });
+        await(latch);
+
+        Throwable t = error.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new RuntimeException(t);
+        }
+        return result.get();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timeout waiting for the FX application thread");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}